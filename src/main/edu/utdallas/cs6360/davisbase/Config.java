@@ -23,6 +23,7 @@ public final class Config {
 	public static final String USER_DATA_DIRECTORY = DATA_DIRECTORY + "/" + "user_data";
 	public static final String CATALOG_TABLE = "davisbase_tables";
 	public static final String CATALOG_COLUMN = "davisbase_columns";
+	public static final String CATALOG_INDEX = "davisbase_indexes";
 	
 	
 	/**
@@ -30,13 +31,115 @@ public final class Config {
 	 * Page, page header, and data cell size options
 	 */
 	public static final int PAGE_SIZE = 512;
+	public static final int MIN_PAGE_SIZE = 512;
+	public static final int MAX_PAGE_SIZE = 16384;
 	public static final byte PAGE_HEADER_SIZE = 8;
 	public static final byte TABLE_INTERIOR_CELL_SIZE = 8;
 	public static final byte START_OF_TABLE_INTERIOR_ROWID = 4;
 	public static final byte ROOT_PAGE_NUMBER = 0;
 	public static final byte TABLE_LEAF_CELL_HEADER_SIZE = 6;
 	public static final int MIN_ORDER_OF_TREE = 2;
+	public static final int MAX_CELLS_PER_PAGE = 255;
 	
+	/**
+	 * Page allocation options
+	 * Tree files grow by a whole extent of pages at a time and new siblings are placed in the same extent as the page
+	 * they were split from when there is room
+	 */
+	public static final int EXTENT_SIZE = 64;
+	
+	/**
+	 * Bulk load options
+	 * How full the bulk loader packs each leaf and interior page, as a fraction of the most cells a page may hold
+	 */
+	public static final double BULK_LOAD_FILL_FACTOR = 0.9;
+	
+	/**
+	 * Append options
+	 * How full the left page is left when the rightmost page of a level splits to make room for a new row, 1.0 leaves
+	 * the new right page empty
+	 */
+	public static final double APPEND_SPLIT_FILL_FACTOR = 0.9;
+	
+	/**
+	 * Concurrency options
+	 * The most pages a batch insert or a range delete keeps latched for it's changes before it commits the rows done
+	 * so far, other threads wait for those pages until the commit
+	 */
+	public static final int MAX_LATCHED_PAGES = 64;
+	
+	/**
+	 * Optimistic lock coupling options
+	 * When enabled lookups and scans descend the interior pages without latching or pinning them, they check the
+	 * versions of the pages afterwards and start over if a writer changed one. After OPTIMISTIC_RESTARTS failed
+	 * attempts, or when a page is not cached, they latch their way down instead.
+	 */
+	public static final boolean OPTIMISTIC_LOCK_COUPLING = true;
+	public static final int OPTIMISTIC_RESTARTS = 4;
+	
+	/**
+	 * File header options
+	 * The first page of every table file is a header identifying the file and recording the page size, column types,
+	 * and the tree's root page and counters. The header is logged and written as page HEADER_PAGE_NUMBER, the page
+	 * before page 0.
+	 */
+	public static final int FILE_HEADER_MAGIC = 0x44415642;
+	public static final short FILE_FORMAT_VERSION = 3;
+	public static final int HEADER_PAGE_NUMBER = -1;
+	
+	/**
+	 * Buffer pool options
+	 * The maximum number of pages cached in memory across every open tree file
+	 */
+	public static final int BUFFER_POOL_SIZE = 1024;
+	
+	/**
+	 * Page codec options
+	 * Encode and decode pages with direct ByteBuffers instead of heap ByteBuffers
+	 */
+	public static final boolean DIRECT_PAGE_BUFFERS = false;
+	
+	/**
+	 * Storage options
+	 * How table files are accessed unless a tree is given a StorageMode, the size of the chunks memory mapped files
+	 * grow by, and whether writes are forced to the storage device at the end of every operation
+	 */
+	public static final StorageMode STORAGE_MODE = StorageMode.RANDOM_ACCESS;
+	public static final int MAPPED_GROWTH_SIZE = 1 << 20;
+	public static final boolean FORCE_ON_COMMIT = false;
+	
+	/**
+	 * Write-behind options
+	 * Whether tree pages are written by the background flusher instead of as soon as they change, how often it runs,
+	 * how many pending pages of one file wake it early, how many may be pending before the writer has to write them
+	 * itself, and the most pages combined into a single write
+	 */
+	public static final boolean WRITE_BEHIND = true;
+	public static final long FLUSHER_INTERVAL_MS = 200;
+	public static final int FLUSH_THRESHOLD_PAGES = 64;
+	public static final int MAX_DIRTY_PAGES = 1024;
+	public static final int FLUSH_MAX_RUN_PAGES = 64;
+
+	/**
+	 * Write-ahead log options
+	 * Whether tree changes are logged before their pages are written, the file the log is kept in, whether the log is
+	 * forced to the storage device before a commit returns, and how long a group commit leader waits for other commits
+	 */
+	public static final boolean WAL_ENABLED = true;
+	public static final String WAL_FILE_NAME = DATA_DIRECTORY + "/" + "davisbase.wal";
+	public static final boolean WAL_FORCE_ON_COMMIT = true;
+	public static final long GROUP_COMMIT_WINDOW_MICROS = 0;
+
+	/**
+	 * Checkpoint and recovery options
+	 * How often a checkpoint is taken, how many bytes of log wake the checkpointer early, the size a log segment grows
+	 * to before a checkpoint starts a new one, and how many threads redo table files in parallel during recovery
+	 */
+	public static final long CHECKPOINT_INTERVAL_MS = 1000;
+	public static final long CHECKPOINT_LOG_BYTES = 16L << 20;
+	public static final long WAL_SEGMENT_SIZE = 4L << 20;
+	public static final int RECOVERY_THREADS = Runtime.getRuntime().availableProcessors();
+
 	/**
 	 *
 	 */
@@ -1,8 +1,13 @@
 package edu.utdallas.cs6360.davisbase;
 
 import edu.utdallas.cs6360.davisbase.DatabaseType;
+import edu.utdallas.cs6360.davisbase.trees.DataRecord;
 import edu.utdallas.cs6360.davisbase.trees.DataType;
+import edu.utdallas.cs6360.davisbase.trees.IndexTree;
+import edu.utdallas.cs6360.davisbase.trees.TableConfig;
+import edu.utdallas.cs6360.davisbase.trees.TableCursor;
 import edu.utdallas.cs6360.davisbase.trees.TableTree;
+import edu.utdallas.cs6360.davisbase.trees.WriteAheadLog;
 import edu.utdallas.cs6360.davisbase.utils.FileHandler;
 
 import java.io.IOException;
@@ -45,6 +50,9 @@ public class DavisBase {
         /* Display the welcome screen */
         splashScreen();
 
+        /* Redo changes from the write-ahead log before any table is opened */
+        recoverDataStore();
+
         /* Create data directory if it doesn't exits*/
         FileHandler.initializeDataStore();
 
@@ -81,6 +89,25 @@ public class DavisBase {
         System.out.println(line("-", 80));
     }
 
+    /**
+     * Opens the write-ahead log, which redoes every committed change that had not reached the table files when the
+     * last session ended, and reports how long the restart took
+     */
+    private static void recoverDataStore() {
+        if (!WAL_ENABLED) {
+            return;
+        }
+        try {
+            WriteAheadLog log = WriteAheadLog.getInstance();
+            if (log.getPagesRedone() > 0) {
+                System.out.println("Recovered " + log.getPagesRedone() + " pages from " + log.getRecoveryLogBytes()
+                        + " bytes of log in " + log.getRecoveryMillis() + " ms");
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
     /**
      * @param s   The String to be repeated
      * @param num The number of time to repeat String s.
@@ -116,6 +143,9 @@ public class DavisBase {
         System.out.println("SELECT <column_list> FROM <table_name> [WHERE <condition>];");
         System.out.println("\tDisplay table records whose optional <condition>");
         System.out.println("\tis <column_name> = <value>.\n");
+        System.out.println("CREATE TABLE <table_name> (<column_list>) [WITH (page_size = <bytes>)];");
+        System.out.println("\tCreate a new table, the optional page size is a power of 2");
+        System.out.println("\tfrom " + MIN_PAGE_SIZE + " to " + MAX_PAGE_SIZE + " bytes, the default is " + PAGE_SIZE + ".\n");
         System.out.println("DROP TABLE <table_name>;");
         System.out.println("\tRemove table data (i.e. all records) and its schema.\n");
         System.out.println("UPDATE TABLE <table_name> SET <column_name> = <value> [WHERE <condition>];");
@@ -276,30 +306,129 @@ public class DavisBase {
             {
                 //System.out.println("\tParsing the string:\"" + queryString + "\"");
 
-                //TEST: Create a dummy select fields to test printTable
-                String[] colName = {"name", "age"};
-                String[][] data = {{"michael del rosario", "23"}, {"matt villarreal", "22"}, {"cory krol", "21"}, {"mithl", "23"}};
-
-                //Temporary placement for getting columns and condition
-                getColumnsFromSelect(tokens);
-                getConditionStatement(tokens);
-
-                //TODO: Finish Select method with tables
-                TableTree tree = new TableTree();
-
-
-                //TODO: create a function that will get all columns in the select statement.
-                //Get column names
                 ArrayList<String> colNames = getColumnsFromSelect(tokens);
-
-                //TODO: create a function that will store the WHERE statement
                 ArrayList<String> cond = getConditionStatement(tokens);
 
+                int[] rowIdRange = {0, Integer.MAX_VALUE};
+                if (!cond.isEmpty()) {
+                    //TODO: Conditions on other columns without a covering index need to be checked against each row of the scan
+                    if (!cond.get(0).equals("rowid")) {
+                        selectFromIndex(getTableNameFromSelect(tokens), colNames, cond);
+                        return;
+                    }
+                    rowIdRange = getRowIdRange(cond);
+                    if (rowIdRange == null) {
+                        return;
+                    }
+                }
 
+                try {
+                    ArrayList<String> selected = colNames.contains("*")
+                            ? getColumnNames(getTableNameFromSelect(tokens)) : colNames;
+                    ArrayList<Integer> positions = getColumnPositions(getTableNameFromSelect(tokens), selected);
+                    if (positions == null) {
+                        return;
+                    }
+                    TableTree tree = new TableTree(getTableNameFromSelect(tokens), DatabaseType.USER);
+
+                    //Print Table
+                    try (TableCursor cursor = tree.scan(rowIdRange[0], rowIdRange[1])) {
+                        printTable(selected, positions, cursor);
+                    }
+                    tree.close();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    /**
+     * Answers a select with a condition on a column other than rowid from a covering index of the table alone, the
+     * table itself is not read. The index must start with the column of the condition and hold every selected column
+     * as an indexed or included column. The answer is only right because parseInsert and parseDelete keep every index
+     * of a table in step with it's rows.
+     *
+     * @param tableName the name of the table
+     * @param colNames the selected column names, * for every column
+     * @param cond the tokens of the condition, the column, the operator and the value
+     */
+    private static void selectFromIndex(String tableName, ArrayList<String> colNames, ArrayList<String> cond) {
+        ArrayList<IndexTree> indexes = new ArrayList<>();
+        ArrayList<ArrayList<Integer>> indexColumns = new ArrayList<>();
+        ArrayList<ArrayList<Integer>> includedColumns = new ArrayList<>();
+        try {
+            ArrayList<String> tableColumns = getColumnNames(tableName);
+            ArrayList<String> selected = colNames.contains("*") ? tableColumns : colNames;
+            ArrayList<Integer> positions = getColumnPositions(tableName, selected);
+            ArrayList<Integer> condPosition = getColumnPositions(tableName,
+                    new ArrayList<>(Collections.singletonList(cond.get(0))));
+            if (positions == null || condPosition == null) {
+                return;
+            }
 
+            getIndexesOfTable(tableName, indexes, indexColumns, includedColumns);
+            int covering = -1;
+            for (int i = 0; i < indexes.size() && covering < 0; i++) {
+                ArrayList<Integer> stored = new ArrayList<>(indexColumns.get(i));
+                stored.addAll(includedColumns.get(i));
+                if (indexColumns.get(i).get(0).equals(condPosition.get(0)) && stored.containsAll(positions)) {
+                    covering = i;
+                }
+            }
+            if (covering < 0) {
+                System.out.println("Only conditions on rowid, or on the first column of an index that includes every "
+                        + "selected column, are supported by select");
+            } else {
+                // Where each selected column is in an entry, the indexed columns, the included columns, the rowId
+                ArrayList<Integer> stored = new ArrayList<>(indexColumns.get(covering));
+                stored.addAll(includedColumns.get(covering));
+                List<String> value = Collections.singletonList(cond.get(2));
+                List<String> open = Collections.emptyList();
+                // A range below a value starts after the NULL values
+                List<String> nulls = Collections.singletonList(null);
+                List<DataRecord> entries;
+                switch (cond.get(1)) {
+                    case "=":
+                        entries = indexes.get(covering).searchEntries(value, true, value, true);
+                        break;
+                    case "<":
+                        entries = indexes.get(covering).searchEntries(nulls, false, value, false);
+                        break;
+                    case "<=":
+                        entries = indexes.get(covering).searchEntries(nulls, false, value, true);
+                        break;
+                    case ">":
+                        entries = indexes.get(covering).searchEntries(value, false, open, true);
+                        break;
+                    case ">=":
+                        entries = indexes.get(covering).searchEntries(value, true, open, true);
+                        break;
+                    default:
+                        System.out.println("Operator " + cond.get(1) + " is not supported by an index");
+                        return;
+                }
 
-                //Print Table
-                printTable(colName, data);
+                System.out.println("rowid\t" + String.join("\t", selected));
+                System.out.println(String.join("", Collections.nCopies((selected.size() + 1) * 8, "-")));
+                for (DataRecord entry : entries) {
+                    StringJoiner row = new StringJoiner("\t");
+                    row.add(entry.getColumnValue(stored.size()));
+                    for (int position : positions) {
+                        String columnValue = entry.getColumnValue(stored.indexOf(position));
+                        row.add(columnValue == null ? "NULL" : columnValue);
+                    }
+                    System.out.println(row);
+                }
+                System.out.println(entries.size() + " row(s) selected");
+            }
+        } catch (NumberFormatException e) {
+            System.out.println("SYNTAX ERROR. " + cond.get(2) + " is not a value of column " + cond.get(0));
+        } catch (IOException e) {
+            e.printStackTrace();
+        } finally {
+            for (IndexTree index : indexes) {
+                index.close();
             }
         }
     }
@@ -348,7 +477,7 @@ public class DavisBase {
                 System.out.println("\tParsing the string:\"" + deleteString + "\"");
                 ArrayList<String> con = getConditionStatement(tokens);
 
-                //TODO: Finish delete implementation
+                int[] rowIdRange = {0, Integer.MAX_VALUE};
                 if(con.size() == 0)
                 {
                     System.out.println("Deleting all records...");
@@ -356,11 +485,87 @@ public class DavisBase {
                 else
                 {
                     System.out.println("Deleting records of condition [" + con.get(0) + " " + con.get(1) + " " + con.get(2) + "]...");
+                    //TODO: Conditions on other columns need a table scan
+                    if (!con.get(0).equals("rowid")) {
+                        System.out.println("Only conditions on rowid are supported by delete");
+                        return;
+                    }
+                    rowIdRange = getRowIdRange(con);
+                    if (rowIdRange == null) {
+                        return;
+                    }
+                }
+
+                try {
+                    TableTree tree = new TableTree(tokens.get(2), DatabaseType.USER);
+                    // The entries of a row are removed from the table's indexes before the row is deleted
+                    ArrayList<IndexTree> indexes = new ArrayList<>();
+                    ArrayList<ArrayList<Integer>> indexColumns = new ArrayList<>();
+                    ArrayList<ArrayList<Integer>> includedColumns = new ArrayList<>();
+                    getIndexesOfTable(tokens.get(2), indexes, indexColumns, includedColumns);
+                    int deleted = tree.delete(rowIdRange[0], rowIdRange[1],
+                            (rowId, record) -> removeFromIndexes(indexes, indexColumns, rowId, record));
+                    tree.close();
+                    for (IndexTree index : indexes) {
+                        index.close();
+                    }
+                    System.out.println(deleted + " record(s) deleted");
+                } catch (IOException e) {
+                    e.printStackTrace();
                 }
             }
         }
     }
 
+    /**
+     * Turns a condition on the rowid column into the range of rowIds it matches. The bounds are worked out as longs
+     * and clamped to the rowIds a table can hold, so a condition past either end of an int matches nothing rather
+     * than wrapping around.
+     * @param con the condition tokens, column name, operator, and value
+     * @return the first and last rowId matched, the first is larger than the last if no rowId matches, null if the
+     * condition cannot be used
+     */
+    static int[] getRowIdRange(ArrayList<String> con) {
+        int rowId;
+        try {
+            rowId = Integer.parseInt(con.get(2));
+        } catch (NumberFormatException e) {
+            System.out.println("SYNTAX ERROR. rowid must be compared to an integer");
+            return null;
+        }
+        long first;
+        long last;
+        switch (con.get(1)) {
+            case "=":
+                first = rowId;
+                last = rowId;
+                break;
+            case "<":
+                first = 0;
+                last = rowId - 1L;
+                break;
+            case "<=":
+                first = 0;
+                last = rowId;
+                break;
+            case ">":
+                first = rowId + 1L;
+                last = Integer.MAX_VALUE;
+                break;
+            case ">=":
+                first = rowId;
+                last = Integer.MAX_VALUE;
+                break;
+            default:
+                System.out.println("Operator " + con.get(1) + " is not supported on rowid");
+                return null;
+        }
+        if (first > last || first > Integer.MAX_VALUE || last < 0) {
+            return new int[]{1, 0};
+        }
+        return new int[]{(int) Math.max(first, 0), (int) last};
+    }
+
 
     /**
      * Stub method for creating new tables
@@ -373,7 +578,11 @@ public class DavisBase {
         //System.out.println("STUB: Calling your method to create a table");
         //System.out.println("Parsing the string:\"" + createTableString + "\"");
 
-        if (!checkCreateTable(createTableString)) {
+        // The optional WITH clause is parsed on it's own, the rest of the statement is checked as before
+        int pageSize = getPageSizeFromCreateQuery(cleanCommand(createTableString));
+        createTableString = removeWithClause(createTableString);
+
+        if (pageSize < 0 || !checkCreateTable(createTableString)) {
             return;
         } else {
             //TEST: See a success message. create table tablename ( rowid int  primary key , ab text);
@@ -387,7 +596,7 @@ public class DavisBase {
             String tablename = tokens.get(2);
 
 
-            TableTree tableTree = new TableTree(tablename, colTypes);
+            TableTree tableTree = new TableTree(tablename, colTypes, pageSize);
 
             //Create table trees objects for the metadata
             TableTree metaDataTables = new TableTree("davisbase_tables", DatabaseType.CATALOG);
@@ -429,7 +638,7 @@ public class DavisBase {
                 columns.add(tokens.get(2));
                 columns.add(columnNames.get(i));
                 columns.add(DataType.getDataTypeString(columnDataTypeArray.get(i)));
-                columns.add(ordinalPositionArray.toString());
+                columns.add(ordinalPositionArray.get(i));
                 columns.add(isColumnNullableArray.get(i));
                 ArrayList <DataType> dt = new ArrayList<DataType>();
                 dt.add(DataType.TEXT_TYPE_CODE);
@@ -452,6 +661,11 @@ public class DavisBase {
     }
 
     /**
+     * Creates an index on columns of an existing table and adds an entry for every row already in the table. The
+     * index is recorded in davisbase_indexes so inserts into the table keep it up to date.
+     * A unique index is not created if two rows of the table have the same values. The columns of an INCLUDE list are
+     * stored in the index next to every entry, so selects that only need them are answered from the index.
+     *
      * @param createIndexString string
      */
     private static void parseCreateIndex(String createIndexString) {
@@ -462,18 +676,87 @@ public class DavisBase {
             {
                 System.out.println("\tParsing the string:\"" + createIndexString + "\"");
 
+                String tableName = getTableNameFromCreateIndex(tokens);
                 String indexName = getIndexNameFromCreateIndex(tokens);
                 String isUnique = isUniqueIndex(tokens);
                 ArrayList<String> columns = getColumnsFromCreateIndex(tokens);
+                ArrayList<String> included = getIncludedColumnsFromCreateIndex(tokens);
+
+                String indexFileName = FileHandler.getIndexFileName(indexName, DatabaseType.USER);
+                if (FileHandler.doesTableExist(indexFileName)) {
+                    System.out.println("Index " + indexName + " already exists");
+                    return;
+                }
 
-                //TODO: Finish create index implementation
+                try {
+                    ArrayList<Integer> positions = getColumnPositions(tableName, columns);
+                    ArrayList<Integer> includedPositions = getColumnPositions(tableName, included);
+                    if (positions == null || includedPositions == null) {
+                        return;
+                    }
+                    TableTree table = new TableTree(tableName, DatabaseType.USER);
+                    ArrayList<DataType> keyTypes = new ArrayList<>();
+                    for (int position : positions) {
+                        keyTypes.add(table.getColTypes().get(position));
+                    }
+                    ArrayList<DataType> includedTypes = new ArrayList<>();
+                    for (int position : includedPositions) {
+                        includedTypes.add(table.getColTypes().get(position));
+                    }
 
+                    IndexTree index = new IndexTree(indexName, keyTypes, includedTypes, Boolean.parseBoolean(isUnique));
+                    boolean built = true;
+                    try (TableCursor cursor = table.scan()) {
+                        while (built && cursor.hasNext()) {
+                            DataRecord record = cursor.next();
+                            built = index.insert(getIndexKeys(record, positions),
+                                    getIndexKeys(record, includedPositions), cursor.getRowId());
+                            if (!built) {
+                                System.out.println("Unique index " + indexName + " not created, row "
+                                        + cursor.getRowId() + " has the same value as another row: "
+                                        + record.getColumnValues());
+                            }
+                        }
+                    }
+                    table.close();
+                    index.close();
+                    if (!built) {
+                        FileHandler.deleteFile(indexFileName);
+                        return;
+                    }
+
+                    TableTree metaDataIndexes = new TableTree(CATALOG_INDEX, DatabaseType.CATALOG);
+                    ArrayList<DataType> indexRowTypes = new ArrayList<>();
+                    ArrayList<String> indexRow = new ArrayList<>();
+                    indexRow.add(indexName);
+                    indexRow.add(tableName);
+                    StringJoiner indexColumns = new StringJoiner(",");
+                    for (int position : positions) {
+                        indexColumns.add(Integer.toString(position));
+                    }
+                    indexRow.add(indexColumns.toString());
+                    indexRow.add(isUnique);
+                    StringJoiner includedColumns = new StringJoiner(",");
+                    for (int position : includedPositions) {
+                        includedColumns.add(Integer.toString(position));
+                    }
+                    indexRow.add(includedColumns.toString());
+                    for (int i = 0; i < indexRow.size(); i++) {
+                        indexRowTypes.add(DataType.TEXT_TYPE_CODE);
+                    }
+                    metaDataIndexes.insert(indexRowTypes, indexRow);
+                    metaDataIndexes.close();
+                    System.out.println("Index " + indexName + " created");
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
             }
         }
     }
 
     /**
-     * Stub method for inserting a row into an existing table.
+     * Inserts the rows of an insert statement into an existing table. Every value list of a multi-row insert is
+     * inserted in one batch.
      *
      * @param insertString is a String of the user input
      */
@@ -486,20 +769,41 @@ public class DavisBase {
                 System.out.println("\tParsing the string:\"" + insertString + "\"");
 
 
-                //ArrayList<DataType> columns = getColumnsFromInsert(tokens);
-                ArrayList<String> values = getValuesFromInsert(tokens);
-
-                //TODO: Finish insert implementation. Getting "java.lang.NullPointerException" here
-//        		TableTree tb;
-//				try {
-//					tb = new TableTree(getTableNameFromInsert(tokens), DatabaseType.USER);
-//					tb.insert(tb.getTreeConfig().getColTypes(), values);
-//				} catch (IOException e) {
-//					// TODO Auto-generated catch block
-//					e.printStackTrace();
-//				}
-
+                //TODO: Map the listed columns to their ordinal positions once the catalog records them
+                ArrayList<ArrayList<String>> rows = getValueRowsFromInsert(tokens);
 
+                try {
+                    TableTree tree = new TableTree(getTableNameFromInsert(tokens), DatabaseType.USER);
+                    ArrayList<DataType> colTypes = tree.getColTypes();
+                    for (ArrayList<String> values : rows) {
+                        if (values.size() != colTypes.size()) {
+                            System.out.println("Every row must have a value for each of the " + colTypes.size()
+                                    + " columns of the table");
+                            tree.close();
+                            return;
+                        }
+                    }
+                    // The entries of a row are added to the table's indexes before the row is written, a row a unique
+                    // index turns down is left out
+                    ArrayList<IndexTree> indexes = new ArrayList<>();
+                    ArrayList<ArrayList<Integer>> indexColumns = new ArrayList<>();
+                    ArrayList<ArrayList<Integer>> includedColumns = new ArrayList<>();
+                    getIndexesOfTable(getTableNameFromInsert(tokens), indexes, indexColumns, includedColumns);
+                    try {
+                        int inserted = tree.insertBatch(colTypes, rows,
+                                (rowId, record) -> addToIndexes(indexes, indexColumns, includedColumns, rowId, record));
+                        System.out.println(inserted + " record(s) inserted");
+                    } catch (IllegalArgumentException e) {
+                        // Every row is checked before any is inserted
+                        System.out.println("SYNTAX ERROR. " + e.getMessage() + ", no record inserted");
+                    }
+                    tree.close();
+                    for (IndexTree index : indexes) {
+                        index.close();
+                    }
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
             }
         }
 
@@ -706,10 +1010,12 @@ public class DavisBase {
          * C = column list portion
          * V = values portion
          * A = value list portion
-         * E = end
+         * E = end, or a comma before another value list
+         * R = the next value list of a multi-row insert
          */
         char state = 'I';
         int args = 0;
+        int columns = 0;
 
         for (int itr = 1; itr < tokens.size(); itr++) {
             //TEST: see iteration, string, and state.
@@ -741,6 +1047,7 @@ public class DavisBase {
                                 state = '0';
                             } else if (tokens.get(itr).equals(")")) {
                                 state = 'V';
+                                columns = args;
                             }
 
                         }
@@ -773,6 +1080,21 @@ public class DavisBase {
 
                     }
                     break;
+                case 'E':
+                    if (itr % 2 == 0 && tokens.get(itr).equals(",")) {
+                        state = 'R';
+                    } else {
+                        state = '0';
+                    }
+                    break;
+                case 'R':
+                    if (tokens.get(itr).equals("(")) {
+                        state = 'A';
+                        args = columns;
+                    } else {
+                        state = '0';
+                    }
+                    break;
                 default:
                     System.out.println("SYNTAX ERROR. Insert statement is incorrect. "
                             + " Format is \"INSERT INTO 'columns list' VALUES 'values list'\"");
@@ -902,7 +1224,10 @@ public class DavisBase {
          * I = Index name portion
          * T = on table_name portion
          * L = Column list portion
-         * E = end
+         * E = end, or the INCLUDE keyword
+         * N = Included column name portion
+         * M = Included column list separator portion
+         * F = end after the INCLUDE list
          */
         char state = 'C';
         int unique = 0;
@@ -950,17 +1275,44 @@ public class DavisBase {
                         }
                     }
                     break;
+                case 'E':
+                    if (tokens.get(itr).equals("include") && itr + 1 < tokens.size()
+                            && tokens.get(itr + 1).equals("(")) {
+                        itr++;
+                        state = 'N';
+                    } else {
+                        state = '0';
+                    }
+                    break;
+                case 'N':
+                    if (nameCheck(tokens.get(itr))) {
+                        state = 'M';
+                    } else {
+                        state = '0';
+                    }
+                    break;
+                case 'M':
+                    if (tokens.get(itr).equals(",")) {
+                        state = 'N';
+                    } else if (tokens.get(itr).equals(")")) {
+                        state = 'F';
+                    } else {
+                        state = '0';
+                    }
+                    break;
                 default:
                     System.out.println("SYNTAX ERROR. Create Index statement is incorrect. "
-                            + " Format is \"CREATE [UNIQUE] INDEX 'index_name' ON 'table_name' 'column list'\"");
+                            + " Format is \"CREATE [UNIQUE] INDEX 'index_name' ON 'table_name' 'column list'"
+                            + " [INCLUDE 'column list']\"");
                     return false;
             }
         }
 
-        //If state is not E, then the structure of the statement is incorrect.
-        if (state != 'E') {
+        //If state is not E or F, then the structure of the statement is incorrect.
+        if (state != 'E' && state != 'F') {
             System.out.println("SYNTAX ERROR. Create Index statement is not structure properly. "
-                    + " Format is \"CREATE [UNIQUE] INDEX 'index_name' ON 'table_name' 'column list'\"");
+                    + " Format is \"CREATE [UNIQUE] INDEX 'index_name' ON 'table_name' 'column list'"
+                    + " [INCLUDE 'column list']\"");
             return false;
         } else {
             return true;
@@ -1169,6 +1521,66 @@ public class DavisBase {
         return command;
     }
 
+    /**
+     * Finds the index of the WITH keyword that follows the column list of a create query
+     * @param tokens query tokens
+     * @return the index of the WITH token, -1 if the query has no WITH clause
+     */
+    private static int getWithClauseIndex(ArrayList<String> tokens) {
+        for (int i = 1; i < tokens.size(); i++) {
+            if (tokens.get(i).equals("with") && tokens.get(i - 1).equals(")")) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Removes the WITH clause from a create query so the rest of it can be checked and parsed
+     * @param createTableString is a String of the user input
+     * @return the create query up to the end of the column list
+     */
+    private static String removeWithClause(String createTableString) {
+        ArrayList<String> tokens = cleanCommand(createTableString);
+        int withIndex = getWithClauseIndex(tokens);
+        if (withIndex < 0) {
+            return createTableString;
+        }
+        return String.join(" ", tokens.subList(0, withIndex));
+    }
+
+    /**
+     * Get the page size from the WITH (page_size = n) clause of a create query
+     * @param tokens query tokens
+     * @return the page size, Config.PAGE_SIZE if there is no WITH clause, -1 if the clause is not valid
+     */
+    private static int getPageSizeFromCreateQuery(ArrayList<String> tokens) {
+        int withIndex = getWithClauseIndex(tokens);
+        if (withIndex < 0) {
+            return PAGE_SIZE;
+        }
+
+        // Expecting: with ( page_size = n )
+        List<String> clause = tokens.subList(withIndex + 1, tokens.size());
+        if (clause.size() != 5 || !clause.get(0).equals("(") || !clause.get(1).equals("page_size") ||
+                !clause.get(2).equals("=") || !clause.get(4).equals(")")) {
+            System.out.println("SYNTAX ERROR. WITH clause is not structured properly. "
+                    + " Format is \"WITH (page_size = n)\"");
+            return -1;
+        }
+
+        try {
+            int pageSize = Integer.parseInt(clause.get(3));
+            if (TableConfig.isValidPageSize(pageSize)) {
+                return pageSize;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        System.out.println("ERROR. Page size must be a power of 2 from " + MIN_PAGE_SIZE + " to " + MAX_PAGE_SIZE);
+        return -1;
+    }
+
     /**
      * Get column name to column type map from create query
      * @param tokens query tokens
@@ -1254,7 +1666,7 @@ public class DavisBase {
 
         for(int i = 0; i < colTypes.size(); i++)
         {
-            columnArrayList.add(DataType.TEXT_TYPE_CODE);
+            columnArrayList.add(colTypes.get(i));
         }
 
         return columnArrayList;
@@ -1380,6 +1792,33 @@ public class DavisBase {
         }
     }
 
+    /**
+     * Method to Print a table as the rows are read from a cursor, the rows are never all held in memory so the columns
+     * are separated by a single tab
+     * @param colNames the names of the selected columns, the rowid is printed before them
+     * @param positions the ordinal positions of the selected columns
+     * @param cursor a cursor over the rows to print
+     */
+    private static void printTable(ArrayList<String> colNames, ArrayList<Integer> positions, TableCursor cursor)
+    {
+        System.out.println("rowid\t" + String.join("\t", colNames));
+        System.out.println(String.join("", Collections.nCopies((colNames.size() + 1) * 8, "-")));
+
+        int numOfRows = 0;
+        while (cursor.hasNext()) {
+            DataRecord record = cursor.next();
+            StringJoiner row = new StringJoiner("\t");
+            row.add(Integer.toString(cursor.getRowId()));
+            for (int position : positions) {
+                String columnValue = record.getColumnValue(position);
+                row.add(columnValue == null ? "NULL" : columnValue);
+            }
+            System.out.println(row);
+            numOfRows++;
+        }
+        System.out.println(numOfRows + " row(s) selected");
+    }
+
     /**
      * Get a table name from the select query
      * @param tokens
@@ -1563,20 +2002,30 @@ public class DavisBase {
     }
 
     /**
-     * Create an array for storing the values for insert statement
+     * Create an array for storing the values of each row of an insert statement
      * @param tokens
-     * @return String array
+     * @return an array of the values of each value list, in order
      */
-    private static ArrayList<String> getValuesFromInsert(ArrayList<String> tokens)
+    private static ArrayList<ArrayList<String>> getValueRowsFromInsert(ArrayList<String> tokens)
     {
-        ArrayList<String> values = new ArrayList<String>();
+        ArrayList<ArrayList<String>> rows = new ArrayList<>();
+        ArrayList<String> values = null;
         int index = 0;
         boolean record = false;
 
         while(index<tokens.size())
         {
 
-            if(record && !tokens.get(index).equals("(") && !tokens.get(index).equals(",") && !tokens.get(index).equals(")"))
+            if(record && tokens.get(index).equals("("))//Start a new row at each value list
+            {
+                values = new ArrayList<>();
+                rows.add(values);
+            }
+            else if(tokens.get(index).equals(")"))
+            {
+                values = null;
+            }
+            else if(values != null && !tokens.get(index).equals(","))
             {
                 values.add((tokens.get(index)));
             }
@@ -1588,10 +2037,153 @@ public class DavisBase {
         }
 
         //TEST: See return variable.
-//    	for(int i=0;i<values.size();i++)
-//    		System.out.println(values.get(i));
+//    	for(int i=0;i<rows.size();i++)
+//    		System.out.println(rows.get(i));
 
-        return values;
+        return rows;
+    }
+
+    /**
+     * Looks up the names of the columns of a table in davisbase_columns
+     * @param tableName the name of the table
+     * @return the column names in the order of their ordinal positions
+     * @throws IOException if davisbase_columns can't be opened
+     */
+    private static ArrayList<String> getColumnNames(String tableName) throws IOException {
+        TreeMap<Integer, String> tableColumns = new TreeMap<>();
+        TableTree metaDataColumns = new TableTree(CATALOG_COLUMN, DatabaseType.CATALOG);
+        try (TableCursor cursor = metaDataColumns.scan()) {
+            while (cursor.hasNext()) {
+                List<String> row = cursor.next().getColumnValues();
+                if (row.get(0).equals(tableName)) {
+                    tableColumns.put(Integer.parseInt(row.get(3)), row.get(1));
+                }
+            }
+        }
+        metaDataColumns.close();
+        return new ArrayList<>(tableColumns.values());
+    }
+
+    /**
+     * Looks up the ordinal positions of columns of a table in davisbase_columns
+     * @param tableName the name of the table
+     * @param columns the names of the columns
+     * @return the ordinal positions in the order of the names, null if the table has no column with one of the names
+     * @throws IOException if davisbase_columns can't be opened
+     */
+    private static ArrayList<Integer> getColumnPositions(String tableName, ArrayList<String> columns)
+            throws IOException {
+        ArrayList<String> tableColumns = getColumnNames(tableName);
+        ArrayList<Integer> positions = new ArrayList<>();
+        for (String column : columns) {
+            if (!tableColumns.contains(column)) {
+                System.out.println("Table " + tableName + " has no column " + column);
+                return null;
+            }
+            positions.add(tableColumns.indexOf(column));
+        }
+        return positions;
+    }
+
+    /**
+     * Opens the indexes of a table recorded in davisbase_indexes. An index whose file is missing is skipped.
+     * @param tableName the name of the table
+     * @param indexes filled with the open indexes
+     * @param indexColumns filled with the ordinal positions of the columns of each index
+     * @param includedColumns filled with the ordinal positions of the included columns of each index
+     * @throws IOException if davisbase_indexes can't be opened
+     */
+    private static void getIndexesOfTable(String tableName, ArrayList<IndexTree> indexes,
+                                          ArrayList<ArrayList<Integer>> indexColumns,
+                                          ArrayList<ArrayList<Integer>> includedColumns) throws IOException {
+        TableTree metaDataIndexes = new TableTree(CATALOG_INDEX, DatabaseType.CATALOG);
+        try (TableCursor cursor = metaDataIndexes.scan()) {
+            while (cursor.hasNext()) {
+                List<String> row = cursor.next().getColumnValues();
+                if (!row.get(1).equals(tableName)) {
+                    continue;
+                }
+                try {
+                    IndexTree index = new IndexTree(row.get(0), DatabaseType.USER);
+                    indexes.add(index);
+                    indexColumns.add(getPositionList(row.get(2)));
+                    includedColumns.add(getPositionList(row.get(4)));
+                } catch (IOException e) {
+                    System.out.println("Index " + row.get(0) + " of table " + tableName + " is missing");
+                }
+            }
+        }
+        metaDataIndexes.close();
+    }
+
+    /**
+     * Reads a list of ordinal positions stored in davisbase_indexes
+     * @param positions the positions separated by commas, empty for none
+     * @return the positions
+     */
+    private static ArrayList<Integer> getPositionList(String positions) {
+        ArrayList<Integer> list = new ArrayList<>();
+        for (String position : positions.split(",")) {
+            if (!position.isEmpty()) {
+                list.add(Integer.parseInt(position));
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Returns the values of the indexed columns of a row
+     * @param record the row
+     * @param positions the ordinal positions of the indexed columns
+     * @return the values the way IndexTree takes them, null for a NULL value
+     */
+    private static ArrayList<String> getIndexKeys(DataRecord record, ArrayList<Integer> positions) {
+        ArrayList<String> keys = new ArrayList<>();
+        for (int position : positions) {
+            keys.add(record.getColumnValue(position));
+        }
+        return keys;
+    }
+
+    /**
+     * Adds the entries of a new row to the indexes of it's table. If a unique index already has the values of the
+     * row for another row, the entries added to the indexes before it are removed again and the row is turned down.
+     * @param indexes the indexes of the table
+     * @param indexColumns the ordinal positions of the columns of each index
+     * @param includedColumns the ordinal positions of the included columns of each index
+     * @param rowId the rowId the row is given
+     * @param record the row
+     * @return true if the row is in every index, false if a unique index turned it down
+     */
+    private static boolean addToIndexes(ArrayList<IndexTree> indexes, ArrayList<ArrayList<Integer>> indexColumns,
+                                        ArrayList<ArrayList<Integer>> includedColumns, int rowId, DataRecord record) {
+        for (int i = 0; i < indexes.size(); i++) {
+            if (!indexes.get(i).insert(getIndexKeys(record, indexColumns.get(i)),
+                    getIndexKeys(record, includedColumns.get(i)), rowId)) {
+                System.out.println("Duplicate value for a unique index, row not inserted: " + record.getColumnValues());
+                for (int j = 0; j < i; j++) {
+                    indexes.get(j).delete(getIndexKeys(record, indexColumns.get(j)), rowId);
+                }
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Removes the entries of a row that is being deleted from the indexes of it's table
+     * @param indexes the indexes of the table
+     * @param indexColumns the ordinal positions of the columns of each index
+     * @param rowId the rowId of the row
+     * @param record the row
+     * @return true, the row is always deleted
+     */
+    private static boolean removeFromIndexes(ArrayList<IndexTree> indexes, ArrayList<ArrayList<Integer>> indexColumns,
+                                             int rowId, DataRecord record) {
+        for (int i = 0; i < indexes.size(); i++) {
+            indexes.get(i).delete(getIndexKeys(record, indexColumns.get(i)), rowId);
+        }
+        return true;
     }
 
     /**
@@ -1688,6 +2280,9 @@ public class DavisBase {
             if(tokens.get(index).equals("("))//Start adding elements after table name token
                 record = true;
 
+            if(tokens.get(index).equals(")"))//The INCLUDE list that may follow is not part of the index columns
+                break;
+
             index++;
         }
 
@@ -1697,4 +2292,27 @@ public class DavisBase {
 
         return colNames;
     }
+
+    /**
+     * Create an array for storing the column names of the INCLUDE list of a create index statement
+     * @param tokens
+     * @return String array, empty if the statement has no INCLUDE list
+     */
+    private static ArrayList<String> getIncludedColumnsFromCreateIndex(ArrayList<String> tokens)
+    {
+        ArrayList<String> colNames = new ArrayList<>();
+        int index = tokens.indexOf("include");
+
+        while(index >= 0 && index < tokens.size() && !tokens.get(index).equals(")"))
+        {
+            if(!tokens.get(index).equals("include") && !tokens.get(index).equals("(") && !tokens.get(index).equals(","))
+            {
+                colNames.add(tokens.get(index));
+            }
+
+            index++;
+        }
+
+        return colNames;
+    }
 }
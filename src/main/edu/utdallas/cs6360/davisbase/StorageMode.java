@@ -0,0 +1,14 @@
+package edu.utdallas.cs6360.davisbase;
+
+/**
+ * An enum class to choose how a table file is accessed, through a RandomAccessFile/FileChannel with a read or write
+ * call per page or by mapping the file into memory with a MappedByteBuffer
+ * @author Charles Krol
+ * @author Matthew Villarreal
+ * @author Michael Del Rosario
+ * @author Mithil Vijay
+ */
+public enum StorageMode {
+	RANDOM_ACCESS,
+	MEMORY_MAPPED
+}
@@ -0,0 +1,849 @@
+package edu.utdallas.cs6360.davisbase.trees;
+
+import edu.utdallas.cs6360.davisbase.DatabaseType;
+import edu.utdallas.cs6360.davisbase.StorageMode;
+import edu.utdallas.cs6360.davisbase.utils.FileHandler;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static edu.utdallas.cs6360.davisbase.Config.*;
+
+/**
+ * The part of a B+Tree that does not depend on what the tree is keyed by, shared by TableTree and IndexTree.<br>
+ *
+ * A BPlusTree owns the tree's file and everything between the pages and the storage device: the file header and the
+ * TreeMetadata in it, the free space map pages are allocated from, the buffer pool pages are read through, the page
+ * flusher that writes them back, and the write-ahead log their changes are committed to. It also provides the page
+ * latches the trees couple on the way down, and the Operation every thread collects it's changed pages in until it
+ * commits them as one transaction.<br>
+ *
+ * The subclasses only decide what a page holds and how it is searched. They give the page a new tree starts with and
+ * rebuild their pages from the bytes read from the file, everything else about the file is the same for every tree.
+ * The root is always page 0, a root that splits or collapses is replaced by a new page object.
+ *
+ * @author Charles Krol
+ * @author Matthew Villarreal
+ * @author Michael Del Rosario
+ * @author Mithil Vijay
+ */
+public abstract class BPlusTree {
+	/**
+	 * A logger that logs things for logging purposes
+	 */
+	private static final Logger LOGGER = Logger.getLogger(BPlusTree.class.getName());
+	
+	/**
+	 * The name of the database this tree supports
+	 */
+	String databaseName;
+	/**
+	 * The fully qualified filename for the file.
+	 * TODO: Might not need to store
+	 */
+	String fileName;
+	
+	/**
+	 * The PageFile for the database. Saved so we do not have the make writes immediately to file, they can wait
+	 * until they are absolutely necessary
+	 */
+	PageFile tableFile;
+	
+	/**
+	 * How the file is accessed, through a RandomAccessFile or by mapping it into memory
+	 */
+	StorageMode storageMode;
+	
+	/**
+	 * The page cache shared by every tree, pages are requested through it so repeated visits to the same page on the
+	 * way down the tree do not have to go back to the file
+	 */
+	final BufferPool bufferPool = BufferPool.getInstance();
+	
+	/**
+	 * Tracks which pages of the file are in use so new pages can be allocated without searching the file. Read from
+	 * the file the first time it is needed, see `getFreeSpaceMap`.
+	 */
+	private volatile FreeSpaceMap freeSpaceMap;
+	
+	/**
+	 * Writes changed pages to the file in the background, in page number order
+	 */
+	PageFlusher pageFlusher;
+	
+	/**
+	 * The write-ahead log changes are logged to before their pages reach the page flusher, null when Config.WAL_ENABLED
+	 * is off
+	 */
+	WriteAheadLog writeAheadLog;
+	
+	/**
+	 * The operation each thread has in progress on the tree, see Operation
+	 */
+	final ThreadLocal<Operation> operation = ThreadLocal.withInitial(Operation::new);
+	
+	/**
+	 * An enumarator that can take on the values of USER to represent a database created by the user or CATALOG to
+	 * represent a database created by the software to help manage the database
+	 */
+	DatabaseType databaseType;
+	
+	/**
+	 * 	Holds metadata about the tree's configuration that all must be easily transferred between pages as we traverse
+	 * 	into the tree(#columns/types/etc) and calculates information about B-Trees such as as tree's degree degree.
+	 */
+	TableConfig treeConfig;
+	
+	/**
+	 * The header of the tree's file, it's metadata is the root page, height and counters of the tree as of the last
+	 * committed operation. Every operation that changes them logs a new header with it's pages. Replaced while holding
+	 * `commitLock`.
+	 */
+	volatile FileHeader fileHeader;
+	
+	/**
+	 * Held while an operation takes it's share of the free space map, logs it's pages along with a new header, and
+	 * appends it's commit record, so the headers follow each other in the log in the order of the metadata they hold
+	 */
+	private final Object commitLock = new Object();
+	
+	/**
+	 * The number of headers logged, and the number of the newest one handed to the page flusher. A header that reaches
+	 * the page flusher after a newer one is dropped. Guarded by `commitLock`.
+	 */
+	private long headerSequence;
+	private long flushedHeaderSequence;
+
+	/**
+	 * Can used in conjunction with `largestPageNumber` to determine if a new page should be inserted at the end or if a
+	 * better location should be searched within the file.<br>
+	 *
+	 * This can also be used to determine if the file can be shrunk to reclaim empty pages
+	 */
+	private int numOfPages;
+	
+	/**
+	 * The number of pages the file has room for after the file header, always a whole number of extents once the file
+	 * has grown. Kept here so allocating a page does not have to ask the file system for the length of the file.
+	 */
+	volatile int numOfPagesInFile;
+	
+	
+	/**
+	 * *****************************
+	 * *****************************
+	 * *****************************
+	 *       Abstract Methods
+	 * *****************************
+	 * *****************************
+	 * *****************************
+	 */
+	
+	/**
+	 * Returns the page a new tree starts out with, an empty leaf that is also the root
+	 * @return a new root leaf page with page number 0
+	 */
+	abstract Page newRootLeaf();
+	
+	/**
+	 * Rebuilds a page of the tree from it's byte representation, only called when the page is not in the buffer pool
+	 * @param pageBytes a buffer holding the entire page, the page must not keep a reference to it
+	 * @param pageNumber the page number of the page
+	 * @return depending on the type code stored in the page a leaf or interior page of the tree
+	 */
+	abstract Page decodePage(ByteBuffer pageBytes, int pageNumber);
+	
+	/**
+	 * Returns the header written to a new file of the tree, the page size and column types of the tree's TableConfig.
+	 * The header of an existing file keeps the settings it was created with.
+	 * @return the header of a new file holding an empty tree
+	 */
+	FileHeader newFileHeader() {
+		return new FileHeader(this.treeConfig.getPageSize(), this.treeConfig.getColTypes());
+	}
+	
+	/**
+	 * Throws an IllegalStateException if the tree's file could not be opened or created
+	 */
+	void checkOpen() {
+		if (!isOpen()) {
+			throw new IllegalStateException("Tree file is not open");
+		}
+	}
+	
+	/**
+	 * Check if the tree's file was opened or created
+	 * @return true if the tree can be used
+	 */
+	boolean isOpen() {
+		return Optional.ofNullable(this.tableFile).isPresent() && Optional.ofNullable(this.fileHeader).isPresent();
+	}
+	
+	/**
+	 * *****************************
+	 * *****************************
+	 * *****************************
+	 *           File I/O
+	 * *****************************
+	 * *****************************
+	 * *****************************
+	 */
+	
+	/**
+	 * Checks to see if the Tree file exits if it does it reads the tree's configuration from the file header and sets
+	 * the root page field of this tree instance if it does not exist it calls `createTreeFile` to create a new tree
+	 * file.
+	 */
+	void openTreeFile() {
+		LOGGER.log(Level.INFO, "Entering openTreeFile()");
+		if (WAL_ENABLED) {
+			try {
+				// Opening the log the first time redoes committed changes that never reached the files
+				this.writeAheadLog = WriteAheadLog.getInstance();
+			} catch (IOException e) {
+				LOGGER.log(Level.SEVERE, e.toString());
+			}
+		}
+		if (!FileHandler.doesTableExist(this.fileName)) {
+			LOGGER.log(Level.INFO, "File DNE, must create new table file");
+			// Need to create new file
+			LOGGER.log(Level.INFO, "Creating new table file for: {0}", this.databaseName);
+			createTreeFile();
+		} else {
+			try {
+				LOGGER.log(Level.INFO, "Entering table exists, need to read from file");
+				// Another tree on the same file may still have pages waiting to be written
+				PageFlusher.flushFile(this.fileName);
+				// The file header is authoritative for the page size, column types and counters of an existing file,
+				// it is the only page read to open the table. The root and the free space map are read when needed
+				FileHeader header = FileHeader.read(this.fileName);
+				TreeMetadata metadata = header.getMetadata();
+				if (metadata.getRootPageNumber() != ROOT_PAGE_NUMBER) {
+					throw new IOException("Unsupported root page number: " + metadata.getRootPageNumber());
+				}
+				this.treeConfig = new TableConfig(header.getColTypes(), header.getPageSize());
+				this.fileHeader = header;
+				this.numOfPages = metadata.getNumOfPages();
+				this.tableFile = PageFile.open(this.fileName, this.treeConfig.getPageSize(), this.storageMode);
+				LOGGER.log(Level.INFO, "Table {0} exists: {1}", new Object[]{this.databaseName, metadata});
+				this.numOfPagesInFile = this.tableFile.getNumOfPages();
+				this.pageFlusher = new PageFlusher(this.fileName, this.tableFile);
+				registerPageFlusher();
+			} catch (IOException e) {
+				LOGGER.log(Level.SEVERE, e.toString());
+			}
+		}
+		LOGGER.log(Level.INFO, "Exiting openTreeFile()");
+	}
+	
+	/**
+	 * Method to create a tree file, write it's file header, and insert a new root leaf page if the tree does not exist
+	 */
+	private void createTreeFile() {
+		LOGGER.log(Level.INFO, "Entering createTreeFile()");
+		// Create file and set length equal to PAGE_SIZE, room for the file header
+		FileHandler.createTableFile(this.fileName);
+		// Pages cached or waiting to be written for an older file with the same name must never be handed out for or
+		// written into this one
+		this.bufferPool.discardFile(this.fileName);
+		PageFlusher.discardFile(this.fileName);
+		LOGGER.log(Level.INFO, "New table file for {0} created", this.databaseName);
+		try {
+			int pageSize = this.treeConfig.getPageSize();
+			this.tableFile = PageFile.open(this.fileName, pageSize, this.storageMode);
+			this.fileHeader = newFileHeader();
+			this.tableFile.writeHeader(this.fileHeader.encode(PageCodec.get(pageSize).readBuffer()));
+			this.numOfPagesInFile = this.tableFile.getNumOfPages();
+			this.pageFlusher = new PageFlusher(this.fileName, this.tableFile);
+			registerPageFlusher();
+			this.freeSpaceMap = FreeSpaceMap.create(this.tableFile);
+			// The first extent holds the root and the first free space map page
+			expandFile(ROOT_PAGE_NUMBER);
+			createNewRootLeaf();
+			commit();
+			LOGGER.log(Level.INFO, "Exiting createTreeFile()");
+		} catch (IOException e) {
+			LOGGER.log(Level.SEVERE, e.toString());
+		}
+	}
+	
+	/**
+	 * Used whenever the file is first created to insert a new root page that also happens to be a leaf because it's a
+	 * new file.
+	 */
+	private void createNewRootLeaf() {
+		LOGGER.log(Level.INFO, "Entering createNewRootLeaf()");
+		writePage(newRootLeaf());
+		LOGGER.log(Level.INFO, "New Root Leaf for: {0}: ", this.databaseName);
+		numOfPages++;
+		LOGGER.log(Level.INFO, "Exiting createNewRootLeaf()");
+	}
+	
+	/**
+	 * Method that retrieves a specific page through the buffer pool. The page is read from the file only if it is not
+	 * already cached.<br>
+	 *
+	 * The page is returned pinned so it will not be evicted while the tree is working on it, every call must be paired
+	 * with a call to `releasePage` once the page is no longer needed.
+	 * @param pageNumber a 4-byte integer representing the physical position of the desired page within the file
+	 *                   relative to the beginning of the file
+	 * @return depending on the type code stored in file a
+	 * TableInteriorPage/TableLeafPage/IndexInteriorPage/IndexLeafPage
+	 */
+	Page getPage(int pageNumber) {
+		return this.bufferPool.fetchPage(this.fileName, this.tableFile, pageNumber, this::readPage);
+	}
+	
+	/**
+	 * Releases the pin taken on a page by `getPage`
+	 * @param page a page returned by `getPage`
+	 */
+	void releasePage(Page page) {
+		this.bufferPool.unpinPage(this.fileName, page.getPageNumber(), false);
+	}
+	
+	/**
+	 * Retrieves a page for an optimistic read without keeping a pin on it, a page that is not cached is read into the
+	 * buffer pool first. The page number must come from a page that was validated after it was read.
+	 * @param pageNumber the page number of the page
+	 * @return the page, neither pinned nor latched, null if it could not be read
+	 */
+	Page peekPage(int pageNumber) {
+		Page page = this.bufferPool.peekPage(this.fileName, pageNumber);
+		if (page == null) {
+			page = getPage(pageNumber);
+			if (page != null) {
+				releasePage(page);
+			}
+		}
+		return page;
+	}
+	
+	/**
+	 * Retrieves a page like `getPage` and waits for it's latch
+	 * @param pageNumber the page number of the page
+	 * @param exclusive true to change the page, false to only read it
+	 * @return the page, pinned and latched until it is released with `unlatchPage`
+	 */
+	Page latchPage(int pageNumber, boolean exclusive) {
+		Page page = getPage(pageNumber);
+		page.latch(exclusive);
+		return page;
+	}
+	
+	/**
+	 * Retrieves a page like `latchPage` only if it's latch is free or already held exclusively by this thread
+	 * @param pageNumber the page number of the page
+	 * @param exclusive true to change the page, false to only read it
+	 * @return the page, pinned and latched until it is released with `unlatchPage`, null if the latch was busy
+	 */
+	Page tryLatchPage(int pageNumber, boolean exclusive) {
+		Page page = getPage(pageNumber);
+		if (!page.tryLatch(exclusive)) {
+			releasePage(page);
+			return null;
+		}
+		return page;
+	}
+	
+	/**
+	 * Releases the latch and the pin taken on a page by `latchPage`
+	 * @param page a page returned by `latchPage`
+	 */
+	void unlatchPage(Page page) {
+		page.unlatch();
+		releasePage(page);
+	}
+	
+	/**
+	 * Releases every page in a list returned by `latchPage` and clears the list
+	 * @param latched the latched pages
+	 */
+	void unlatchAll(ArrayList<Page> latched) {
+		for (Page page : latched) {
+			unlatchPage(page);
+		}
+		latched.clear();
+	}
+	
+	/**
+	 * Latches the root page. A root that splits or collapses is replaced by a new page object, so a thread that got
+	 * the latch of the old one looks the root up again.
+	 * @param exclusive true to change the root, false to only read it
+	 * @param wait true to wait for the latch, false to give up if it is busy
+	 * @return the root, pinned and latched until it is released with `unlatchPage`, null if the latch was busy
+	 */
+	Page latchRoot(boolean exclusive, boolean wait) {
+		while (true) {
+			Page page = wait ? latchPage(ROOT_PAGE_NUMBER, exclusive) : tryLatchPage(ROOT_PAGE_NUMBER, exclusive);
+			if (page == null || !page.isObsolete()) {
+				return page;
+			}
+			unlatchPage(page);
+		}
+	}
+	
+	/**
+	 * Adds a page to the changes of this thread's operation and places it in the buffer pool so the next read of that
+	 * page number is served from memory. The first time the operation writes a page it is pinned and latched once more,
+	 * it stays latched for changing it until the operation commits. A new page is latched before it is placed in the
+	 * buffer pool, no other thread can latch it before this one.
+	 * @param page the page to write, latched for changing it by this thread unless it is new
+	 */
+	void writePage(Page page) {
+		Operation current = this.operation.get();
+		page.sort();
+		current.pendingWrites.put(page.getPageNumber(), page.getBytes());
+		if (current.deferredWrites.get(page.getPageNumber()) == page) {
+			// Encoded now, the commit does not encode it again unless it is written with writePageAtCommit once more
+			current.deferredWrites.remove(page.getPageNumber());
+		}
+		boolean firstWrite = current.heldPages.add(page);
+		if (firstWrite) {
+			page.latch(true);
+		}
+		this.bufferPool.putPage(this.fileName, this.tableFile, page, firstWrite);
+	}
+	
+	/**
+	 * Adds a page to the changes of this thread's operation like `writePage`, but the page is only encoded when the
+	 * operation commits. Used for a page that is changed again and again before the commit, like the rightmost leaf
+	 * during a batch of appends, so it is encoded once instead of after every change. A page that is freed or
+	 * replaced by another page object before the commit is obsolete by then and is not encoded.
+	 * @param page the page to write, latched for changing it by this thread unless it is new
+	 */
+	void writePageAtCommit(Page page) {
+		Operation current = this.operation.get();
+		if (current.deferredWrites.put(page.getPageNumber(), page) == page) {
+			// Already held and pinned in the buffer pool since the first call
+			return;
+		}
+		boolean firstWrite = current.heldPages.add(page);
+		if (firstWrite) {
+			page.latch(true);
+		}
+		this.bufferPool.putPage(this.fileName, this.tableFile, page, firstWrite);
+	}
+	
+	/**
+	 * Method that reads a specific page from the file depending on the page number and the page size stored in the
+	 * file header. Only called by the buffer pool on a miss.
+	 *
+	 * @see edu.utdallas.cs6360.davisbase.Config
+	 * @param pageNumber a 4-byte integer representing the physical position of the desired page within the file
+	 *                   relative to the beginning of the file
+	 * @return depending on the type code stored in file a
+	 * TableInteriorPage/TableLeafPage/IndexInteriorPage/IndexLeafPage
+	 */
+	private Page readPage(int pageNumber) {
+		try {
+			// A page still waiting in the page flusher is newer than the copy in the file. Otherwise read into the
+			// reusable page buffer, or a view of the mapping for memory mapped files. The page rebuilt from it does not
+			// keep a reference to it
+			byte[] pending = this.operation.get().pendingWrites.get(pageNumber);
+			ByteBuffer pageBytes = pending != null ? ByteBuffer.wrap(pending) :
+					this.pageFlusher.getPendingPage(pageNumber);
+			if (pageBytes == null) {
+				pageBytes = this.tableFile.readPage(pageNumber,
+						PageCodec.get(this.treeConfig.getPageSize()).readBuffer());
+			}
+			
+			return decodePage(pageBytes, pageNumber);
+		} catch (IOException e) {
+			LOGGER.log(Level.SEVERE, e.toString());
+		}
+		return null;
+	}
+	
+	/**
+	 * Expand the file if it is not enough room for a page. The file grows to the end of the extent holding the page so
+	 * the next Config.EXTENT_SIZE allocations do not have to change the length of the file.
+	 * @param pageNumber the page number that must fit in the file
+	 */
+	private void expandFile(int pageNumber) {
+		if (pageNumber < this.numOfPagesInFile) {
+			return;
+		}
+		int newNumOfPagesInFile = (pageNumber / EXTENT_SIZE + ONE) * EXTENT_SIZE;
+		try {
+			LOGGER.log(Level.INFO, "Growing file to {0} pages", newNumOfPagesInFile);
+			this.tableFile.setLength(this.tableFile.getPageAddress(newNumOfPagesInFile));
+			this.numOfPagesInFile = newNumOfPagesInFile;
+		} catch (IOException e) {
+			LOGGER.log(Level.SEVERE, e.toString());
+		}
+	}
+	
+	/**
+	 * Shrink the file if pages were freed at the end and reclaim space. The file is cut back to the end of the extent
+	 * holding the last page in use, pages still waiting in the page flusher are written first so none of them can grow
+	 * the file again afterwards.
+	 */
+	synchronized void shrinkFile() {
+		int newNumOfPagesInFile = (getFreeSpaceMap().getLastAllocatedPage() / EXTENT_SIZE + ONE) * EXTENT_SIZE;
+		if (newNumOfPagesInFile >= this.numOfPagesInFile) {
+			return;
+		}
+		try {
+			LOGGER.log(Level.INFO, "Shrinking file to {0} pages", newNumOfPagesInFile);
+			this.pageFlusher.flush();
+			this.tableFile.setLength(this.tableFile.getPageAddress(newNumOfPagesInFile));
+			this.numOfPagesInFile = newNumOfPagesInFile;
+		} catch (IOException e) {
+			LOGGER.log(Level.SEVERE, e.toString());
+		}
+	}
+	
+	/**
+	 * Frees a page once the operation commits. It is dropped from the operation's pending writes since nothing will
+	 * read it again until it is allocated and written anew, and the page object is marked obsolete.
+	 * @param page the page to free, latched for changing it
+	 */
+	void freePage(Page page) {
+		Operation current = this.operation.get();
+		page.setObsolete();
+		current.pendingWrites.remove(page.getPageNumber());
+		current.freedPages.add(page.getPageNumber());
+		current.countPage(page, -ONE);
+	}
+	
+	/**
+	 * Called once an operation has written all of it's pages. The pages it changed and the free space map pages it
+	 * changed are logged to the write-ahead log as one transaction and the commit waits for the log to reach the
+	 * storage device, shared with any other tree committing at the same time. Only then are the pages handed to the
+	 * page flusher. When Config.FORCE_ON_COMMIT is set the pages are also written and forced to the storage device
+	 * right away.<br>
+	 *
+	 * The pages the operation changed are released afterwards. Pages it freed are only then given back to the free
+	 * space map, in a transaction of their own, so a crash in between leaks them instead of reusing a page that a
+	 * committed page still points to.<br>
+	 *
+	 * An operation that changed the root page, height or counters of the tree also logs a new file header with them
+	 * in the same transaction, so the header always describes the pages committed with it.
+	 */
+	void commit() {
+		Operation current = this.operation.get();
+		for (Page page : current.deferredWrites.values()) {
+			if (!page.isObsolete()) {
+				page.sort();
+				current.pendingWrites.put(page.getPageNumber(), page.getBytes());
+			}
+		}
+		current.deferredWrites.clear();
+		TreeMap<Integer, byte[]> pages = new TreeMap<>(current.pendingWrites);
+		current.pendingWrites.clear();
+		if (!pages.isEmpty() || current.changesMetadata() || hasDirtyMapPages()) {
+			logAndFlush(pages, current);
+		}
+		for (Page page : current.heldPages) {
+			unlatchPage(page);
+		}
+		current.heldPages.clear();
+		if (!current.freedPages.isEmpty()) {
+			for (int pageNumber : current.freedPages) {
+				getFreeSpaceMap().free(pageNumber);
+				decrementPages();
+				current.pagesChange--;
+			}
+			current.freedPages.clear();
+			commit();
+		}
+	}
+	
+	/**
+	 * Logs the pages of an operation as one transaction and hands them to the page flusher, see `commit`. The changed
+	 * free space map pages and the new file header are added to the transaction while holding `commitLock`, along with
+	 * the commit record, the wait for the log to reach the storage device happens after it is released.
+	 * @param pages the encoded pages by page number
+	 * @param current the operation committing, it's changes to the metadata are cleared
+	 */
+	private void logAndFlush(TreeMap<Integer, byte[]> pages, Operation current) {
+		long transactionId = -ONE;
+		long recoveryLsn = ZERO;
+		long headerNumber = ZERO;
+		try {
+			long commitLsn = ZERO;
+			synchronized (this.commitLock) {
+				if (hasDirtyMapPages()) {
+					pages.putAll(this.freeSpaceMap.takeDirtyMapPages());
+				}
+				if (current.changesMetadata()) {
+					TreeMetadata metadata = this.fileHeader.getMetadata().apply(current.rowIdCounter,
+							current.pagesChange, current.leafPagesChange, current.interiorPagesChange,
+							current.heightChange);
+					this.fileHeader = this.fileHeader.withMetadata(metadata);
+					pages.put(HEADER_PAGE_NUMBER,
+							this.fileHeader.encode(ByteBuffer.allocate(this.treeConfig.getPageSize())).array());
+					headerNumber = ++this.headerSequence;
+					current.clearMetadataChanges();
+				}
+				if (Optional.ofNullable(this.writeAheadLog).isPresent()) {
+					transactionId = this.writeAheadLog.beginTransaction();
+					recoveryLsn = this.writeAheadLog.getStartLsn(transactionId);
+					for (Map.Entry<Integer, byte[]> entry : pages.entrySet()) {
+						this.writeAheadLog.logPage(transactionId, this.fileName, entry.getKey(), entry.getValue());
+					}
+					commitLsn = this.writeAheadLog.logCommit(transactionId);
+				}
+			}
+			if (Optional.ofNullable(this.writeAheadLog).isPresent()) {
+				this.writeAheadLog.waitForCommit(commitLsn);
+			}
+			for (Map.Entry<Integer, byte[]> entry : pages.entrySet()) {
+				if (entry.getKey() != HEADER_PAGE_NUMBER) {
+					this.pageFlusher.add(entry.getKey(), entry.getValue(), recoveryLsn);
+				}
+			}
+			if (headerNumber != ZERO) {
+				synchronized (this.commitLock) {
+					// Operations that logged a newer header may have handed it over first
+					if (headerNumber > this.flushedHeaderSequence) {
+						this.flushedHeaderSequence = headerNumber;
+						this.pageFlusher.add(HEADER_PAGE_NUMBER, pages.get(HEADER_PAGE_NUMBER), recoveryLsn);
+					}
+				}
+			}
+			if (FORCE_ON_COMMIT) {
+				this.pageFlusher.flush();
+				this.tableFile.force();
+			}
+		} catch (IOException e) {
+			LOGGER.log(Level.SEVERE, e.toString());
+		} finally {
+			if (transactionId != -ONE) {
+				// The pages are in the page flusher's dirty page table from here on
+				this.writeAheadLog.endTransaction(transactionId);
+			}
+		}
+	}
+	
+	/**
+	 * Check if the free space map was read and has pages that changed since they were last committed
+	 * @return true if there are free space map pages to commit
+	 */
+	private boolean hasDirtyMapPages() {
+		return Optional.ofNullable(this.freeSpaceMap).isPresent() && this.freeSpaceMap.hasDirtyMapPages();
+	}
+	
+	/**
+	 * Adds the page flusher to the dirty page table of the write-ahead log so checkpoints account for the pages it has
+	 * not written yet
+	 */
+	private void registerPageFlusher() {
+		if (Optional.ofNullable(this.writeAheadLog).isPresent()) {
+			this.writeAheadLog.register(this.pageFlusher);
+		}
+	}
+	
+	/**
+	 * Writes every page still waiting in the page flusher and the free space map to the file and forces them to the
+	 * storage device
+	 */
+	public void flush() {
+		LOGGER.log(Level.INFO, "Flushing table file: {0}", this.fileName);
+		commit();
+		this.bufferPool.flushFile(this.fileName);
+		this.pageFlusher.flush();
+		try {
+			if (Optional.ofNullable(this.freeSpaceMap).isPresent()) {
+				this.freeSpaceMap.flush();
+			}
+			this.tableFile.force();
+		} catch (IOException e) {
+			LOGGER.log(Level.SEVERE, e.toString());
+		}
+	}
+	
+	/**
+	 * Writes back any pages still waiting in the buffer pool or the page flusher and closes the tree's file. The tree
+	 * cannot be used afterwards.
+	 */
+	public void close() {
+		LOGGER.log(Level.INFO, "Closing table file: {0}", this.fileName);
+		commit();
+		this.bufferPool.flushFile(this.fileName);
+		this.pageFlusher.close();
+		try {
+			if (Optional.ofNullable(this.freeSpaceMap).isPresent()) {
+				this.freeSpaceMap.flush();
+			}
+			// Checkpoints stop forcing the file once the page flusher is closed
+			this.tableFile.force();
+			if (Optional.ofNullable(this.writeAheadLog).isPresent()) {
+				this.writeAheadLog.unregister(this.pageFlusher);
+			}
+			this.tableFile.close();
+		} catch (IOException e) {
+			LOGGER.log(Level.SEVERE, e.toString());
+		}
+	}
+	
+	
+	/**
+	 * Returns the free space map of the file. It is read from the file the first time a page is allocated, freed, or
+	 * checked, so opening a table does not have to read it.
+	 * @return the free space map
+	 */
+	FreeSpaceMap getFreeSpaceMap() {
+		FreeSpaceMap map = this.freeSpaceMap;
+		if (Optional.ofNullable(map).isPresent()) {
+			return map;
+		}
+		synchronized (this) {
+			if (!Optional.ofNullable(this.freeSpaceMap).isPresent()) {
+				try {
+					this.freeSpaceMap = FreeSpaceMap.load(this.tableFile);
+				} catch (IOException e) {
+					LOGGER.log(Level.SEVERE, e.toString());
+					throw new IllegalStateException("Free space map could not be read", e);
+				}
+			}
+			return this.freeSpaceMap;
+		}
+	}
+	
+	/**
+	 * Getter for property 'metadata'.
+	 *
+	 * @return the root page, height and counters of the tree as of the last committed operation
+	 */
+	TreeMetadata getMetadata() {
+		return this.fileHeader.getMetadata();
+	}
+	
+	/**
+	 * Getter for property 'fileName'.
+	 *
+	 * @return Value for property 'fileName'.
+	 */
+	String getFileName() {
+		return fileName;
+	}
+	
+	/**
+	 * Retrieve the number of used pages
+	 * @return the number of used pages in the file
+	 */
+	int getNumOfPages() {
+		return this.numOfPages;
+	}
+	
+	/**
+	 * Increase the number of used pages
+	 */
+	private synchronized void incrementPages() {
+		this.numOfPages++;
+	}
+	
+	/**
+	 * Decrease the number of used pages
+	 */
+	private synchronized void decrementPages() {
+		this.numOfPages--;
+	}
+	
+	
+	/**
+	 * *****************************
+	 * *****************************
+	 * *****************************
+	 * Methods that Calculate Things
+	 * *****************************
+	 * *****************************
+	 * *****************************
+	 */
+	
+	/**
+	 * Allocates a page from the free space map. The lowest free page in the file is reused first, if there is none the
+	 * file grows by another extent.
+	 * @return the page number of the new page
+	 */
+	synchronized int getNewPageNumber() {
+		int newPageNum = getFreeSpaceMap().allocate();
+		expandFile(newPageNum);
+		incrementPages();
+		this.operation.get().pagesChange++;
+		return newPageNum;
+	}
+	
+	/**
+	 * Allocates a page from the free space map in the same extent as another page if there is room, otherwise the
+	 * lowest free page in the file is used.
+	 * @param nearPage the page number the new page should be close to
+	 * @return the page number of the new page
+	 */
+	synchronized int getNewPageNumber(int nearPage) {
+		int newPageNum = getFreeSpaceMap().allocateNear(nearPage);
+		expandFile(newPageNum);
+		incrementPages();
+		this.operation.get().pagesChange++;
+		return newPageNum;
+	}
+	
+	/**
+	 * Returns the number of levels below the root as of the last committed operation, kept in the file header so the
+	 * tree does not have to be traversed to find it. If the root is a leaf it returns 0.
+	 * @return an integer representing the number of levels of the tree with 0 being the root level.
+	 */
+	int getCurrentHeight() {
+		return this.fileHeader.getMetadata().getHeight();
+	}
+
+	public ArrayList<DataType> getColTypes(){
+		return treeConfig.getColTypes();
+	}
+	
+	/**
+	 * The operation a thread has in progress on the tree: the pages it changed, encoded, that are logged when it
+	 * commits, the pages it keeps latched until then, and the pages it freed
+	 */
+	static final class Operation {
+		final TreeMap<Integer, byte[]> pendingWrites = new TreeMap<>();
+		// Pages written with writePageAtCommit, encoded into pendingWrites when the operation commits
+		final TreeMap<Integer, Page> deferredWrites = new TreeMap<>();
+		// Page objects are compared by their contents, the same page is only held once
+		final Set<Page> heldPages = Collections.newSetFromMap(new IdentityHashMap<>());
+		final ArrayList<Integer> freedPages = new ArrayList<>();
+		// The changes to the tree's metadata that are logged in the file header when the operation commits
+		int rowIdCounter = -ONE;
+		int pagesChange;
+		int leafPagesChange;
+		int interiorPagesChange;
+		int heightChange;
+		
+		/**
+		 * Counts a leaf or interior page the operation added to or removed from the tree
+		 * @param page the page
+		 * @param change 1 if the page was added, -1 if it was removed
+		 */
+		void countPage(Page page, int change) {
+			if (page.isLeaf()) {
+				this.leafPagesChange += change;
+			} else {
+				this.interiorPagesChange += change;
+			}
+		}
+		
+		boolean changesMetadata() {
+			return this.rowIdCounter != -ONE || this.pagesChange != ZERO || this.leafPagesChange != ZERO ||
+					this.interiorPagesChange != ZERO || this.heightChange != ZERO;
+		}
+		
+		void clearMetadataChanges() {
+			this.rowIdCounter = -ONE;
+			this.pagesChange = ZERO;
+			this.leafPagesChange = ZERO;
+			this.interiorPagesChange = ZERO;
+			this.heightChange = ZERO;
+		}
+	}
+}
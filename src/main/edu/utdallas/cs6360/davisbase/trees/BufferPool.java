@@ -0,0 +1,473 @@
+package edu.utdallas.cs6360.davisbase.trees;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static edu.utdallas.cs6360.davisbase.Config.*;
+
+/**
+ * A size bounded cache of Pages that is shared by every TableTree and IndexTree in the process.<br>
+ *
+ * Frames are keyed by the fully qualified file name of the tree and the page number within that file. A page that is
+ * already cached is handed back without touching the file and without rebuilding the Page object from its bytes.<br>
+ *
+ * Replacement uses the CLOCK algorithm. Every frame has a reference bit that is set when the page is requested, the
+ * clock hand sweeps over the frames clearing reference bits and the first frame found that is neither referenced nor
+ * pinned is the victim. Dirty victims are written back to their file before the frame is reused.<br>
+ *
+ * Hit, miss, and eviction counters are kept so the pool can be sized against a real workload.<br>
+ *
+ * Every method is synchronized except `peekPage`, which hands out cached pages to optimistic readers without the
+ * pool's lock or a pin. A page object that leaves the pool, because it was evicted, replaced, or discarded, is marked
+ * obsolete so those readers notice.
+ *
+ * @author Charles Krol
+ * @author Matthew Villarreal
+ * @author Michael Del Rosario
+ * @author Mithil Vijay
+ */
+public final class BufferPool {
+	/**
+	 * A logger that logs things for logging purposes
+	 */
+	private static final Logger LOGGER = Logger.getLogger(BufferPool.class.getName());
+
+	/**
+	 * The pool shared by all the trees, created on first use
+	 */
+	private static BufferPool instance;
+
+	/**
+	 * The frames that hold the cached pages, a null entry is a free frame
+	 */
+	private final Frame[] frames;
+
+	/**
+	 * Maps a (fileName, pageNumber) pair to the frame holding it. Only changed while holding the pool's lock, but read
+	 * without it by `peekPage`.
+	 */
+	private final ConcurrentHashMap<PageKey, Frame> pageTable;
+
+	/**
+	 * The current position of the clock hand within the frames array
+	 */
+	private int clockHand;
+
+	/**
+	 * Statistics used to size the pool
+	 */
+	private long hits;
+	private long misses;
+	private long evictions;
+
+	/**
+	 * Functional interface used by the trees to read a page from their file when it is not cached
+	 */
+	interface PageLoader {
+		/**
+		 * Read and rebuild a page from the file
+		 * @param pageNumber the page number within the file
+		 * @return the page rebuilt from the file, null if it could not be read
+		 */
+		Page load(int pageNumber);
+	}
+
+	/**
+	 * Constructor that creates a pool with the given number of frames
+	 * @param capacity the maximum number of pages the pool will hold
+	 */
+	BufferPool(int capacity) {
+		if (capacity < ONE) {
+			throw new IllegalArgumentException("Buffer pool must hold at least one page");
+		}
+		this.frames = new Frame[capacity];
+		this.pageTable = new ConcurrentHashMap<>();
+		this.clockHand = ZERO;
+	}
+
+	/**
+	 * Returns the pool shared by all the trees, the size is set by Config.BUFFER_POOL_SIZE
+	 * @return the shared BufferPool
+	 */
+	public static synchronized BufferPool getInstance() {
+		if (!Optional.ofNullable(instance).isPresent()) {
+			instance = new BufferPool(BUFFER_POOL_SIZE);
+		}
+		return instance;
+	}
+
+	/**
+	 * *****************************
+	 * *****************************
+	 * *****************************
+	 *       Page Operations
+	 * *****************************
+	 * *****************************
+	 * *****************************
+	 */
+
+	/**
+	 * Retrieves a page and pins it so it cannot be evicted until `unpinPage` is called. If the page is not cached the
+	 * loader is used to read it from the file and it is placed in a frame chosen by the clock.
+	 * @param fileName the fully qualified file name of the tree
+	 * @param file the file the page belongs to, used to write the page back if it is evicted while dirty
+	 * @param pageNumber the page number within the file
+	 * @param loader reads the page from the file on a miss
+	 * @return the requested page, null if it could not be loaded
+	 */
+	synchronized Page fetchPage(String fileName, PageFile file, int pageNumber, PageLoader loader) {
+		PageKey key = new PageKey(fileName, pageNumber);
+		Frame frame = lookup(key);
+		if (frame != null) {
+			this.hits++;
+			frame.pinCount++;
+			frame.referenced = true;
+			return frame.page;
+		}
+
+		this.misses++;
+		Page page = loader.load(pageNumber);
+		if (page == null) {
+			return null;
+		}
+		frame = install(key, file, page);
+		frame.pinCount++;
+		return page;
+	}
+
+	/**
+	 * Returns a cached page without pinning it and without taking the pool's lock, for threads that read the page
+	 * optimistically and validate it's version afterwards. The page can be evicted at any time, an evicted page is
+	 * marked obsolete so the validation fails. Peeks are not counted in the statistics.
+	 * @param fileName the fully qualified file name of the tree
+	 * @param pageNumber the page number within the file
+	 * @return the cached page, null if it is not cached
+	 */
+	Page peekPage(String fileName, int pageNumber) {
+		Frame frame = this.pageTable.get(new PageKey(fileName, pageNumber));
+		if (frame == null) {
+			return null;
+		}
+		Page page = frame.page;
+		if (page.getPageNumber() != pageNumber) {
+			return null;
+		}
+		frame.referenced = true;
+		return page;
+	}
+	
+	/**
+	 * Releases a pin taken by `fetchPage`
+	 * @param fileName the fully qualified file name of the tree
+	 * @param pageNumber the page number within the file
+	 * @param dirty true if the caller modified the page without writing it to the file
+	 */
+	synchronized void unpinPage(String fileName, int pageNumber, boolean dirty) {
+		Frame frame = lookup(new PageKey(fileName, pageNumber));
+		if (frame == null) {
+			return;
+		}
+		if (frame.pinCount > ZERO) {
+			frame.pinCount--;
+		}
+		frame.dirty |= dirty;
+	}
+
+	/**
+	 * Places a page that was just written to the file into the pool, replacing whatever was cached for that page
+	 * number. Used by the trees after writing a page so the next read is served from memory.
+	 * @param fileName the fully qualified file name of the tree
+	 * @param file the file the page belongs to
+	 * @param page the page that was written
+	 */
+	synchronized void putPage(String fileName, PageFile file, Page page) {
+		putPage(fileName, file, page, false);
+	}
+
+	/**
+	 * Places a page into the pool like `putPage(String, PageFile, Page)` and optionally pins it in the same step, so it
+	 * cannot be evicted before the caller gets to pin it
+	 * @param fileName the fully qualified file name of the tree
+	 * @param file the file the page belongs to
+	 * @param page the page that was written
+	 * @param pin true to pin the page, it must be released with `unpinPage`
+	 */
+	synchronized void putPage(String fileName, PageFile file, Page page, boolean pin) {
+		PageKey key = new PageKey(fileName, page.getPageNumber());
+		Frame frame = this.pageTable.get(key);
+		if (frame != null) {
+			if (frame.page != page) {
+				frame.page.setObsolete();
+			}
+			frame.page = page;
+			frame.file = file;
+			frame.dirty = false;
+			frame.referenced = true;
+		} else {
+			frame = install(key, file, page);
+		}
+		if (pin) {
+			frame.pinCount++;
+		}
+	}
+
+	/**
+	 * Flags a cached page as modified so it is written back when evicted or flushed
+	 * @param fileName the fully qualified file name of the tree
+	 * @param pageNumber the page number within the file
+	 */
+	synchronized void markDirty(String fileName, int pageNumber) {
+		Frame frame = lookup(new PageKey(fileName, pageNumber));
+		if (frame != null) {
+			frame.dirty = true;
+		}
+	}
+
+	/**
+	 * Writes every dirty page belonging to the file back to it
+	 * @param fileName the fully qualified file name of the tree
+	 */
+	synchronized void flushFile(String fileName) {
+		for (Frame frame : this.frames) {
+			if (frame != null && frame.dirty && frame.key.fileName.equals(fileName)) {
+				writeBack(frame);
+			}
+		}
+	}
+
+	/**
+	 * Drops every page belonging to the file without writing them. Used when a file is created or deleted so pages
+	 * from an older file with the same name are never handed out.
+	 * @param fileName the fully qualified file name of the tree
+	 */
+	public synchronized void discardFile(String fileName) {
+		for (int i = ZERO; i < this.frames.length; i++) {
+			Frame frame = this.frames[i];
+			if (frame != null && frame.key.fileName.equals(fileName)) {
+				frame.page.setObsolete();
+				this.pageTable.remove(frame.key);
+				this.frames[i] = null;
+			}
+		}
+	}
+
+	/**
+	 * *****************************
+	 * *****************************
+	 * *****************************
+	 *          Statistics
+	 * *****************************
+	 * *****************************
+	 * *****************************
+	 */
+
+	/**
+	 * Getter for property 'hits'.
+	 *
+	 * @return the number of requests served from the pool
+	 */
+	public synchronized long getHits() { return this.hits; }
+
+	/**
+	 * Getter for property 'misses'.
+	 *
+	 * @return the number of requests that had to read the page from the file
+	 */
+	public synchronized long getMisses() { return this.misses; }
+
+	/**
+	 * Getter for property 'evictions'.
+	 *
+	 * @return the number of pages removed from the pool to make room for another
+	 */
+	public synchronized long getEvictions() { return this.evictions; }
+
+	/**
+	 * Returns the fraction of requests served from the pool
+	 * @return hits / (hits + misses), 0 if there have been no requests
+	 */
+	public synchronized double getHitRatio() {
+		long requests = this.hits + this.misses;
+		return requests == ZERO ? ZERO : (double) this.hits / requests;
+	}
+
+	/**
+	 * Getter for property 'capacity'.
+	 *
+	 * @return the maximum number of pages the pool can hold
+	 */
+	public int getCapacity() { return this.frames.length; }
+
+	/**
+	 * Returns the number of frames currently in use
+	 * @return the number of cached pages
+	 */
+	public synchronized int getSize() { return this.pageTable.size(); }
+
+	/**
+	 * Resets the hit, miss, and eviction counters
+	 */
+	public synchronized void resetStatistics() {
+		this.hits = ZERO;
+		this.misses = ZERO;
+		this.evictions = ZERO;
+	}
+
+	/**
+	 * Method to return the statistics of the pool for logging purposes
+	 * @return String representation of the pool statistics
+	 */
+	@Override
+	public synchronized String toString() {
+		return "BufferPool[capacity=" + this.frames.length + ", size=" + this.pageTable.size() + ", hits=" +
+				this.hits + ", misses=" + this.misses + ", evictions=" + this.evictions + "]";
+	}
+
+	/**
+	 * *****************************
+	 * *****************************
+	 * *****************************
+	 *           Helpers
+	 * *****************************
+	 * *****************************
+	 * *****************************
+	 */
+
+	/**
+	 * Finds the frame holding the key. A frame whose page has since been renumbered (the old root after a root split)
+	 * no longer holds that page and is dropped.
+	 * @param key the (fileName, pageNumber) pair
+	 * @return the frame holding the page, null if it is not cached
+	 */
+	private Frame lookup(PageKey key) {
+		Frame frame = this.pageTable.get(key);
+		if (frame == null) {
+			return null;
+		}
+		if (frame.page.getPageNumber() != key.pageNumber) {
+			this.pageTable.remove(key);
+			this.frames[frame.index] = null;
+			return null;
+		}
+		return frame;
+	}
+
+	/**
+	 * Places a page into a free frame, or the frame chosen by the clock if the pool is full
+	 * @param key the (fileName, pageNumber) pair
+	 * @param file the file the page belongs to
+	 * @param page the page to cache
+	 * @return the frame now holding the page
+	 */
+	private Frame install(PageKey key, PageFile file, Page page) {
+		int index = findVictim();
+		Frame frame = new Frame(key, index, file, page);
+		this.frames[index] = frame;
+		this.pageTable.put(key, frame);
+		return frame;
+	}
+
+	/**
+	 * Runs the clock until it finds a frame that is free or can be evicted. A frame is skipped if it is pinned or if
+	 * its reference bit is set, the reference bit is cleared as the hand passes over it.
+	 * @return the index of a free frame
+	 */
+	private int findVictim() {
+		// Two full sweeps are enough to clear every reference bit and come back around
+		for (int i = ZERO; i <= TWO * this.frames.length; i++) {
+			int index = this.clockHand;
+			this.clockHand = (this.clockHand + ONE) % this.frames.length;
+
+			Frame frame = this.frames[index];
+			if (frame == null) {
+				return index;
+			}
+			if (frame.pinCount > ZERO) {
+				continue;
+			}
+			if (frame.referenced) {
+				frame.referenced = false;
+				continue;
+			}
+			evict(index);
+			return index;
+		}
+		LOGGER.log(Level.SEVERE, "Every frame in the buffer pool is pinned");
+		throw new IllegalStateException("Buffer pool exhausted, every page is pinned");
+	}
+
+	/**
+	 * Removes a page from the pool, writing it back first if it is dirty
+	 * @param index the index of the frame to empty
+	 */
+	private void evict(int index) {
+		Frame frame = this.frames[index];
+		if (frame.dirty) {
+			writeBack(frame);
+		}
+		frame.page.setObsolete();
+		this.pageTable.remove(frame.key);
+		this.frames[index] = null;
+		this.evictions++;
+	}
+
+	/**
+	 * Writes a dirty frame's page back to its file
+	 * @param frame the frame to write
+	 */
+	private void writeBack(Frame frame) {
+		LOGGER.log(Level.INFO, "Writing back dirty page: {0}", frame.key.pageNumber);
+		frame.page.writePage(frame.file);
+		frame.dirty = false;
+	}
+
+	/**
+	 * A (fileName, pageNumber) pair identifying a page across every tree file
+	 */
+	private static final class PageKey {
+		private final String fileName;
+		private final int pageNumber;
+
+		PageKey(String fileName, int pageNumber) {
+			this.fileName = fileName;
+			this.pageNumber = pageNumber;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) return true;
+			if (!(o instanceof PageKey)) { return false; }
+			PageKey that = (PageKey) o;
+			return this.pageNumber == that.pageNumber && this.fileName.equals(that.fileName);
+		}
+
+		@Override
+		public int hashCode() { return Objects.hash(fileName, pageNumber); }
+	}
+
+	/**
+	 * A slot in the pool holding one page and its bookkeeping
+	 */
+	private static final class Frame {
+		private final PageKey key;
+		private final int index;
+		private PageFile file;
+		private volatile Page page;
+		private int pinCount;
+		private boolean dirty;
+		private volatile boolean referenced;
+
+		Frame(PageKey key, int index, PageFile file, Page page) {
+			this.key = key;
+			this.index = index;
+			this.file = file;
+			this.page = page;
+			this.pinCount = ZERO;
+			this.dirty = false;
+			this.referenced = true;
+		}
+	}
+}
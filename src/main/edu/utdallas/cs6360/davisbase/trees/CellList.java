@@ -0,0 +1,419 @@
+package edu.utdallas.cs6360.davisbase.trees;
+
+import java.nio.ByteBuffer;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.RandomAccess;
+
+import static edu.utdallas.cs6360.davisbase.Config.*;
+
+/**
+ * The list of DataCells held by a Page, decoded from the raw bytes of the page only when a cell is accessed.<br>
+ *
+ * A page read from the file keeps a copy of it's data cell area exactly as it is stored, back to front, and every slot
+ * of the list starts out holding only the offset of it's cell taken from the slot array after the page header. A cell
+ * is put back in order and turned into a TableLeafCell or TableInteriorCell the first time it is asked for and the
+ * object is kept in the slot from then on, so changes made to it are not lost. Cells added to the page have no offset
+ * and only exist as objects, they are the delta on top of the bytes read from the file.<br>
+ *
+ * The rowId and size of a cell are read straight from the stored bytes with their byte order flipped, so a binary
+ * search of the slot array by rowId and writing untouched cells back to the file never build a cell object. A
+ * descent through an interior page or a lookup of one row on a leaf page only decodes the cells it actually returns.
+ *
+ * @author Charles Krol
+ * @author Matthew Villarreal
+ * @author Michael Del Rosario
+ * @author Mithil Vijay
+ */
+final class CellList extends AbstractList<DataCell> implements RandomAccess {
+	/**
+	 * The offset stored in a slot whose cell was added to the page instead of read from the file
+	 */
+	private static final int NO_OFFSET = -ONE;
+
+	/**
+	 * The initial number of slots for a new page
+	 */
+	private static final int DEFAULT_CAPACITY = 16;
+
+	/**
+	 * Offsets of the payload size and rowId of a TableLeafCell from the start of the cell
+	 */
+	private static final int LEAF_CELL_ROW_ID = 2;
+	private static final int LEAF_CELL_PAYLOAD_SIZE = 0;
+
+	/**
+	 * The data cell area of the page as stored in the file, back to front, null if the page was not read from the file
+	 */
+	private final ByteBuffer cellBytes;
+	
+	/**
+	 * The size of the data cell area
+	 */
+	private final int sizeOfDataCells;
+
+	/**
+	 * True if the cells are TableLeafCells, false if they are TableInteriorCells
+	 */
+	private final boolean leafCells;
+
+	/**
+	 * The decoded cell of every slot, null until the cell is accessed
+	 */
+	private DataCell[] cells;
+
+	/**
+	 * The offset in cellBytes of every slot's cell, NO_OFFSET for cells added after the page was read
+	 */
+	private int[] offsets;
+
+	/**
+	 * The number of slots in use
+	 */
+	private int size;
+
+	/**
+	 * True while the cells are in rowId order, kept up to date as cells are added and replaced so a sort of an ordered
+	 * page costs nothing. The rowId of a cell already in the list is only ever changed to a value that stays between
+	 * it's neighbours, so that does not need to be tracked.
+	 */
+	private boolean sorted;
+
+	/**
+	 * Constructor for the cells of a new page
+	 * @param leafCells true if the page is a leaf page
+	 */
+	CellList(boolean leafCells) {
+		this.cellBytes = null;
+		this.sizeOfDataCells = ZERO;
+		this.leafCells = leafCells;
+		this.cells = new DataCell[DEFAULT_CAPACITY];
+		this.offsets = new int[DEFAULT_CAPACITY];
+		this.size = ZERO;
+		this.sorted = true;
+	}
+
+	/**
+	 * Constructor for the cells of a page read from the file. The data cell area is copied in one block and the
+	 * offset of each cell is read from the slot array, nothing else is decoded.
+	 * @param page a buffer holding the entire page in it's on disk format, it is copied so the caller may reuse it
+	 * @param sizeOfDataCells the size of the data cell area, stored in the page header
+	 * @param numOfCells the number of cells on the page
+	 * @param leafCells true if the page is a leaf page
+	 */
+	CellList(ByteBuffer page, int sizeOfDataCells, int numOfCells, boolean leafCells) {
+		ByteBuffer source = page.duplicate();
+		source.clear();
+		source.position(page.capacity() - sizeOfDataCells);
+		this.cellBytes = ByteBuffer.allocate(sizeOfDataCells).put(source);
+		this.sizeOfDataCells = sizeOfDataCells;
+		this.leafCells = leafCells;
+		this.cells = new DataCell[Math.max(numOfCells, DEFAULT_CAPACITY)];
+		this.offsets = new int[this.cells.length];
+		this.size = numOfCells;
+
+		for (int i = ZERO; i < numOfCells; i++) {
+			this.offsets[i] = Short.toUnsignedInt(page.getShort(PAGE_HEADER_SIZE + Short.BYTES * i));
+		}
+		this.sorted = checkSorted();
+	}
+
+	/**
+	 * *****************************
+	 * *****************************
+	 * *****************************
+	 *        List Operations
+	 * *****************************
+	 * *****************************
+	 * *****************************
+	 */
+
+	@Override
+	public DataCell get(int index) {
+		checkIndex(index);
+		DataCell cell = this.cells[index];
+		if (cell == null) {
+			cell = decode(index);
+			this.cells[index] = cell;
+		}
+		return cell;
+	}
+
+	/**
+	 * Returns the cell at an index like `get` without keeping the decoded cell, so the list is not changed. Used by
+	 * threads that only hold a page's latch for reading.
+	 * @param index the index of the cell
+	 * @return the cell, decoded again if it was not decoded before
+	 */
+	DataCell read(int index) {
+		checkIndex(index);
+		DataCell cell = this.cells[index];
+		return cell != null ? cell : decode(index);
+	}
+
+	/**
+	 * Decodes the cell at an index from it's raw bytes, only this cell is put back in order to decode it
+	 * @param index the index of the cell
+	 * @return a new DataCell
+	 */
+	private DataCell decode(int index) {
+		ByteBuffer inOrder = ByteBuffer.allocate(rawCellSize(this.offsets[index]));
+		writeRawCell(index, inOrder, ZERO);
+		return this.leafCells ? new TableLeafCell(inOrder, ZERO) : new TableInteriorCell(inOrder, ZERO);
+	}
+
+	@Override
+	public DataCell set(int index, DataCell cell) {
+		DataCell old = get(index);
+		this.cells[index] = cell;
+		this.offsets[index] = NO_OFFSET;
+		this.sorted = this.sorted && inOrderWithNeighbours(index);
+		return old;
+	}
+
+	@Override
+	public void add(int index, DataCell cell) {
+		if (index < ZERO || index > this.size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+		}
+		if (this.size == this.cells.length) {
+			this.cells = Arrays.copyOf(this.cells, this.size * TWO);
+			this.offsets = Arrays.copyOf(this.offsets, this.size * TWO);
+		}
+		System.arraycopy(this.cells, index, this.cells, index + ONE, this.size - index);
+		System.arraycopy(this.offsets, index, this.offsets, index + ONE, this.size - index);
+		this.cells[index] = cell;
+		this.offsets[index] = NO_OFFSET;
+		this.size++;
+		this.sorted = this.sorted && inOrderWithNeighbours(index);
+		this.modCount++;
+	}
+
+	@Override
+	public DataCell remove(int index) {
+		DataCell old = get(index);
+		System.arraycopy(this.cells, index + ONE, this.cells, index, this.size - index - ONE);
+		System.arraycopy(this.offsets, index + ONE, this.offsets, index, this.size - index - ONE);
+		this.size--;
+		this.cells[this.size] = null;
+		this.modCount++;
+		return old;
+	}
+
+	@Override
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Check if the cells are known to be in rowId order without sorting them
+	 * @return true if the cells are sorted
+	 */
+	boolean isSorted() {
+		return this.sorted;
+	}
+
+	/**
+	 * Sorts the cells by rowId. The cells are almost always already in order so that is checked first using the raw
+	 * rowIds, only an out of order list has it's cells decoded and sorted.
+	 * @param comparator ignored unless the cells are out of order
+	 */
+	@Override
+	public void sort(Comparator<? super DataCell> comparator) {
+		if (comparator == null && this.sorted) {
+			return;
+		}
+		super.sort(comparator);
+		this.sorted = comparator == null || checkSorted();
+	}
+
+	/**
+	 * *****************************
+	 * *****************************
+	 * *****************************
+	 *       Raw Cell Access
+	 * *****************************
+	 * *****************************
+	 * *****************************
+	 */
+
+	/**
+	 * Returns the rowId of a cell without decoding it
+	 * @param index the index of the cell
+	 * @return the rowId of the cell
+	 */
+	int getRowId(int index) {
+		checkIndex(index);
+		DataCell cell = this.cells[index];
+		if (cell != null) {
+			return cell.getRowId();
+		}
+		int rowIdOffset = this.leafCells ? LEAF_CELL_ROW_ID : START_OF_TABLE_INTERIOR_ROWID;
+		return rawInt(this.offsets[index] + rowIdOffset);
+	}
+
+	/**
+	 * Returns the number of bytes a cell takes up on the page without decoding it
+	 * @param index the index of the cell
+	 * @return the size of the cell in bytes
+	 */
+	int getCellSize(int index) {
+		checkIndex(index);
+		DataCell cell = this.cells[index];
+		return cell != null ? cell.size() : rawCellSize(this.offsets[index]);
+	}
+
+	/**
+	 * Writes a cell into a buffer, a cell that was never decoded or changed is copied straight from the bytes it was
+	 * read from
+	 * @param index the index of the cell
+	 * @param buffer the buffer to write to
+	 * @param position the position in the buffer to start writing at
+	 */
+	void writeCell(int index, ByteBuffer buffer, int position) {
+		checkIndex(index);
+		// A decoded cell may have been changed through it's setters since it was read
+		if (this.cells[index] != null) {
+			this.cells[index].writeTo(buffer, position);
+			return;
+		}
+		writeRawCell(index, buffer, position);
+	}
+
+	/**
+	 * Binary search of the slot array for a rowId using the raw rowIds, the cells must be sorted
+	 * @param rowId the rowId to look for
+	 * @return the index of the cell with the rowId, or (-(insertion point) - 1) if there is none, the same as
+	 * Collections.binarySearch
+	 */
+	int search(int rowId) {
+		int low = ZERO;
+		int high = this.size - ONE;
+		while (low <= high) {
+			int mid = (low + high) >>> ONE;
+			int midRowId = getRowId(mid);
+			if (midRowId < rowId) {
+				low = mid + ONE;
+			} else if (midRowId > rowId) {
+				high = mid - ONE;
+			} else {
+				return mid;
+			}
+		}
+		return -(low + ONE);
+	}
+
+	/**
+	 * Adds a cell at the position that keeps the cells sorted by rowId
+	 * @param cell the cell to add
+	 */
+	void addSorted(DataCell cell) {
+		int index = search(cell.getRowId());
+		add(index < ZERO ? -(index + ONE) : index, cell);
+	}
+
+	/**
+	 * Returns the number of cells that have been decoded or added, used to check that lookups stay lazy
+	 * @return the number of slots holding a DataCell object
+	 */
+	int getNumOfDecodedCells() {
+		int decoded = ZERO;
+		for (int i = ZERO; i < this.size; i++) {
+			if (this.cells[i] != null) {
+				decoded++;
+			}
+		}
+		return decoded;
+	}
+
+	/**
+	 * *****************************
+	 * *****************************
+	 * *****************************
+	 *           Helpers
+	 * *****************************
+	 * *****************************
+	 * *****************************
+	 */
+
+	/**
+	 * Checks if the cell in a slot is in order with the cells on either side of it without decoding them
+	 * @param index the slot to check
+	 * @return true if the rowId is no smaller than the one before it and no larger than the one after it
+	 */
+	private boolean inOrderWithNeighbours(int index) {
+		int rowId = getRowId(index);
+		return (index == ZERO || getRowId(index - ONE) <= rowId) &&
+				(index == this.size - ONE || rowId <= getRowId(index + ONE));
+	}
+
+	/**
+	 * Checks if the cells are sorted by rowId without decoding them
+	 * @return true if every rowId is larger than the one before it
+	 */
+	private boolean checkSorted() {
+		for (int i = ONE; i < this.size; i++) {
+			if (getRowId(i - ONE) > getRowId(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the size of the cell starting at an offset in the bytes read from the file
+	 * @param offset the offset of the cell
+	 * @return the size of the cell in bytes
+	 */
+	private int rawCellSize(int offset) {
+		if (this.leafCells) {
+			return TABLE_LEAF_CELL_HEADER_SIZE + rawShort(offset + LEAF_CELL_PAYLOAD_SIZE);
+		}
+		return TABLE_INTERIOR_CELL_SIZE;
+	}
+	
+	/**
+	 * Reads an int from the stored cell bytes. The data cell area is stored back to front so in order byte k is at
+	 * (sizeOfDataCells - 1 - k) and the bytes of the int come out reversed.
+	 * @param offset the in order offset of the int within the data cell area
+	 * @return the int value
+	 */
+	private int rawInt(int offset) {
+		return Integer.reverseBytes(this.cellBytes.getInt(this.sizeOfDataCells - offset - Integer.BYTES));
+	}
+	
+	/**
+	 * Reads a short from the stored cell bytes, see rawInt()
+	 * @param offset the in order offset of the short within the data cell area
+	 * @return the short value
+	 */
+	private short rawShort(int offset) {
+		return Short.reverseBytes(this.cellBytes.getShort(this.sizeOfDataCells - offset - Short.BYTES));
+	}
+	
+	/**
+	 * Copies the stored bytes of a cell that was read from the file into a buffer in order
+	 * @param index the index of the cell
+	 * @param buffer the buffer to write to
+	 * @param position the position in the buffer to start writing at
+	 */
+	private void writeRawCell(int index, ByteBuffer buffer, int position) {
+		int offset = this.offsets[index];
+		int cellSize = rawCellSize(offset);
+		int last = this.sizeOfDataCells - ONE - offset;
+		for (int i = ZERO; i < cellSize; i++) {
+			buffer.put(position + i, this.cellBytes.get(last - i));
+		}
+	}
+
+	/**
+	 * Throws IndexOutOfBoundsException if the index is not a slot in use
+	 * @param index the index to check
+	 */
+	private void checkIndex(int index) {
+		if (index < ZERO || index >= this.size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+		}
+	}
+}
@@ -0,0 +1,91 @@
+package edu.utdallas.cs6360.davisbase.trees;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import static edu.utdallas.cs6360.davisbase.Config.*;
+
+/**
+ * A PageFile that reads and writes each page with a positional FileChannel call on a RandomAccessFile. This is the
+ * RANDOM_ACCESS storage mode.
+ *
+ * @author Charles Krol
+ * @author Matthew Villarreal
+ * @author Michael Del Rosario
+ * @author Mithil Vijay
+ */
+class ChannelPageFile extends PageFile {
+	/**
+	 * The file being accessed
+	 */
+	private final RandomAccessFile file;
+	
+	/**
+	 * The channel of the file, used for positional reads and writes so there is no seek per page
+	 */
+	private final FileChannel channel;
+	
+	/**
+	 * Constructor that opens a tree file for reading and writing, the first page of the file is it's file header
+	 * @param fileName the fully qualified file name
+	 * @param pageSize the size of a page in bytes
+	 * @throws IOException if the file cannot be opened
+	 */
+	ChannelPageFile(String fileName, int pageSize) throws IOException {
+		this(new RandomAccessFile(fileName, READ_WRITE_MODE), pageSize, pageSize);
+	}
+	
+	/**
+	 * Constructor that wraps an already open RandomAccessFile without a file header
+	 * @param file the file to access
+	 * @param pageSize the size of a page in bytes
+	 */
+	ChannelPageFile(RandomAccessFile file, int pageSize) {
+		this(file, pageSize, ZERO);
+	}
+	
+	/**
+	 * Constructor that wraps an already open RandomAccessFile
+	 * @param file the file to access
+	 * @param pageSize the size of a page in bytes
+	 * @param firstPageAddress the byte address of page 0
+	 */
+	private ChannelPageFile(RandomAccessFile file, int pageSize, long firstPageAddress) {
+		super(pageSize, firstPageAddress);
+		this.file = file;
+		this.channel = file.getChannel();
+	}
+	
+	@Override
+	ByteBuffer read(long address, ByteBuffer scratch) throws IOException {
+		scratch.clear();
+		while (scratch.hasRemaining() && this.channel.read(scratch, address + scratch.position()) >= ZERO) {
+			// Keep reading until the page is full or the end of the file
+		}
+		scratch.clear();
+		return scratch;
+	}
+	
+	@Override
+	void write(long address, ByteBuffer block) throws IOException {
+		// A positional write expands the file if needed
+		long blockStartAddress = address - block.position();
+		while (block.hasRemaining()) {
+			this.channel.write(block, blockStartAddress + block.position());
+		}
+	}
+	
+	@Override
+	long length() throws IOException { return this.file.length(); }
+	
+	@Override
+	void setLength(long length) throws IOException { this.file.setLength(length); }
+	
+	@Override
+	void force() throws IOException { this.channel.force(false); }
+	
+	@Override
+	void close() throws IOException { this.file.close(); }
+}
@@ -1,9 +1,12 @@
 package edu.utdallas.cs6360.davisbase.trees;
 
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
+import static edu.utdallas.cs6360.davisbase.Config.ZERO;
+
 /**
  * An abstract class to represent Data Cells<br>
  *     TableInteriorCell and TableLeafCell
@@ -69,10 +72,26 @@ public abstract class DataCell implements Comparable<DataCell> {
 	public abstract int size();
 	
 	/**
-	 * Abstract method to get the byte representation of a data cell to store on disk
+	 * Abstract method to write the byte representation of a data cell into a buffer using absolute puts
+	 * @param buffer the buffer to write to, usually the page buffer of a PageCodec
+	 * @param position the position in the buffer to start writing at
+	 */
+	abstract void writeTo(ByteBuffer buffer, int position);
+	
+	/**
+	 * Method to get the byte representation of a data cell to store on disk
 	 * @return the bytes of the data cell to store on the disk
 	 */
-	public abstract List<Byte> getBytes();
+	public List<Byte> getBytes() {
+		ByteBuffer buffer = ByteBuffer.allocate(size());
+		writeTo(buffer, ZERO);
+		
+		ArrayList<Byte> output = new ArrayList<>(buffer.capacity());
+		for (byte b : buffer.array()) {
+			output.add(b);
+		}
+		return output;
+	}
 	
 	
 	/**
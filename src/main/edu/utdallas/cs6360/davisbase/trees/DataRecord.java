@@ -24,6 +24,11 @@ import static edu.utdallas.cs6360.davisbase.Config.*;
  * @author Mithil Vijay
  */
 public class DataRecord {
+	/**
+	 * Characters at or above this value are not US-ASCII
+	 */
+	private static final char ASCII_LIMIT = 0x80;
+	
 	
 	/**
 	 * The DataTypes fir each column in this DataRecord
@@ -86,91 +91,76 @@ public class DataRecord {
 	 *             getBytes() class method at an earlier time
 	 */
 	DataRecord(byte[] data) {
-		// Wrap payload byte array from file in a ByteBuffer
-		ByteBuffer dataBuffer = ByteBuffer.wrap(data);
-		
+		this(ByteBuffer.wrap(data), ZERO, data.length);
+	}
+	
+	/**
+	 * This Constructor is used when loading a DataRecord straight out of a page buffer without first copying it's
+	 * bytes into an array. The bytes are read with absolute gets so the buffer's position is left untouched.<br>
+	 *
+	 * The layout is the same one read by the byte array constructor, the number of columns, the column type codes
+	 * with text type codes storing their length, and then the column values.
+	 * @param data a buffer holding the DataRecord
+	 * @param position the position in the buffer where the DataRecord starts
+	 * @param length the number of bytes taken up by the DataRecord
+	 */
+	DataRecord(ByteBuffer data, int position, int length) {
 		// Get the number of columns and create arrays
+		int numColumns = byteToUnSignedInt(data.get(position));
+		this.columnDataType = new ArrayList<>(numColumns);
+		this.columnData = new ArrayList<>(numColumns);
 		
-		int numColumns = byteToUnSignedInt(dataBuffer.get());
-		this.columnDataType = new ArrayList<>();
-		this.columnData = new ArrayList<>();
+		// Pointers to the column type codes and the column data that follows them
+		int codePointer = position + ONE;
+		int dataPointer = codePointer + numColumns;
+		int endOfRecord = position + length;
 		
-		ArrayList<Byte> originalCodes = new ArrayList<>();
-		// Get column data types
-		for(int i = ZERO; i < numColumns; i++) {
-			originalCodes.add(dataBuffer.get());
-			this.columnDataType.add(DataType.getEnum(originalCodes.get(i)));
-			
-		}
-		
-		// Pointer for column arrays
 		// TODO change null values to load and store values to disk if not whitespace I think the NULL field means it can be NULL not that is actually is null
-		int columnPointer = ZERO;
-		while (dataBuffer.hasRemaining() && columnPointer < this.columnDataType.size()) {
-			switch (this.columnDataType.get(columnPointer)) {
+		for(int i = ZERO; i < numColumns && dataPointer <= endOfRecord; i++) {
+			byte originalCode = data.get(codePointer + i);
+			DataType columnType = DataType.getEnum(originalCode);
+			this.columnDataType.add(columnType);
+			switch (columnType) {
 				case NULL1_TYPE_CODE:
-					this.columnData.add("");
-					columnPointer++;
-					dataBuffer.get();
-					break;
 				case NULL2_TYPE_CODE:
-					this.columnData.add("");
-					columnPointer++;
-					dataBuffer.getShort();
-					break;
 				case NULL4_TYPE_CODE:
-					this.columnData.add("");
-					columnPointer++;
-					dataBuffer.getInt();
-					break;
 				case NULL8_TYPE_CODE:
 					this.columnData.add("");
-					columnPointer++;
-					dataBuffer.getLong();
 					break;
 				case TINY_INT_TYPE_CODE:
-					this.columnData.add(Byte.toString(dataBuffer.get()));
-					columnPointer++;
+					this.columnData.add(Byte.toString(data.get(dataPointer)));
 					break;
 				case SHORT_TYPE_CODE:
-					this.columnData.add(Short.toString(dataBuffer.getShort()));
-					columnPointer++;
+					this.columnData.add(Short.toString(data.getShort(dataPointer)));
 					break;
 				case INT_TYPE_CODE:
-					this.columnData.add(Integer.toString(dataBuffer.getInt()));
-					columnPointer++;
+					this.columnData.add(Integer.toString(data.getInt(dataPointer)));
 					break;
 				case LONG_TYPE_CODE:
-					this.columnData.add(Long.toString(dataBuffer.getLong()));
-					columnPointer++;
+					this.columnData.add(Long.toString(data.getLong(dataPointer)));
 					break;
 				case REAL_TYPE_CODE:
-					this.columnData.add(Float.toString(dataBuffer.getFloat()));
-					columnPointer++;
+					this.columnData.add(Float.toString(data.getFloat(dataPointer)));
 					break;
 				case DOUBLE_TYPE_CODE:
-					this.columnData.add(Double.toString(dataBuffer.getDouble()));
-					columnPointer++;
+					this.columnData.add(Double.toString(data.getDouble(dataPointer)));
 					break;
 				case DATETIME_TYPE_CODE:
 				case DATE_TYPE_CODE:
-					this.columnData.add(Long.toUnsignedString(dataBuffer.getLong()));
-					columnPointer++;
+					this.columnData.add(Long.toUnsignedString(data.getLong(dataPointer)));
 					break;
 				case TEXT_TYPE_CODE:
 					// Get the size of the text field from the type code byte representation
-					int lengthOfText = DataType.getDataTypeSize(originalCodes.get(columnPointer));
-					// Store the correct type code
-					this.columnDataType.add(DataType.TEXT_TYPE_CODE);
-					// Use the lengthOfText local variable to collect the text values
-					byte[] textColData = new byte[lengthOfText];
-					dataBuffer.get(textColData, ZERO, lengthOfText);
+					byte[] textColData = new byte[DataType.getDataTypeSize(originalCode)];
+					for(int j = ZERO; j < textColData.length; j++) {
+						textColData[j] = data.get(dataPointer + j);
+					}
 					this.columnData.add(new String(textColData, StandardCharsets.US_ASCII));
-					columnPointer++;
 					break;
 				default:
 					throw new IllegalStateException("Invalid Data Type Byte Code");
 			}
+			dataPointer += getColumnSize(i);
 		}
 	}
 	
@@ -260,129 +250,163 @@ public class DataRecord {
 	 * @return a byte array containing the correctly formatted data
 	 */
 	ArrayList<Byte> getBytes() {
-		ArrayList<Byte> output = new ArrayList<>();
-		output.add((byte) this.columnData.size());
-		
-		
-		output.addAll(getColumnCodes());
-		// Get column data bytes and add to the end of the ArrayList
-		output.addAll(getColumnDataBytes());
+		ByteBuffer buffer = ByteBuffer.allocate(size());
+		writeTo(buffer, ZERO);
 		
+		ArrayList<Byte> output = new ArrayList<>(buffer.capacity());
+		for (byte b : buffer.array()) {
+			output.add(b);
+		}
 		return output;
 	}
 	
 	/**
-	 * Method to return the size of the page
-	 * @return the number of data cells stored on the page
-	 */
-	short size() {
-		ArrayList<Byte> dataRecordBytes = getBytes();
-		return (short)dataRecordBytes.size();
-	}
-	
-	/**
-	 * A private helper method to help reduce the complexity of the getBytes() class method
-	 * @return an ArrayList with the column data type codes
+	 * Checks that every value can be stored as the type of it's column, with the same conversions writeTo makes, so a
+	 * bad value is found before the DataRecord is added to a page
+	 * @throws IllegalArgumentException naming the first value that can't be stored
 	 */
-	private ArrayList<Byte> getColumnCodes() {
-		ArrayList<Byte> output = new ArrayList<>();
-		
-		for (int i = ZERO; i < this.columnDataType.size(); i++) {
-			if (this.columnDataType.get(i).getTypeCode() < DataType.TEXT_TYPE_CODE.getTypeCode()) {
-				output.add(this.columnDataType.get(i).getTypeCode());
-			} else {
-				int textLength = this.columnData.get(i).getBytes(StandardCharsets.US_ASCII).length;
-				output.add((byte) (this.columnDataType.get(i).getTypeCode() +(byte)textLength));
+	void checkValues() {
+		for (int i = ZERO; i < this.columnData.size(); i++) {
+			String value = this.columnData.get(i);
+			try {
+				switch (this.columnDataType.get(i)) {
+					case TINY_INT_TYPE_CODE:
+						Byte.parseByte(value);
+						break;
+					case SHORT_TYPE_CODE:
+						Short.parseShort(value);
+						break;
+					case INT_TYPE_CODE:
+						Integer.parseInt(value);
+						break;
+					case LONG_TYPE_CODE:
+						Long.parseLong(value);
+						break;
+					case REAL_TYPE_CODE:
+						Float.parseFloat(value);
+						break;
+					case DOUBLE_TYPE_CODE:
+						Double.parseDouble(value);
+						break;
+					case DATETIME_TYPE_CODE:
+					case DATE_TYPE_CODE:
+						Long.parseUnsignedLong(value);
+						break;
+					default:
+						// NULL and TEXT columns take any value
+						break;
+				}
+			} catch (NumberFormatException | NullPointerException e) {
+				throw new IllegalArgumentException("Value " + value + " of column " + (i + ONE) + " is not a valid " +
+						this.columnDataType.get(i), e);
 			}
 		}
-		return output;
 	}
 	
 	/**
-	 * A private helper method to help reduce the complexity of the getBytes() class method
-	 * @return an ArrayList with the data bytes of our column values
+	 * Writes the DataRecord into a buffer in the specified format using absolute puts, the number of columns, the
+	 * column type codes, and then the column values. The buffer's position is left untouched.
+	 * @param buffer the buffer to write to, usually the page buffer of a PageCodec
+	 * @param position the position in the buffer to start writing at
 	 */
-	private ArrayList<Byte> getColumnDataBytes() {
-		ArrayList<Byte> output = new ArrayList<>();
+	void writeTo(ByteBuffer buffer, int position) {
+		int numColumns = this.columnData.size();
+		buffer.put(position, (byte) numColumns);
 		
-		for (int i = ZERO; i < this.columnData.size(); i++) {
+		// Pointers to the column type codes and the column data that follows them
+		int codePointer = position + ONE;
+		int dataPointer = codePointer + numColumns;
+		
+		for (int i = ZERO; i < numColumns; i++) {
+			buffer.put(codePointer + i, getColumnCode(i));
+			String value = this.columnData.get(i);
 			switch (this.columnDataType.get(i)) {
 				case NULL1_TYPE_CODE:
-					output.add((byte) ZERO);
+					buffer.put(dataPointer, NULL_BYTE);
 					break;
 				case NULL2_TYPE_CODE:
-					for (int j = ZERO; j < Short.BYTES; j++) { output.add((byte) ZERO); }
+					buffer.putShort(dataPointer, (short) ZERO);
 					break;
 				case NULL4_TYPE_CODE:
-					for (int j = ZERO; j < Integer.BYTES; j++) { output.add((byte) ZERO); }
+					buffer.putInt(dataPointer, ZERO);
 					break;
 				case NULL8_TYPE_CODE:
-					for (int j = ZERO; j < Long.BYTES; j++) { output.add((byte) ZERO); }
+					buffer.putLong(dataPointer, ZERO);
 					break;
 				case TINY_INT_TYPE_CODE:
-					output.add(Byte.parseByte(this.columnData.get(i)));
+					buffer.put(dataPointer, Byte.parseByte(value));
 					break;
 				case SHORT_TYPE_CODE:
-					byte[] shortVal
-							= shortToBytes(Short.parseShort(this.columnData.get(i)));
-					for (byte b: shortVal) {
-						output.add(b);
-					}
+					buffer.putShort(dataPointer, Short.parseShort(value));
 					break;
 				case INT_TYPE_CODE:
-					byte[] intVal
-							= intToBytes(Integer.parseInt(this.columnData.get(i)));
-					for (byte b: intVal) {
-						output.add(b);
-					}
+					buffer.putInt(dataPointer, Integer.parseInt(value));
 					break;
 				case LONG_TYPE_CODE:
-					byte[] longVal
-							= longToBytes(Long.parseLong(this.columnData.get(i)));
-					for (byte b: longVal) {
-						output.add(b);
-					}
+					buffer.putLong(dataPointer, Long.parseLong(value));
 					break;
 				case REAL_TYPE_CODE:
-					byte[] floatVal
-							= floatToByte(Float.parseFloat(this.columnData.get(i)));
-					for (byte b: floatVal) {
-						output.add(b);
-					}
+					buffer.putFloat(dataPointer, Float.parseFloat(value));
 					break;
 				case DOUBLE_TYPE_CODE:
-					byte[] doubleVal
-							= doubleToBytes(Double.parseDouble(this.columnData.get(i)));
-					for (byte b: doubleVal) {
-						output.add(b);
-					}
+					buffer.putDouble(dataPointer, Double.parseDouble(value));
 					break;
 				case DATETIME_TYPE_CODE:
-					byte[] dateTimeLongVal
-							= longToBytes(Long.parseUnsignedLong(this.columnData.get(i)));
-					for (byte b: dateTimeLongVal) {
-						output.add(b);
-					}
-					break;
 				case DATE_TYPE_CODE:
-					byte[] dateLongVal
-							= longToBytes(Long.parseUnsignedLong(this.columnData.get(i)));
-					for (byte b: dateLongVal) {
-						output.add(b);
-					}
+					buffer.putLong(dataPointer, Long.parseUnsignedLong(value));
 					break;
 				case TEXT_TYPE_CODE:
-					byte[] textVal = this.columnData.get(i).getBytes(StandardCharsets.US_ASCII);
-					for (byte b: textVal) {
-						output.add(b);
+					// US-ASCII, characters outside of it are replaced with '?'
+					for (int j = ZERO; j < value.length(); j++) {
+						char c = value.charAt(j);
+						buffer.put(dataPointer + j, c < ASCII_LIMIT ? (byte) c : (byte) '?');
 					}
 					break;
 				default:
 					throw new IllegalStateException("Illegal Data Type");
-				
 			}
+			dataPointer += getColumnSize(i);
 		}
-		return output;
+	}
+	
+	/**
+	 * Method to return the size of the DataRecord in bytes, calculated from the column types and the length of the
+	 * text columns so the record does not have to be serialized
+	 * @return the number of bytes the DataRecord takes up on a page
+	 */
+	short size() {
+		int size = ONE + this.columnData.size();
+		for (int i = ZERO; i < this.columnData.size(); i++) {
+			size += getColumnSize(i);
+		}
+		return (short) size;
+	}
+	
+	/**
+	 * A private helper method that returns the type code stored for a column, text type codes also store the length
+	 * of the text
+	 * @param colId the id of the column
+	 * @return the column's type code as it is stored in the file
+	 */
+	private byte getColumnCode(int colId) {
+		byte typeCode = this.columnDataType.get(colId).getTypeCode();
+		if (typeCode < DataType.TEXT_TYPE_CODE.getTypeCode()) {
+			return typeCode;
+		}
+		return (byte) (typeCode + (byte) this.columnData.get(colId).length());
+	}
+	
+	/**
+	 * A private helper method that returns the number of bytes a column's value takes up
+	 * @param colId the id of the column
+	 * @return the size of the column's value in bytes
+	 */
+	private int getColumnSize(int colId) {
+		DataType colType = this.columnDataType.get(colId);
+		if (colType == DataType.TEXT_TYPE_CODE) {
+			return this.columnData.get(colId).length();
+		}
+		return DataType.getDataTypeSize(colType.getTypeCode());
 	}
 	
 	/**
@@ -435,6 +459,22 @@ public class DataRecord {
 	 */
 	ArrayList<String> getColumnData() { return this.columnData; }
 	
+	/**
+	 * Returns the values stored in the columns of this DataRecord as they are displayed
+	 * @return a read only list of the column values in column order
+	 */
+	public List<String> getColumnValues() { return Collections.unmodifiableList(this.columnData); }
+
+	/**
+	 * Returns the value of one column the way an IndexTree takes it
+	 * @param colId the id of the column
+	 * @return the column's value, null if the column is NULL
+	 */
+	public String getColumnValue(int colId) {
+		DataType colType = this.columnDataType.get(colId);
+		return colType.getTypeCode() <= DataType.NULL8_TYPE_CODE.getTypeCode() ? null : this.columnData.get(colId);
+	}
+
 	/**
 	 * Method that outputs the values in a DataRecord
 	 * @return String representation of a DataRecord
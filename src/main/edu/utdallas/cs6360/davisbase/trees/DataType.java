@@ -1,7 +1,6 @@
 package edu.utdallas.cs6360.davisbase.trees;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.Optional;
 
 import static edu.utdallas.cs6360.davisbase.trees.TreeConstants.*;
@@ -165,9 +164,8 @@ public enum DataType {
 			return false;
 		}
 		
-		Collections.sort(typeList1);
-		Collections.sort(typeList2);
-		
+		// Columns are matched by position, the lists are compared as they are since sorting them would reorder the
+		// columns of the caller's record away from their values
 		return typeList1.equals(typeList2);
 	}
 }
\ No newline at end of file
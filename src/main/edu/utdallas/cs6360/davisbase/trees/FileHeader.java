@@ -0,0 +1,241 @@
+package edu.utdallas.cs6360.davisbase.trees;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+
+import static edu.utdallas.cs6360.davisbase.Config.*;
+
+/**
+ * The header stored in the first page of every table and index file.<br>
+ *
+ * The header identifies the file as a DavisBase tree file and records the settings the file was created with so they
+ * do not have to be supplied again every time the file is opened. It always takes up one whole page so the pages of
+ * the tree stay aligned with the page size.<br>
+ *
+ * The header also holds the TreeMetadata of the tree, the root page, the height and the counters that would otherwise
+ * have to be found by reading the tree. A tree logs a new header with every operation that changes them, as page
+ * HEADER_PAGE_NUMBER, so the header is written the same way as the pages it describes.<br>
+ *
+ * The flags byte holds settings that only some files use, like UNIQUE_FLAG for an index that allows every value only
+ * once. The columns of an index file are the indexed columns, the rowId, and then the columns the index includes, see
+ * IndexTree, the number of included columns tells them apart. Files written before either existed hold a 0 in both,
+ * so they open with no flag set and no included columns.<br>
+ *
+ * Format:<br>
+ *     [magic(4), version(2), flags(1), numOfIncludedColumns(1), pageSize(4), rootPageNumber(4), height(4), rowIdCounter(4), numOfPages(4),
+ *     numOfLeafPages(4), numOfInteriorPages(4), reserved up to byte 64, numOfColumns(1), columnTypeCodes(n)]
+ *
+ * @author Charles Krol
+ * @author Matthew Villarreal
+ * @author Michael Del Rosario
+ * @author Mithil Vijay
+ */
+final class FileHeader {
+	/**
+	 * Offsets of the header fields from the start of the file
+	 */
+	private static final int MAGIC_OFFSET = 0;
+	private static final int VERSION_OFFSET = 4;
+	private static final int FLAGS_OFFSET = 6;
+	private static final int NUM_OF_INCLUDED_COLUMNS_OFFSET = 7;
+	private static final int PAGE_SIZE_OFFSET = 8;
+	private static final int ROOT_PAGE_NUMBER_OFFSET = 12;
+	private static final int HEIGHT_OFFSET = 16;
+	private static final int ROW_ID_COUNTER_OFFSET = 20;
+	private static final int NUM_OF_PAGES_OFFSET = 24;
+	private static final int NUM_OF_LEAF_PAGES_OFFSET = 28;
+	private static final int NUM_OF_INTERIOR_PAGES_OFFSET = 32;
+	private static final int NUM_OF_COLUMNS_OFFSET = 64;
+	private static final int COLUMN_TYPES_OFFSET = 65;
+
+	/**
+	 * Set in the flags of an index whose entries must all have different values, see IndexTree.isUnique
+	 */
+	static final byte UNIQUE_FLAG = 1;
+
+	/**
+	 * The size of a page in the file
+	 */
+	private final int pageSize;
+
+	/**
+	 * The data types of the columns stored in the file
+	 */
+	private final ArrayList<DataType> colTypes;
+
+	/**
+	 * The settings of the file, a combination of the flag constants of this class
+	 */
+	private final byte flags;
+
+	/**
+	 * The number of columns at the end of colTypes a covering index stores next to it's entries
+	 */
+	private final int numOfIncludedColumns;
+
+	/**
+	 * The root page and counters of the tree stored in the file
+	 */
+	private final TreeMetadata metadata;
+
+	/**
+	 * Constructor for the header of a new file holding an empty tree
+	 * @param pageSize the size of a page in the file
+	 * @param colTypes the data types of the columns stored in the file
+	 */
+	FileHeader(int pageSize, ArrayList<DataType> colTypes) {
+		this(pageSize, colTypes, (byte) ZERO, ZERO, TreeMetadata.emptyTree());
+	}
+
+	/**
+	 * Constructor for the header of a new index file holding an empty tree
+	 * @param pageSize the size of a page in the file
+	 * @param colTypes the data types of the columns stored in the file
+	 * @param flags the settings of the file, a combination of the flag constants of this class
+	 * @param numOfIncludedColumns the number of columns at the end of colTypes included by a covering index
+	 */
+	FileHeader(int pageSize, ArrayList<DataType> colTypes, byte flags, int numOfIncludedColumns) {
+		this(pageSize, colTypes, flags, numOfIncludedColumns, TreeMetadata.emptyTree());
+	}
+
+	/**
+	 * Constructor for the header of a file
+	 * @param pageSize the size of a page in the file
+	 * @param colTypes the data types of the columns stored in the file
+	 * @param flags the settings of the file, a combination of the flag constants of this class
+	 * @param numOfIncludedColumns the number of columns at the end of colTypes included by a covering index
+	 * @param metadata the root page and counters of the tree stored in the file
+	 */
+	FileHeader(int pageSize, ArrayList<DataType> colTypes, byte flags, int numOfIncludedColumns,
+			   TreeMetadata metadata) {
+		if (COLUMN_TYPES_OFFSET + colTypes.size() > MIN_PAGE_SIZE || colTypes.size() > MAX_CELLS_PER_PAGE) {
+			throw new IllegalArgumentException("Too many columns to store in the file header: " + colTypes.size());
+		}
+		this.pageSize = pageSize;
+		this.colTypes = colTypes;
+		this.flags = flags;
+		this.numOfIncludedColumns = numOfIncludedColumns;
+		this.metadata = metadata;
+	}
+
+	/**
+	 * Reads the header of an existing file. The page size is not known until the header is read so only the first
+	 * Config.MIN_PAGE_SIZE bytes are read, every field of the header fits in them.
+	 * @param fileName the fully qualified file name
+	 * @return the header stored in the file
+	 * @throws IOException if the file cannot be read or is not a DavisBase tree file
+	 */
+	static FileHeader read(String fileName) throws IOException {
+		try (RandomAccessFile file = new RandomAccessFile(fileName, "r")) {
+			byte[] header = new byte[MIN_PAGE_SIZE];
+			file.readFully(header);
+			return decode(ByteBuffer.wrap(header));
+		}
+	}
+
+	/**
+	 * Decodes a header from the start of a buffer
+	 * @param buffer a buffer holding at least Config.MIN_PAGE_SIZE bytes of the start of the file
+	 * @return the decoded header
+	 * @throws IOException if the buffer does not hold a DavisBase file header
+	 */
+	static FileHeader decode(ByteBuffer buffer) throws IOException {
+		if (buffer.getInt(MAGIC_OFFSET) != FILE_HEADER_MAGIC) {
+			throw new IOException("Not a DavisBase table file");
+		}
+		short version = buffer.getShort(VERSION_OFFSET);
+		if (version != FILE_FORMAT_VERSION) {
+			throw new IOException("Unsupported file format version: " + version);
+		}
+		int pageSize = buffer.getInt(PAGE_SIZE_OFFSET);
+		if (!TableConfig.isValidPageSize(pageSize)) {
+			throw new IOException("Invalid page size in file header: " + pageSize);
+		}
+
+		int numOfColumns = Byte.toUnsignedInt(buffer.get(NUM_OF_COLUMNS_OFFSET));
+		ArrayList<DataType> colTypes = new ArrayList<>(numOfColumns);
+		for (int i = ZERO; i < numOfColumns; i++) {
+			colTypes.add(DataType.getEnum(buffer.get(COLUMN_TYPES_OFFSET + i)));
+		}
+		TreeMetadata metadata = new TreeMetadata(buffer.getInt(ROOT_PAGE_NUMBER_OFFSET), buffer.getInt(HEIGHT_OFFSET),
+				buffer.getInt(ROW_ID_COUNTER_OFFSET), buffer.getInt(NUM_OF_PAGES_OFFSET),
+				buffer.getInt(NUM_OF_LEAF_PAGES_OFFSET), buffer.getInt(NUM_OF_INTERIOR_PAGES_OFFSET));
+		return new FileHeader(pageSize, colTypes, buffer.get(FLAGS_OFFSET),
+				Byte.toUnsignedInt(buffer.get(NUM_OF_INCLUDED_COLUMNS_OFFSET)), metadata);
+	}
+
+	/**
+	 * Encodes the header into a page sized buffer, the rest of the page is filled with NULL bytes
+	 * @param buffer a buffer with capacity of at least the page size
+	 * @return the buffer positioned at 0 with the limit at the end of the page
+	 */
+	ByteBuffer encode(ByteBuffer buffer) {
+		buffer.clear();
+		for (int i = ZERO; i < this.pageSize; i++) {
+			buffer.put(i, NULL_BYTE);
+		}
+		buffer.putInt(MAGIC_OFFSET, FILE_HEADER_MAGIC);
+		buffer.putShort(VERSION_OFFSET, FILE_FORMAT_VERSION);
+		buffer.put(FLAGS_OFFSET, this.flags);
+		buffer.put(NUM_OF_INCLUDED_COLUMNS_OFFSET, (byte) this.numOfIncludedColumns);
+		buffer.putInt(PAGE_SIZE_OFFSET, this.pageSize);
+		buffer.putInt(ROOT_PAGE_NUMBER_OFFSET, this.metadata.getRootPageNumber());
+		buffer.putInt(HEIGHT_OFFSET, this.metadata.getHeight());
+		buffer.putInt(ROW_ID_COUNTER_OFFSET, this.metadata.getRowIdCounter());
+		buffer.putInt(NUM_OF_PAGES_OFFSET, this.metadata.getNumOfPages());
+		buffer.putInt(NUM_OF_LEAF_PAGES_OFFSET, this.metadata.getNumOfLeafPages());
+		buffer.putInt(NUM_OF_INTERIOR_PAGES_OFFSET, this.metadata.getNumOfInteriorPages());
+		buffer.put(NUM_OF_COLUMNS_OFFSET, (byte) this.colTypes.size());
+		for (int i = ZERO; i < this.colTypes.size(); i++) {
+			buffer.put(COLUMN_TYPES_OFFSET + i, this.colTypes.get(i).getTypeCode());
+		}
+		buffer.limit(this.pageSize);
+		return buffer;
+	}
+
+	/**
+	 * Getter for property 'pageSize'.
+	 *
+	 * @return Value for property 'pageSize'.
+	 */
+	int getPageSize() { return this.pageSize; }
+
+	/**
+	 * Getter for property 'colTypes'.
+	 *
+	 * @return Value for property 'colTypes'.
+	 */
+	ArrayList<DataType> getColTypes() { return this.colTypes; }
+
+	/**
+	 * Getter for property 'metadata'.
+	 *
+	 * @return Value for property 'metadata'.
+	 */
+	TreeMetadata getMetadata() { return this.metadata; }
+
+	/**
+	 * Checks if a flag is set in the header
+	 * @param flag one of the flag constants of this class
+	 * @return true if the flag is set
+	 */
+	boolean hasFlag(byte flag) { return (this.flags & flag) != ZERO; }
+
+	/**
+	 * Getter for property 'numOfIncludedColumns'.
+	 *
+	 * @return Value for property 'numOfIncludedColumns'.
+	 */
+	int getNumOfIncludedColumns() { return this.numOfIncludedColumns; }
+
+	/**
+	 * Returns the header with different metadata, for the header logged when an operation commits
+	 * @param metadata the new metadata
+	 * @return a header with the same page size, column types, flags and included columns
+	 */
+	FileHeader withMetadata(TreeMetadata metadata) {
+		return new FileHeader(this.pageSize, this.colTypes, this.flags, this.numOfIncludedColumns, metadata);
+	}
+}
@@ -0,0 +1,288 @@
+package edu.utdallas.cs6360.davisbase.trees;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static edu.utdallas.cs6360.davisbase.Config.*;
+
+/**
+ * A persistent bitmap of the pages in use in a table or index file, used by both trees to allocate and free pages.<br>
+ *
+ * The pages of a file are split into groups of (pageSize * 8) pages and every group has one bitmap page, bit i of
+ * the bitmap is set if page (group * pagesPerMap + i) is in use. The bitmap page of a group is always the second page
+ * of the group, page 1 for the first group, so it never collides with the root page 0 and it's location can be
+ * calculated instead of stored. A 512 byte bitmap page covers 4096 pages, an 8K one covers 65536.<br>
+ *
+ * The whole map is cached in memory as a BitSet along with the lowest page that might be free, allocating and freeing
+ * never read the file. Pages can also be allocated near another page, within the same extent of Config.EXTENT_SIZE
+ * pages, so pages that are read one after the other stay close together in the file. Changed bitmap pages are
+ * written back when the tree calls `flush()`, or handed to the tree by `takeDirtyMapPages()` so they are logged and
+ * written with the rest of an operation. Every method that reads or changes the map is synchronized since the threads
+ * working on a tree allocate and free pages at the same time.
+ *
+ * @author Charles Krol
+ * @author Matthew Villarreal
+ * @author Michael Del Rosario
+ * @author Mithil Vijay
+ */
+final class FreeSpaceMap {
+	/**
+	 * A logger that logs things for logging purposes
+	 */
+	private static final Logger LOGGER = Logger.getLogger(FreeSpaceMap.class.getName());
+
+	/**
+	 * The bitmap page of a group is at this offset from the first page of the group
+	 */
+	private static final int MAP_PAGE_OFFSET = 1;
+
+	/**
+	 * The file the map belongs to
+	 */
+	private final PageFile file;
+
+	/**
+	 * The number of pages covered by one bitmap page
+	 */
+	private final int pagesPerMap;
+
+	/**
+	 * Bit n is set if page n is in use
+	 */
+	private final BitSet usedPages;
+
+	/**
+	 * Bit g is set if the bitmap page of group g has changed since it was last written
+	 */
+	private final BitSet dirtyMaps;
+
+	/**
+	 * Every page below this one is in use, allocation starts searching here
+	 */
+	private int lowestFreePage;
+
+	/**
+	 * The number of groups that have a bitmap page
+	 */
+	private int numOfMaps;
+
+	/**
+	 * Constructor for an empty map
+	 * @param file the file the map belongs to
+	 */
+	private FreeSpaceMap(PageFile file) {
+		this.file = file;
+		this.pagesPerMap = file.getPageSize() * Byte.SIZE;
+		this.usedPages = new BitSet();
+		this.dirtyMaps = new BitSet();
+		this.lowestFreePage = ZERO;
+		this.numOfMaps = ZERO;
+	}
+
+	/**
+	 * Creates the map for a new file, the root page and the first bitmap page are in use
+	 * @param file the new file
+	 * @return the map of the new file
+	 */
+	static FreeSpaceMap create(PageFile file) {
+		FreeSpaceMap map = new FreeSpaceMap(file);
+		map.addMap();
+		map.usedPages.set(ROOT_PAGE_NUMBER);
+		map.lowestFreePage = map.usedPages.nextClearBit(ZERO);
+		return map;
+	}
+
+	/**
+	 * Reads the map of an existing file by reading every bitmap page in the file
+	 * @param file the existing file
+	 * @return the map of the file
+	 * @throws IOException if a bitmap page cannot be read
+	 */
+	static FreeSpaceMap load(PageFile file) throws IOException {
+		FreeSpaceMap map = new FreeSpaceMap(file);
+		int pagesInFile = file.getNumOfPages();
+		ByteBuffer scratch = PageCodec.get(file.getPageSize()).readBuffer();
+		do {
+			int firstPage = map.numOfMaps * map.pagesPerMap;
+			int mapPage = firstPage + MAP_PAGE_OFFSET;
+			if (mapPage < pagesInFile) {
+				BitSet bits = BitSet.valueOf(file.readPage(mapPage, scratch));
+				for (int i = bits.nextSetBit(ZERO); i >= ZERO; i = bits.nextSetBit(i + ONE)) {
+					map.usedPages.set(firstPage + i);
+				}
+				// Files grow by whole extents so a bitmap page can be inside the file without ever being written
+				map.usedPages.set(mapPage);
+			} else {
+				// The bitmap page was never written, the pages of the group before it are treated as in use since
+				// leaking a page is better than handing out one the tree is using
+				map.usedPages.set(firstPage, mapPage + ONE);
+				map.dirtyMaps.set(map.numOfMaps);
+			}
+			map.numOfMaps++;
+		} while (map.numOfMaps * map.pagesPerMap < pagesInFile);
+		map.usedPages.set(ROOT_PAGE_NUMBER);
+		map.lowestFreePage = map.usedPages.nextClearBit(ZERO);
+		LOGGER.log(Level.INFO, "Loaded free space map, pages in use: {0}", map.usedPages.cardinality());
+		return map;
+	}
+
+	/**
+	 * *****************************
+	 * *****************************
+	 * *****************************
+	 *       Page Allocation
+	 * *****************************
+	 * *****************************
+	 * *****************************
+	 */
+
+	/**
+	 * Finds the lowest free page and marks it as in use. A new group is started when every page of the existing
+	 * groups is in use.
+	 * @return the page number of the allocated page
+	 */
+	synchronized int allocate() {
+		int pageNumber = this.usedPages.nextClearBit(this.lowestFreePage);
+		while (pageNumber / this.pagesPerMap >= this.numOfMaps) {
+			// The first free page is past the last group, the new group's bitmap page must be in use first
+			addMap();
+			pageNumber = this.usedPages.nextClearBit(this.lowestFreePage);
+		}
+		this.usedPages.set(pageNumber);
+		this.dirtyMaps.set(pageNumber / this.pagesPerMap);
+		this.lowestFreePage = pageNumber + ONE;
+		return pageNumber;
+	}
+
+	/**
+	 * Allocates a free page in the same extent as the given page, preferring the pages after it. If the extent is full
+	 * the lowest free page in the file is allocated instead.
+	 * @param nearPage the page number the new page should be close to
+	 * @return the page number of the allocated page
+	 */
+	synchronized int allocateNear(int nearPage) {
+		if (nearPage < ZERO || nearPage / this.pagesPerMap >= this.numOfMaps) {
+			return allocate();
+		}
+		// An extent never crosses into the next group so the search cannot skip that group's bitmap page
+		int extentStart = nearPage - nearPage % EXTENT_SIZE;
+		int groupEnd = (nearPage / this.pagesPerMap + ONE) * this.pagesPerMap;
+		int extentEnd = Math.min(extentStart + EXTENT_SIZE, groupEnd);
+
+		int pageNumber = this.usedPages.nextClearBit(nearPage);
+		if (pageNumber >= extentEnd) {
+			pageNumber = this.usedPages.nextClearBit(extentStart);
+		}
+		if (pageNumber >= extentEnd) {
+			return allocate();
+		}
+		this.usedPages.set(pageNumber);
+		this.dirtyMaps.set(pageNumber / this.pagesPerMap);
+		if (pageNumber == this.lowestFreePage) {
+			this.lowestFreePage = pageNumber + ONE;
+		}
+		return pageNumber;
+	}
+	
+	/**
+	 * Marks a page as free so it can be allocated again
+	 * @param pageNumber the page number of the page to free
+	 */
+	synchronized void free(int pageNumber) {
+		if (pageNumber == ROOT_PAGE_NUMBER || isMapPage(pageNumber)) {
+			throw new IllegalArgumentException("Page " + pageNumber + " can never be freed");
+		}
+		if (!this.usedPages.get(pageNumber)) {
+			LOGGER.log(Level.WARNING, "Page {0} is already free", pageNumber);
+			return;
+		}
+		this.usedPages.clear(pageNumber);
+		this.dirtyMaps.set(pageNumber / this.pagesPerMap);
+		this.lowestFreePage = Math.min(this.lowestFreePage, pageNumber);
+	}
+
+	/**
+	 * Returns true if a page is in use
+	 * @param pageNumber the page number
+	 * @return true if the page is allocated, false if it is free
+	 */
+	synchronized boolean isAllocated(int pageNumber) {
+		return this.usedPages.get(pageNumber);
+	}
+
+	/**
+	 * Returns true if a page holds a bitmap instead of part of the tree
+	 * @param pageNumber the page number
+	 * @return true if the page is the bitmap page of it's group
+	 */
+	boolean isMapPage(int pageNumber) {
+		return pageNumber % this.pagesPerMap == MAP_PAGE_OFFSET;
+	}
+
+	/**
+	 * Returns the highest page number in use, including the bitmap pages
+	 * @return the last allocated page
+	 */
+	synchronized int getLastAllocatedPage() {
+		return this.usedPages.length() - ONE;
+	}
+
+	/**
+	 * Returns the number of pages in use, including the bitmap pages
+	 * @return the number of allocated pages
+	 */
+	synchronized int getNumOfAllocatedPages() {
+		return this.usedPages.cardinality();
+	}
+
+	/**
+	 * Writes every bitmap page that changed since the last flush
+	 * @throws IOException if a bitmap page cannot be written
+	 */
+	synchronized void flush() throws IOException {
+		for (Map.Entry<Integer, byte[]> entry : takeDirtyMapPages().entrySet()) {
+			this.file.writePage(entry.getKey(), ByteBuffer.wrap(entry.getValue()));
+		}
+	}
+
+	/**
+	 * Check if any bitmap page changed since the last flush
+	 * @return true if `takeDirtyMapPages` would return pages
+	 */
+	synchronized boolean hasDirtyMapPages() {
+		return !this.dirtyMaps.isEmpty();
+	}
+
+	/**
+	 * Encodes every bitmap page that changed since the last flush and marks them clean, used by the tree to log the
+	 * bitmap pages with the rest of the pages an operation changed
+	 * @return the encoded bitmap pages by page number
+	 */
+	synchronized TreeMap<Integer, byte[]> takeDirtyMapPages() {
+		TreeMap<Integer, byte[]> mapPages = new TreeMap<>();
+		for (int group = this.dirtyMaps.nextSetBit(ZERO); group >= ZERO; group = this.dirtyMaps.nextSetBit(group + ONE)) {
+			int firstPage = group * this.pagesPerMap;
+			byte[] bits = this.usedPages.get(firstPage, firstPage + this.pagesPerMap).toByteArray();
+			// The rest of the page is left zero
+			mapPages.put(firstPage + MAP_PAGE_OFFSET, Arrays.copyOf(bits, this.file.getPageSize()));
+		}
+		this.dirtyMaps.clear();
+		return mapPages;
+	}
+
+	/**
+	 * Starts a new group by marking it's bitmap page as in use
+	 */
+	private void addMap() {
+		int mapPage = this.numOfMaps * this.pagesPerMap + MAP_PAGE_OFFSET;
+		this.usedPages.set(mapPage);
+		this.dirtyMaps.set(this.numOfMaps);
+		this.numOfMaps++;
+	}
+}
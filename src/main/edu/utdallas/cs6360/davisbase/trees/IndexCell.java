@@ -1,16 +1,36 @@
 package edu.utdallas.cs6360.davisbase.trees;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
 import static edu.utdallas.cs6360.davisbase.Config.*;
 
-public abstract class IndexCell implements Comparable<IndexCell> {
-	
-	
+/**
+ * Abstract class containing what IndexLeafCells and IndexInteriorCells have in common, an index entry holding the
+ * indexed values and the rowId of the row it points to.<br>
+ *
+ * The cell keeps the entry's bytes as they are stored on the page, encoded by KeyCodec so IndexTrees order the cells
+ * by comparing the bytes. The entry is only decoded into a DataRecord when it is asked for.
+ *
+ * @author Charles Krol
+ * @author Matthew Villarreal
+ * @author Michael Del Rosario
+ * @author Mithil Vijay
+ */
+public abstract class IndexCell {
+	/**
+	 * The bytes of the index entry, the indexed values and the rowId as encoded by KeyCodec
+	 */
+	private final byte[] payload;
+
+	/**
+	 * The decoded index entry, null until it is asked for
+	 */
 	private DataRecord indexPayload;
-		
+
 	/**
 	 * *****************************
 	 * *****************************
@@ -20,31 +40,40 @@ public abstract class IndexCell implements Comparable<IndexCell> {
 	 * *****************************
 	 * *****************************
 	 */
-	
-	/**
-	 * Default constructor for completeness
-	 */
-	IndexCell() {
-		this.indexPayload = null;
-	}
-	
+
 	/**
 	 * Constructor to create a new IndexCell with the given DataRecord
 	 * @param dataRecord the data to store in this index cell
 	 */
 	IndexCell(DataRecord dataRecord) {
+		this.payload = KeyCodec.encode(dataRecord);
 		this.indexPayload = dataRecord;
 	}
-	
+
 	/**
-	 * Constructor that initializes a DataCell when given a byte representation of
-	 * its row ID
-	 * @param data the byte representation of the DataCell's rowId
+	 * Constructor that initializes an IndexCell from the bytes of it's index entry
+	 * @param payload the bytes of the index entry, the cell keeps the array
 	 */
-	IndexCell(byte[] data) {
-		this.indexPayload = new DataRecord(data);
+	IndexCell(byte[] payload) {
+		this.payload = payload;
+		this.indexPayload = null;
 	}
-	
+
+	/**
+	 * Copies the bytes of an index entry out of a buffer, for the subclasses reading a cell from a page. The page
+	 * stores the prefix every entry on it shares once, the cell only stores the rest of the entry.
+	 * @param data a buffer holding the cell, only read with absolute gets
+	 * @param position the position of the rest of the entry in the buffer
+	 * @param length the number of bytes stored in the cell
+	 * @param prefix the prefix of every entry on the page, see IndexPage
+	 * @return the bytes of the entry
+	 */
+	static byte[] readPayload(ByteBuffer data, int position, int length, byte[] prefix) {
+		byte[] payload = Arrays.copyOf(prefix, prefix.length + length);
+		data.get(position, payload, prefix.length, length);
+		return payload;
+	}
+
 	/**
 	 * *****************************
 	 * *****************************
@@ -54,20 +83,38 @@ public abstract class IndexCell implements Comparable<IndexCell> {
 	 * *****************************
 	 * *****************************
 	 */
-	
+
 	/**
-	 * Abstract method to get the number of bytes of an instance to store on disk
+	 * Abstract method to get the number of bytes of an instance to store on disk, on a page with a prefix the cell
+	 * takes up that many bytes less
 	 * @return the number of bytes the cell will take up on disk
 	 */
 	public abstract int size();
-	
+
 	/**
-	 * Abstract method to get the byte representation of a data cell to store on disk
-	 * @return the bytes of the data cell to store on the disk
+	 * Abstract method to write the byte representation of an index cell into a buffer using absolute puts
+	 * @param buffer the buffer to write to, usually the page buffer of a PageCodec
+	 * @param position the position in the buffer to start writing at
+	 * @param prefixLength the length of the prefix of the entry the page stores instead of the cell
 	 */
-	public abstract List<Byte> getBytes();
-	
-	
+	abstract void writeTo(ByteBuffer buffer, int position, int prefixLength);
+
+	/**
+	 * Method to get the byte representation of an index cell to store on disk
+	 * @return the bytes of the index cell to store on the disk
+	 */
+	public List<Byte> getBytes() {
+		ByteBuffer buffer = ByteBuffer.allocate(size());
+		writeTo(buffer, ZERO, ZERO);
+
+		ArrayList<Byte> output = new ArrayList<>(buffer.capacity());
+		for (byte b : buffer.array()) {
+			output.add(b);
+		}
+		return output;
+	}
+
+
 	/**
 	 * *****************************
 	 * *****************************
@@ -77,36 +124,46 @@ public abstract class IndexCell implements Comparable<IndexCell> {
 	 * *****************************
 	 * *****************************
 	 */
-	
+
 	/**
 	 * Get the value of the first column in this index entry as this value acts as a Primary Key into the index
 	 * @return the value of the first column in the index
 	 */
 	String getFirstIndexColumnValue() {
-		// TODO: set up sorting on secondary and third columns
-		return this.indexPayload.getColumnData().get(ZERO);
+		return getIndexPayload().getColumnData().get(ZERO);
 	}
-	
+
 	/**
 	 * Method to return the last column in the index entry which should be the rowID of this entry into the actual
-	 * Table
+	 * Table. Only IndexLeafCells hold whole entries, the separator of an IndexInteriorCell is usually cut short.
 	 * @return the rowId(Primary Key for entry in Table) for the selected index entry
 	 */
-	public String getRowId() {
-		ArrayList<String> colData = this.indexPayload.getColumnData();
-		return colData.get(colData.size() - ONE);
+	public int getRowId() {
+		return KeyCodec.getRowId(this.payload);
 	}
-	
+
+	/**
+	 * Getter for property 'payload'.
+	 *
+	 * @return the bytes of the index entry, they must not be changed
+	 */
+	byte[] getPayload() {
+		return this.payload;
+	}
+
 	/**
 	 * Getter for property 'indexPayload'.
 	 *
 	 * @return Value for property 'indexPayload'.
 	 */
 	public DataRecord getIndexPayload() {
-		return indexPayload;
+		if (this.indexPayload == null) {
+			this.indexPayload = KeyCodec.decode(this.payload);
+		}
+		return this.indexPayload;
 	}
 
-	
+
 	/**
 	 * *****************************
 	 * *****************************
@@ -116,25 +173,15 @@ public abstract class IndexCell implements Comparable<IndexCell> {
 	 * *****************************
 	 * *****************************
 	 */
-	
+
 	/**
 	 * At minimum returns the rowId, different depending on which subclass is implementing it
 	 * @return a String representation of the DataCell
 	 */
 	public abstract String toString();
-	
-	
-	/**
-	 * A compareTo method which compares IndexCells by their first index column
-	 * @param indexCell an IndexCell to compare to this one
-	 * @return >0 if this > that, 0 if same, 0< if this < that
-	 */
-	public int compareTo(IndexCell indexCell) {
-		return getFirstIndexColumnValue().compareTo(indexCell.getFirstIndexColumnValue());
-	}
-	
+
 	/**
-	 * Determines if two index cells are equal by comparing the payloads they wrap
+	 * Determines if two index cells are equal by comparing the index entries they hold
 	 * @param o an object to compare
 	 * @return true if the equal, false otherwise
 	 */
@@ -142,22 +189,22 @@ public abstract class IndexCell implements Comparable<IndexCell> {
 	public boolean equals(Object o) {
 		if (this == o) return true;
 		if (!Optional.ofNullable(o).isPresent()) { return false; }
-		
+
 		if (!(o instanceof IndexCell)) {
 			return false;
 		}
-		
+
 		IndexCell indexCell = (IndexCell) o;
-		
-		return this.indexPayload.equals(indexCell.indexPayload) ;
+
+		return Arrays.equals(this.payload, indexCell.payload);
 	}
-	
+
 	/**
 	 * Implemented for completness
-	 * @return the hashcode of a IndexCell which is simply the hashCode() of the wrapped DataRecord
+	 * @return the hashcode of a IndexCell which is simply the hashCode of the bytes of it's entry
 	 */
 	@Override
 	public int hashCode() {
-		return this.indexPayload.hashCode();
+		return Arrays.hashCode(this.payload);
 	}
 }
@@ -1,7 +1,5 @@
 package edu.utdallas.cs6360.davisbase.trees;
 
-import edu.utdallas.cs6360.davisbase.utils.ByteHelpers;
-
 import java.nio.ByteBuffer;
 import java.util.*;
 
@@ -9,7 +7,12 @@ import static edu.utdallas.cs6360.davisbase.trees.TreeConstants.*;
 import static edu.utdallas.cs6360.davisbase.trees.TreeConstants.NEW_LINE;
 
 /**
- *
+ * Index B-Tree Interior Cell (header 0x02):
+ * 	4-byte page number of the left child, every entry below it comes before this cell's entry
+ * 	2-byte SMALLINT which is the total number of bytes of key payload
+ * -Payload: the separator of the left child and the pages after it, the shortest bytes that come after the last
+ * entry of the left child and no later than the first entry after it. It is usually only the start of an entry, so
+ * it's rowId and values can't be read from it.
  *
  * @author Charles Krol
  * @author Matthew Villarreal
@@ -18,7 +21,7 @@ import static edu.utdallas.cs6360.davisbase.trees.TreeConstants.NEW_LINE;
  */
 public class IndexInteriorCell extends IndexCell{
 	
-	private static final int START_OF_INTERIOR_INDEX_CELL_PAYLOAD = 6;
+	static final int START_OF_INTERIOR_INDEX_CELL_PAYLOAD = 6;
 	
 	/**
 	 * The page number of the next tree page to the left of this cell's
@@ -36,33 +39,37 @@ public class IndexInteriorCell extends IndexCell{
 	 * *****************************
 	 */
 	/**
-	 * Default constructor for completeness
+	 * Constructor that creates a new IndexInteriorCell
+	 * @param leftChildPointer the pageNumber acting as the key pointer into the left child of this cell
+	 * @param payload the new index entry to store in this cell
 	 */
-	IndexInteriorCell() {
-		super();
-		this.leftChildPointer = -1;
+	IndexInteriorCell(int leftChildPointer, DataRecord payload) {
+		super(payload);
+		this.leftChildPointer = leftChildPointer;
 	}
 	
 	/**
-	 * Constructor that creates a new IndexInteriorCell
+	 * Constructor that creates a new IndexInteriorCell from the bytes of an index entry, usually the separator taken
+	 * from the first cell of a page that was split off
 	 * @param leftChildPointer the pageNumber acting as the key pointer into the left child of this cell
-	 * @param payload the new index entry to store in this cell
+	 * @param payload the bytes of the index entry
 	 */
-	IndexInteriorCell(int leftChildPointer, DataRecord payload) {
+	IndexInteriorCell(int leftChildPointer, byte[] payload) {
 		super(payload);
 		this.leftChildPointer = leftChildPointer;
 	}
 	
 	/**
-	 * Constructor that initializes a IndexInteriorCell from it's byte representation in the file<br>
-	 *
-	 * The payload segment of the cell is loaded into the super constructor so it can use these to bytes to rebuild the
-	 * Index record from the bytes then the leftChildPointer is stored
-	 * @param data the byte representation of a TableInteriorCell stored in a file
+	 * Constructor that initializes a IndexInteriorCell from a buffer holding it's byte representation in the file,
+	 * the buffer is only read with absolute gets
+	 * @param data a buffer holding the IndexInteriorCell
+	 * @param position the position in the buffer where the IndexInteriorCell starts
+	 * @param prefix the prefix of every separator on the page, the cell only stores the rest of it's separator
 	 */
-	IndexInteriorCell(byte[] data) {
-		super(Arrays.copyOfRange(data, START_OF_INTERIOR_INDEX_CELL_PAYLOAD, data.length));
-		this.leftChildPointer = ByteBuffer.wrap(data).getInt();
+	IndexInteriorCell(ByteBuffer data, int position, byte[] prefix) {
+		super(readPayload(data, position + START_OF_INTERIOR_INDEX_CELL_PAYLOAD,
+				data.getShort(position + Integer.BYTES), prefix));
+		this.leftChildPointer = data.getInt(position);
 	}
 	
 	/**
@@ -75,39 +82,31 @@ public class IndexInteriorCell extends IndexCell{
 	 * *****************************
 	 */
 	/**
-	 * Used to get the byte representation of a IndexInteriorCell for storing later<br>
+	 * Used to write the byte representation of a IndexInteriorCell for storing later<br>
 	 *
 	 * Format:
 	 *      4-byte left page pointer
 	 *      2-byte signed int representing the number of bytes in the payload(size)
-	 *      Payload
+	 *      Payload after the page's prefix
 	 *
-	 * @return an ArrayList containing the byte representation of a IndexInteriorCell
+	 * @param buffer the buffer to write to
+	 * @param position the position in the buffer to start writing at
+	 * @param prefixLength the length of the prefix of the separator the page stores instead of the cell
 	 */
-	public List<Byte> getBytes() {
-		ArrayList<Byte> output = new ArrayList<>();
-		
-		for(Byte b: ByteHelpers.intToBytes(this.leftChildPointer)) {
-			output.add(b);
-		}
-		
-		ArrayList<Byte> indexRecord = getIndexPayload().getBytes();
-		
-		for(Byte b: ByteHelpers.shortToBytes((short)indexRecord.size())) {
-			output.add(b);
-		}
-		
-		output.addAll(indexRecord);
-		return output;
+	void writeTo(ByteBuffer buffer, int position, int prefixLength) {
+		int length = getPayload().length - prefixLength;
+		buffer.putInt(position, this.leftChildPointer);
+		buffer.putShort(position + Integer.BYTES, (short) length);
+		buffer.put(position + START_OF_INTERIOR_INDEX_CELL_PAYLOAD, getPayload(), prefixLength, length);
 	}
 	
 	/**
-	 * Getter for the size of the interior cell by having calling the DataRecord's getBytes() method and using size() on
-	 * the resulting ArrayList. 6 is added to the result as it is the header size.
+	 * Getter for the size of the interior cell, the size of the index entry plus 6 for the left child pointer and the
+	 * payload size.
 	 * @return an integer representing the size of an interior cell
 	 */
 	public int size() {
-		return getIndexPayload().size() + START_OF_INTERIOR_INDEX_CELL_PAYLOAD;
+		return getPayload().length + START_OF_INTERIOR_INDEX_CELL_PAYLOAD;
 	}
 	
 	/**
@@ -139,14 +138,13 @@ public class IndexInteriorCell extends IndexCell{
 	 * *****************************
 	 */
 	/**
-	 * Method to return the rowId and the left child pointer of the TableInteriorCell for
+	 * Method to return the separator and the left child pointer of the IndexInteriorCell for
 	 * logging purposes
-	 * TODO: Update this for Index.
-	 * @return String representation of a TableInteriorCell
+	 * @return String representation of a IndexInteriorCell
 	 */
 	@Override
 	public String toString() {
-		return LOGGER_DATACELL_ROWID + this.getRowId() + NEW_LINE + LEFTCHILD_POINTER +
+		return LOGGER_PAYLOAD + Arrays.toString(getPayload()) + NEW_LINE + LEFTCHILD_POINTER +
 				this.leftChildPointer + NEW_LINE;
 	}
 	
@@ -166,7 +164,7 @@ public class IndexInteriorCell extends IndexCell{
 		IndexInteriorCell that = (IndexInteriorCell) o;
 		
 		return Objects.equals(this.leftChildPointer, that.getLeftChildPointer()) &&
-				Objects.equals(this.getIndexPayload(), that.getIndexPayload());
+				Arrays.equals(this.getPayload(), that.getPayload());
 	}
 	
 	/**
@@ -175,6 +173,6 @@ public class IndexInteriorCell extends IndexCell{
 	 */
 	@Override
 	public int hashCode() {
-		return Objects.hash(leftChildPointer, getIndexPayload());
+		return Objects.hash(leftChildPointer, Arrays.hashCode(getPayload()));
 	}
 }
@@ -1,8 +1,6 @@
 package edu.utdallas.cs6360.davisbase.trees;
 
 import java.nio.ByteBuffer;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.logging.Level;
@@ -10,37 +8,27 @@ import java.util.logging.Logger;
 
 import static edu.utdallas.cs6360.davisbase.Config.*;
 import static edu.utdallas.cs6360.davisbase.trees.TreeConstants.*;
-import static edu.utdallas.cs6360.davisbase.utils.ByteHelpers.intToBytes;
-import static edu.utdallas.cs6360.davisbase.utils.ByteHelpers.shortToBytes;
 
 /**
+ * Class to represent an interior page of an IndexTree. Every IndexInteriorCell points to the child holding the entries
+ * before it's own, the entries at or after the last cell are in the child the nextPagePointer points to.
  * @author Charles Krol
  * @author Matthew Villarreal
  * @author Michael Del Rosario
  * @author Mithil Vijay
  */
-public class IndexInteriorPage extends Page {
+public class IndexInteriorPage extends IndexPage {
 	private static final Logger LOGGER = Logger.getLogger(IndexInteriorPage.class.getName());
-	private boolean textColumns;
-	private int recordSizeNoText;
-	/**
-	 * Setter for property 'nextPagePointer'.
-	 *
-	 * @param nextPagePointer Value to set for property 'nextPagePointer'.
-	 */
-	public void setNextPagePointer(int nextPagePointer) {
-		this.nextPagePointer = nextPagePointer;
-	}
-	
+
 	/**
 	 * 4 byte page number that is the page number of the right child of the Page.<br>
 	 *
-	 * For IndexInteriorPages it points to the next right-child sub-tree of our page that can be either a TableLeafPage
+	 * For IndexInteriorPages it points to the rightmost subtree of our page that can be either an IndexLeafPage
 	 * or another IndexInteriorPage
-	 * @see TableLeafPage
+	 * @see IndexLeafPage
 	 */
 	private int nextPagePointer;
-	
+
 	/**
 	 * *****************************
 	 * *****************************
@@ -50,53 +38,82 @@ public class IndexInteriorPage extends Page {
 	 * *****************************
 	 * *****************************
 	 */
-	
-	/**
-	 * Default constructor
-	 */
-	public IndexInteriorPage() {
-		super();
-		this.nextPagePointer = 0;
-	}
-	
-	/**
-	 * Constructor that initializes an interior page without a right pointer
-	 * @param pageType the type of page, root or regular
-	 * @param pageNumber the page number as it appears in the file
-	 */
-	public IndexInteriorPage(PageType pageType, int pageNumber, TableConfig tableConfig) {
-		super(pageType, pageNumber, tableConfig);
-		this.nextPagePointer = -1;
-	}
-	
+
 	/**
 	 * Constructor that initializes an interior page with a right pointer
 	 * @param pageType the type of page, root or regular
 	 * @param pageNumber the page number as it appears in the file
 	 * @param nextPagePointer a page number acting as a pointer to the right subtree in the file
 	 */
-	public IndexInteriorPage(PageType pageType, int pageNumber, int nextPagePointer, TableConfig tableConfig) {
+	IndexInteriorPage(PageType pageType, int pageNumber, int nextPagePointer, TableConfig tableConfig) {
 		super(pageType, pageNumber, tableConfig);
 		this.nextPagePointer = nextPagePointer;
 	}
-	
-	
+
 	/**
-	 * A constructor to recreate a IndexInteriorPage object from it's byte representation stored in the file.
+	 * A constructor to recreate a IndexInteriorPage object from a buffer holding it's byte representation stored in
+	 * the file.
 	 *
-	 * @param pageHeader the page header in bytes on the disk
-	 */
-	public IndexInteriorPage(byte[] pageHeader, int pageNumber, TableConfig tableConfig) {
-		super(pageHeader, pageNumber, tableConfig);
-		ByteBuffer headerBuffer = ByteBuffer.wrap(pageHeader);
-		
-		// Throw away page type, numOfCells, and startOfCellPointers since already assigned by call to super()
-		headerBuffer.getInt();
-		
-		// Get next 4 bytes from ByteBuffer,
-		this.nextPagePointer = headerBuffer.getInt();
+	 * @param data a buffer holding an entire page from a file
+	 * @param pageNumber the pageNumber as it appears in the file
+	 */
+	IndexInteriorPage(ByteBuffer data, int pageNumber, TableConfig tableConfig) {
+		super(data, pageNumber, tableConfig);
+		// The rightmost child follows page type, numOfCells, and startOfCellPointers
+		this.nextPagePointer = data.getInt(FOUR);
+	}
+
+	/**
+	 * *****************************
+	 * *****************************
+	 * *****************************
+	 *           Methods
+	 * *****************************
+	 * *****************************
+	 * *****************************
+	 */
+
+	/**
+	 * Returns the child page an entry belongs in, the left child of the first cell after the entry or the rightmost
+	 * child if there is none
+	 * @param entry the payload bytes of an index entry, or a bound, see KeyCodec
+	 * @return the page number of the child
+	 */
+	int getNextPage(byte[] entry) {
+		return getChildAt(firstIndexAbove(entry));
+	}
+
+	/**
+	 * Returns the child to the left of the cell at the given index
+	 * @param index the index of the cell, the number of cells for the rightmost child
+	 * @return the page number of the child
+	 */
+	int getChildAt(int index) {
+		return index < getNumOfCells() ? ((IndexInteriorCell) getCell(index)).getLeftChildPointer() :
+				this.nextPagePointer;
+	}
+
+	/**
+	 * Points whichever cell or nextPagePointer pointed to a child to another page instead, used when the child is
+	 * split and the new page takes over the upper part of it's entries
+	 * @param oldChild the page number of the child
+	 * @param newChild the page number to point to instead
+	 */
+	void replaceChild(int oldChild, int newChild) {
+		if (this.nextPagePointer == oldChild) {
+			this.nextPagePointer = newChild;
+			return;
+		}
+		for (int i = ZERO; i < getNumOfCells(); i++) {
+			IndexInteriorCell cell = (IndexInteriorCell) getCell(i);
+			if (cell.getLeftChildPointer() == oldChild) {
+				cell.setLeftChildPointer(newChild);
+				return;
+			}
+		}
+		throw new IllegalStateException("Page " + oldChild + " is not a child of page " + getPageNumber());
 	}
-	
+
 	/**
 	 * Getter for property 'nextPagePointer'.
 	 *
@@ -105,7 +122,16 @@ public class IndexInteriorPage extends Page {
 	int getNextPagePointer() {
 		return nextPagePointer;
 	}
-	
+
+	/**
+	 * Setter for property 'nextPagePointer'.
+	 *
+	 * @param nextPagePointer Value to set for property 'nextPagePointer'.
+	 */
+	void setNextPagePointer(int nextPagePointer) {
+		this.nextPagePointer = nextPagePointer;
+	}
+
 	/**
 	 * *****************************
 	 * *****************************
@@ -115,106 +141,74 @@ public class IndexInteriorPage extends Page {
 	 * *****************************
 	 * *****************************
 	 */
+
 	/**
-	 * Method returns  8-byte array to be stored at the beginning of each page and acts as a header containing only the
-	 * most basic information associated with reconstructing it from raw bytes.
-	 * @return an 8-byte page header formatted for a IndexInteriorPage
+	 * Reads an IndexInteriorCell of the page
+	 * @param cellBytes the data cell area of the page in order
+	 * @param position the position of the cell in cellBytes
+	 * @param prefix the prefix of every entry on the page
+	 * @return the IndexInteriorCell
 	 */
 	@Override
-	public List<Byte> getHeaderBytes() {
-		ArrayList<Byte> indexInteriorPageHeader = new ArrayList<>();
-		
-		// Add header type code and number of data cells
-		indexInteriorPageHeader.add(PageType.INDEX_INTERIOR_PAGE.getByteCode());
-		indexInteriorPageHeader.add(getNumOfCells());
-		
-		// Convert `startOfCellPointers` to bytes and add to header
-		for(Byte b : shortToBytes(getStartOfCellPointers())) {
-			indexInteriorPageHeader.add(b);
-		}
-		
-		// Convert `nextPagePointer` to bytes and add to header
-		for(Byte b: intToBytes(this.nextPagePointer)) {
-			indexInteriorPageHeader.add(b);
-		}
-		return indexInteriorPageHeader;
+	IndexCell readCell(ByteBuffer cellBytes, int position, byte[] prefix) {
+		return new IndexInteriorCell(cellBytes, position, prefix);
 	}
-	
+
 	/**
-	 * Abstract method that all subclasses should implement that returns the number of bytes taken up by the data cells.
-	 * This value should already be calculated when preparing the page to be written to the file.<br>
-	 *
-	 * This is method is mainly used as a last resort if that mistakenly not saved, not calculated, or not set for some
-	 * other reason.<br>
-	 *
-	 * @return the number of bytes taken up by the DataCell storage area
+	 * Method writes the 8-byte header stored at the beginning of each page which acts as a header containing only the
+	 * most basic information associated with reconstructing it from raw bytes.
+	 * @param buffer a page sized buffer, the header formatted for a IndexInteriorPage is written starting at position 0
 	 */
-	short getSizeOfDataCells() {
-		if(this.textColumns) {
-			short num = ZERO;
-			for (DataCell leafCell : getDataCells()) {
-				num += leafCell.size();
-			}
-			return num;
-		}
-		return (short)(getNumOfCells() * this.recordSizeNoText);
-	}
-	
-	int getNextPage(int rowId) {
-		int nextPagePointer = getNextPageForRowId(rowId);
-		return nextPagePointer != -ONE ? nextPagePointer : this.nextPagePointer;
+	@Override
+	void writeHeader(ByteBuffer buffer) {
+		// Add header type code and number of data cells
+		buffer.put(ZERO, PageType.INDEX_INTERIOR_PAGE.getByteCode());
+		buffer.put(ONE, (byte)getNumOfCells());
+
+		// `startOfCellPointers` and `nextPagePointer`
+		buffer.putShort(TWO, getStartOfCellPointers());
+		buffer.putInt(FOUR, this.nextPagePointer);
 	}
-	
+
 	/**
 	 * Collects and logs information about this page to the console.
 	 */
 	@Override
 	public void printPage() {
 		String loggerString = toString() + LOGGER_PAGE_NEXT_POINTER + this.nextPagePointer + NEW_LINE +
-				getDataCellStrings();
+				getIndexCellStrings();
 		LOGGER.log(Level.INFO, loggerString);
 	}
-	
+
 	/**
-	 * Determines if two IndexInteriorPages are equal by comparing their page numbers, pointers, and data cells
+	 * Determines if two IndexInteriorPages are equal by comparing their page numbers, pointers, and index cells
 	 * @param o an object to compare
-	 * @return true if they are the same data cell, false otherwise
+	 * @return true if they are the same page, false otherwise
 	 */
 	@Override
 	public boolean equals(Object o) {
 		if (o == this) { return true; }
-		
+
 		// If other object is null return false
 		if (!Optional.ofNullable(o).isPresent()) {
 			return false;
 		}
-		
+
 		// If object is not IndexInteriorPage return false
 		if (!(o instanceof IndexInteriorPage)) {
 			return false;
 		}
-		
-		// Since not null and IndexInteriorPage
-		// Cast to IndexInteriorPage
+
 		IndexInteriorPage that = (IndexInteriorPage) o;
-		
+
 		return this.nextPagePointer == that.getNextPagePointer() && this.getPageNumber() == that.getPageNumber() &&
-				this.getPageType() == that.getPageType() && this.getNumOfCells() == that.getNumOfCells() &&
-				this.getDataCells().equals(that.getDataCells());
+				this.getPageType() == that.getPageType() && this.getIndexCells().equals(that.getIndexCells());
 	}
-	
+
 	/**
 	 * hashCode Method
-	 * @return a hashCode representing a TableInteriorDataCell
+	 * @return a hashCode representing a IndexInteriorPage
 	 */
-	/*
-	@Override
-	public int hashCode() {
-		DataCell[] array = new DataCell[getDataCells().size()];
-		getDataCells().toArray(array);
-		return Arrays.hashCode(array) + getNumOfCells() * getPageTypeCode() * getPageNumber();
-	}*/
 	@Override
-	public int hashCode() { return Objects.hash(getDataCells(), getPageType(), getNumOfCells(), getPageNumber()); }
-	
-}
\ No newline at end of file
+	public int hashCode() { return Objects.hash(getIndexCells(), getPageType(), getNumOfCells(), getPageNumber()); }
+}
@@ -1,14 +1,18 @@
 package edu.utdallas.cs6360.davisbase.trees;
 
+import java.nio.ByteBuffer;
 import java.util.*;
 
+import static edu.utdallas.cs6360.davisbase.Config.*;
 import static edu.utdallas.cs6360.davisbase.trees.TreeConstants.*;
-import static edu.utdallas.cs6360.davisbase.utils.ByteHelpers.shortToBytes;
 
 /**
  * Index B-Tree Leaf Cell (header 0x0a):
  * 	2-byte SMALLINT which is the total number of bytes of key payload
  * -Payload: The initial portion of the payload that does not spill to overflow pages.
+ * -Included values: only in a covering index, see IndexTree. The highest bit of the payload size is set and the
+ * 	payload is followed by a 2-byte SMALLINT size and the DataRecord of the values of the included columns. No entry
+ * 	is as long as Config.MAX_PAGE_SIZE so the bit is never part of the size.
  *
  * @author Charles Krol
  * @author Matthew Villarreal
@@ -16,7 +20,18 @@ import static edu.utdallas.cs6360.davisbase.utils.ByteHelpers.shortToBytes;
  * @author Mithil Vijay
  */
 public class IndexLeafCell extends IndexCell {
-	private static final int START_OF_INDEX_LEAF_CELL_PAYLOAD = 2;
+	static final int START_OF_INDEX_LEAF_CELL_PAYLOAD = 2;
+	
+	/**
+	 * Set in the payload size of a cell that holds included values
+	 */
+	private static final int INCLUDED_VALUES_FLAG = 0x8000;
+	
+	/**
+	 * The values of the included columns of a covering index, stored next to the entry but not part of it, null if
+	 * the index includes no columns
+	 */
+	private final DataRecord includedValues;
 	
 	/**
 	 * *****************************
@@ -29,26 +44,49 @@ public class IndexLeafCell extends IndexCell {
 	 */
 	
 	/**
-	 * Default constructor for completeness
+	 * Constructor to create a new IndexLeafCell with a given DataRecord payload
+	 * @param payload the payload to store
 	 */
-	IndexLeafCell() {
-		super();
+	IndexLeafCell(DataRecord payload) {
+		super(payload);
+		this.includedValues = null;
 	}
 	
 	/**
-	 * Constructor to create a new IndexLeafCell with a given rowID and DataRecord payload
-	 * @param payload the payload to store
+	 * Constructor to create a new IndexLeafCell from the bytes of an index entry, see KeyCodec.encode
+	 * @param payload the bytes of the index entry
 	 */
-	IndexLeafCell(DataRecord payload) {
+	IndexLeafCell(byte[] payload) {
+		this(payload, null);
+	}
+	
+	/**
+	 * Constructor to create a new IndexLeafCell of a covering index from the bytes of an index entry and the values
+	 * of the included columns
+	 * @param payload the bytes of the index entry
+	 * @param includedValues the values of the included columns, null if the index includes no columns
+	 */
+	IndexLeafCell(byte[] payload, DataRecord includedValues) {
 		super(payload);
+		this.includedValues = includedValues;
 	}
 	
 	/**
-	 * Constructor to reinitialize an existing IndexLeafCell from it's byte representation stored in the file
-	 * @param data the byte representation of a IndexLeafCell
+	 * Constructor to reinitialize an existing IndexLeafCell from a buffer holding it's byte representation, the
+	 * buffer is only read with absolute gets
+	 * @param data a buffer holding the IndexLeafCell
+	 * @param position the position in the buffer where the IndexLeafCell starts
+	 * @param prefix the prefix of every entry on the page, the cell only stores the rest of it's entry
 	 */
-	IndexLeafCell(byte[] data) {
-		super(Arrays.copyOfRange(data, START_OF_INDEX_LEAF_CELL_PAYLOAD, data.length));
+	IndexLeafCell(ByteBuffer data, int position, byte[] prefix) {
+		super(readPayload(data, position + START_OF_INDEX_LEAF_CELL_PAYLOAD,
+				Short.toUnsignedInt(data.getShort(position)) & ~INCLUDED_VALUES_FLAG, prefix));
+		if ((Short.toUnsignedInt(data.getShort(position)) & INCLUDED_VALUES_FLAG) == ZERO) {
+			this.includedValues = null;
+		} else {
+			int includedPosition = position + START_OF_INDEX_LEAF_CELL_PAYLOAD + getPayload().length - prefix.length;
+			this.includedValues = new DataRecord(data, includedPosition + Short.BYTES, data.getShort(includedPosition));
+		}
 	}
 	
 	/**
@@ -60,34 +98,42 @@ public class IndexLeafCell extends IndexCell {
 	 * *****************************
 	 * *****************************
 	 */
+	
 	/**
-	 * Returns the byte representation of a IndexLeafCell to write to the file
-	 * @return an ArrayList containing the  byte representation of the IndexLeafCell
+	 * Getter for property 'includedValues'.
+	 *
+	 * @return the values of the included columns of a covering index, null if the index includes no columns
 	 */
-	public List<Byte> getBytes() {
-		ArrayList<Byte> output = new ArrayList<>();
-		
-		// Get payload byte representation
-		ArrayList<Byte> payloadBytes= getIndexPayload().getBytes();
-		
-		// Get payload size for cells 0-1 at the beginning of the header
-		for(Byte b : shortToBytes((short)payloadBytes.size())) {
-			output.add(b);
+	DataRecord getIncludedValues() {
+		return this.includedValues;
+	}
+	
+	/**
+	 * Writes the byte representation of a IndexLeafCell to write to the file
+	 * @param buffer the buffer to write to
+	 * @param position the position in the buffer to start writing at
+	 * @param prefixLength the length of the prefix of the entry the page stores instead of the cell
+	 */
+	void writeTo(ByteBuffer buffer, int position, int prefixLength) {
+		// Payload size for bytes 0-1 at the beginning of the header, then the payload after the page's prefix
+		int length = getPayload().length - prefixLength;
+		buffer.putShort(position, (short) (this.includedValues == null ? length : length | INCLUDED_VALUES_FLAG));
+		buffer.put(position + START_OF_INDEX_LEAF_CELL_PAYLOAD, getPayload(), prefixLength, length);
+		if (this.includedValues != null) {
+			int includedPosition = position + START_OF_INDEX_LEAF_CELL_PAYLOAD + length;
+			buffer.putShort(includedPosition, this.includedValues.size());
+			this.includedValues.writeTo(buffer, includedPosition + Short.BYTES);
 		}
-		
-		// Add payload to ArrayList
-		output.addAll(payloadBytes);
-		
-		return output;
 	}
 	
 	/**
 	 * Returns the size of the IndexLeafCell<br>
-	 *     2bytes(payload size) + payloadSize
+	 *     2bytes(payload size) + payloadSize + 2bytes(included values size) + includedValuesSize
 	 * @return the size in bytes the IndexLeafCell takes up in memory
 	 */
 	public int size() {
-		return getIndexPayload().size() + START_OF_INDEX_LEAF_CELL_PAYLOAD;
+		return getPayload().length + START_OF_INDEX_LEAF_CELL_PAYLOAD +
+				(this.includedValues == null ? ZERO : Short.BYTES + this.includedValues.size());
 	}
 	
 	/**
@@ -103,7 +149,6 @@ public class IndexLeafCell extends IndexCell {
 	/**
 	 * Method to output basic data about a IndexLeafCell and it's payload
 	 * @return String representation of the IndexLeafCell
-	 * // TODO UPDATE for Index
 	 */
 	@Override
 	public String toString() {
@@ -127,7 +172,7 @@ public class IndexLeafCell extends IndexCell {
 		
 		IndexLeafCell that = (IndexLeafCell) o;
 		
-		return Objects.equals(getIndexPayload(), that.getIndexPayload());
+		return Arrays.equals(getPayload(), that.getPayload());
 	}
 	
 	/**
@@ -136,6 +181,6 @@ public class IndexLeafCell extends IndexCell {
 	 */
 	@Override
 	public int hashCode() {
-		return Objects.hash(getIndexPayload());
+		return Arrays.hashCode(getPayload());
 	}
 }
@@ -1,28 +1,32 @@
 package edu.utdallas.cs6360.davisbase.trees;
 
+import java.nio.ByteBuffer;
 import java.util.*;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import static edu.utdallas.cs6360.davisbase.Config.*;
 import static edu.utdallas.cs6360.davisbase.trees.TreeConstants.*;
-import static edu.utdallas.cs6360.davisbase.utils.ByteHelpers.intToBytes;
-import static edu.utdallas.cs6360.davisbase.utils.ByteHelpers.shortToBytes;
 
 /**
+ * Class to represent a leaf page of an IndexTree and it's IndexLeafCells, the entries of the index in entry order
  * @author Charles Krol
  * @author Matthew Villarreal
- * @author Michael Del Rosari
+ * @author Michael Del Rosario
  * @author Mithil Vijay
  */
-public class IndexLeafPage extends Page{
+public class IndexLeafPage extends IndexPage {
 	/**
 	 * A logger that logs things for logging purposes
 	 */
 	private static final Logger LOGGER = Logger.getLogger(IndexLeafPage.class.getName());
-	private boolean textColumns;
-	private int recordSizeNoText;
-	
+
+	/**
+	 * 4 byte page number of the next IndexLeafPage in the LinkedList of leaves at the last level of the IndexTree, -1
+	 * for the last leaf. Range searches follow it instead of going back up the tree.
+	 */
+	private int nextPagePointer;
+
 	/**
 	 * *****************************
 	 * *****************************
@@ -32,39 +36,33 @@ public class IndexLeafPage extends Page{
 	 * *****************************
 	 * *****************************
 	 */
+
 	/**
-	 * Default constructor
-	 */
-	public IndexLeafPage() {
-		super();
-	}
-	
-	/**
-	 * Constructor that creates a new IndexLeafPage from a pageType, pageNumber, and right subtree pointer
+	 * Constructor that creates a new IndexLeafPage from a pageType, pageNumber, and the next leaf
 	 * @param pageType the type of page, root or normal
 	 * @param pageNumber the page number as it will appear in the file
-	 * @param nextPagePointer the page number acting as a pointer into the right subtree
+	 * @param nextPagePointer the page number of the next leaf, -1 for none
 	 */
 	IndexLeafPage(PageType pageType, int pageNumber, int nextPagePointer, TableConfig tableConfig) {
 		super(pageType, pageNumber, tableConfig);
-		this.textColumns = tableConfig.hasTextColumns();
-		this.recordSizeNoText = tableConfig.getDataRecordSizeNoText();
-		if(pageType == PageType.TABLE_LEAF_ROOT && nextPagePointer > ZERO) { throw new
-				IllegalArgumentException("Table root leaf page with non-null next page pointer"); }
+		this.nextPagePointer = nextPagePointer;
+		if(pageType == PageType.INDEX_LEAF_ROOT && nextPagePointer > ZERO) { throw new
+				IllegalArgumentException("Index root leaf page with non-null next page pointer"); }
 	}
-	
+
 	/**
-	 * A constructor to recreate a IndexLeafPage object from it's byte representation stored in the file.
+	 * A constructor to recreate a IndexLeafPage object from a buffer holding it's byte representation stored in the
+	 * file.
 	 *
-	 * @param data an array of bytes representing an entire page from a file
+	 * @param data a buffer holding an entire page from a file
 	 * @param pageNumber the pageNumber as it appears in the file
 	 */
-	IndexLeafPage(byte[] data, int pageNumber, TableConfig tableConfig) {
+	IndexLeafPage(ByteBuffer data, int pageNumber, TableConfig tableConfig) {
 		super(data, pageNumber, tableConfig);
-		this.textColumns = tableConfig.hasTextColumns();
-		this.recordSizeNoText = tableConfig.getDataRecordSizeNoText();
+		// The next leaf in the linked list of leaves follows page type, numOfCells, and startOfCellPointers
+		this.nextPagePointer = data.getInt(FOUR);
 	}
-	
+
 	/**
 	 * *****************************
 	 * *****************************
@@ -74,21 +72,25 @@ public class IndexLeafPage extends Page{
 	 * *****************************
 	 * *****************************
 	 */
-	
+
 	/**
-	 * Returns a TableLeafCell when given a rowId
-	 * @param rowId the key of the cell to retrieve
-	 * @return the requested TableLeafCell
+	 * Getter for property 'nextPagePointer'.
+	 *
+	 * @return Value for property 'nextPagePointer'.
 	 */
-	TableLeafCell getDataCell(int rowId) {
-		for(DataCell c : getDataCells()) {
-			if (c.getRowId() == rowId) {
-				return (TableLeafCell)c;
-			}
-		}
-		throw new IllegalArgumentException("DataCell not found");
+	int getNextPagePointer() {
+		return nextPagePointer;
+	}
+
+	/**
+	 * Setter for property 'nextPagePointer'.
+	 *
+	 * @param nextPagePointer Value to set for property 'nextPagePointer'.
+	 */
+	void setNextPagePointer(int nextPagePointer) {
+		this.nextPagePointer = nextPagePointer;
 	}
-	
+
 	/**
 	 * *****************************
 	 * *****************************
@@ -98,60 +100,45 @@ public class IndexLeafPage extends Page{
 	 * *****************************
 	 * *****************************
 	 */
+
+	/**
+	 * Reads an IndexLeafCell of the page
+	 * @param cellBytes the data cell area of the page in order
+	 * @param position the position of the cell in cellBytes
+	 * @param prefix the prefix of every entry on the page
+	 * @return the IndexLeafCell
+	 */
+	@Override
+	IndexCell readCell(ByteBuffer cellBytes, int position, byte[] prefix) {
+		return new IndexLeafCell(cellBytes, position, prefix);
+	}
+
 	/**
-	 * Method returns  8-byte array to be stored at the beginning of each page and acts as a header containing only the
+	 * Method writes the 8-byte header stored at the beginning of each page which acts as a header containing only the
 	 * most basic information associated with reconstructing it from raw bytes.
-	 * @return an 8-byte page header formatted for a TableCellPage
+	 * @param buffer a page sized buffer, the header formatted for a IndexLeafPage is written starting at position 0
 	 */
 	@Override
-	public List<Byte> getHeaderBytes() {
-		ArrayList<Byte> indexLeafCellHeader = new ArrayList<>();
-		
+	void writeHeader(ByteBuffer buffer) {
 		// Add header type code and number of data cells
-		indexLeafCellHeader.add(PageType.INDEX_LEAF_PAGE.getByteCode());
-		indexLeafCellHeader.add(getNumOfCells());
-		
-		// Convert `startOfCellPointers` to bytes and add to header
-		for(Byte b : shortToBytes(getStartOfCellPointers())) {
-			indexLeafCellHeader.add(b);
-		}
-		
-		// Set next 4-bytes to 0 as the nextPagePointer is not used by the IndexLeafPages to bytes and add to header
-		for(Byte b: intToBytes(ZERO)) {
-			indexLeafCellHeader.add(b);
-		}
-		return indexLeafCellHeader;
+		buffer.put(ZERO, PageType.INDEX_LEAF_PAGE.getByteCode());
+		buffer.put(ONE, (byte)getNumOfCells());
+
+		// `startOfCellPointers` and the next leaf
+		buffer.putShort(TWO, getStartOfCellPointers());
+		buffer.putInt(FOUR, this.nextPagePointer);
 	}
-	
+
 	/**
 	 * Collects and logs information about this page to the console.
 	 */
 	@Override
 	public void printPage() {
-		String loggerString = toString() + NEW_LINE + getDataCellStrings();
+		String loggerString = toString() + LOGGER_PAGE_NEXT_POINTER + this.nextPagePointer + NEW_LINE +
+				getIndexCellStrings();
 		LOGGER.log(Level.INFO, loggerString);
 	}
-	
-	/**
-	 * Abstract method that all subclasses should implement that returns the number of bytes taken up by the data cells.
-	 * This value should already be calculated when preparing the page to be written to the file.<br>
-	 *
-	 * This is method is mainly used as a last resort if that mistakenly not saved, not calculated, or not set for some
-	 * other reason.<br>
-	 *
-	 * @return the number of bytes taken up by the DataCell storage area
-	 */
-	short getSizeOfDataCells() {
-		if(this.textColumns) {
-			short num = ZERO;
-			for (DataCell leafCell : getDataCells()) {
-				num += leafCell.size();
-			}
-			return num;
-		}
-		return (short)(getNumOfCells() * this.recordSizeNoText);
-	}
-	
+
 	/**
 	 * Determines if two IndexLeafPage objects are equivalent
 	 * @param o an object to compare
@@ -160,41 +147,27 @@ public class IndexLeafPage extends Page{
 	@Override
 	public boolean equals(Object o) {
 		if (o == this) { return true; }
-		
+
 		// If other object is null return false
 		if (!Optional.ofNullable(o).isPresent()) {
 			return false;
 		}
-		
-		// If object is not TableInteriorPage return false
+
+		// If object is not IndexLeafPage return false
 		if (!(o instanceof IndexLeafPage)) {
 			return false;
 		}
-		
-		// Since not null and TableInteriorPage
-		// Cast to TableInteriorPage
+
 		IndexLeafPage that = (IndexLeafPage) o;
-		
-		// Sort the ArrayLists to ensure they are in the same order based on row ID
-		Collections.sort(this.getDataCells());
-		Collections.sort(that.getDataCells());
-		
-		return  this.getPageNumber() == that.getPageNumber() &&
-				this.getPageType() == that.getPageType() && this.getNumOfCells() == that.getNumOfCells() &&
-				this.getDataCells().equals(that.getDataCells());
+
+		return this.nextPagePointer == that.getNextPagePointer() && this.getPageNumber() == that.getPageNumber() &&
+				this.getPageType() == that.getPageType() && this.getIndexCells().equals(that.getIndexCells());
 	}
-	
+
 	/**
 	 * hashCode
 	 * @return a hashCode for a IndexLeafPage object
 	 */
-	/*
-	@Override
-	public int hashCode() {
-		DataCell[] array = new DataCell[getDataCells().size()];
-		getDataCells().toArray(array);
-		return Arrays.hashCode(array) + getNumOfCells() * getPageTypeCode() * getPageNumber();
-	}*/
 	@Override
-	public int hashCode() { return Objects.hash(getDataCells(), getPageType(), getNumOfCells(), getPageNumber()); }
+	public int hashCode() { return Objects.hash(getIndexCells(), getPageType(), getNumOfCells(), getPageNumber()); }
 }
@@ -0,0 +1,369 @@
+package edu.utdallas.cs6360.davisbase.trees;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static edu.utdallas.cs6360.davisbase.Config.*;
+import static edu.utdallas.cs6360.davisbase.trees.TreeConstants.*;
+
+/**
+ * Abstract class containing what IndexLeafPages and IndexInteriorPages have in common. An index page keeps it's
+ * IndexCells in entry order in a list of it's own instead of the DataCells of a table page, the PageCodec writes them
+ * through `getNumOfCells`, `getCellSize` and `writeCell` in the same format as any other page.<br>
+ *
+ * Index entries vary in size with their key, so whether another cell fits is decided by the bytes left on the page
+ * rather than by a number of cells.<br>
+ *
+ * A page stores the prefix shared by every entry that can be on it once, ahead of it's cells in the data cell area,
+ * and the cells only store the rest of their entries. The prefix is the one shared by the two separators of the page's
+ * parent the page is between, it's fence keys, every entry that can go in the page comes between them so adding an
+ * entry never makes the prefix shorter. The IndexTree sets it when it splits the page, the pages at the left and
+ * right edges of the tree have a fence key missing and no prefix. In memory the cells keep their whole entries.
+ *
+ * @author Charles Krol
+ * @author Matthew Villarreal
+ * @author Michael Del Rosario
+ * @author Mithil Vijay
+ */
+public abstract class IndexPage extends Page {
+	/**
+	 * The IndexCells of the page in entry order
+	 */
+	private final ArrayList<IndexCell> cells;
+
+	/**
+	 * The number of bytes taken up by the IndexCells with their whole entries
+	 */
+	private int sizeOfCells;
+
+	/**
+	 * The prefix of every entry on the page, stored once ahead of the cells
+	 */
+	private byte[] prefix;
+
+	/**
+	 * The size of a page in bytes
+	 */
+	private final int pageSize;
+
+	/**
+	 * *****************************
+	 * *****************************
+	 * *****************************
+	 *        Constructors
+	 * *****************************
+	 * *****************************
+	 * *****************************
+	 */
+
+	/**
+	 * Constructor for a new empty index page
+	 * @param pageType the type of page, root or regular
+	 * @param pageNumber the page number as it will appear in the file
+	 */
+	IndexPage(PageType pageType, int pageNumber, TableConfig tableConfig) {
+		super(pageType, pageNumber, tableConfig);
+		this.cells = new ArrayList<>();
+		this.sizeOfCells = ZERO;
+		this.prefix = new byte[ZERO];
+		this.pageSize = tableConfig.getPageSize();
+	}
+
+	/**
+	 * Constructor that recreates an index page from a buffer holding it's byte representation. The data cell area is
+	 * stored back to front so it is put back in order once, and the prefix and then every cell are read from it.
+	 * @param data a buffer holding an entire page from a file, only read with absolute gets
+	 * @param pageNumber the pageNumber as it appears in the file
+	 */
+	IndexPage(ByteBuffer data, int pageNumber, TableConfig tableConfig) {
+		super(data, pageNumber, tableConfig);
+		this.pageSize = tableConfig.getPageSize();
+		int numOfCells = Byte.toUnsignedInt(data.get(ONE));
+		int sizeOfDataCells = Short.toUnsignedInt(data.getShort(TWO));
+
+		ByteBuffer inOrder = ByteBuffer.allocate(sizeOfDataCells);
+		for (int i = ZERO; i < sizeOfDataCells; i++) {
+			inOrder.put(i, data.get(this.pageSize - ONE - i));
+		}
+		this.prefix = new byte[Short.toUnsignedInt(inOrder.getShort(ZERO))];
+		inOrder.get(Short.BYTES, this.prefix);
+		this.cells = new ArrayList<>(numOfCells);
+		for (int i = ZERO; i < numOfCells; i++) {
+			int offset = Short.toUnsignedInt(data.getShort(PAGE_HEADER_SIZE + Short.BYTES * i));
+			IndexCell cell = readCell(inOrder, offset, this.prefix);
+			this.cells.add(cell);
+			this.sizeOfCells += cell.size();
+		}
+	}
+
+	/**
+	 * *****************************
+	 * *****************************
+	 * *****************************
+	 *       Abstract Methods
+	 * *****************************
+	 * *****************************
+	 * *****************************
+	 */
+
+	/**
+	 * Reads one of the page's cells, an IndexLeafCell or IndexInteriorCell depending on the page
+	 * @param cellBytes the data cell area of the page in order
+	 * @param position the position of the cell in cellBytes
+	 * @param prefix the prefix of every entry on the page
+	 * @return the cell
+	 */
+	abstract IndexCell readCell(ByteBuffer cellBytes, int position, byte[] prefix);
+
+	/**
+	 * *****************************
+	 * *****************************
+	 * *****************************
+	 *           Methods
+	 * *****************************
+	 * *****************************
+	 * *****************************
+	 */
+
+	/**
+	 * Returns the index of the first cell whose entry comes at or after the given entry, the number of cells if there
+	 * is none
+	 * @param entry the payload bytes of an index entry, or a bound, see KeyCodec
+	 * @return the index of the cell
+	 */
+	int firstIndexAtLeast(byte[] entry) {
+		return search(entry, true);
+	}
+
+	/**
+	 * Returns the index of the first cell whose entry comes after the given entry, the number of cells if there is
+	 * none
+	 * @param entry the payload bytes of an index entry, or a bound, see KeyCodec
+	 * @return the index of the cell
+	 */
+	int firstIndexAbove(byte[] entry) {
+		return search(entry, false);
+	}
+
+	/**
+	 * Binary search of the cells for an entry, the entries are compared as unsigned bytes without decoding them
+	 * @param entry the payload bytes of an index entry, or a bound, see KeyCodec
+	 * @param inclusive true to stop at a cell with the same entry, false to pass it
+	 * @return the index of the first cell at or after, or after, the entry
+	 */
+	private int search(byte[] entry, boolean inclusive) {
+		int low = ZERO;
+		int high = this.cells.size();
+		while (low < high) {
+			int mid = (low + high) >>> ONE;
+			int result = KeyCodec.compare(this.cells.get(mid).getPayload(), entry);
+			if (result < ZERO || (result == ZERO && !inclusive)) {
+				low = mid + ONE;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Check if another cell of the given size fits on the page along with it's offset
+	 * @param cellSize the size of the cell in bytes
+	 * @return true if the cell fits
+	 */
+	boolean hasRoomFor(int cellSize) {
+		int numOfCells = this.cells.size() + ONE;
+		return numOfCells <= MAX_CELLS_PER_PAGE &&
+				PAGE_HEADER_SIZE + Short.BYTES * numOfCells + getSizeOfDataCells() + cellSize <= this.pageSize;
+	}
+
+	/**
+	 * Check if the cells no longer fit on the page, a cell may be added to a full page before it is split
+	 * @return true if the page must be split before it is written
+	 */
+	boolean isOverfull() {
+		int numOfCells = this.cells.size();
+		return numOfCells > MAX_CELLS_PER_PAGE ||
+				PAGE_HEADER_SIZE + Short.BYTES * numOfCells + getSizeOfDataCells() > this.pageSize;
+	}
+
+	/**
+	 * Returns the index to split the page at so both halves hold about the same number of bytes as they are stored
+	 * @return the index of the first cell of the right half, at least 1 and less than the number of cells
+	 */
+	int getSplitIndex() {
+		int half = (this.sizeOfCells - this.cells.size() * this.prefix.length) / TWO;
+		int size = ZERO;
+		int index = ZERO;
+		while (index < this.cells.size() - ONE && size < half) {
+			size += getCellSize(index++);
+		}
+		return Math.max(ONE, index);
+	}
+
+	/**
+	 * Getter for a cell of the page
+	 * @param index the index of the cell
+	 * @return the IndexCell
+	 */
+	IndexCell getCell(int index) {
+		return this.cells.get(index);
+	}
+
+	/**
+	 * Adds a cell to the page at the given index
+	 * @param index the index of the new cell, see `firstIndexAtLeast`
+	 * @param cell the cell
+	 */
+	void insertCell(int index, IndexCell cell) {
+		this.cells.add(index, cell);
+		this.sizeOfCells += cell.size();
+	}
+
+	/**
+	 * Removes a cell from the page
+	 * @param index the index of the cell
+	 * @return the removed cell
+	 */
+	IndexCell removeCellAt(int index) {
+		IndexCell cell = this.cells.remove(index);
+		this.sizeOfCells -= cell.size();
+		return cell;
+	}
+
+	/**
+	 * Moves the cells from the given index on to the end of another page, used to split a page
+	 * @param from the index of the first cell to move
+	 * @param to the page to move the cells to, every cell on it comes before the ones moved and the cells moved share
+	 *           it's prefix
+	 */
+	void moveCellsTo(int from, IndexPage to) {
+		List<IndexCell> moved = this.cells.subList(from, this.cells.size());
+		for (IndexCell cell : moved) {
+			this.sizeOfCells -= cell.size();
+			to.cells.add(cell);
+			to.sizeOfCells += cell.size();
+		}
+		moved.clear();
+	}
+
+	/**
+	 * *****************************
+	 * *****************************
+	 * *****************************
+	 *       Overridden Methods
+	 * *****************************
+	 * *****************************
+	 * *****************************
+	 */
+
+	/**
+	 * Getter for property 'numOfCells'.
+	 *
+	 * @return Value for property 'numOfCells'.
+	 */
+	@Override
+	int getNumOfCells() {
+		return this.cells.size();
+	}
+
+	/**
+	 * Returns the size in bytes of the cell at the given index
+	 * @param index the index of the cell
+	 * @return the number of bytes the cell takes up on the page
+	 */
+	@Override
+	int getCellSize(int index) {
+		return this.cells.get(index).size() - this.prefix.length;
+	}
+
+	/**
+	 * Writes the cell at the given index into a buffer
+	 * @param index the index of the cell
+	 * @param buffer the buffer to write to
+	 * @param position the position in the buffer to start writing at
+	 */
+	@Override
+	void writeCell(int index, ByteBuffer buffer, int position) {
+		this.cells.get(index).writeTo(buffer, position, this.prefix.length);
+	}
+
+	/**
+	 * Returns the size of the prefix stored ahead of the cells along with it's length
+	 * @return the number of bytes written by `writePageData`
+	 */
+	@Override
+	int getSizeOfPageData() {
+		return Short.BYTES + this.prefix.length;
+	}
+
+	/**
+	 * Writes the length of the prefix of the page's entries followed by the prefix
+	 * @param buffer the buffer to write to
+	 * @param position the position in the buffer of the start of the data cell area
+	 */
+	@Override
+	void writePageData(ByteBuffer buffer, int position) {
+		buffer.putShort(position, (short) this.prefix.length);
+		buffer.put(position + Short.BYTES, this.prefix);
+	}
+
+	/**
+	 * Check if the page has no cells
+	 *
+	 * @return true if the page is empty, false otherwise
+	 */
+	@Override
+	boolean isEmpty() {
+		return this.cells.isEmpty();
+	}
+
+	/**
+	 * Returns the number of bytes taken up by the prefix and the IndexCells without it, kept up to date as cells are
+	 * added and removed
+	 * @return the number of bytes taken up by the data cell storage area
+	 */
+	@Override
+	short getSizeOfDataCells() {
+		return (short) (getSizeOfPageData() + this.sizeOfCells - this.cells.size() * this.prefix.length);
+	}
+
+	/**
+	 * Returns the cells of the page for logging purposes
+	 * @return String representation of every IndexCell on the page
+	 */
+	String getIndexCellStrings() {
+		StringBuilder builder = new StringBuilder();
+		for (int i = ZERO; i < this.cells.size(); i++) {
+			builder.append(i + ONE).append(COLON_SPACE).append(this.cells.get(i).toString());
+		}
+		return builder.toString();
+	}
+
+	/**
+	 * Getter for property 'prefix'.
+	 *
+	 * @return the prefix of every entry on the page, it must not be changed
+	 */
+	byte[] getPrefix() {
+		return this.prefix;
+	}
+
+	/**
+	 * Sets the prefix stored for the page, every entry on the page and every entry added to it later must start with
+	 * it
+	 * @param prefix the prefix shared by the page's fence keys, see the class comment
+	 */
+	void setPrefix(byte[] prefix) {
+		this.prefix = prefix;
+	}
+
+	/**
+	 * Getter for the cells of the page, used to compare pages
+	 * @return the IndexCells in entry order
+	 */
+	List<IndexCell> getIndexCells() {
+		return this.cells;
+	}
+}
@@ -1,165 +1,225 @@
 package edu.utdallas.cs6360.davisbase.trees;
 
 import edu.utdallas.cs6360.davisbase.DatabaseType;
+import edu.utdallas.cs6360.davisbase.StorageMode;
 import edu.utdallas.cs6360.davisbase.utils.FileHandler;
 
 import java.io.IOException;
-import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
-import java.util.Optional;
+import java.util.Collections;
+import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import static edu.utdallas.cs6360.davisbase.Config.*;
 
 /**
- * B+Tree Class
+ * A B+Tree index on one or more columns of a table, stored in it's own `.ndx` file next to the table's file.<br>
  *
- * The root tree is always held in main memory so user operations never have to do a disk-read on the root before we can
- * access the rest of the tree.<br>
+ * Every entry of the index holds the values of the indexed columns and the rowId of the row they came from, encoded
+ * by KeyCodec so entries are ordered by comparing their bytes. The entries are kept in the leaves in the order of their
+ * values, the first column first, entries with the same values in the order of their rowIds, and the leaves are linked
+ * so a range of values is read by descending the tree once and then following the leaves. A range can be given by the
+ * values of only the first few columns. The interior pages hold a separator in front of every child but the first,
+ * so the tree is searched by value and rowId alike and a value shared by many rows needs no special handling.<br>
  *
- * All pages instantiated into memory have been entirely read from the file and reconstructed in main memory.<br>
+ * A separator is only as long as it needs to be to tell the last entry of a leaf that was split from the first entry
+ * of the new leaf, see KeyCodec.getSeparator, and every page stores the prefix it's entries share once, see IndexPage.
+ * Both leave more room for cells on a page, so long TEXT keys still give the interior pages many children and the
+ * tree stays shallow.<br>
  *
- * The below algorithms do the best to acomplish all of their goals in "one-pass"
- * TODO: Add counting of reads/writes to keep me honest,
- *  -creating new root: 1 reads and potentially 1 write if it does not exist.
+ * The file, the buffer pool, the latches and committing to the write-ahead log are handled by BPlusTree, which the
+ * tree shares with TableTree. An insert latches it's way down the tree for changing the pages and releases the pages
+ * above a child that has room for one more cell of the largest possible size, so only the pages a split could reach
+ * stay latched. Deletes only remove the entry from it's leaf, pages are never merged and a leaf left empty stays in
+ * the tree until the index is rebuilt.<br>
  *
- * B+-Tree Algorithms and formulas were taken from the text book used in<i>CS 4349 Advanced Algorithm Design and
- * Analysis</i>. <i>Introduction to Algorithms 3rd Edition</i> a book so synonymous with CS Algorithms curriculum that
- * it is often referred to as the CLRS Algorithms book.
- * <br>
+ * A unique index allows every combination of values only once, see `isUnique`. The check for an entry with the same
+ * values is made in the same descent that inserts the entry, with the leaf latched for changing it, so two threads can
+ * never both insert the same values.<br>
  *
- * - Notes that need to be formatted better
- *	   -All except root: All pages have degree t>=2, i.e. all pages but root must hold t - 1 DataCells
- *		   -min: t-1 data cells
- *		   -max: 2t - 1 data cells
- *	   -Root: For empty tree root can have 0 keys, for nonempty root must have at least 1 key
- *	   -Internal Nodes:
- *	   -full when the number of keys is (2t-1) keys
- *
- *	    -Maybe function to get height from number of nodes?
- *	   	h <= logt((n+1)/2) => n >= 2t^(h) - 1
+ * A covering index also stores the values of other columns of the row next to every entry in the leaves, the included
+ * columns. They are not part of the entry, the index is not ordered or searched by them, but a query that only needs
+ * the indexed and included columns is answered by the index alone with `searchEntries`, without reading the table.
  *
  * @author Charles Krol
  * @author Matthew Villarreal
  * @author Michael Del Rosario
  * @author Mithil Vijay
  */
-public class IndexTree {
+public class IndexTree extends BPlusTree {
 	/**
-	 * The operation mode for the RandomAccessFile
+	 * A logger that logs things for logging purposes
 	 */
-	private static final String READ_WRITE_MODE = "rw";
-	private static final int ZERO = 0;
-	
-	
+	private static final Logger LOGGER = Logger.getLogger(IndexTree.class.getName());
+
 	/**
-	 * A logger that logs things for logging purposes
+	 * Encodes the entries of the index from the types of the indexed columns
 	 */
-	private static final Logger LOGGER = Logger.getLogger(TableTree.class.getName());
-	
+	private KeyCodec codec;
+
 	/**
-	 * The name of the database this tree supports
+	 * The size of the largest cell a page of the index can hold, an IndexInteriorCell with an entry of the largest size
 	 */
-	private String databaseName;
+	private int maxCellSize;
+
 	/**
-	 * The fully qualified filename for the file.
-	 * TODO: Might not need to store
+	 * The size of the largest cell that is allowed in the index along with it's offset, a third of a page so that both
+	 * halves of a split page always fit
 	 */
-	private String fileName;
-	
+	private int cellSizeLimit;
+
 	/**
-	 * The RandomAccessFile for the database. Saved so we do not have the make writes immediately to file, they can wait
-	 * until they are absolutely necessary
+	 * True if every combination of values may only be in the index once, read from the file header
 	 */
-	private RandomAccessFile tableFile;
-	
+	private boolean unique;
+
 	/**
-	 * An enumarator that can take on the values of USER to represent a database created by the user or CATALOG to
-	 * represent a database created by the software to help manage the database
+	 * The DataTypes of the included columns of a covering index, read from the file header
 	 */
-	private DatabaseType databaseType;
-	
+	private ArrayList<DataType> includedTypes;
+
 	/**
-	 * 	Holds metadata about the tree's configuration that all must be easily transferred between pages as we traverse
-	 * 	into the tree(#columns/types/etc) and calculates information about B-Trees such as as tree's degree degree.
+	 * Constructor that opens the index with the given name or creates it for a column of the given type. This
+	 * constructor assumes the index is on a USER table and not a system catalog.
+	 * @param indexName the name of the index
+	 * @param keyType the DataType of the indexed column
 	 */
-	private TableConfig treeConfig;
-	
+	public IndexTree(String indexName, DataType keyType) {
+		this(indexName, Collections.singletonList(keyType), PAGE_SIZE, STORAGE_MODE);
+	}
+
 	/**
-	 * The logical root page of the tree which is also the first physical page in the file
+	 * Constructor that accepts the index name, the type of the indexed column, and the page size for a new file as
+	 * arguments. If the index already exists the page size stored in it's file header is used instead.
+	 * @param indexName the name of the index
+	 * @param keyType the DataType of the indexed column
+	 * @param pageSize the size of a page in bytes, see TableConfig.isValidPageSize
 	 */
-	private Page root;
-	
+	public IndexTree(String indexName, DataType keyType, int pageSize) {
+		this(indexName, Collections.singletonList(keyType), pageSize, STORAGE_MODE);
+	}
+
 	/**
-	 * A placeholder used for splitting a node
+	 * Constructor that opens the index with the given name or creates it for columns of the given types. This
+	 * constructor assumes the index is on a USER table and not a system catalog.
+	 * @param indexName the name of the index
+	 * @param keyTypes the DataTypes of the indexed columns in the order they are compared
 	 */
-	private Page newLeftChild;
-	
+	public IndexTree(String indexName, List<DataType> keyTypes) {
+		this(indexName, keyTypes, PAGE_SIZE, STORAGE_MODE);
+	}
+
 	/**
-	 * Can used in conjunction with `largestPageNumber` to determine if a new page should be inserted at the end or if a
-	 * better location should be searched within the file.<br>
-	 *
-	 * This can also be used to determine if the file can be shrunk to reclaim empty pages
+	 * Constructor that accepts the index name, the types of the indexed columns, and the page size for a new file as
+	 * arguments. If the index already exists the page size stored in it's file header is used instead.
+	 * @param indexName the name of the index
+	 * @param keyTypes the DataTypes of the indexed columns in the order they are compared
+	 * @param pageSize the size of a page in bytes, see TableConfig.isValidPageSize
 	 */
-	private int numOfPages;
-	
-	//private Page lastPage;
-	
+	public IndexTree(String indexName, List<DataType> keyTypes, int pageSize) {
+		this(indexName, keyTypes, pageSize, STORAGE_MODE);
+	}
+
 	/**
-	 * To keep track of the largest rowId until IndexTables are implemented
-	 * TODO: Replace with call to index tables maybe?
+	 * Constructor that accepts the index name, the types of the indexed columns, the page size for a new file, and
+	 * the storage mode for it's file as arguments. The file header records the types of the columns followed by the
+	 * type of the rowId.
+	 * @param indexName the name of the index
+	 * @param keyTypes the DataTypes of the indexed columns in the order they are compared
+	 * @param pageSize the size of a page in bytes, see TableConfig.isValidPageSize
+	 * @param storageMode RANDOM_ACCESS or MEMORY_MAPPED
 	 */
-	private int rowIdCounter;
-	
-	// TODO implement
-	private int numLeafPages;
-	private int numInteriorPages;
-	
+	public IndexTree(String indexName, List<DataType> keyTypes, int pageSize, StorageMode storageMode) {
+		this(indexName, keyTypes, false, pageSize, storageMode);
+	}
+
 	/**
-	 * Default constructor that sets fileName and databaseName to null and the DB type to USER
+	 * Constructor that opens the index with the given name or creates it for columns of the given types, allowing
+	 * every combination of values only once if it is unique. This constructor assumes the index is on a USER table and
+	 * not a system catalog.
+	 * @param indexName the name of the index
+	 * @param keyTypes the DataTypes of the indexed columns in the order they are compared
+	 * @param unique true for a unique index, see `isUnique`
 	 */
-	public IndexTree() {
-		this.fileName = null;
-		this.databaseName = null;
-		this.databaseType = DatabaseType.USER;
+	public IndexTree(String indexName, List<DataType> keyTypes, boolean unique) {
+		this(indexName, keyTypes, unique, PAGE_SIZE, STORAGE_MODE);
 	}
-	
+
 	/**
-	 * Constructor that accepts the table name as an argument. This constructor assumes the
-	 * table is a USER table and not a system catalog<br>
-	 *
-	 * The filename is created and it checks if the file already exists. If it does not exist
-	 * the root page/node is created which is also a leaf node.
-	 * @param databaseName the name of the user table to access
+	 * Constructor that accepts the index name, the types of the indexed columns, if the index is unique, the page
+	 * size for a new file, and the storage mode for it's file as arguments. The file header records the types of the
+	 * columns followed by the type of the rowId, and if the index is unique. An index that already exists keeps the
+	 * settings it was created with.
+	 * @param indexName the name of the index
+	 * @param keyTypes the DataTypes of the indexed columns in the order they are compared
+	 * @param unique true for a unique index, see `isUnique`
+	 * @param pageSize the size of a page in bytes, see TableConfig.isValidPageSize
+	 * @param storageMode RANDOM_ACCESS or MEMORY_MAPPED
+	 */
+	public IndexTree(String indexName, List<DataType> keyTypes, boolean unique, int pageSize,
+					 StorageMode storageMode) {
+		this(indexName, keyTypes, Collections.emptyList(), unique, pageSize, storageMode);
+	}
+
+	/**
+	 * Constructor that opens the covering index with the given name or creates it for columns of the given types,
+	 * storing the values of the included columns next to every entry. This constructor assumes the index is on a USER
+	 * table and not a system catalog.
+	 * @param indexName the name of the index
+	 * @param keyTypes the DataTypes of the indexed columns in the order they are compared
+	 * @param includedTypes the DataTypes of the included columns
+	 * @param unique true for a unique index, see `isUnique`
 	 */
-	public IndexTree(String databaseName, ArrayList<DataType> colTypes) {
-		this.databaseName = databaseName;
+	public IndexTree(String indexName, List<DataType> keyTypes, List<DataType> includedTypes, boolean unique) {
+		this(indexName, keyTypes, includedTypes, unique, PAGE_SIZE, STORAGE_MODE);
+	}
+
+	/**
+	 * Constructor that accepts the index name, the types of the indexed and included columns, if the index is unique,
+	 * the page size for a new file, and the storage mode for it's file as arguments. The file header records the types
+	 * of the indexed columns, the type of the rowId and the types of the included columns, along with the number of
+	 * included columns and if the index is unique. An index that already exists keeps the settings it was created with.
+	 * @param indexName the name of the index
+	 * @param keyTypes the DataTypes of the indexed columns in the order they are compared
+	 * @param includedTypes the DataTypes of the included columns, empty for an index that is not covering
+	 * @param unique true for a unique index, see `isUnique`
+	 * @param pageSize the size of a page in bytes, see TableConfig.isValidPageSize
+	 * @param storageMode RANDOM_ACCESS or MEMORY_MAPPED
+	 */
+	public IndexTree(String indexName, List<DataType> keyTypes, List<DataType> includedTypes, boolean unique,
+					 int pageSize, StorageMode storageMode) {
+		this.databaseName = indexName;
 		this.databaseType = DatabaseType.USER;
-		this.fileName = FileHandler.getTableFileName(this.databaseName, this.databaseType);
-		this.treeConfig = new TableConfig(colTypes);
-		openTreeFile();
-		
+		this.storageMode = storageMode;
+		this.fileName = FileHandler.getIndexFileName(this.databaseName, this.databaseType);
+		ArrayList<DataType> entryTypes = new ArrayList<>(keyTypes);
+		entryTypes.add(DataType.INT_TYPE_CODE);
+		entryTypes.addAll(includedTypes);
+		this.treeConfig = new TableConfig(entryTypes, pageSize);
+		this.unique = unique;
+		this.includedTypes = new ArrayList<>(includedTypes);
+		open();
 	}
-	
+
 	/**
-	 * Constructor that accepts the table name and the database type as arguments. <br>
-	 *
-	 * To be able to do this insert in "one-pass" without having to re-traverse the tree or pass back information to the
-	 * beginning of the traversal we will split any full nodes that cross our path on the way down. This way if we
-	 * proceed to the next page and it needs to be split before we can insert we can be sure that the previous page
-	 * will not be full because we would have just split it before visiting this page.
-	 *
-	 * This constructor should be used when attemping to access a system catalog table
-	 * @param databaseName the name of the table to access
+	 * Constructor that opens an existing index, the types of the indexed columns are read from it's file header
+	 * @param indexName the name of the index
 	 * @param type DatabaseType.CATALOG or DatabaseType.USER
+	 * @throws IOException if the index does not exist
 	 */
-	public IndexTree(String databaseName, DatabaseType type) {
-		this.databaseName = databaseName;
+	public IndexTree(String indexName, DatabaseType type) throws IOException {
+		this.databaseName = indexName;
 		this.databaseType = type;
-		this.fileName = FileHandler.getTableFileName(this.databaseName, this.databaseType);
+		this.storageMode = STORAGE_MODE;
+		this.fileName = FileHandler.getIndexFileName(this.databaseName, this.databaseType);
+		if (!FileHandler.doesTableExist(this.fileName)) {
+			throw new IOException("Index " + indexName + " does not exist");
+		}
+		open();
 	}
-	
+
 	/**
 	 * *****************************
 	 * *****************************
@@ -169,659 +229,535 @@ public class IndexTree {
 	 * *****************************
 	 * *****************************
 	 */
-	
+
 	/**
-	 * 1-of-3 methods that make up the recursive B+Tree traversal insert algorithm.
-	 * This is insert method that other classes will call when the users or a system table need to make an insertion
-	 * into the file. This one implicitly calls the root page as our starting page.<br>
-	 *
-	 * The datatypes and values are accepted to abstract away the the creation of the underlying DataCell classes that
-	 * hold the DataRecords
-	 * @param colTypes A List of byte type codes to represent the various data types that will be stored in this file
-	 * @param colValues the actual values of each column for this new row.
-	 *                  TODO:
-	 * @return the 4-byte of the newly inserted record, -1 if the insert failed
-	 */
-	public void insert(ArrayList<DataType> colTypes, ArrayList<String> colValues){
-		LOGGER.log(Level.INFO, "Entering insert(colTypes, colValues)");
-		if (Optional.ofNullable(this.root).isPresent()) {
-			throw new IllegalStateException("Tree can't have null root");
-		}
-		
-		// Check if valid insert
-		if (validInsert(colTypes, colValues)) {
-			LOGGER.log(Level.INFO, "Valid insert");
-			// Create new LeafCell so less to pass around
-			int newRowId = getRowIdCounter();
-			insert(new IndexLeafCell(new DataRecord(colTypes, colValues)));
-			
-		}
-		// TODO: Count insertions, add in Config class
-		LOGGER.log(Level.INFO, "Exiting insert(colTypes, colValues)");
+	 * Adds an entry for a row to an index on one column. Adding an entry that is already in the index changes nothing.
+	 * @param key the value of the indexed column, null for a NULL value
+	 * @param rowId the rowId of the row in the table
+	 * @return true if the entry is in the index, false if the index is unique and another row has the same value
+	 */
+	public boolean insert(String key, int rowId) {
+		return insert(Collections.singletonList(key), rowId);
 	}
-	
+
 	/**
-	 * 1-of-3 methods that make up the recursive B+Tree traversal insert algorithm.
-	 * This is insert method that other classes will call when the users or a system table need to make an insertion
-	 * into the file. This one implicitly calls the root page as our starting page.<br>
+	 * Adds an entry for a row to the index. Adding an entry that is already in the index changes nothing.<br>
 	 *
-	 * The DataRecord is accepted with already initialized column types and values
-	 * @param dataRecord the DataRecord to insert into the Table
-	 *                  TODO:
-	 * @return the 4-byte of the newly inserted record, -1 if the insert failed
-	 */
-	public void insert(DataRecord dataRecord) {
-		LOGGER.log(Level.INFO, "Entering insert(DataRecord)");
-		if (!Optional.ofNullable(this.root).isPresent()) {
-			throw new IllegalStateException("Tree can't have null root");
-		}
-		
-		if (validInsert(dataRecord)) {
-			LOGGER.log(Level.INFO, "Valid insert");
-			int newRowId = getRowIdCounter();
-			insert(new IndexLeafCell(newRowId, dataRecord));
-		}
-		LOGGER.log(Level.INFO, "Exiting insert(DataRecord)");
+	 * In a unique index the descent is made for the smallest entry the values can have rather than the entry itself.
+	 * The entry of another row with the same values is the first one at or after it in the leaf it reaches, and the
+	 * new entry belongs in the same leaf, see `isUnique`, so the values are checked and the entry added in one descent.
+	 * @param keys the values of the indexed columns, null for a NULL value
+	 * @param rowId the rowId of the row in the table
+	 * @return true if the entry is in the index, false if the index is unique and another row has the same values, the
+	 * index is not changed then
+	 */
+	public boolean insert(List<String> keys, int rowId) {
+		return insert(keys, Collections.emptyList(), rowId);
 	}
-	
+
 	/**
-	 * 2-of-3 methods that make up the recursive B+Tree traversal insert algorithm.
-	 * This method accepts a IndexLeafCell created by either insert(DataRecord) or insert(DataType[], String[]). This
-	 * method first checks if the root is full and if it is then it is split. Before splitting though a new root must
-	 * first be created and a pointer to the old root inserted before moving on to split it.<br>
-	 *
-	 * Afterwards we call insertNonFull on the new root and continue trying to insert, else we call insertNonFull on the
-	 * old root.
-	 * @param newRecord a IndexLeafCell with it's rowId that was created by one of the first insert methods.
-	 */
-	private void insert(IndexLeafCell newRecord) {
-		LOGGER.log(Level.INFO, "Entering insert(IndexLeafCell)");
-		// Check if root is is full and needs splitting
-		if (this.root.isFull(this.treeConfig)) {
-			// Save old root for the split function
-			this.newLeftChild = this.root;
-			
-			// Get the next free page number for its new position in the file
-			this.newLeftChild.setPageNumber(getNewPageNumber());
-			
-			// Create new root and save it since there will be no way to save it later
-			TableInteriorPage tmpNewPage = new TableInteriorPage(PageType.TABLE_INTERIOR_ROOT, ZERO, this.treeConfig);
-			
-			// Create a new data cell to store in the new root page that points to the left child
-			IndexInteriorCell newRootCell = new IndexInteriorCell(this.newLeftChild.getMaxRowId(), this.newLeftChild.getPageNumber());
-			
-			tmpNewPage.addDataCell(newRootCell);
-			
-			this.root = tmpNewPage;
-			
-			// Run split root
-			splitChildPage(tmpNewPage);
-			insertNonFull(tmpNewPage, newRecord);
-		} else {
-			insertNonFull(this.root, newRecord);
+	 * Adds an entry for a row to a covering index along with the values of the included columns, see
+	 * `insert(List, int)`. The included values of an entry that is already in the index are not changed.
+	 * @param keys the values of the indexed columns, null for a NULL value
+	 * @param includedValues the values of the included columns, null for a NULL value
+	 * @param rowId the rowId of the row in the table
+	 * @return true if the entry is in the index, false if the index is unique and another row has the same values, the
+	 * index is not changed then
+	 */
+	public boolean insert(List<String> keys, List<String> includedValues, int rowId) {
+		LOGGER.log(Level.INFO, "Entering insert()");
+		checkOpen();
+		byte[] entry = this.codec.encode(keys, rowId);
+		IndexLeafCell cell = new IndexLeafCell(entry, getIncludedRecord(includedValues));
+		int interiorCellSize = IndexInteriorCell.START_OF_INTERIOR_INDEX_CELL_PAYLOAD + entry.length;
+		if (Math.max(interiorCellSize, cell.size()) > this.cellSizeLimit) {
+			throw new IllegalArgumentException("An entry of " + cell.size() + " bytes does not fit a page of size " +
+					this.treeConfig.getPageSize());
 		}
-		LOGGER.log(Level.INFO, "Exiting insert(IndexLeafCell)");
-	}
-	
-	/**
-	 * 3-of-3 methods for inserting a new record into a table. This is called from method 2-of-3 and assumes that the
-	 * the current page is non-full, but one of the children we may recurse into might be full.<br>
-	 *
-	 * If this is a leaf page then assuming this is not a duplicate entry we simply insert it, increase the
-	 * rowIdCounter, and write the new page to file.<br>
-	 *
-	 * Else this is not a leaf cell and we must continue traversing down the tree. After finding the correct child to
-	 * traverse into it checks if the child is full and starts a split operation. All the work is handled by the split
-	 * method this time as it was only for splitting the root was there extra work. After splitting the method decides
-	 * which of the pages is the correct one after the split and then is traverses into it accordingly.
-	 * @param currentPage the page following the page that called this method
-	 * @param indexLeafCell the new DataRecord to insert wrapped in a indexLeafCell with it's rowId
-	 */
-	private void insertNonFull(Page currentPage, IndexLeafCell indexLeafCell) {
-		LOGGER.log(Level.INFO, "Entering insertNonFull()");
-		int rowId = indexLeafCell.getRowId();
-		if(currentPage.isLeaf()) {
-			// In Leaf, double check there isn't a duplicate and if there throw an exception, otherwise insert
-			TableLeafPage leaf = (TableLeafPage)currentPage;
-			
-			if(leaf.contains(indexLeafCell)) {
-				throw new IllegalStateException("Error, there is a duplicate entry");
-			}
-			currentPage.addDataCell(indexLeafCell);
-			incrementRowIdCounter();
-			currentPage.writePage(tableFile);
+		boolean checkValues = this.unique && !keys.contains(null);
+		byte[] target = checkValues ? this.codec.encodeBound(keys, false) : entry;
+		ArrayList<byte[][]> fences = new ArrayList<>();
+		ArrayList<Page> latched = latchPathForInsert(target, fences);
+		IndexLeafPage leaf = (IndexLeafPage) latched.get(latched.size() - ONE);
+		int index = leaf.firstIndexAtLeast(target);
+		byte[] next = index < leaf.getNumOfCells() ? leaf.getCell(index).getPayload() : null;
+		boolean exists = next != null &&
+				(checkValues ? KeyCodec.compareKeys(next, entry) : KeyCodec.compare(next, entry)) == ZERO;
+		if (!exists) {
+			insertCell(latched, fences, latched.size() - ONE, cell);
 		}
-		if(currentPage.isInterior()) {
-			TableInteriorPage currentInteriorPage = (TableInteriorPage)currentPage;
-			// Get the next page number to traverse to and load it from the file
-			int nextPageNum = currentInteriorPage.getNextPage(rowId);
-			Page nextPage = getPage(nextPageNum);
-			int nextPagePtr;
-			if (nextPage.isFull(treeConfig)) {
-				this.newLeftChild = nextPage;
-				splitChildPage((TableInteriorPage) currentPage);
-				
-				if (rowId >= nextPage.getMaxRowId()) {
-					nextPagePtr = ((TableInteriorPage) currentPage).getNextPagePointer();
-				} else {
-					nextPagePtr = ((IndexInteriorCell)currentPage.getFirst()).getLeftChildPointer();
-				}
-				this.newLeftChild = null;
-				nextPage = getPage(nextPagePtr);
-			}
-			insertNonFull(nextPage, indexLeafCell);
+		unlatchAll(latched);
+		commit();
+		boolean inserted = !exists || KeyCodec.getRowId(next) == rowId;
+		if (!inserted) {
+			LOGGER.log(Level.INFO, "Unique index {0} already has an entry for row {1} with the same values",
+					new Object[]{this.databaseName, KeyCodec.getRowId(next)});
 		}
-		LOGGER.log(Level.INFO, "Exiting insertNonFull()");
+		LOGGER.log(Level.INFO, "Exiting insert()");
+		return inserted;
 	}
-	
+
 	/**
-	 * Checks to see if the given insert of colTypes and colValues are valid. Input validation should be done at the
-	 * front end
-	 * @param colTypes array of bytes that represent each column's data types
-	 * @param colValues the actual values that will be stored in each column.
-	 * @return true if this is a valid insert false otherwise
+	 * Builds the DataRecord of the included values stored in a leaf cell of a covering index
+	 * @param includedValues the values of the included columns, null for a NULL value
+	 * @return the DataRecord, NULL values with the NULL type code, null if the index includes no columns
 	 */
-	boolean validInsert(ArrayList<DataType> colTypes, ArrayList<String> colValues) {
-		if(!DataType.sameColTypes(colTypes, treeConfig.getColTypes())) {
-			throw new IllegalArgumentException("Given column data types do not match this tree's column data types");
+	private DataRecord getIncludedRecord(List<String> includedValues) {
+		if (includedValues.size() != this.includedTypes.size()) {
+			throw new IllegalArgumentException("The index includes " + this.includedTypes.size() + " columns, not " +
+					includedValues.size());
 		}
-		
-		if(colTypes.size() != colValues.size()) {
-			throw new IllegalArgumentException("The column type arrays and the column values array have different " +
-					"sizes");
+		if (this.includedTypes.isEmpty()) {
+			return null;
 		}
-		return true;
-	}
-	
-	/**
-	 * Checks to see if the given insert of this DataRecord is valid for this table. Input validation should be done at
-	 * the front end
-	 * @param dataRecord a DataRecord to insert ito the table
-	 * @return true if this is a valid insert false otherwise
-	 */
-	boolean validInsert(DataRecord dataRecord) {
-		if(!DataType.sameColTypes(dataRecord.getColumnDataTypes(), treeConfig.getColTypes())) {
-			throw new IllegalArgumentException("Given column data types do not match this tree's column data types");
+		ArrayList<DataType> types = new ArrayList<>(this.includedTypes.size());
+		ArrayList<String> values = new ArrayList<>(this.includedTypes.size());
+		for (int i = ZERO; i < this.includedTypes.size(); i++) {
+			String value = includedValues.get(i);
+			types.add(value == null ? DataType.NULL1_TYPE_CODE : this.includedTypes.get(i));
+			values.add(value == null ? "" : value);
 		}
-		return true;
+		return new DataRecord(types, values);
 	}
-	
-	/**
-	 * *****************************
-	 * *****************************
-	 * *****************************
-	 * Split/Merge Methods & helpers
-	 * *****************************
-	 * *****************************
-	 * *****************************
-	 */
-	
+
 	/**
-	 * This method when given a parent page will split one of it's children. The child to be split is assumed to have
-	 * already been saved in newLeftChild.<br>
-	 *
-	 * The page is split on the middle/median entry when the cells are sorted by rowId. The median entry will go to the
-	 * newRightChild, but it's rowId will be used to update the rowId of the pointer to newLeftChild. <br>
-	 *     Before the split the pointer to the newLeftChild was the minRowId of the page immediately to the left, that
-	 *     pointer will be updated to the median rowId as that will be the minRowId of the newRightChild. <br>
-	 *
-	 * If the newRightChild is not the far right child then a new pointer to the newRightChild will be placed in the
-	 * parent with the minRowId of the page immediately to the right. If it is the far right child then the rightPointer
-	 * of the parent page will be updated to point to the newRightChild and the medianRowId(now the minRowId of
-	 * newRightChild) will be used to insert a new pointer in the parent to the newLeftChild. <br>
-	 *
-	 * After the new pages and their pointers are created the all values >= to the medianRowId will be moved over to the
-	 * newRightChild. Afterwards the pages will be written to disk and the pointer to the newLeftChild is cleared to be
-	 * safe.
-	 * @param parentPage the parent page of the page to be split
-	 */
-	private void splitChildPage(TableInteriorPage parentPage) {
-		LOGGER.log(Level.INFO, "Entering splitChildPage()");
-		// Assuming a parent Interior Page
-		DataCell dataCell;
-		Page rightChild = null;
-		int medianRowId = this.newLeftChild.getMedianRowId();
-		
-		// If leaf Page, create a new leaf page
-		if (this.newLeftChild.isLeaf()) {
-			rightChild = newRightLeafPage(parentPage);
-			TableLeafPage leftChild = (TableLeafPage)this.newLeftChild;
-			moveCellsToRight(leftChild, rightChild);
-		}
-		if (this.newLeftChild.isInterior()) {
-			rightChild = newRightInteriorPage(parentPage);
-			TableInteriorPage leftChild = (TableInteriorPage) this.newLeftChild;
-			moveCellsToRight(leftChild, rightChild);
-		}
-		
-		this.newLeftChild.writePage(tableFile);
-		this.newLeftChild = null;
-		rightChild.writePage(tableFile);
-		parentPage.writePage(tableFile);
-		
-		LOGGER.log(Level.INFO, "Exiting splitChildPage()");
-	}
-	
-	/**
-	 * Moved all DataCells with rowId >= medianRowId over to the newRightChild of a split.
-	 * @param leftChild the original page that is being split
-	 * @param rightChild the new page we need to move around half of the leftChild's entries to
-	 */
-	private void moveCellsToRight(Page leftChild, Page rightChild) {
-		int medianRowId = leftChild.getMedianRowId();
-		ArrayList<DataCell> moveList = new ArrayList<>();
-		for(DataCell cell : leftChild.getDataCells()) {
-			if (cell.getRowId() >= medianRowId) {
-				// Move to right child,  Remove from left
-				moveList.add(leftChild.getDataCellFromRowId(cell.getRowId()));
-				// If == media row ID then remove as it is now a key in the new parent
-			}
-		}
-		// Check if it was the root and adjust the PageType
-		if (leftChild.isRoot()) {
-			if (leftChild.isLeaf()) {
-				leftChild.setPageType(PageType.TABLE_LEAF_PAGE);
-			} else {
-				leftChild.setPageType(PageType.TABLE_INTERIOR_PAGE);
+	 * Latches the path from the root down to the leaf an entry belongs in for changing it. A page is released as soon
+	 * as the child below it has room for another cell, a split can't reach above that child.
+	 * @param entry the payload bytes of the entry
+	 * @param fences filled with the fence keys of every latched page, the separators before and after it in it's
+	 *               parent, null for a missing one
+	 * @return the latched pages from the highest one a split could change down to the leaf
+	 */
+	private ArrayList<Page> latchPathForInsert(byte[] entry, ArrayList<byte[][]> fences) {
+		ArrayList<Page> latched = new ArrayList<>();
+		Page page = latchRoot(true, true);
+		latched.add(page);
+		fences.add(new byte[TWO][]);
+		byte[] low = null;
+		byte[] high = null;
+		while (page.isInterior()) {
+			IndexInteriorPage parent = (IndexInteriorPage) page;
+			int index = parent.firstIndexAbove(entry);
+			// A child without a separator on one side shares the parent's fence key on that side
+			low = index > ZERO ? parent.getCell(index - ONE).getPayload() : low;
+			high = index < parent.getNumOfCells() ? parent.getCell(index).getPayload() : high;
+			page = latchPage(parent.getChildAt(index), true);
+			if (((IndexPage) page).hasRoomFor(this.maxCellSize)) {
+				unlatchAll(latched);
+				fences.clear();
 			}
+			latched.add(page);
+			fences.add(new byte[][] {low, high});
 		}
-		// Move the cells over
-		leftChild.removeList(moveList);
-		rightChild.addList(moveList);
+		return latched;
 	}
-	
+
 	/**
-	 * When splitting a page this method is called when creating a new leaf page.
-	 *
-	 * The nextPagePointer of the original leaf is moved over to the rightChild so as to continue the linked list of
-	 * leaves. The newRightChild's pageNumber is added as the leftChilds nextPagePointer.<br>
-	 *
-	 *
-	 * Before the split the pointer to the newLeftChild was the minRowId of the page immediately to the left, that
-	 * pointer will be updated to the median rowId as that will be the minRowId of the newRightChild. <br>
-	 *
-	 * If the newRightChild is not the far right child then a new pointer to the newRightChild will be placed in the
-	 * parent with the minRowId of the page immediately to the right. If it is the far right child then the rightPointer
-	 * of the parent page will be updated to point to the newRightChild and the medianRowId(now the minRowId of
-	 * newRightChild) will be used to insert a new pointer in the parent to the newLeftChild. <br>
-	 *
-	 *
-	 * @param splitParent the page parenting the split
-	 * @return new TableLeafPage with all pointers correctly set, just absent of DataCells
-	 */
-	private TableLeafPage newRightLeafPage(TableInteriorPage splitParent) {
-		LOGGER.log(Level.INFO, "Entering newRightLeafPage()");
-		// Cast to TableLeafPage so we can access the subclass' getters/setters
-		TableLeafPage tmpLeafPage = (TableLeafPage) this.newLeftChild;
-		// Create new right child leaf page and store leftChild's rightPointer as the rightChild's new right pointer
-		TableLeafPage rightChild = new TableLeafPage(PageType.TABLE_LEAF_PAGE, getNewPageNumber(), tmpLeafPage.getNextPagePointer(), treeConfig);
-		
-		// Switch the left child's rightPointer to the right child's new page number
-		tmpLeafPage.setNextPagePointer(rightChild.getPageNumber());
-		
-		// Add pointer of new tree to old parent
-		int medianRowId = this.newLeftChild.getMedianRowId();
-		int maxIdInLeft = this.newLeftChild.getMaxRowId();
-		int minIdInLeft = this.newLeftChild.getMinRowId();
-		int maxIdInParent = splitParent.getMaxRowId();
-		
-		if(splitParent.isRoot() && splitParent.getNumOfCells() == ONE && splitParent.getMaxRowId() ==
-				newLeftChild.getMaxRowId()) {
-			// This is the first split set the rightChild as the nextPagePointer and update the leftChildPointer to
-			// the median rowId
-			splitParent.getDataCells().get(ZERO).setRowId(medianRowId);
-			splitParent.setNextPagePointer(rightChild.getPageNumber());
-		} else if (maxIdInParent == minIdInLeft) {
-			// Far Right Page
-			// Insert new Data Cell to point to left child as there is no pointer to this cell in the parent
-			IndexInteriorCell newLeftPointer = new IndexInteriorCell(medianRowId, newLeftChild.getPageNumber());
-			splitParent.addDataCell(newLeftPointer);
-			// Update rightPagePointer of Parent
-			splitParent.setNextPagePointer(rightChild.getPageNumber());
+	 * Adds a cell to a latched page and splits the page if the cell did not fit, the separator of the split is added to
+	 * the page above the same way. A root that is split moves it's cells to a new page below a new root.
+	 * @param latched the latched path, see `latchPathForInsert`
+	 * @param fences the fence keys of the latched pages
+	 * @param level the position of the page in the path
+	 * @param cell the cell to add
+	 */
+	private void insertCell(ArrayList<Page> latched, ArrayList<byte[][]> fences, int level, IndexCell cell) {
+		IndexPage page = (IndexPage) latched.get(level);
+		page.insertCell(page.firstIndexAtLeast(cell.getPayload()), cell);
+		if (!page.isOverfull()) {
+			writePage(page);
+			return;
+		}
+		if (page.isRoot()) {
+			// The root is a new page object, threads waiting for the latch of the old one find it obsolete and look
+			// the root up again
+			IndexInteriorPage newRoot = new IndexInteriorPage(PageType.INDEX_INTERIOR_ROOT, ZERO, -ONE, this.treeConfig);
+			IndexPage child = moveRootDown(page, newRoot);
+			newRoot.insertCell(ZERO, splitPage(child, newRoot, fences.get(level)));
+			writePage(newRoot);
 		} else {
-			// Update leftChild's pointer in parent to median value
-			IndexInteriorCell parentLeftPointer =
-					(IndexInteriorCell) splitParent.getDataCellFromRowId(maxIdInLeft);
-			parentLeftPointer.setRowId(medianRowId);
-			
-			// Go to next leaf page in LinkedList chain on bottom row of the page
-			TableLeafPage nextLeafPage = (TableLeafPage)getPage(rightChild.getNextPagePointer());
-			// Get smallest value from it, this is the rowId for the new IndexInteriorCell to put in the parent
-			IndexInteriorCell newRightPointer = new IndexInteriorCell(nextLeafPage.getMinRowId(), rightChild.getPageNumber());
-			splitParent.addDataCell(newRightPointer);
+			IndexInteriorPage parent = (IndexInteriorPage) latched.get(level - ONE);
+			insertCell(latched, fences, level - ONE, splitPage(page, parent, fences.get(level)));
 		}
-		LOGGER.log(Level.INFO, "Exiting newRightLeafPage()");
-		return rightChild;
 	}
-	
+
+	/**
+	 * Moves the cells of the root to a new page that becomes the only child of a new root
+	 * @param oldRoot the root, latched for changing it, it is marked obsolete
+	 * @param newRoot the new root, it's nextPagePointer is set to the new page
+	 * @return the new page holding the old root's cells
+	 */
+	private IndexPage moveRootDown(IndexPage oldRoot, IndexInteriorPage newRoot) {
+		int childPageNumber = getNewPageNumber();
+		IndexPage child = oldRoot.isLeaf() ?
+				new IndexLeafPage(PageType.INDEX_LEAF_PAGE, childPageNumber, -ONE, this.treeConfig) :
+				new IndexInteriorPage(PageType.INDEX_INTERIOR_PAGE, childPageNumber,
+						((IndexInteriorPage) oldRoot).getNextPagePointer(), this.treeConfig);
+		oldRoot.moveCellsTo(ZERO, child);
+		newRoot.setNextPagePointer(childPageNumber);
+		oldRoot.setObsolete();
+		Operation current = this.operation.get();
+		current.countPage(child, ONE);
+		current.countPage(oldRoot, -ONE);
+		current.countPage(newRoot, ONE);
+		current.heightChange++;
+		return child;
+	}
+
 	/**
-	 * When splitting a page this method is called when creating a new leaf page.
-	 *
-	 * The nextPagePointer of the original leaf is moved over to the rightChild<br>
-	 *
-	 
-	 * Before the split the pointer to the newLeftChild was the minRowId of the page immediately to the left, that
-	 * pointer will be updated to the median rowId as that will be the minRowId of the newRightChild. <br>
-	 *
-	 * If the newRightChild is not the far right child then a new pointer to the newRightChild will be placed in the
-	 * parent with the minRowId of the page immediately to the right. If it is the far right child then the rightPointer
-	 * of the parent page will be updated to point to the newRightChild and the medianRowId(now the minRowId of
-	 * newRightChild) will be used to insert a new pointer in the parent to the newLeftChild. <br>
+	 * Splits a page in two that hold about the same number of bytes. The page keeps the first half and a new page
+	 * takes the rest, the parent's pointer to the page is pointed to the new page and the separator returned goes in
+	 * front of it.<br>
 	 *
+	 * A leaf's separator is the shortest start of the first entry of the new leaf that comes after the last entry left
+	 * on the page, and the new leaf is linked in after the page. An interior page's first cell of the second half moves
+	 * up as the separator instead, it's left child becomes the page's rightmost child.<br>
 	 *
-	 * @param splitParent the page parenting the split
-	 * @return new TableInteriorPage with all pointers correctly set, just absent of DataCells
-	 */
-	private TableInteriorPage newRightInteriorPage(TableInteriorPage splitParent) {
-		LOGGER.log(Level.INFO, "Entering newRightInteriorPage()");
-		
-		// Cast to TableInteriorPage so we can access the subclass' getters/setters
-		TableInteriorPage newInteriorLeftChild = (TableInteriorPage) this.newLeftChild;
-		
-		// Create new right child interior page and store leftChild's rightPointer as the rightChild's new right pointer
-		TableInteriorPage newInteriorRightChild = new TableInteriorPage(PageType.TABLE_INTERIOR_PAGE, getNewPageNumber(),
-				newInteriorLeftChild.getNextPagePointer(), treeConfig);
-		
-		
-		int medianRowId = newInteriorLeftChild.getMedianRowId();
-		int maxIdInLeft = newInteriorLeftChild.getMaxRowId();
-		int minIdinLeft = newInteriorLeftChild.getMinRowId();
-		int maxIdInParent = splitParent.getMaxRowId();
-		
-		// if leftChild.pageNum = parent.pageNum, then before the split
-		// this was a far-right page.
-		if(splitParent.isRoot() && splitParent.getNumOfCells() == ONE && splitParent.getMaxRowId() == newLeftChild.getMaxRowId()) {
-			// This is the first split set the rightChild as the nextPagePointer and update the leftChildPointer to
-			// the median rowId
-			splitParent.getDataCells().get(ZERO).setRowId(medianRowId);
-			splitParent.setNextPagePointer(newInteriorRightChild.getPageNumber());
-		} else if(minIdinLeft >= maxIdInParent) {
-			// Page is part of the alt-right
-			splitParent.setNextPagePointer(newInteriorRightChild.getPageNumber());
-			
-			// Add new pointer to left child in parent and store it's median rowId as the key
-			IndexInteriorCell newLeftPointerInParent = new IndexInteriorCell(medianRowId,
-					newInteriorLeftChild.getPageNumber());
-			
-			splitParent.addDataCell(newLeftPointerInParent);
+	 * The separator becomes a fence key of both pages, so each of them can store a longer prefix than the page had.
+	 * @param page the page to split, latched for changing it
+	 * @param parent the page above it, latched for changing it
+	 * @param fences the fence keys of the page before it is split
+	 * @return the separator to add to the parent, it's left child is the page
+	 */
+	private IndexInteriorCell splitPage(IndexPage page, IndexInteriorPage parent, byte[][] fences) {
+		int rightPageNumber = getNewPageNumber(page.getPageNumber());
+		int splitIndex = page.getSplitIndex();
+		IndexPage right;
+		byte[] separator;
+		if (page.isLeaf()) {
+			IndexLeafPage leftLeaf = (IndexLeafPage) page;
+			IndexLeafPage rightLeaf = new IndexLeafPage(PageType.INDEX_LEAF_PAGE, rightPageNumber,
+					leftLeaf.getNextPagePointer(), this.treeConfig);
+			leftLeaf.moveCellsTo(splitIndex, rightLeaf);
+			leftLeaf.setNextPagePointer(rightPageNumber);
+			separator = KeyCodec.getSeparator(leftLeaf.getCell(splitIndex - ONE).getPayload(),
+					rightLeaf.getCell(ZERO).getPayload());
+			right = rightLeaf;
 		} else {
-			
-			// Get smallest pointer from next bucket over(to the right) which will be the rowId value for the pointer of
-			// the new right child. Must get this before updating the leftPointer to the Median ID
-			int rightChildPointerKey = splitParent.getCellRightNeighbor(maxIdInLeft).getRowId();
-			
-			// Update leftChild's pinter in the partent to median value
-			IndexInteriorCell pointerToLeft = splitParent.getDataCellFromPagePointer(newInteriorLeftChild.getPageNumber());
-			pointerToLeft.setRowId(medianRowId);
-			
-			// Create a new cell to stuff into the parent for the right child
-			IndexInteriorCell newRightPointer = new IndexInteriorCell(rightChildPointerKey,
-					newInteriorRightChild.getPageNumber());
-			splitParent.addDataCell(newRightPointer);
+			IndexInteriorPage leftInterior = (IndexInteriorPage) page;
+			IndexInteriorPage rightInterior = new IndexInteriorPage(PageType.INDEX_INTERIOR_PAGE, rightPageNumber,
+					leftInterior.getNextPagePointer(), this.treeConfig);
+			leftInterior.moveCellsTo(splitIndex, rightInterior);
+			IndexInteriorCell middle = (IndexInteriorCell) rightInterior.removeCellAt(ZERO);
+			leftInterior.setNextPagePointer(middle.getLeftChildPointer());
+			separator = middle.getPayload();
+			right = rightInterior;
 		}
-		return newInteriorRightChild;
+		page.setPrefix(KeyCodec.getCommonPrefix(fences[ZERO], separator));
+		right.setPrefix(KeyCodec.getCommonPrefix(separator, fences[ONE]));
+		parent.replaceChild(page.getPageNumber(), rightPageNumber);
+		this.operation.get().countPage(right, ONE);
+		writePage(page);
+		writePage(right);
+		return new IndexInteriorCell(page.getPageNumber(), separator);
 	}
-	
+
 	/**
 	 * *****************************
 	 * *****************************
 	 * *****************************
-	 *           File I/O
+	 *    Search Methods & helpers
 	 * *****************************
 	 * *****************************
 	 * *****************************
 	 */
-	
+
 	/**
-	 * Checks to see if the Tree file exits if it does it sets the root page field of this tree instance if it does
-	 * not exist it calls `createTreeFile` to create a new tree file.
+	 * Returns the rowIds of every row with the given value in the indexed column of an index on one column
+	 * @param key the value to look for, null for NULL values
+	 * @return the rowIds in ascending order
 	 */
-	private void openTreeFile() {
-		LOGGER.log(Level.INFO, "Entering openTreeFile()");
-		if (!FileHandler.doesTableExist(this.fileName)) {
-			LOGGER.log(Level.INFO, "File DNE, must create new table file");
-			// Need to create new file
-			LOGGER.log(Level.INFO, "Creating new table file for: {0}", this.databaseName);
-			createTreeFile();
-		} else {
-			try {
-				LOGGER.log(Level.INFO, "Entering table exists, need to read from file");
-				this.tableFile = new RandomAccessFile(this.fileName, READ_WRITE_MODE);
-				LOGGER.log(Level.INFO, "Table {0} exists", this.databaseName);
-				getRootPage();
-			} catch (IOException e) {
-				LOGGER.log(Level.SEVERE, e.toString());
-			}
-		}
-		LOGGER.log(Level.INFO, "Exiting openTreeFile()");
-	}
-	
-	/**
-	 * Method to create a tree file and insert a new root leaf page if the tree does not exist
-	 */
-	private void createTreeFile() {
-		LOGGER.log(Level.INFO, "Entering createTreeFile()");
-		// Create file and set length equal to PAGE_SIZE
-		FileHandler.createTableFile(this.fileName);
-		LOGGER.log(Level.INFO, "New table file for {0} created", this.databaseName);
-		try {
-			this.tableFile = new RandomAccessFile(this.fileName, READ_WRITE_MODE);
-			this.root = createNewRootLeaf();
-			LOGGER.log(Level.INFO, "Exiting createTreeFile()");
-		} catch (IOException e) {
-			LOGGER.log(Level.SEVERE, e.toString());
-		}
+	public List<Integer> search(String key) {
+		return search(key, key);
 	}
-	
+
 	/**
-	 * Used whenever the file is first created to insert a new root page that also happens to be a leaf because it's a
-	 * new file.
-	 * TODO: Move to Abstract Tree class
-	 * @return the new root leaf page just created so it can be saved with for later use
+	 * Returns the rowIds of every row with a value in the indexed column of an index on one column from fromKey to
+	 * toKey, inclusive. NULL values come before every other value.
+	 * @param fromKey the smallest value to return, null to start at the NULL values
+	 * @param toKey the largest value to return
+	 * @return the rowIds in the order of their values, rows with the same value in ascending order
 	 */
-	private TableLeafPage createNewRootLeaf() {
-		LOGGER.log(Level.INFO, "Entering createNewRootLeaf()");
-		TableLeafPage tableLeafPage = new TableLeafPage(PageType.TABLE_LEAF_ROOT, ZERO, -ONE, treeConfig);
-		tableLeafPage.writePage(this.tableFile);
-		LOGGER.log(Level.INFO, "New Root Leaf for: {0}: ", this.databaseName);
-		numOfPages++;
-		LOGGER.log(Level.INFO, "Exiting createNewRootLeaf()");
-		return tableLeafPage;
+	public List<Integer> search(String fromKey, String toKey) {
+		return search(Collections.singletonList(fromKey), Collections.singletonList(toKey));
 	}
-	
+
 	/**
-	 * Method that retrieves a specific page from the file depending on the page number and the PAGE_SIZE value set
-	 * in the Config class.
-	 *
-	 * TODO: add in Index pages
-	 * @see edu.utdallas.cs6360.davisbase.Config
-	 * @param pageNumber a 4-byte integer representing the physical position of the desired page within the file
-	 *                   relative to the beginning of the file
-	 * @return depending on the type code stored in file a
-	 * TableInteriorPage/TableLeafPage/IndexInteriorPage/IndexLeafPage
-	 */
-	private Page getPage(int pageNumber) {
-		try {
-			byte[] pageBytes = new byte[PAGE_SIZE];
-			this.tableFile.seek(PAGE_SIZE * pageNumber);
-			this.tableFile.read(pageBytes);
-			
-			// Return a different subclass depending on the PageType value
-			return PageType.getEnum(pageBytes[ZERO]) == PageType.TABLE_LEAF_PAGE ?
-					new TableLeafPage(pageBytes, pageNumber, treeConfig) :
-					new TableInteriorPage(pageBytes, pageNumber, treeConfig);
-		} catch (IOException e) {
-			LOGGER.log(Level.SEVERE, e.toString());
+	 * Returns the rowIds of every row with the given values in the first indexed columns
+	 * @param keys the values of the first indexed columns, null for NULL values
+	 * @return the rowIds in the order of the rest of their values, rows with the same values in ascending order
+	 */
+	public List<Integer> search(List<String> keys) {
+		return search(keys, keys);
+	}
+
+	/**
+	 * Returns the rowIds of every row whose values in the indexed columns come from fromKeys to toKeys, inclusive.
+	 * Either list may hold the values of only the first few columns, the range then starts before or ends after every
+	 * row starting with them. NULL values come before every other value of their column.
+	 * @param fromKeys the values of the first indexed columns of the first row to return
+	 * @param toKeys the values of the first indexed columns of the last row to return
+	 * @return the rowIds in the order of their values, rows with the same values in ascending order
+	 */
+	public List<Integer> search(List<String> fromKeys, List<String> toKeys) {
+		ArrayList<Integer> rowIds = new ArrayList<>();
+		for (IndexLeafCell cell : searchCells(fromKeys, true, toKeys, true)) {
+			rowIds.add(KeyCodec.getRowId(cell.getPayload()));
 		}
-		return null;
+		return rowIds;
 	}
-	
+
 	/**
-	 * Expand the file if it is not enough room to insert a new page
-	 */
-	private void expandFile() {
-		try {
-			this.tableFile.setLength(this.tableFile.length() + PAGE_SIZE);
-		} catch (IOException e) {
-			LOGGER.log(Level.SEVERE, e.toString());
+	 * Returns every entry whose values in the indexed columns come from fromKeys to toKeys, with the values of the
+	 * included columns of a covering index. A query that only needs these columns is answered without reading the
+	 * table. Either list may hold the values of only the first few columns like in `search(List, List)`, an empty
+	 * list leaves the range open on that side. A range from a NULL value that leaves it out holds no NULL values.
+	 * @param fromKeys the values of the first indexed columns of the first entry
+	 * @param fromInclusive false to leave out the entries starting with fromKeys
+	 * @param toKeys the values of the first indexed columns of the last entry
+	 * @param toInclusive false to leave out the entries starting with toKeys
+	 * @return a DataRecord for every entry in the order of the entries, holding the values of the indexed columns,
+	 * the values of the included columns, and then the rowId
+	 */
+	public List<DataRecord> searchEntries(List<String> fromKeys, boolean fromInclusive, List<String> toKeys,
+										  boolean toInclusive) {
+		ArrayList<DataRecord> entries = new ArrayList<>();
+		for (IndexLeafCell cell : searchCells(fromKeys, fromInclusive, toKeys, toInclusive)) {
+			DataRecord entry = KeyCodec.decode(cell.getPayload());
+			DataRecord included = cell.getIncludedValues();
+			if (included != null) {
+				// The included values go before the rowId
+				int rowIdColumn = entry.getColumnData().size() - ONE;
+				entry.getColumnDataTypes().addAll(rowIdColumn, included.getColumnDataTypes());
+				entry.getColumnData().addAll(rowIdColumn, included.getColumnData());
+			}
+			entries.add(entry);
 		}
+		return entries;
 	}
-	
+
 	/**
-	 * Shrink the file if a page was removed at the end and reclaim space.
-	 */
-	private void shrinkFile() {
-		try {
-			this.tableFile.setLength(this.tableFile.length() - PAGE_SIZE);
-		} catch (IOException e) {
-			LOGGER.log(Level.SEVERE, e.toString());
+	 * Collects the leaf cells of a range of entries. The leaf the range starts in is found by descending the tree
+	 * once, the leaves after it are reached by following the leaf links.
+	 * @param fromKeys the values of the first indexed columns of the first entry
+	 * @param fromInclusive false to leave out the entries starting with fromKeys
+	 * @param toKeys the values of the first indexed columns of the last entry
+	 * @param toInclusive false to leave out the entries starting with toKeys
+	 * @return the cells in the order of their entries
+	 */
+	private ArrayList<IndexLeafCell> searchCells(List<String> fromKeys, boolean fromInclusive, List<String> toKeys,
+												 boolean toInclusive) {
+		checkOpen();
+		byte[] from = this.codec.encodeBound(fromKeys, !fromInclusive);
+		byte[] to = this.codec.encodeBound(toKeys, toInclusive);
+		ArrayList<IndexLeafCell> cells = new ArrayList<>();
+		IndexLeafPage leaf = latchLeafPage(from, false);
+		int index = leaf.firstIndexAtLeast(from);
+		while (leaf != null) {
+			if (index == leaf.getNumOfCells()) {
+				// The next leaf is latched before this one is released
+				int nextPagePointer = leaf.getNextPagePointer();
+				IndexLeafPage nextLeaf = nextPagePointer == -ONE ? null :
+						(IndexLeafPage) latchPage(nextPagePointer, false);
+				unlatchPage(leaf);
+				leaf = nextLeaf;
+				index = ZERO;
+				continue;
+			}
+			IndexCell cell = leaf.getCell(index++);
+			if (KeyCodec.compare(cell.getPayload(), to) >= (toInclusive ? ONE : ZERO)) {
+				unlatchPage(leaf);
+				break;
+			}
+			cells.add((IndexLeafCell) cell);
 		}
+		return cells;
 	}
-	
-	
-	
+
+	/**
+	 * Descends from the root to the leaf that holds, or would hold, an entry. Every page is latched before the one
+	 * above it is released.
+	 * @param entry the payload bytes of the entry
+	 * @param exclusive true to change the leaf, false to only read it
+	 * @return the leaf, pinned and latched until it is released with `unlatchPage`
+	 */
+	private IndexLeafPage latchLeafPage(byte[] entry, boolean exclusive) {
+		Page page = latchRoot(exclusive, true);
+		while (page.isInterior()) {
+			Page child = latchPage(((IndexInteriorPage) page).getNextPage(entry), exclusive);
+			unlatchPage(page);
+			page = child;
+		}
+		return (IndexLeafPage) page;
+	}
+
 	/**
 	 * *****************************
 	 * *****************************
 	 * *****************************
-	 *      Getters and Setters
+	 *    Delete Methods & helpers
 	 * *****************************
 	 * *****************************
 	 * *****************************
 	 */
-	
-	/**
-	 * Retrieves the root page from the beginning of the file and stores it for later use by the tree. It does this
-	 * by passing the root page number of 0 to `getPage()`
-	 */
-	private void getRootPage() {
-		// Prepare array and file to read in the root page data
-		this.root = getPage(ROOT_PAGE_NUMBER);
-	}
-	
+
 	/**
-	 * TODO: Link to Metadata tables
+	 * Removes the entry for a row from an index on one column
+	 * @param key the value of the indexed column, null for a NULL value
+	 * @param rowId the rowId of the row in the table
+	 * @return true if the entry was removed, false if it was not in the index
 	 */
-	public int getRowIdCounter() {
-		LOGGER.log(Level.INFO, "Returning rowIdCounter value: {0}", rowIdCounter);
-		return rowIdCounter;
+	public boolean delete(String key, int rowId) {
+		return delete(Collections.singletonList(key), rowId);
 	}
-	
+
 	/**
-	 * Used to increment the rowIdCounter when a new entry is added
-	 */
-	private void incrementRowIdCounter() {
-		this.rowIdCounter++;
-		LOGGER.log(Level.INFO, "Incremented rowIdCounter new value: {0}", rowIdCounter);
+	 * Removes the entry for a row from the index. Only the leaf holding the entry is changed, see the class comment.
+	 * @param keys the values of the indexed columns, null for a NULL value
+	 * @param rowId the rowId of the row in the table
+	 * @return true if the entry was removed, false if it was not in the index
+	 */
+	public boolean delete(List<String> keys, int rowId) {
+		LOGGER.log(Level.INFO, "Entering delete()");
+		checkOpen();
+		byte[] entry = this.codec.encode(keys, rowId);
+		IndexLeafPage leaf = latchLeafPage(entry, true);
+		int index = leaf.firstIndexAtLeast(entry);
+		boolean found = index < leaf.getNumOfCells() &&
+				KeyCodec.compare(leaf.getCell(index).getPayload(), entry) == ZERO;
+		if (found) {
+			leaf.removeCellAt(index);
+			writePage(leaf);
+		}
+		unlatchPage(leaf);
+		if (found) {
+			commit();
+		}
+		LOGGER.log(Level.INFO, "Exiting delete()");
+		return found;
 	}
-	
+
 	/**
-	 * This can probably be removed because rowIds should always be unique and never reassigned.
-	 * TODO: Take out
+	 * *****************************
+	 * *****************************
+	 * *****************************
+	 *           File I/O
+	 * *****************************
+	 * *****************************
+	 * *****************************
 	 */
-	private void decrementRowIdCounter() {
-		this.rowIdCounter--;
-		LOGGER.log(Level.INFO, "Decremented rowIdCounter new value: {0}", rowIdCounter);
-	}
-	
+
 	/**
-	 * Getter for property 'fileName'.
-	 *
-	 * @return Value for property 'fileName'.
+	 * Opens the index's file or creates it. The file header holds the types of the indexed columns, the rowId's type
+	 * and the types of the included columns, the codec is built from the ones before the rowId's.
 	 */
-	String getFileName() {
-		return fileName;
+	private void open() {
+		openTreeFile();
+		if (isOpen()) {
+			ArrayList<DataType> entryTypes = this.treeConfig.getColTypes();
+			int rowIdColumn = entryTypes.size() - ONE - this.fileHeader.getNumOfIncludedColumns();
+			this.codec = KeyCodec.forTypes(entryTypes.subList(ZERO, rowIdColumn));
+			this.includedTypes = new ArrayList<>(entryTypes.subList(rowIdColumn + ONE, entryTypes.size()));
+			// A leaf cell of a covering index can be larger than any interior cell
+			int maxLeafCellSize = IndexLeafCell.START_OF_INDEX_LEAF_CELL_PAYLOAD + this.codec.getMaxEntrySize();
+			if (!this.includedTypes.isEmpty()) {
+				maxLeafCellSize += Short.BYTES + ONE + this.includedTypes.size();
+				for (DataType includedType : this.includedTypes) {
+					maxLeafCellSize += DataType.getMaxSize(includedType.getTypeCode());
+				}
+			}
+			this.cellSizeLimit = (this.treeConfig.getPageSize() - PAGE_HEADER_SIZE) / THREE - Short.BYTES;
+			// No cell larger than the limit is ever inserted
+			this.maxCellSize = Math.min(this.cellSizeLimit, Math.max(maxLeafCellSize,
+					IndexInteriorCell.START_OF_INTERIOR_INDEX_CELL_PAYLOAD + this.codec.getMaxEntrySize()));
+			this.unique = this.fileHeader.hasFlag(FileHeader.UNIQUE_FLAG);
+		}
 	}
-	
+
 	/**
-	 * Retrieve the number of used pages
-	 * @return the number of used pages in the file
+	 * Returns the header of a new index file, it records if the index is unique and how many columns it includes
+	 * @return the header of a new file holding an empty index
 	 */
-	private int getNumOfPages() {
-		return this.numOfPages;
+	@Override
+	FileHeader newFileHeader() {
+		return new FileHeader(this.treeConfig.getPageSize(), this.treeConfig.getColTypes(),
+				this.unique ? FileHeader.UNIQUE_FLAG : ZERO, this.includedTypes.size());
 	}
-	
+
 	/**
-	 * Increase the number of used pages
+	 * Returns the empty root leaf a new index starts out with
+	 * @return a new IndexLeafPage with page number 0
 	 */
-	private void incrementPages() {
-		this.numOfPages++;
+	@Override
+	Page newRootLeaf() {
+		return new IndexLeafPage(PageType.INDEX_LEAF_ROOT, ZERO, -ONE, this.treeConfig);
 	}
-	
+
 	/**
-	 * Decrease the number of used pages
+	 * Rebuilds an IndexLeafPage or IndexInteriorPage from it's byte representation depending on the PageType value
+	 * @param pageBytes a buffer holding the entire page
+	 * @param pageNumber the page number of the page
+	 * @return the IndexLeafPage or IndexInteriorPage
 	 */
-	private void decrementPages() {
-		this.numOfPages--;
+	@Override
+	Page decodePage(ByteBuffer pageBytes, int pageNumber) {
+		return PageType.getEnum(pageBytes.get(ZERO)) == PageType.INDEX_LEAF_PAGE ?
+				new IndexLeafPage(pageBytes, pageNumber, this.treeConfig) :
+				new IndexInteriorPage(pageBytes, pageNumber, this.treeConfig);
 	}
-	
-	
+
 	/**
 	 * *****************************
 	 * *****************************
 	 * *****************************
-	 * Methods that Calculate Things
+	 *      Getters and Setters
 	 * *****************************
 	 * *****************************
 	 * *****************************
 	 */
-	
+
 	/**
-	 * This method searches pages sequentially until it finds a page header of all null values
-	 * meaning we have found a free page. If a page is not found a new one is added at the end of the file
+	 * Getter for property 'keyType'.
 	 *
-	 * TODO: Implement some search algorithm to find an empty space of 000s/NULLs to insert a new page
-	 * 		 Something like binary search?
-	 */
-	private int getNewPageNumber() {
-		try {
-			int maxPagesInFile = (int)(tableFile.length() / PAGE_SIZE);
-			if (maxPagesInFile == numOfPages || maxPagesInFile < this.numOfPages) {
-				int newPageNum = this.numOfPages;
-				incrementPages();
-				return newPageNum;
-			}
-			// Must find empty page in file
-			for(int i = ZERO; i < this.numOfPages; i++) {
-				this.tableFile.seek(i * PAGE_SIZE);
-				byte[] pageTypeCode = new byte[ONE];
-				this.tableFile.read(pageTypeCode);
-				if (pageTypeCode[ZERO] == ZERO) {
-					incrementPages();
-					return i;
-				}
-			}
-		} catch (IOException e) {
-			LOGGER.log(Level.SEVERE, e.toString());
-		}
-		return -ONE;
+	 * @return the DataType of the indexed column, the first one of an index on several columns
+	 */
+	public DataType getKeyType() {
+		return this.codec.getKeyTypes().get(ZERO);
 	}
-	
+
 	/**
-	 * This recursive method simply traverses down the far right branch of this tree and it's children and counts the
-	 * number of along levels on the way. This public one is starts at the root, if it is a leaf it returns 0. If it is
-	 * not then the private version of this method is called on the nextPagePointer for the root.
-	 * @return an integer representing the number of levels of the tree with 0 being the root level.
+	 * Getter for property 'keyTypes'.
+	 *
+	 * @return the DataTypes of the indexed columns in the order they are compared
 	 */
-	int getCurrentHeight() {
-		if (this.root.isLeaf()) {
-			return ZERO;
-		}
-		TableInteriorPage interiorRoot = (TableInteriorPage)this.root;
-		return getCurrentHeight(getPage(interiorRoot.getNextPagePointer()));
+	public List<DataType> getKeyTypes() {
+		return Collections.unmodifiableList(this.codec.getKeyTypes());
+	}
+
+	/**
+	 * Getter for property 'includedTypes'.
+	 *
+	 * @return the DataTypes of the included columns of a covering index, empty if the index includes no columns
+	 */
+	public List<DataType> getIncludedTypes() {
+		return Collections.unmodifiableList(this.includedTypes);
 	}
-	
+
 	/**
-	 * This private method continues the traversal down the right side of the tree. If it is a leaf (the base case) then
-	 * it returns 1, otherwise it recurses down the right tree again and returns that tree's level + 1
-	 * @param page a page from the far right branch of the tree.
-	 * @return if a leaf 1, else getCurrentHeight(rightChild) + 1
+	 * Getter for property 'unique'.<br>
+	 *
+	 * A unique index allows each combination of values only once. Values with a NULL in them are not compared, like in
+	 * SQL any number of rows may have them.<br>
+	 *
+	 * The entries with the same values without a NULL are never split across leaves by a separator. A separator is cut
+	 * from the first entry of a new leaf just past where it differs from the last entry of the old one, see
+	 * KeyCodec.getSeparator. Unless both have the same values with a NULL in them the two entries have different
+	 * values, and since the encoded values of an entry are never the start of other encoded values the separator is
+	 * either below every entry with some values or it is exactly those values, the smallest entry they can have.
+	 * Separators stay in the tree when the entry they were cut from is deleted, this holds for them all the same.
+	 *
+	 * @return true if the index is unique
 	 */
-	private int getCurrentHeight(Page page) {
-		if (page.isLeaf()) {
-			return ONE;
-		}
-		TableInteriorPage interiorPage = (TableInteriorPage)page;
-		return getCurrentHeight(getPage(interiorPage.getNextPagePointer())) + ONE;
+	public boolean isUnique() {
+		return this.unique;
 	}
 }
@@ -0,0 +1,393 @@
+package edu.utdallas.cs6360.davisbase.trees;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static edu.utdallas.cs6360.davisbase.Config.*;
+
+/**
+ * Builds and orders the entries of an IndexTree. An entry holds the values of the indexed columns followed by the
+ * rowId of the row in the table it points to, encoded so that comparing two entries byte by byte as unsigned bytes
+ * gives the same order as comparing their values column by column. Pages are searched with `Arrays.compareUnsigned`
+ * alone, an index on several columns costs no more to search than an index on one.<br>
+ *
+ * Every column starts with a tag byte, 0x00 for a NULL value so NULLs come before every other value, otherwise the
+ * type code of the column's DataType. The value follows the tag:
+ * <ul>
+ *     <li>integers are big endian with their sign bit flipped, so negative numbers come before positive ones</li>
+ *     <li>REAL and DOUBLE values have their sign bit flipped when positive and every bit flipped when negative</li>
+ *     <li>DATE and DATETIME values are big endian, they are unsigned</li>
+ *     <li>TEXT is US-ASCII with every 0x00 byte escaped as 0x00 0xFF and ends with 0x00 0x01, so a text comes before
+ *     every longer text it is the start of</li>
+ * </ul>
+ * The rowId comes last as a 4 byte integer with no tag, entries with the same values are ordered by their rowIds and
+ * every entry of an index is unique even when the values are not. The tags make an entry readable without knowing
+ * the types of the index, see `decode`.
+ *
+ * @author Charles Krol
+ * @author Matthew Villarreal
+ * @author Michael Del Rosario
+ * @author Mithil Vijay
+ */
+final class KeyCodec {
+	/**
+	 * Views of a byte array as big endian values
+	 */
+	private static final VarHandle SHORT_VIEW =
+			MethodHandles.byteArrayViewVarHandle(short[].class, ByteOrder.BIG_ENDIAN);
+	private static final VarHandle INT_VIEW =
+			MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+	private static final VarHandle LONG_VIEW =
+			MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+	/**
+	 * The tag of a NULL value
+	 */
+	private static final byte NULL_TAG = 0x00;
+
+	/**
+	 * The byte escaping a 0x00 byte of a text and the byte ending a text, both follow a 0x00 byte
+	 */
+	private static final byte TEXT_ESCAPE = (byte) 0xFF;
+	private static final byte TEXT_END = 0x01;
+
+	/**
+	 * Characters at or above it are not US-ASCII, they are stored as '?' the same as in a DataRecord
+	 */
+	private static final char ASCII_LIMIT = 0x80;
+
+	/**
+	 * The DataTypes of the indexed columns in the order they are compared
+	 */
+	private final List<DataType> keyTypes;
+
+	/**
+	 * Constructor for the codec of an index on columns of the given types
+	 * @param keyTypes the DataTypes of the indexed columns
+	 */
+	private KeyCodec(List<DataType> keyTypes) {
+		this.keyTypes = keyTypes;
+	}
+
+	/**
+	 * Returns the codec for an index on columns of the given types
+	 * @param keyTypes the DataTypes of the indexed columns, the first one is compared first
+	 * @return the codec
+	 */
+	static KeyCodec forTypes(List<DataType> keyTypes) {
+		if (keyTypes.isEmpty()) {
+			throw new IllegalArgumentException("An index needs at least one column");
+		}
+		for (DataType keyType : keyTypes) {
+			if (keyType.getTypeCode() <= DataType.NULL8_TYPE_CODE.getTypeCode()) {
+				throw new IllegalArgumentException("Can't index a column of type " + keyType);
+			}
+		}
+		return new KeyCodec(new ArrayList<>(keyTypes));
+	}
+
+	/**
+	 * *****************************
+	 * *****************************
+	 * *****************************
+	 *           Entries
+	 * *****************************
+	 * *****************************
+	 * *****************************
+	 */
+
+	/**
+	 * Builds the bytes of an entry
+	 * @param keys the values of the indexed columns, null for a NULL value
+	 * @param rowId the rowId of the row in the table
+	 * @return the payload bytes of the entry
+	 */
+	byte[] encode(List<String> keys, int rowId) {
+		if (keys.size() != this.keyTypes.size()) {
+			throw new IllegalArgumentException("The index has " + this.keyTypes.size() + " columns, not " +
+					keys.size());
+		}
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		encodeKeys(this.keyTypes, keys, out);
+		writeInt(out, rowId ^ Integer.MIN_VALUE);
+		return out.toByteArray();
+	}
+
+	/**
+	 * Builds the bytes of an entry from a DataRecord holding the values of the indexed columns and the rowId as it's
+	 * last column, NULL type codes stand for NULL values
+	 * @param entry the DataRecord of the entry
+	 * @return the payload bytes of the entry
+	 */
+	static byte[] encode(DataRecord entry) {
+		int numOfKeys = entry.getColumnData().size() - ONE;
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		encodeKeys(entry.getColumnDataTypes().subList(ZERO, numOfKeys), entry.getColumnData().subList(ZERO, numOfKeys),
+				out);
+		writeInt(out, Integer.parseInt(entry.getColumnData().get(numOfKeys)) ^ Integer.MIN_VALUE);
+		return out.toByteArray();
+	}
+
+	/**
+	 * Builds the bytes a range of entries is searched from or to. The values may be only the first few indexed
+	 * columns, the range then holds every entry starting with them.
+	 * @param keys the values of the first indexed columns, null for a NULL value
+	 * @param upper true for the last entry of the range, false for the first one
+	 * @return bytes that come right before or right after every entry starting with the values
+	 */
+	byte[] encodeBound(List<String> keys, boolean upper) {
+		if (keys.size() > this.keyTypes.size()) {
+			throw new IllegalArgumentException("The index has " + this.keyTypes.size() + " columns, not " +
+					keys.size());
+		}
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		encodeKeys(this.keyTypes, keys, out);
+		if (keys.size() == this.keyTypes.size()) {
+			writeInt(out, (upper ? Integer.MAX_VALUE : Integer.MIN_VALUE) ^ Integer.MIN_VALUE);
+		} else if (upper) {
+			// Greater than the tag of any value of the next column, nothing is needed before them
+			out.write(TEXT_ESCAPE);
+		}
+		return out.toByteArray();
+	}
+
+	/**
+	 * Encodes the values of the first indexed columns one after the other
+	 * @param keyTypes the DataTypes of the indexed columns
+	 * @param keys the values, null for a NULL value
+	 * @param out the stream to write the encoded values to
+	 */
+	private static void encodeKeys(List<DataType> keyTypes, List<String> keys, ByteArrayOutputStream out) {
+		for (int i = ZERO; i < keys.size(); i++) {
+			DataType keyType = keyTypes.get(i);
+			String key = keys.get(i);
+			if (key == null || keyType.getTypeCode() <= DataType.NULL8_TYPE_CODE.getTypeCode()) {
+				out.write(NULL_TAG);
+				continue;
+			}
+			out.write(keyType.getTypeCode());
+			switch (keyType) {
+				case TINY_INT_TYPE_CODE:
+					out.write(Byte.parseByte(key) ^ Byte.MIN_VALUE);
+					break;
+				case SHORT_TYPE_CODE:
+					writeShort(out, (short) (Short.parseShort(key) ^ Short.MIN_VALUE));
+					break;
+				case INT_TYPE_CODE:
+					writeInt(out, Integer.parseInt(key) ^ Integer.MIN_VALUE);
+					break;
+				case LONG_TYPE_CODE:
+					writeLong(out, Long.parseLong(key) ^ Long.MIN_VALUE);
+					break;
+				case REAL_TYPE_CODE:
+					int floatBits = Float.floatToIntBits(Float.parseFloat(key));
+					writeInt(out, floatBits < ZERO ? ~floatBits : floatBits ^ Integer.MIN_VALUE);
+					break;
+				case DOUBLE_TYPE_CODE:
+					long doubleBits = Double.doubleToLongBits(Double.parseDouble(key));
+					writeLong(out, doubleBits < ZERO ? ~doubleBits : doubleBits ^ Long.MIN_VALUE);
+					break;
+				case DATETIME_TYPE_CODE:
+				case DATE_TYPE_CODE:
+					writeLong(out, Long.parseUnsignedLong(key));
+					break;
+				default:
+					for (int j = ZERO; j < key.length(); j++) {
+						char c = key.charAt(j);
+						out.write(c < ASCII_LIMIT ? c : '?');
+						if (c == ZERO) {
+							out.write(TEXT_ESCAPE);
+						}
+					}
+					out.write(ZERO);
+					out.write(TEXT_END);
+			}
+		}
+	}
+
+	/**
+	 * Writes a value to a stream in big endian byte order
+	 * @param out the stream to write to
+	 * @param value the value
+	 */
+	private static void writeInt(ByteArrayOutputStream out, int value) {
+		byte[] bytes = new byte[Integer.BYTES];
+		INT_VIEW.set(bytes, ZERO, value);
+		out.write(bytes, ZERO, bytes.length);
+	}
+
+	/**
+	 * @see #writeInt(ByteArrayOutputStream, int)
+	 */
+	private static void writeShort(ByteArrayOutputStream out, short value) {
+		byte[] bytes = new byte[Short.BYTES];
+		SHORT_VIEW.set(bytes, ZERO, value);
+		out.write(bytes, ZERO, bytes.length);
+	}
+
+	/**
+	 * @see #writeInt(ByteArrayOutputStream, int)
+	 */
+	private static void writeLong(ByteArrayOutputStream out, long value) {
+		byte[] bytes = new byte[Long.BYTES];
+		LONG_VIEW.set(bytes, ZERO, value);
+		out.write(bytes, ZERO, bytes.length);
+	}
+
+	/**
+	 * Returns the rowId of an entry, the last 4 bytes of it's payload
+	 * @param payload the payload bytes of the entry
+	 * @return the rowId
+	 */
+	static int getRowId(byte[] payload) {
+		return (int) INT_VIEW.get(payload, payload.length - Integer.BYTES) ^ Integer.MIN_VALUE;
+	}
+
+	/**
+	 * Reads an entry back into a DataRecord holding the values of the indexed columns and the rowId, used to log
+	 * entries. NULL values are read back as the NULL type code of the same width.
+	 * @param payload the payload bytes of the entry
+	 * @return the DataRecord of the entry
+	 */
+	static DataRecord decode(byte[] payload) {
+		ArrayList<DataType> types = new ArrayList<>();
+		ArrayList<String> values = new ArrayList<>();
+		int endOfKeys = payload.length - Integer.BYTES;
+		int position = ZERO;
+		while (position < endOfKeys) {
+			byte tag = payload[position++];
+			if (tag == NULL_TAG) {
+				types.add(DataType.NULL1_TYPE_CODE);
+				values.add("");
+				continue;
+			}
+			DataType keyType = DataType.getEnum(tag);
+			types.add(keyType);
+			switch (keyType) {
+				case TINY_INT_TYPE_CODE:
+					values.add(Byte.toString((byte) (payload[position] ^ Byte.MIN_VALUE)));
+					break;
+				case SHORT_TYPE_CODE:
+					values.add(Short.toString((short) ((short) SHORT_VIEW.get(payload, position) ^ Short.MIN_VALUE)));
+					break;
+				case INT_TYPE_CODE:
+					values.add(Integer.toString((int) INT_VIEW.get(payload, position) ^ Integer.MIN_VALUE));
+					break;
+				case LONG_TYPE_CODE:
+					values.add(Long.toString((long) LONG_VIEW.get(payload, position) ^ Long.MIN_VALUE));
+					break;
+				case REAL_TYPE_CODE:
+					int floatBits = (int) INT_VIEW.get(payload, position);
+					values.add(Float.toString(Float.intBitsToFloat(floatBits < ZERO ? floatBits ^ Integer.MIN_VALUE :
+							~floatBits)));
+					break;
+				case DOUBLE_TYPE_CODE:
+					long doubleBits = (long) LONG_VIEW.get(payload, position);
+					values.add(Double.toString(Double.longBitsToDouble(doubleBits < ZERO ? doubleBits ^ Long.MIN_VALUE :
+							~doubleBits)));
+					break;
+				case DATETIME_TYPE_CODE:
+				case DATE_TYPE_CODE:
+					values.add(Long.toUnsignedString((long) LONG_VIEW.get(payload, position)));
+					break;
+				default:
+					StringBuilder text = new StringBuilder();
+					while (payload[position] != ZERO || payload[position + ONE] != TEXT_END) {
+						text.append((char) payload[position]);
+						position += payload[position] == ZERO ? TWO : ONE;
+					}
+					values.add(text.toString());
+					position += TWO;
+					continue;
+			}
+			position += DataType.getDataTypeSize(keyType.getTypeCode());
+		}
+		types.add(DataType.INT_TYPE_CODE);
+		values.add(Integer.toString(getRowId(payload)));
+		return new DataRecord(types, values);
+	}
+
+	/**
+	 * Returns the largest number of bytes an entry of the index can take up, every text at it's longest and made up
+	 * of escaped bytes
+	 * @return the size of the largest entry in bytes
+	 */
+	int getMaxEntrySize() {
+		int size = Integer.BYTES;
+		for (DataType keyType : this.keyTypes) {
+			size += ONE + (keyType == DataType.TEXT_TYPE_CODE ?
+					TWO * DataType.getMaxSize(keyType.getTypeCode()) + TWO :
+					DataType.getDataTypeSize(keyType.getTypeCode()));
+		}
+		return size;
+	}
+
+	/**
+	 * *****************************
+	 * *****************************
+	 * *****************************
+	 *          Comparisons
+	 * *****************************
+	 * *****************************
+	 * *****************************
+	 */
+
+	/**
+	 * Compares two entries, or an entry and a bound, as unsigned bytes
+	 * @param a the payload bytes of an entry
+	 * @param b the payload bytes of another entry
+	 * @return less than 0 if a comes first, 0 if they are the same entry, greater than 0 if b comes first
+	 */
+	static int compare(byte[] a, byte[] b) {
+		return Arrays.compareUnsigned(a, b);
+	}
+
+	/**
+	 * Compares only the values of the indexed columns of two entries, leaving out their rowIds
+	 * @param a the payload bytes of an entry
+	 * @param b the payload bytes of another entry
+	 * @return less than 0 if a's values come first, 0 if they are equal, greater than 0 if b's values come first
+	 */
+	static int compareKeys(byte[] a, byte[] b) {
+		return Arrays.compareUnsigned(a, ZERO, a.length - Integer.BYTES, b, ZERO, b.length - Integer.BYTES);
+	}
+
+	/**
+	 * Returns the shortest separator of two neighbouring entries, the start of the second entry up to and including
+	 * the first byte it differs from the first entry at. It comes after the first entry and no later than the second.
+	 * @param last the last entry before the separator
+	 * @param first the first entry at or after the separator
+	 * @return the bytes of the separator
+	 */
+	static byte[] getSeparator(byte[] last, byte[] first) {
+		return Arrays.copyOf(first, Arrays.mismatch(last, first) + ONE);
+	}
+
+	/**
+	 * Returns the prefix two separators share, every entry from the first separator up to the second starts with it
+	 * @param low the separator before the entries, null if there is none
+	 * @param high the separator after the entries, null if there is none
+	 * @return the shared prefix, empty if either separator is missing
+	 */
+	static byte[] getCommonPrefix(byte[] low, byte[] high) {
+		if (low == null || high == null) {
+			return new byte[ZERO];
+		}
+		int mismatch = Arrays.mismatch(low, high);
+		return Arrays.copyOf(low, mismatch < ZERO ? low.length : mismatch);
+	}
+
+	/**
+	 * Getter for property 'keyTypes'.
+	 *
+	 * @return the DataTypes of the indexed columns
+	 */
+	List<DataType> getKeyTypes() {
+		return this.keyTypes;
+	}
+}
@@ -0,0 +1,140 @@
+package edu.utdallas.cs6360.davisbase.trees;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static edu.utdallas.cs6360.davisbase.Config.*;
+
+/**
+ * A PageFile that maps the whole file into memory with FileChannel.map, this is the MEMORY_MAPPED storage mode.<br>
+ *
+ * Pages are read as slices of the mapping so decoding a page reads straight out of the OS page cache without a
+ * system call, and pages are written by copying into the mapping. The mapping grows in chunks of
+ * Config.MAPPED_GROWTH_SIZE bytes so the file is not remapped on every new page. Mapping past the end of the file
+ * grows the file, the number of bytes actually used is tracked separately and the file is trimmed back to it when
+ * closed.<br>
+ *
+ * Writes to the mapping reach the file whenever the OS decides, `force()` makes them durable and is called at commit
+ * points. A single mapping is limited to 2GB so this mode is meant for small read-mostly tables like the catalog.
+ * Every access is synchronized since the page flusher writes from it's own thread and a write may remap the file.
+ *
+ * @author Charles Krol
+ * @author Matthew Villarreal
+ * @author Michael Del Rosario
+ * @author Mithil Vijay
+ */
+class MappedPageFile extends PageFile {
+	/**
+	 * A logger that logs things for logging purposes
+	 */
+	private static final Logger LOGGER = Logger.getLogger(MappedPageFile.class.getName());
+	
+	/**
+	 * The file being mapped
+	 */
+	private final RandomAccessFile file;
+	
+	/**
+	 * The channel of the file used to create the mapping
+	 */
+	private final FileChannel channel;
+	
+	/**
+	 * The current mapping of the file, replaced by a larger one when a write lands past it's end
+	 */
+	private MappedByteBuffer mapping;
+	
+	/**
+	 * The number of bytes of the file actually in use, the mapping is usually larger
+	 */
+	private long length;
+	
+	/**
+	 * Constructor that opens and maps the file
+	 * @param fileName the fully qualified file name
+	 * @param pageSize the size of a page in bytes
+	 * @throws IOException if the file cannot be opened or mapped
+	 */
+	MappedPageFile(String fileName, int pageSize) throws IOException {
+		// The file header takes up the first page
+		super(pageSize, pageSize);
+		this.file = new RandomAccessFile(fileName, READ_WRITE_MODE);
+		this.channel = this.file.getChannel();
+		this.length = this.channel.size();
+		map(this.length);
+	}
+	
+	@Override
+	synchronized ByteBuffer read(long address, ByteBuffer scratch) throws IOException {
+		if (address + getPageSize() > this.mapping.capacity()) {
+			map(address + getPageSize());
+		}
+		return slice((int) address, getPageSize());
+	}
+	
+	@Override
+	synchronized void write(long address, ByteBuffer block) throws IOException {
+		long blockEndAddress = address + block.remaining();
+		if (blockEndAddress > this.mapping.capacity()) {
+			map(blockEndAddress);
+		}
+		slice((int) address, block.remaining()).put(block);
+		this.length = Math.max(this.length, blockEndAddress);
+	}
+	
+	@Override
+	synchronized long length() { return this.length; }
+	
+	@Override
+	synchronized void setLength(long length) throws IOException {
+		if (length > this.mapping.capacity()) {
+			map(length);
+		}
+		this.length = length;
+	}
+	
+	@Override
+	synchronized void force() { this.mapping.force(); }
+	
+	@Override
+	synchronized void close() throws IOException {
+		this.mapping.force();
+		this.mapping = null;
+		// Trim the unused part of the last chunk
+		this.channel.truncate(this.length);
+		this.file.close();
+	}
+	
+	/**
+	 * Maps the file from the start with a size of at least `size` bytes rounded up to the next chunk
+	 * @param size the number of bytes that must be mapped
+	 * @throws IOException if the file cannot be mapped
+	 */
+	private void map(long size) throws IOException {
+		long chunks = (size + MAPPED_GROWTH_SIZE - ONE) / MAPPED_GROWTH_SIZE;
+		long mappedSize = Math.max(ONE, chunks) * MAPPED_GROWTH_SIZE;
+		if (mappedSize > Integer.MAX_VALUE) {
+			throw new IOException("File is too large to be memory mapped");
+		}
+		LOGGER.log(Level.INFO, "Mapping {0} bytes", mappedSize);
+		this.mapping = this.channel.map(FileChannel.MapMode.READ_WRITE, ZERO, mappedSize);
+	}
+	
+	/**
+	 * Returns a view of the mapping, one page long for reads or as long as a block of pages for writes
+	 * @param pageStartAddress the byte address of the first page in the file
+	 * @param length the number of bytes in the view
+	 * @return a buffer sharing the mapping's content with capacity length
+	 */
+	private ByteBuffer slice(int pageStartAddress, int length) {
+		ByteBuffer view = this.mapping.duplicate();
+		view.position(pageStartAddress);
+		view.limit(pageStartAddress + length);
+		return view.slice();
+	}
+}
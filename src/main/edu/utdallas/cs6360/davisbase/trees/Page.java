@@ -1,18 +1,17 @@
 package edu.utdallas.cs6360.davisbase.trees;
 
-import edu.utdallas.cs6360.davisbase.utils.ByteHelpers;
-
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.lang.invoke.VarHandle;
 import java.nio.ByteBuffer;
 import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import static edu.utdallas.cs6360.davisbase.Config.*;
 import static edu.utdallas.cs6360.davisbase.trees.TreeConstants.*;
 import static edu.utdallas.cs6360.davisbase.trees.TreeConstants.LOGGER_PAGE_CAPACITY_2;
-import static edu.utdallas.cs6360.davisbase.utils.ByteHelpers.*;
 
 /**
  * Abstract class containing common tasks associated with managing pages and their data cells
@@ -60,10 +59,9 @@ public abstract class Page {
 	private PageType pageType;
 	
 	/**
-	 * A 1-byte signed integer representing the number of bytes contained on this page.
-	 * Theoretically the maximum number of cells that can fit on a page is the largest value a 1-byte signed integer
-	 * can take on. Maximum possible number of records on a page is 127, the actual is much less as they would all have
-	 * to be 1 column entries of byte values based on the default PAGE_SIZE = 512.
+	 * A 1-byte unsigned integer representing the number of cells contained on this page.
+	 * The maximum number of cells that can fit on a page is the largest value a 1-byte unsigned integer can take on,
+	 * Config.MAX_CELLS_PER_PAGE = 255. TableConfig caps the degree of the tree so larger pages never go past it.
 	 */
 	
 	/**
@@ -77,9 +75,29 @@ public abstract class Page {
 	private short startOfCellPointers;
 	
 	/**
-	 * The ArrayList containing the data cells stored at the end of the [age this page
+	 * The data cells stored at the end of the page, a page read from the file only decodes a cell when it is accessed
+	 * @see CellList
+	 */
+	private CellList dataCells;
+	
+	/**
+	 * Guards the page while threads work on it, any number of threads may hold it for reading or one thread for
+	 * changing the page. It is only held while the page is pinned in the buffer pool.
+	 */
+	private final ReentrantReadWriteLock latch = new ReentrantReadWriteLock();
+	
+	/**
+	 * Set once this object no longer backs it's page number, because the page was freed or the root was replaced by a
+	 * new page object. A thread that waited for the latch of an obsolete page must look the page up again.
+	 */
+	private volatile boolean obsolete;
+	
+	/**
+	 * Counts the changes to the page for optimistic readers. It is incremented when a thread latches the page for
+	 * changing it and again when it releases the latch, so it is odd while the page may be changing and a reader that
+	 * sees the same even version before and after reading the page without it's latch read a consistent page.
 	 */
-	private ArrayList<DataCell> dataCells;
+	private volatile long version;
 	
 	/**
 	 * *****************************
@@ -97,7 +115,7 @@ public abstract class Page {
 	Page() {
 		this.pageType = null;
 		this.pageNumber = -ONE;
-		this.dataCells = new ArrayList<>();
+		this.dataCells = new CellList(false);
 		this.tableConfig = new TableConfig();
 	}
 	
@@ -109,7 +127,7 @@ public abstract class Page {
 	Page(PageType pageType, int pageNumber, TableConfig tableConfig) {
 		this.pageType = pageType;
 		this.pageNumber = pageNumber;
-		this.dataCells = new ArrayList<>();
+		this.dataCells = new CellList(isLeaf());
 		this.tableConfig = tableConfig;
 	}
 	
@@ -119,31 +137,32 @@ public abstract class Page {
 	 * @param pageNumber the ordering of the page within the file
 	 */
 	Page(byte[] data, int pageNumber, TableConfig tableConfig) {
+		this(ByteBuffer.wrap(data), pageNumber, tableConfig);
+	}
+	
+	/**
+	 * Constructor recreates a page from a buffer holding it's byte representation and page number. The buffer is only
+	 * read with absolute gets so it's position and limit are left untouched.
+	 * @param data a buffer holding the raw bytes of the page in the file
+	 * @param pageNumber the ordering of the page within the file
+	 */
+	Page(ByteBuffer data, int pageNumber, TableConfig tableConfig) {
 		this.pageNumber = pageNumber;
-		// TODO Check page size here
-		if(data.length != PAGE_SIZE) {
-			LOGGER.log(Level.SEVERE, "Pages must be exactly: {0}", PAGE_SIZE);
-			throw new IllegalStateException("Size of array does not match the PAGE_SIZE value");
+		if(data.capacity() != tableConfig.getPageSize()) {
+			LOGGER.log(Level.SEVERE, "Pages must be exactly: {0}", tableConfig.getPageSize());
+			throw new IllegalStateException("Size of array does not match the page size of the table");
 		}
 		
 		// Save table config for later use
 		this.tableConfig = tableConfig;
 		
-		// Wrap the byte array in a byteBuffer to simplify out lives
-		ByteBuffer byteBuffer = ByteBuffer.wrap(data);
-		
 		// Get the page type(first byte in the page)
-		byte tmpPageType = byteBuffer.get();
-		
-		// Create new array list to hold the data cells, get the number of cells in the page and where they start within
-		// the page
-		this.dataCells = new ArrayList<>();
-		int numCells = byteBuffer.get();
-		short startOfDataCellPointers = byteBuffer.getShort();
+		byte tmpPageType = data.get(ZERO);
 		
-		// Skip the next 4-bytes which are associated with the rightPagePointers some types of pages use
-		// If they need if they can grab it
-		byteBuffer.getInt();
+		// Get the number of cells in the page and where they start within the page. The 4-bytes after them are the
+		// nextPagePointer some types of pages use, if they need it they can grab it
+		int numCells = Byte.toUnsignedInt(data.get(ONE));
+		short startOfDataCellPointers = data.getShort(TWO);
 		
 		// If pageNumber = 0 then it is a root page
 		if(pageNumber != ZERO) {
@@ -152,43 +171,34 @@ public abstract class Page {
 			PageType tmpType = PageType.getEnum(tmpPageType);
 			if (tmpType == PageType.TABLE_LEAF_PAGE) { this.pageType = PageType.TABLE_LEAF_ROOT; }
 			if (tmpType == PageType.TABLE_INTERIOR_PAGE) { this.pageType = PageType.TABLE_INTERIOR_ROOT; }
+			if (tmpType == PageType.INDEX_LEAF_PAGE) { this.pageType = PageType.INDEX_LEAF_ROOT; }
+			if (tmpType == PageType.INDEX_INTERIOR_PAGE) { this.pageType = PageType.INDEX_INTERIOR_ROOT; }
 		}
 		
-		// Initialize the data cells from the page
-		initDataCellsFromBytes(Arrays.copyOfRange(data, data.length - startOfDataCellPointers, data.length),
-				numCells, startOfDataCellPointers);
+		// Initialize the data cells from the page, index pages keep their index cells themselves
+		if (isIndexPage()) {
+			this.dataCells = new CellList(false);
+		} else {
+			initDataCellsFromBytes(data, numCells, startOfDataCellPointers);
+		}
 		
 		// TODO look at removing this value as it can probably be calculated as needed
 		this.startOfCellPointers = 0;
 	}
 	
 	/**
-	 * A helper method that strips out the data cells from the end of the page file and reverses the bytes
-	 * before returning
-	 * @param data anarray of bytes representing the data cell area within the page
+	 * A helper method that keeps a copy of the data cell area at the end of the page. The cells are not decoded here,
+	 * the CellList takes where each one starts from the slot array and decodes it the first time it is accessed.
+	 * The cells were written in rowId order so they do not need to be sorted again.
+	 * @param data a buffer holding the entire page
+	 * @param numOfCells the number of data cells stored on the page
+	 * @param startOfCellPointers the size of the data cell area at the end of the page
 	 */
-	
-	private void initDataCellsFromBytes(byte[] data, int numOfCells, int startOfCellPointers) {
+	private void initDataCellsFromBytes(ByteBuffer data, int numOfCells, int startOfCellPointers) {
 		if(startOfCellPointers != ZERO) {
-			// Grab only the DataCell bytes and reverse them
-			byte[] inOrderBytes = ByteHelpers.reverseByteArray(data);
-			
-			// Keep track of our position within the array of bytes
-			int byteArrayPointer = ZERO;
-			if(isLeaf()) {
-				for(int i = 0; i < numOfCells; i++) {
-					int dataCellSize = ByteBuffer.wrap(inOrderBytes).getShort(byteArrayPointer) + TABLE_LEAF_CELL_HEADER_SIZE;
-					
-					addDataCell(Arrays.copyOfRange(inOrderBytes, byteArrayPointer, byteArrayPointer + dataCellSize));
-					byteArrayPointer += dataCellSize;
-				}
-			} else {
-				for(int i = 0; i < numOfCells; i++) {
-					addDataCell(Arrays.copyOfRange(inOrderBytes, byteArrayPointer, TABLE_INTERIOR_CELL_SIZE +
-							byteArrayPointer));
-					byteArrayPointer += TABLE_INTERIOR_CELL_SIZE;
-				}
-			}
+			this.dataCells = new CellList(data, startOfCellPointers, numOfCells, isLeaf());
+		} else {
+			this.dataCells = new CellList(isLeaf());
 		}
 	}
 	
@@ -202,19 +212,6 @@ public abstract class Page {
 	 * *****************************
 	 */
 	
-	/**
-	 * Uses the byte representation of a DataCell to add a new cell to the data store array
-	 * @param data an array of bytes representing a data cell
-	 */
-	private void addDataCell(byte[] data) {
-		if(isLeaf()) {
-			this.dataCells.add(new TableLeafCell(data));
-		} else {
-			this.dataCells.add(new TableInteriorCell(data));
-		}
-		Collections.sort(this.dataCells);
-	}
-	
 	/**
 	 * Adds a new new DataCell to the tree
 	 * @param data a DataCell to store in the tree
@@ -222,16 +219,14 @@ public abstract class Page {
 	void addDataCell(DataCell data) {
 		if(isLeaf()) {
 			if (data instanceof TableLeafCell) {
-				this.dataCells.add(data);
-				Collections.sort(this.dataCells);
+				this.dataCells.addSorted(data);
 				this.startOfCellPointers += data.size();
 			} else {
 				throw new IllegalArgumentException("Error: Cannot add non-Leaf data cell to a Leaf page");
 			}
 		} else {
 			if (data instanceof  TableInteriorCell) {
-				this.dataCells.add(data);
-				Collections.sort(this.dataCells);
+				this.dataCells.addSorted(data);
 				this.startOfCellPointers += TABLE_INTERIOR_CELL_SIZE;
 			} else {
 				throw new IllegalArgumentException("Error: Cannot add an Interior data cell to a Leaf page");
@@ -245,13 +240,9 @@ public abstract class Page {
 	 * @return the DataCell being deleted, if it can't be found then null
 	 */
 	DataCell removeCell(int rowId) {
-		int i = 0;
-		for(DataCell dataCell : this.dataCells) {
-			if (dataCell.getRowId() == rowId) {
-				return this.dataCells.remove(i);
-			}
-		}
-		return null;
+		sort();
+		int index = this.dataCells.search(rowId);
+		return index >= ZERO ? this.dataCells.remove(index) : null;
 	}
 	
 	/**
@@ -262,16 +253,14 @@ public abstract class Page {
 	 * stored
 	 */
 	int getNextPageForRowId(int rowId) {
-		Collections.sort(this.dataCells);
-		int nextPage = getNextPagePointerForRowId(rowId);
-		Collections.sort(this.dataCells);
-		return nextPage;
+		sort();
+		return getNextPagePointerForRowId(rowId);
 	}
 	
 	public String toString() {
 		return LOGGER_PAGE_TYPE + this.pageType.toString() + NEW_LINE +
 				LOGGER_PAGE_NUMBER + this.pageNumber + NEW_LINE +
-				LOGGER_PAGE_CAPACITY + this.dataCells.size() + LOGGER_PAGE_CAPACITY_2;
+				LOGGER_PAGE_CAPACITY + getNumOfCells() + LOGGER_PAGE_CAPACITY_2;
 	}
 	
 	public String getDataCellStrings() {
@@ -286,48 +275,89 @@ public abstract class Page {
 	}
 	
 	/**
-	 * Called by getNextPageForRowId. If the rowId is larger than the maxRowId for the page then we need to use the
+	 * Finds the child page for a rowId like `getNextPageForRowId` but never sorts the page, for threads reading it
+	 * without it's latch. The result only counts if the page's version is unchanged afterwards.
+	 * @param rowId the rowId being searched for
+	 * @return the page number of the child, -1 if it is the nextPagePointer, -2 if the page is not sorted
+	 */
+	int readNextPageForRowId(int rowId) {
+		int size = this.dataCells.size();
+		if (!isSorted()) {
+			return -TWO;
+		}
+		if (size == ZERO || rowId >= this.dataCells.getRowId(size - ONE)) {
+			return -ONE;
+		}
+		int index = lastIndexBelow(rowId, true) + ONE;
+		return ((TableInteriorCell)this.dataCells.read(index)).getLeftChildPointer();
+	}
+	
+	/**
+	 * Called by getNextPageForRowId. If the rowId is at least the maxRowId for the page then we need to use the
 	 * the nextPagePointer of the Page or the pointer to the far right child. This is not applicable to IndexLeafPages.
 	 * If this is the case we return -1 as it does not have a nextPagePointer field, that is implemented in the
 	 * subclasses<br>
 	 *
 	 * TODO: Move this to subclasses if we have time after writing the Index tree code
 	 *
-	 * The order of the DataCells is reversed and we find the first rowId that ours is larger than and that cell has
-	 * our next page number.
+	 * The key of a TableInteriorCell is the minRowId of the page to the right of it's left child, so every rowId in
+	 * the left child is smaller than the key. We binary search the sorted DataCells for the first rowId that is larger
+	 * than ours and that cell has our next page number, only that cell is decoded.
 	 * @param rowId the rowId of the entry we are either inserting or looking for
 	 * @return the page number for the next page on our path to the leaf page where this DataCell is stored/will be
 	 * stored
 	 */
 	private int getNextPagePointerForRowId(int rowId) {
-		if (rowId > getMaxRowId()) {
+		if (isEmpty() || rowId >= getMaxRowId()) {
 			return -ONE;
 		}
-		Collections.reverse(this.dataCells);
-		for(DataCell dataCells: getDataCells()) {
-			if (rowId > dataCells.getRowId()) {
-				return ((TableInteriorCell)dataCells).getLeftChildPointer();
-			}
-		}
-		return -ONE;
+		int index = lastIndexBelow(rowId, true) + ONE;
+		// Read without caching the cell, the page may only be latched for reading
+		return ((TableInteriorCell)this.dataCells.read(index)).getLeftChildPointer();
 	}
 	
 	
 	TableInteriorCell getDataCellForRowId(int rowId) {
-		Collections.sort(this.dataCells);
-		TableInteriorCell out = getDataCellFromParentForRowId(rowId);
-		Collections.sort(this.dataCells);
-		return out;
+		sort();
+		return getDataCellFromParentForRowId(rowId);
 	}
 	
 	TableInteriorCell getDataCellFromParentForRowId(int rowId) {
-		Collections.reverse(this.dataCells);
-		for(DataCell dataCells: getDataCells()) {
-			if (dataCells.getRowId() <= rowId) {
-				return (TableInteriorCell)dataCells;
-			}
+		int index = lastIndexBelow(rowId, true);
+		return index >= ZERO ? (TableInteriorCell)this.dataCells.get(index) : null;
+	}
+	
+	/**
+	 * Finds the first of the sorted DataCells with a rowId at least as large as the given one using the raw rowIds
+	 * @param rowId the rowId to compare against
+	 * @return the index of the DataCell, the number of DataCells if every DataCell has a smaller rowId
+	 */
+	int firstIndexAtLeast(int rowId) {
+		return lastIndexBelow(rowId, false) + ONE;
+	}
+	
+	/**
+	 * Returns the rowId of the DataCell at the given index without decoding it
+	 * @param index the index of the DataCell
+	 * @return it's rowId
+	 */
+	int getCellRowId(int index) {
+		return this.dataCells.getRowId(index);
+	}
+	
+	/**
+	 * Finds the last of the sorted DataCells with a rowId smaller than the given one using the raw rowIds
+	 * @param rowId the rowId to compare against
+	 * @param inclusive true to also accept a DataCell with the same rowId
+	 * @return the index of the DataCell, -1 if every DataCell has a larger rowId
+	 */
+	private int lastIndexBelow(int rowId, boolean inclusive) {
+		int index = this.dataCells.search(rowId);
+		if (index >= ZERO) {
+			return inclusive ? index : index - ONE;
 		}
-		return null;
+		// Not found, the insertion point is the first DataCell with a larger rowId
+		return -(index + ONE) - ONE;
 	}
 	
 	/**
@@ -361,15 +391,9 @@ public abstract class Page {
 	 * @return the TableInteriorCell of the pointer immediately after it.
 	 */
 	DataCell getCellRightNeighbor(int rowId) {
-		Collections.sort(this.dataCells);
-		int i = ZERO;
-		for (DataCell dataCell: dataCells) {
-			if(dataCell.getRowId() == rowId) {
-				return this.dataCells.get(i + ONE);
-			}
-			i++;
-		}
-		return null;
+		sort();
+		int index = this.dataCells.search(rowId);
+		return index >= ZERO ? this.dataCells.get(index + ONE) : null;
 	}
 	
 	/**
@@ -396,13 +420,22 @@ public abstract class Page {
 		return startOfCellPointers;
 	}
 	
+	/**
+	 * Setter for property 'startOfCellPointers'.
+	 *
+	 * @param startOfCellPointers the number of bytes taken up by the data cells at the end of the page
+	 */
+	void setStartOfCellPointers(short startOfCellPointers) {
+		this.startOfCellPointers = startOfCellPointers;
+	}
+	
 	/**
 	 * Getter for property 'numOfCells'.
 	 *
 	 * @return Value for property 'numOfCells'.
 	 */
-	byte getNumOfCells() {
-		return (byte)this.dataCells.size();
+	int getNumOfCells() {
+		return this.dataCells.size();
 	}
 	
 	/**
@@ -465,8 +498,8 @@ public abstract class Page {
 	 * @return the median rowId within the page that the page can be split on
 	 */
 	int getMedianRowId() {
-		Collections.sort(this.dataCells);
-		return this.dataCells.get((this.dataCells.size() + ONE) / TWO).getRowId();
+		sort();
+		return this.dataCells.getRowId((this.dataCells.size() + ONE) / TWO);
 	}
 	
 	/**
@@ -478,10 +511,10 @@ public abstract class Page {
 			return ZERO;
 		}
 		if(this.dataCells.size() == ONE) {
-			return this.dataCells.get(ZERO).getRowId();
+			return this.dataCells.getRowId(ZERO);
 		}
 		sort();
-		return this.dataCells.get(this.dataCells.size() - ONE).getRowId();
+		return this.dataCells.getRowId(this.dataCells.size() - ONE);
 	}
 	
 	/**
@@ -490,7 +523,7 @@ public abstract class Page {
 	 */
 	int getMinRowId() {
 		sort();
-		return this.dataCells.get(ZERO).getRowId();
+		return this.dataCells.getRowId(ZERO);
 	}
 	
 	/**
@@ -506,13 +539,14 @@ public abstract class Page {
 	 * When given a rowId it returns a DataCell that is storing it. Useful for retrieving DataRecords from leaf pages
 	 * and updating TableInteriorCells. <br>
 	 *
-	 * Binary Search is used to locate the index of the DataCell within the ArrayList with the given rowId. If the index
+	 * Binary Search is used to locate the index of the DataCell within the page with the given rowId. If the index
 	 * is -1 then NULL is returned because the given DataCell is not stored on this page, else it returns the requested
-	 * dataCell
+	 * dataCell. Only the requested DataCell is decoded.
 	 * @param rowId the rowId of the entry we want
 	 * @return the DataCell that holds this rowId, null if there is no matching entry
 	 */
 	DataCell getDataCellFromRowId(int rowId) {
+		sort();
 		int index = binarySearch(rowId, ZERO, this.dataCells.size() - ONE);
 		return (index != -ONE ? this.dataCells.get(index) : null);
 	}
@@ -560,10 +594,55 @@ public abstract class Page {
 		}
 	}
 	/**
-	 * Sorts the DataCell ArrayList based on rowId
+	 * Sorts the DataCells based on rowId, nothing is decoded if they are already in order
 	 */
 	void sort() {
-		Collections.sort(this.dataCells);
+		this.dataCells.sort(null);
+	}
+	
+	/**
+	 * Returns the size in bytes of the data cell at the given index without decoding it
+	 * @param index the index of the data cell
+	 * @return the number of bytes the data cell takes up on the page
+	 */
+	int getCellSize(int index) {
+		return this.dataCells.getCellSize(index);
+	}
+	
+	/**
+	 * Writes the data cell at the given index into a buffer, cells that were never decoded are copied as raw bytes
+	 * @param index the index of the data cell
+	 * @param buffer the buffer to write to
+	 * @param position the position in the buffer to start writing at
+	 */
+	void writeCell(int index, ByteBuffer buffer, int position) {
+		this.dataCells.writeCell(index, buffer, position);
+	}
+	
+	/**
+	 * Returns the number of bytes the page writes at the start of the data cell area ahead of it's cells, the first
+	 * cell's offset comes after them. Table pages write nothing there.
+	 * @return the number of bytes written by `writePageData`
+	 */
+	int getSizeOfPageData() {
+		return ZERO;
+	}
+	
+	/**
+	 * Writes the data the page keeps ahead of it's cells in the data cell area, see `getSizeOfPageData`
+	 * @param buffer the buffer to write to
+	 * @param position the position in the buffer of the start of the data cell area
+	 */
+	void writePageData(ByteBuffer buffer, int position) {
+		// Table pages keep nothing but their cells
+	}
+	
+	/**
+	 * Returns the number of data cells on the page that have been decoded into DataCell objects
+	 * @return the number of decoded data cells
+	 */
+	int getNumOfDecodedCells() {
+		return this.dataCells.getNumOfDecodedCells();
 	}
 	
 	/**
@@ -634,12 +713,8 @@ public abstract class Page {
 	 * @return true if the dataCell is stored here, false otherwise
 	 */
 	boolean contains(DataCell dataCell) {
-		for(DataCell d : dataCells) {
-			if(d.getRowId() == dataCell.getRowId()) {
-				return true;
-			}
-		}
-		return this.dataCells.contains(dataCell);
+		sort();
+		return this.dataCells.search(dataCell.getRowId()) >= ZERO;
 	}
 	
 	/**
@@ -654,9 +729,9 @@ public abstract class Page {
 			return -ONE;
 		}
 		int mid = (low + high)/TWO;
-		if(this.dataCells.get(mid).getRowId() > requestedRowId) {
+		if(this.dataCells.getRowId(mid) > requestedRowId) {
 			return binarySearch(requestedRowId, low, mid-ONE);
-		} else if (this.dataCells.get(mid).getRowId() < requestedRowId) {
+		} else if (this.dataCells.getRowId(mid) < requestedRowId) {
 			return binarySearch(requestedRowId, mid+ONE, high);
 		} else {
 			return mid;
@@ -664,70 +739,28 @@ public abstract class Page {
 	}
 	
 	/**
-	 * A method to return the ArrayList containing DataRecord formatted in bytes to the specified format to
-	 * store into the table/index file. <br>
+	 * A method to return the bytes of this page formatted to the specified format to store into the table/index
+	 * file. <br>
 	 *
 	 * The format being: [pageHeader, dataCellOffsets, freeSpace, reversedDataCells]<br>
 	 *
-	 * Originally function does not add the freeSpace cells between the dataCellOffsets, but to simplify the decision
-	 * was made to include the the NULL bytes in the center. Thus this method will output an ArrayList that is always
-	 * side PAGE_SIZE. This can be done for error checking purposes
-	 *
-	 * TODO: if time, switch to array
-	 * @return an ArrayList containing the bytes that make up the page
-	 */
-	public List<Byte> getBytes() {
-		ArrayList<Byte> output = new ArrayList<>(PAGE_SIZE);
-		
-		// Placeholders for the dataCellOffsets and the dataCellBytes that need to be reversed
-		ArrayList<Byte> dataCellOffsets = new ArrayList<>();
-		ArrayList<Byte> dataCellBytes = new ArrayList<>();
-		
-		// Initialize the first offset to 0, this is also going to count the total bytes taken up by the data cells.
-		// 2 birds 1 for loop
-		short dataCellOffset = (short)ZERO;
-		
-		for(DataCell c: getDataCells()) {
-			// Get the offset for this data cell
-			for(byte offsetBytes : shortToBytes(dataCellOffset)) {
-				dataCellOffsets.add(offsetBytes);
-			}
-			
-			// Get the byte representation of this data cell
-			ArrayList<Byte> bytes = (ArrayList<Byte>)c.getBytes();
-			
-			// Use size of array to determine the cell offset for the next data cell
-			dataCellOffset += (short)bytes.size();
-			
-			// Add bytes to list of data cell bytes
-			dataCellBytes.addAll(bytes);
-		}
-		
-		// Save the startOfCellPointers for the writePage method to use
-		this.startOfCellPointers = dataCellOffset;
-		
-		// Now that startOfCellPointers is current call getHeaderBytes which uses it's value.
-		output.addAll(getHeaderBytes());
-		
-		// Append the 2*n offset array after the header
-		output.addAll(dataCellOffsets);
-		
-		// Fill the free space with NULL values
-		for(int i = output.size(); i < PAGE_SIZE - this.startOfCellPointers; i++) {
-			output.add(NULL_BYTE);
-		}
-		
-		// Reverse the data cell bytes and add them to the en of the array
-		Collections.reverse(dataCellBytes);
-		output.addAll(dataCellBytes);
-		
+	 * The free space between the dataCellOffsets and the data cells is filled with NULL bytes so the array returned
+	 * is always the page size of the table long. The page is encoded by the PageCodec, this method only copies the result out of it's
+	 * reusable buffer.
+	 * @return an array containing the bytes that make up the page
+	 */
+	public byte[] getBytes() {
+		ByteBuffer encoded = PageCodec.get(this.tableConfig.getPageSize()).encode(this);
+		byte[] output = new byte[encoded.remaining()];
+		encoded.get(output);
 		return output;
 	}
 	
 	/**
-	 * A method to write the update page data to the file, each subclass uses their own getBytes() method which contains
-	 * class specific instructions on how to prepare the bytes for the file
-	 *  ____ pageStartAddress = (PAGE_SIZE * pageNum)
+	 * A method to write the update page data to the file, the PageCodec encodes the page into a reusable buffer using
+	 * each subclass' writeHeader() method and the cell's writeTo() methods which contain class specific instructions
+	 * on how to prepare the bytes for the file
+	 *  ____ pageStartAddress = (pageSize * (pageNum + 1)), the first page of the file is the file header
 	 * |    |
 	 * |    |
 	 * |    |
@@ -744,59 +777,159 @@ public abstract class Page {
 	 * |    |
 	 * |    |
 	 * |____|
-	 * |    |startOfNextPage = pageStartAddress + PAGE_SIZE
+	 * |    |startOfNextPage = pageStartAddress + pageSize
 	 * |    |
 	 * |....|
-	 * @param treeFile the RandomAccessFile associated with the page's database file
-	 * @throws IOException is thrown when an I/O operation fails
+	 * @param treeFile the PageFile associated with the page's database file
 	 */
-	void writePage(RandomAccessFile treeFile) {
-		// Get the bytes to write to file
-		byte[] pageBytes = byteArrayListToArray(getBytes());
-		this.startOfCellPointers = getSizeOfDataCells();
-		
+	void writePage(PageFile treeFile) {
+		// Encode the page, this also brings startOfCellPointers up to date
+		ByteBuffer pageBytes = PageCodec.get(this.tableConfig.getPageSize()).encode(this);
 		
-		// Pointers into the table file
-		// The beginning of this page and the start the next and the
-		// beginning of the data cell area at the end of the file
-		long pageStartAddress = (long)(this.getPageNumber() * PAGE_SIZE);
-		long startOfNextPage = pageStartAddress + PAGE_SIZE;
-		
-		// The remaining values are calculated for logging purposes
-		// Sizes of the page segments
+		// Sizes of the page segments, calculated for logging purposes
 		// Header + data cell offsets, the free space in the middle of the page, and the size of the data cell area
-		int headerSize = PAGE_HEADER_SIZE + (Short.BYTES * this.dataCells.size());
-		
-		// Data Cell Area Size = this.startOfCellPointers
-		int freeSpaceSize = PAGE_SIZE - this.startOfCellPointers - headerSize;
-		
-		long startOfFreeSpace = pageStartAddress + headerSize;
-		long startOfDataCells = startOfNextPage - (long)this.startOfCellPointers;
+		int headerSize = PAGE_HEADER_SIZE + (Short.BYTES * getNumOfCells());
+		int freeSpaceSize = this.tableConfig.getPageSize() - this.startOfCellPointers - headerSize;
 		
 		try {
 			// Information about the writing operation that is about to take place
 			LOGGER.log(Level.INFO, "Page number: {0}", this.pageNumber);
-			LOGGER.log(Level.INFO, "RandomAccessFile.length(): {0}", treeFile.length());
 			LOGGER.log(Level.INFO, "Page header/offset size: {0}", headerSize);
 			LOGGER.log(Level.INFO, "Free space size: {0}", freeSpaceSize);
-			LOGGER.log(Level.INFO, "Page start address: {0}", pageStartAddress);
-			LOGGER.log(Level.INFO, "Free space start address: {0}", startOfFreeSpace);
-			LOGGER.log(Level.INFO, "Start of data cells: {0}", startOfDataCells);
+			LOGGER.log(Level.INFO, "Page start address: {0}", treeFile.getPageAddress(this.pageNumber));
 			
-			long length = treeFile.length();
-			// Expand the file if needed
-			if(length < startOfNextPage) {
-				LOGGER.log(Level.INFO, "Expanding file");
-				treeFile.setLength(length + PAGE_SIZE);
-			}
-			
-			treeFile.seek(pageStartAddress);
-			treeFile.write(pageBytes);
+			treeFile.writePage(this.pageNumber, pageBytes);
 		} catch (IOException e) {
 			LOGGER.log(Level.SEVERE, "Error writing Page");
 		}
 	}
 	
+	/**
+	 * Writes the page to a RandomAccessFile that is not managed by a tree, the file has no file header so page n
+	 * starts at pageSize * n
+	 * @param treeFile the RandomAccessFile associated with the page's database file
+	 */
+	void writePage(RandomAccessFile treeFile) {
+		writePage(new ChannelPageFile(treeFile, this.tableConfig.getPageSize()));
+	}
+	
+	/**
+	 * *****************************
+	 * *****************************
+	 * *****************************
+	 *           Latching
+	 * *****************************
+	 * *****************************
+	 * *****************************
+	 */
+	
+	/**
+	 * Waits for and takes the page's latch
+	 * @param exclusive true to change the page, false to only read it
+	 */
+	void latch(boolean exclusive) {
+		if (exclusive) {
+			this.latch.writeLock().lock();
+			startChange();
+		} else {
+			this.latch.readLock().lock();
+		}
+	}
+	
+	/**
+	 * Takes the page's latch only if it is free, or already held exclusively by this thread
+	 * @param exclusive true to change the page, false to only read it
+	 * @return true if the latch was taken
+	 */
+	boolean tryLatch(boolean exclusive) {
+		if (!exclusive) {
+			return this.latch.readLock().tryLock();
+		}
+		if (!this.latch.writeLock().tryLock()) {
+			return false;
+		}
+		startChange();
+		return true;
+	}
+	
+	/**
+	 * Releases the latch taken by the last call to `latch` or `tryLatch` of this thread
+	 */
+	void unlatch() {
+		if (this.latch.isWriteLockedByCurrentThread()) {
+			if (this.latch.getWriteHoldCount() == ONE) {
+				// Only the write holder changes the version, the increment needs no atomic update
+				this.version++;
+			}
+			this.latch.writeLock().unlock();
+		} else {
+			this.latch.readLock().unlock();
+		}
+	}
+	
+	/**
+	 * Makes the version odd when this thread takes the page's latch for changing it for the first time
+	 */
+	private void startChange() {
+		if (this.latch.getWriteHoldCount() == ONE) {
+			this.version++;
+		}
+	}
+	
+	/**
+	 * Reads the version of the page before it is read without it's latch, see `validateVersion`
+	 * @return the version, -1 if the page is latched for changing it or obsolete and can't be read optimistically
+	 */
+	long readVersion() {
+		long current = this.version;
+		return (current & ONE) != ZERO || this.obsolete ? -ONE : current;
+	}
+	
+	/**
+	 * Check that nothing changed the page since `readVersion` returned the given version, so whatever was read from
+	 * the page in between is consistent. A thread holding the latch for reading may validate too.
+	 * @param version the version returned by `readVersion`
+	 * @return true if the page is unchanged and still backs it's page number
+	 */
+	boolean validateVersion(long version) {
+		// Keeps the reads of the page from moving past the second read of the version
+		VarHandle.acquireFence();
+		return version != -ONE && this.version == version && !this.obsolete;
+	}
+	
+	/**
+	 * Check if the page object was replaced or freed
+	 * @return true if the page object no longer backs it's page number
+	 */
+	boolean isObsolete() {
+		return this.obsolete;
+	}
+	
+	/**
+	 * Marks the page object as replaced or freed
+	 */
+	void setObsolete() {
+		this.obsolete = true;
+	}
+	
+	/**
+	 * Check if the DataCells are known to be in rowId order, a thread reading the page without it's latch can't sort
+	 * them and must only binary search a sorted page
+	 * @return true if the DataCells are sorted
+	 */
+	boolean isSorted() {
+		return this.dataCells.isSorted();
+	}
+	
+	/**
+	 * Returns the DataCell at the given index without changing the page, for threads holding the latch for reading
+	 * @param index the index of the DataCell
+	 * @return the DataCell
+	 */
+	DataCell readDataCell(int index) {
+		return this.dataCells.read(index);
+	}
+	
 	/**
 	 * *****************************
 	 * *****************************
@@ -807,15 +940,15 @@ public abstract class Page {
 	 * *****************************
 	 */
 	/**
-	 * Abstract method that all subclasses must implement which returns an 8-byte array to be stored at the beginning of
+	 * Abstract method that all subclasses must implement which writes the 8-byte header stored at the beginning of
 	 * each page and acts as a header containing only the most basic information associated with reconstructing it from
 	 * raw bytes. <br>
 	 *
 	 *
 	 * This was mainly implemented as a way to not have to have IndexLeafPages store a `nextPagePointer`
-	 * @return an 8-byte array to be stored as a header at the beginning of this page on file
+	 * @param buffer a page sized buffer, the header is written with absolute puts starting at position 0
 	 */
-	abstract List<Byte> getHeaderBytes();
+	abstract void writeHeader(ByteBuffer buffer);
 	
 	/**
 	 * Abstract method that all subclasses must implement that returns the number of bytes taken up by the data cells.
@@ -0,0 +1,168 @@
+package edu.utdallas.cs6360.davisbase.trees;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+
+import static edu.utdallas.cs6360.davisbase.Config.*;
+
+/**
+ * Encodes pages into their on disk format and holds the buffer pages are read into, using reusable ByteBuffers.<br>
+ *
+ * Encoding writes the header, the data cell offsets, and the data cells directly into one page sized buffer with
+ * absolute puts, the data cell area is then reversed in place to produce the layout the file expects:
+ * [pageHeader, dataCellOffsets, freeSpace, reversedDataCells]<br>
+ *
+ * Decoding is left to the CellList of each page, which reads the cells straight from the reversed data cell area
+ * using the offsets in the slot array.<br>
+ *
+ * Every thread gets its own codec for each page size in use so the buffer is only ever allocated once per thread
+ * and page size. Whether it is a heap or direct buffer is decided by Config.DIRECT_PAGE_BUFFERS.
+ *
+ * @author Charles Krol
+ * @author Matthew Villarreal
+ * @author Michael Del Rosario
+ * @author Mithil Vijay
+ */
+final class PageCodec {
+	/**
+	 * One codec per thread and page size, the buffer it holds is reused for every page of that size the thread
+	 * encodes or reads
+	 */
+	private static final ThreadLocal<HashMap<Integer, PageCodec>> CODECS = ThreadLocal.withInitial(HashMap::new);
+
+	/**
+	 * Holds a full page in its on disk format, used for encoding and as the destination of file reads
+	 */
+	private final ByteBuffer pageBuffer;
+
+	/**
+	 * Constructor that allocates the buffer for pages of the given size
+	 * @param pageSize the size of a page in bytes
+	 */
+	private PageCodec(int pageSize) {
+		this.pageBuffer = allocate(pageSize);
+	}
+
+	/**
+	 * Returns the codec belonging to the calling thread for pages of the given size
+	 * @param pageSize the size of a page in bytes
+	 * @return a PageCodec whose buffers may be reused by the caller until its next call into the codec
+	 */
+	static PageCodec get(int pageSize) {
+		return CODECS.get().computeIfAbsent(pageSize, PageCodec::new);
+	}
+
+	/**
+	 * *****************************
+	 * *****************************
+	 * *****************************
+	 *           Encoding
+	 * *****************************
+	 * *****************************
+	 * *****************************
+	 */
+
+	/**
+	 * Encodes a page into the page buffer.<br>
+	 *
+	 * The data cells are written in order at the end of the page and then reversed in place. The data cell offsets
+	 * are the running total of the data cell sizes and the header is written last so it sees the final size of the
+	 * data cell area.
+	 * @param page the page to encode
+	 * @return the page buffer holding the encoded page, positioned at 0 with the limit at the end of the page
+	 */
+	ByteBuffer encode(Page page) {
+		ByteBuffer buffer = this.pageBuffer;
+		int pageSize = buffer.capacity();
+
+		int numOfCells = page.getNumOfCells();
+		int sizeOfPageData = page.getSizeOfPageData();
+		int sizeOfDataCells = sizeOfPageData;
+		for (int i = ZERO; i < numOfCells; i++) {
+			sizeOfDataCells += page.getCellSize(i);
+		}
+		int startOfDataCells = pageSize - sizeOfDataCells;
+		int endOfOffsets = PAGE_HEADER_SIZE + Short.BYTES * numOfCells;
+		if (endOfOffsets > startOfDataCells) {
+			throw new IllegalStateException("Data cells do not fit in a page of size " + pageSize);
+		}
+
+		// Data cell offsets and the data cells themselves, in order, after any data the page keeps ahead of them.
+		// Cells that were never decoded are copied as is
+		page.writePageData(buffer, startOfDataCells);
+		int offsetPosition = PAGE_HEADER_SIZE;
+		int cellPosition = startOfDataCells + sizeOfPageData;
+		for (int i = ZERO; i < numOfCells; i++) {
+			buffer.putShort(offsetPosition, (short)(cellPosition - startOfDataCells));
+			offsetPosition += Short.BYTES;
+			page.writeCell(i, buffer, cellPosition);
+			cellPosition += page.getCellSize(i);
+		}
+
+		// Free space in the middle of the page
+		fill(buffer, endOfOffsets, startOfDataCells);
+
+		// The file stores the data cell area back to front
+		reverse(buffer, startOfDataCells, pageSize);
+
+		page.setStartOfCellPointers((short)sizeOfDataCells);
+		page.writeHeader(buffer);
+
+		buffer.clear();
+		return buffer;
+	}
+
+	/**
+	 * Returns the page buffer cleared and ready to have a page read into it from the file
+	 * @return the page buffer, positioned at 0 with the limit at the end of the page
+	 */
+	ByteBuffer readBuffer() {
+		this.pageBuffer.clear();
+		return this.pageBuffer;
+	}
+
+	/**
+	 * *****************************
+	 * *****************************
+	 * *****************************
+	 *           Helpers
+	 * *****************************
+	 * *****************************
+	 * *****************************
+	 */
+
+	/**
+	 * Allocates a heap or direct buffer depending on Config.DIRECT_PAGE_BUFFERS
+	 * @param size the capacity of the buffer
+	 * @return a new ByteBuffer
+	 */
+	private static ByteBuffer allocate(int size) {
+		return DIRECT_PAGE_BUFFERS ? ByteBuffer.allocateDirect(size) : ByteBuffer.allocate(size);
+	}
+
+	/**
+	 * Sets the bytes in [from, to) to NULL_BYTE
+	 * @param buffer the buffer to fill
+	 * @param from the first position to fill
+	 * @param to the position after the last one to fill
+	 */
+	private static void fill(ByteBuffer buffer, int from, int to) {
+		for (int i = from; i < to; i++) {
+			buffer.put(i, NULL_BYTE);
+		}
+	}
+
+	/**
+	 * Reverses the bytes in [from, to) in place
+	 * @param buffer the buffer to modify
+	 * @param from the first position to reverse
+	 * @param to the position after the last one to reverse
+	 */
+	private static void reverse(ByteBuffer buffer, int from, int to) {
+		for (int i = from, j = to - ONE; i < j; i++, j--) {
+			byte temp = buffer.get(i);
+			buffer.put(i, buffer.get(j));
+			buffer.put(j, temp);
+		}
+	}
+}
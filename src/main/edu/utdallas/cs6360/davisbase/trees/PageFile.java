@@ -0,0 +1,174 @@
+package edu.utdallas.cs6360.davisbase.trees;
+
+import edu.utdallas.cs6360.davisbase.StorageMode;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import static edu.utdallas.cs6360.davisbase.Config.*;
+
+/**
+ * Abstract class for the storage backing a table or index file. The trees only ever read and write whole pages so
+ * that is all a PageFile has to provide.<br>
+ *
+ * Tree files start with a page sized file header, page n of the tree is stored in the (n + 1)-th page of the file.
+ * Files opened by `open` account for the header, a PageFile wrapping a bare RandomAccessFile has no header.<br>
+ *
+ * The backend is chosen with a StorageMode, RANDOM_ACCESS uses a RandomAccessFile and positional FileChannel calls
+ * while MEMORY_MAPPED maps the file and reads and writes pages as slices of the mapping.
+ *
+ * @author Charles Krol
+ * @author Matthew Villarreal
+ * @author Michael Del Rosario
+ * @author Mithil Vijay
+ */
+abstract class PageFile {
+	/**
+	 * The operation mode used to open the file
+	 */
+	static final String READ_WRITE_MODE = "rw";
+	
+	/**
+	 * The size of a page in the file
+	 */
+	private final int pageSize;
+	
+	/**
+	 * The byte address of page 0, the file header comes before it
+	 */
+	private final long firstPageAddress;
+	
+	/**
+	 * Constructor that stores the page size and header size used to locate pages in the file
+	 * @param pageSize the size of a page in bytes
+	 * @param firstPageAddress the byte address of page 0
+	 */
+	PageFile(int pageSize, long firstPageAddress) {
+		this.pageSize = pageSize;
+		this.firstPageAddress = firstPageAddress;
+	}
+	
+	/**
+	 * Opens a tree file with the backend for the given storage mode, the first page of the file is it's file header
+	 * @param fileName the fully qualified file name
+	 * @param pageSize the size of a page in the file
+	 * @param mode RANDOM_ACCESS or MEMORY_MAPPED
+	 * @return the opened PageFile
+	 * @throws IOException if the file cannot be opened
+	 */
+	static PageFile open(String fileName, int pageSize, StorageMode mode) throws IOException {
+		if (mode == StorageMode.MEMORY_MAPPED) {
+			return new MappedPageFile(fileName, pageSize);
+		}
+		return new ChannelPageFile(fileName, pageSize);
+	}
+	
+	/**
+	 * Reads a page from the file. Backends that keep the file in memory can return a view of the page directly
+	 * instead of copying it into the scratch buffer, callers must only use the returned buffer.
+	 * @param pageNumber the page number
+	 * @param scratch a page sized buffer the page may be read into
+	 * @return a buffer with capacity pageSize holding the page
+	 * @throws IOException if the read fails
+	 */
+	ByteBuffer readPage(int pageNumber, ByteBuffer scratch) throws IOException {
+		return read(getPageAddress(pageNumber), scratch);
+	}
+	
+	/**
+	 * Writes a page to the file, growing the file if the page is past the end of it. A buffer holding several encoded
+	 * pages one after the other writes the run of pages starting at pageNumber in one call.
+	 * @param pageNumber the page number
+	 * @param page a buffer holding the encoded page, or pages, between it's position and limit
+	 * @throws IOException if the write fails
+	 */
+	void writePage(int pageNumber, ByteBuffer page) throws IOException {
+		write(getPageAddress(pageNumber), page);
+	}
+	
+	/**
+	 * Reads the file header from the first page of the file
+	 * @param scratch a page sized buffer the header may be read into
+	 * @return a buffer with capacity pageSize holding the header
+	 * @throws IOException if the read fails
+	 */
+	ByteBuffer readHeader(ByteBuffer scratch) throws IOException {
+		return read(ZERO, scratch);
+	}
+	
+	/**
+	 * Writes the file header to the first page of the file
+	 * @param header a buffer holding the encoded header between it's position and limit
+	 * @throws IOException if the write fails
+	 */
+	void writeHeader(ByteBuffer header) throws IOException {
+		write(ZERO, header);
+	}
+	
+	/**
+	 * Returns the number of pages the file has room for after the file header
+	 * @return (length - firstPageAddress) / pageSize
+	 * @throws IOException if the length cannot be read
+	 */
+	int getNumOfPages() throws IOException {
+		return (int) Math.max(ZERO, (length() - this.firstPageAddress) / this.pageSize);
+	}
+	
+	/**
+	 * Getter for property 'pageSize'.
+	 *
+	 * @return the size of a page in the file
+	 */
+	int getPageSize() { return this.pageSize; }
+	
+	/**
+	 * Returns the byte address of the start of a page within the file
+	 * @param pageNumber the page number
+	 * @return firstPageAddress + pageNumber * pageSize
+	 */
+	long getPageAddress(int pageNumber) { return this.firstPageAddress + (long) pageNumber * this.pageSize; }
+	
+	/**
+	 * Reads one page sized block of the file. Backends that keep the file in memory can return a view of the block
+	 * directly instead of copying it into the scratch buffer.
+	 * @param address the byte address of the block
+	 * @param scratch a page sized buffer the block may be read into
+	 * @return a buffer with capacity pageSize holding the block
+	 * @throws IOException if the read fails
+	 */
+	abstract ByteBuffer read(long address, ByteBuffer scratch) throws IOException;
+	
+	/**
+	 * Writes a block to the file, growing the file if the block is past the end of it
+	 * @param address the byte address of the block
+	 * @param block a buffer holding the bytes to write between it's position and limit
+	 * @throws IOException if the write fails
+	 */
+	abstract void write(long address, ByteBuffer block) throws IOException;
+	
+	/**
+	 * Returns the length of the file in bytes
+	 * @return the number of bytes of the file in use
+	 * @throws IOException if the length cannot be read
+	 */
+	abstract long length() throws IOException;
+	
+	/**
+	 * Sets the length of the file in bytes
+	 * @param length the new length
+	 * @throws IOException if the file cannot be resized
+	 */
+	abstract void setLength(long length) throws IOException;
+	
+	/**
+	 * Forces every write made so far to the storage device, called at commit points
+	 * @throws IOException if the writes cannot be forced
+	 */
+	abstract void force() throws IOException;
+	
+	/**
+	 * Closes the file, pages cannot be read or written afterwards
+	 * @throws IOException if the file cannot be closed
+	 */
+	abstract void close() throws IOException;
+}
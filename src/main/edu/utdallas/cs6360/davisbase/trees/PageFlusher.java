@@ -0,0 +1,407 @@
+package edu.utdallas.cs6360.davisbase.trees;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static edu.utdallas.cs6360.davisbase.Config.*;
+
+/**
+ * Writes the pages of one tree file behind the tree instead of as soon as they change.<br>
+ *
+ * The tree hands over the encoded pages of an operation once it has committed and the bytes are kept in a dirty set
+ * sorted by page number, a page changed again before it is written only replaces it's bytes. One background thread
+ * shared by every open file drains the dirty sets every Config.FLUSHER_INTERVAL_MS, or sooner once a file has
+ * Config.FLUSH_THRESHOLD_PAGES pending. The pages are written in page number order and runs of consecutive pages are
+ * combined into a single write of up to Config.FLUSH_MAX_RUN_PAGES pages.<br>
+ *
+ * Once Config.MAX_DIRTY_PAGES are pending the tree writes the dirty set itself before it can hand over another page,
+ * so a tree can never get further ahead of the file than that. Pages that are pending or being written are served to
+ * `getPendingPage` so a page evicted from the buffer pool is never read back stale from the file.<br>
+ *
+ * Every pending page keeps the recovery LSN it was handed over with so the write-ahead log can build the dirty page
+ * table of a checkpoint from the flushers.<br>
+ *
+ * When Config.WRITE_BEHIND is off every page is written as soon as it is handed over.
+ *
+ * @author Charles Krol
+ * @author Matthew Villarreal
+ * @author Michael Del Rosario
+ * @author Mithil Vijay
+ */
+final class PageFlusher {
+	/**
+	 * A logger that logs things for logging purposes
+	 */
+	private static final Logger LOGGER = Logger.getLogger(PageFlusher.class.getName());
+
+	/**
+	 * Every flusher that has not been closed, drained by the background thread
+	 */
+	private static final LinkedHashSet<PageFlusher> OPEN_FLUSHERS = new LinkedHashSet<>();
+
+	/**
+	 * Monitor the background thread waits on between runs
+	 */
+	private static final Object WAKE_UP = new Object();
+
+	static {
+		Thread flusherThread = new Thread(PageFlusher::runFlusher, "davisbase-page-flusher");
+		flusherThread.setDaemon(true);
+		flusherThread.start();
+		// Trees that are never closed still get their pages written when the shell exits
+		Runtime.getRuntime().addShutdownHook(new Thread(PageFlusher::flushAll, "davisbase-page-flusher-shutdown"));
+	}
+
+	/**
+	 * The fully qualified file name of the tree
+	 */
+	private final String fileName;
+
+	/**
+	 * The file the pages are written to
+	 */
+	private final PageFile file;
+
+	/**
+	 * Only one drain of this file writes at a time so an older copy of a page can never land after a newer one
+	 */
+	private final Object writeLock;
+
+	/**
+	 * Encoded pages waiting to be written, by page number
+	 */
+	private TreeMap<Integer, byte[]> dirtyPages;
+
+	/**
+	 * Encoded pages taken from the dirty set by the drain that is writing right now
+	 */
+	private TreeMap<Integer, byte[]> inFlightPages;
+
+	/**
+	 * The recovery LSN of every dirty and in flight page, the LSN of the oldest transaction that changed the page
+	 * since it was last written. Together they are this file's part of the write-ahead log's dirty page table.
+	 */
+	private TreeMap<Integer, Long> dirtyRecoveryLsns;
+	private TreeMap<Integer, Long> inFlightRecoveryLsns;
+
+	/**
+	 * True once the flusher was closed, the tree forces and closes the file itself
+	 */
+	private boolean closed;
+
+	/**
+	 * Buffer a run of consecutive pages is copied into for a single write
+	 */
+	private final ByteBuffer runBuffer;
+
+	/**
+	 * The number of pages written and the number of writes used to write them
+	 */
+	private long pagesWritten;
+	private long writes;
+
+	/**
+	 * Constructor for the flusher of an open tree file
+	 * @param fileName the fully qualified file name of the tree
+	 * @param file the open file pages are written to
+	 */
+	PageFlusher(String fileName, PageFile file) {
+		this.fileName = fileName;
+		this.file = file;
+		this.writeLock = new Object();
+		this.dirtyPages = new TreeMap<>();
+		this.inFlightPages = new TreeMap<>();
+		this.dirtyRecoveryLsns = new TreeMap<>();
+		this.inFlightRecoveryLsns = new TreeMap<>();
+		this.closed = false;
+		this.runBuffer = ByteBuffer.allocate(FLUSH_MAX_RUN_PAGES * file.getPageSize());
+		this.pagesWritten = ZERO;
+		this.writes = ZERO;
+		if (WRITE_BEHIND) {
+			synchronized (OPEN_FLUSHERS) {
+				OPEN_FLUSHERS.add(this);
+			}
+		}
+	}
+
+	/**
+	 * *****************************
+	 * *****************************
+	 * *****************************
+	 *       Page Operations
+	 * *****************************
+	 * *****************************
+	 * *****************************
+	 */
+
+	/**
+	 * Hands a committed page over to be written
+	 * @param pageNumber the page number
+	 * @param encoded the encoded page, it must not be changed afterwards
+	 * @param recoveryLsn the LSN the transaction that changed the page began at, kept only if the page was not
+	 *                    already waiting
+	 */
+	void add(int pageNumber, byte[] encoded, long recoveryLsn) {
+		if (!WRITE_BEHIND) {
+			try {
+				this.file.writePage(pageNumber, ByteBuffer.wrap(encoded));
+			} catch (IOException e) {
+				LOGGER.log(Level.SEVERE, e.toString());
+			}
+			return;
+		}
+		int numOfDirtyPages;
+		synchronized (this) {
+			this.dirtyPages.put(pageNumber, encoded);
+			this.dirtyRecoveryLsns.putIfAbsent(pageNumber, recoveryLsn);
+			numOfDirtyPages = this.dirtyPages.size();
+		}
+		if (numOfDirtyPages >= MAX_DIRTY_PAGES) {
+			// Backpressure, the writer pays for the writes it is ahead by
+			LOGGER.log(Level.INFO, "Dirty page limit reached for {0}", this.fileName);
+			flush();
+		} else if (numOfDirtyPages == FLUSH_THRESHOLD_PAGES) {
+			synchronized (WAKE_UP) {
+				WAKE_UP.notifyAll();
+			}
+		}
+	}
+
+	/**
+	 * Returns the newest bytes of a page that has not reached the file yet
+	 * @param pageNumber the page number
+	 * @return a buffer holding the encoded page, null if every change to the page has been written
+	 */
+	synchronized ByteBuffer getPendingPage(int pageNumber) {
+		byte[] encoded = this.dirtyPages.get(pageNumber);
+		if (encoded == null) {
+			encoded = this.inFlightPages.get(pageNumber);
+		}
+		return encoded != null ? ByteBuffer.wrap(encoded) : null;
+	}
+
+	/**
+	 * Returns the number of pages waiting to be written
+	 * @return the size of the dirty set
+	 */
+	synchronized int getNumOfDirtyPages() {
+		return this.dirtyPages.size();
+	}
+
+	/**
+	 * Writes every pending page on the calling thread and returns once they are in the file
+	 */
+	void flush() {
+		synchronized (this.writeLock) {
+			TreeMap<Integer, byte[]> batch;
+			synchronized (this) {
+				if (this.dirtyPages.isEmpty()) {
+					return;
+				}
+				batch = this.dirtyPages;
+				this.inFlightPages = batch;
+				this.inFlightRecoveryLsns = this.dirtyRecoveryLsns;
+				this.dirtyPages = new TreeMap<>();
+				this.dirtyRecoveryLsns = new TreeMap<>();
+			}
+			try {
+				writeInOrder(batch);
+			} catch (IOException e) {
+				LOGGER.log(Level.SEVERE, e.toString());
+			}
+			synchronized (this) {
+				this.inFlightPages = new TreeMap<>();
+				this.inFlightRecoveryLsns = new TreeMap<>();
+			}
+		}
+	}
+
+	/**
+	 * Writes every pending page and stops the background thread from draining this file, the file itself is left open
+	 * for the tree to close
+	 */
+	void close() {
+		synchronized (OPEN_FLUSHERS) {
+			OPEN_FLUSHERS.remove(this);
+		}
+		flush();
+		synchronized (this.writeLock) {
+			this.closed = true;
+		}
+		LOGGER.log(Level.INFO, "Closed flusher for {0}, pages written: {1}, writes: {2}",
+				new Object[]{this.fileName, this.pagesWritten, this.writes});
+	}
+
+	/**
+	 * Drops the pending pages of every open flusher for a file without writing them. Used when a file is created so
+	 * pages of an older file with the same name are never written into the new one.
+	 * @param fileName the fully qualified file name
+	 */
+	static void discardFile(String fileName) {
+		for (PageFlusher flusher : openFlushers()) {
+			if (flusher.fileName.equals(fileName)) {
+				synchronized (flusher.writeLock) {
+					synchronized (flusher) {
+						flusher.dirtyPages.clear();
+						flusher.dirtyRecoveryLsns.clear();
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Writes the pending pages of every open flusher for a file. Used before a file is opened so a tree opening it
+	 * reads what another tree on the same file has changed.
+	 * @param fileName the fully qualified file name
+	 */
+	static void flushFile(String fileName) {
+		for (PageFlusher flusher : openFlushers()) {
+			if (flusher.fileName.equals(fileName)) {
+				flusher.flush();
+			}
+		}
+	}
+
+	/**
+	 * Returns the recovery LSN of every page that has not reached the file yet, used by the write-ahead log to build
+	 * the dirty page table of a checkpoint
+	 * @return the recovery LSNs by page number, the oldest one for a page that is both in flight and dirty again
+	 */
+	synchronized TreeMap<Integer, Long> getDirtyPageTable() {
+		TreeMap<Integer, Long> dirtyPageTable = new TreeMap<>(this.inFlightRecoveryLsns);
+		for (Map.Entry<Integer, Long> entry : this.dirtyRecoveryLsns.entrySet()) {
+			dirtyPageTable.merge(entry.getKey(), entry.getValue(), Math::min);
+		}
+		return dirtyPageTable;
+	}
+
+	/**
+	 * Forces the pages written so far to the storage device, unless the flusher was closed. Holds the write lock so
+	 * the tree cannot close the file while it is being forced.
+	 * @throws IOException if the file cannot be forced
+	 */
+	void force() throws IOException {
+		synchronized (this.writeLock) {
+			if (!this.closed) {
+				this.file.force();
+			}
+		}
+	}
+
+	/**
+	 * Getter for property 'fileName'.
+	 *
+	 * @return the fully qualified file name of the tree
+	 */
+	String getFileName() { return this.fileName; }
+
+	/**
+	 * Getter for property 'pagesWritten'.
+	 *
+	 * @return the number of pages written by this flusher
+	 */
+	synchronized long getPagesWritten() { return this.pagesWritten; }
+
+	/**
+	 * Getter for property 'writes'.
+	 *
+	 * @return the number of writes used to write them, lower than pagesWritten when runs were combined
+	 */
+	synchronized long getWrites() { return this.writes; }
+
+	/**
+	 * *****************************
+	 * *****************************
+	 * *****************************
+	 *           Helpers
+	 * *****************************
+	 * *****************************
+	 * *****************************
+	 */
+
+	/**
+	 * Writes a batch of pages in page number order, consecutive pages are copied into the run buffer and written
+	 * together
+	 * @param batch encoded pages by page number
+	 * @throws IOException if a write fails
+	 */
+	private void writeInOrder(TreeMap<Integer, byte[]> batch) throws IOException {
+		int runStart = -ONE;
+		int runLength = ZERO;
+		this.runBuffer.clear();
+		for (Map.Entry<Integer, byte[]> entry : batch.entrySet()) {
+			int pageNumber = entry.getKey();
+			if (runLength > ZERO && (pageNumber != runStart + runLength || runLength == FLUSH_MAX_RUN_PAGES)) {
+				writeRun(runStart, runLength);
+				runLength = ZERO;
+			}
+			if (runLength == ZERO) {
+				runStart = pageNumber;
+			}
+			this.runBuffer.put(entry.getValue());
+			runLength++;
+		}
+		if (runLength > ZERO) {
+			writeRun(runStart, runLength);
+		}
+	}
+
+	/**
+	 * Writes the run of pages held in the run buffer and empties it
+	 * @param firstPage the page number of the first page in the run
+	 * @param runLength the number of pages in the run
+	 * @throws IOException if the write fails
+	 */
+	private void writeRun(int firstPage, int runLength) throws IOException {
+		this.runBuffer.flip();
+		this.file.writePage(firstPage, this.runBuffer);
+		this.runBuffer.clear();
+		synchronized (this) {
+			this.pagesWritten += runLength;
+			this.writes++;
+		}
+	}
+
+	/**
+	 * Returns a copy of the open flushers so they can be drained without holding the lock on the set
+	 * @return every open flusher
+	 */
+	private static ArrayList<PageFlusher> openFlushers() {
+		synchronized (OPEN_FLUSHERS) {
+			return new ArrayList<>(OPEN_FLUSHERS);
+		}
+	}
+
+	/**
+	 * Writes the pending pages of every open flusher
+	 */
+	private static void flushAll() {
+		for (PageFlusher flusher : openFlushers()) {
+			flusher.flush();
+		}
+	}
+
+	/**
+	 * The body of the background thread, drains every open flusher each interval or when one of them wakes it early
+	 */
+	private static void runFlusher() {
+		while (!Thread.currentThread().isInterrupted()) {
+			synchronized (WAKE_UP) {
+				try {
+					WAKE_UP.wait(FLUSHER_INTERVAL_MS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+			}
+			flushAll();
+		}
+	}
+}
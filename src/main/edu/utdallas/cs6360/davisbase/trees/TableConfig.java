@@ -42,6 +42,11 @@ public class TableConfig {
 	 */
 	private int numOfColumns;
 	
+	/**
+	 * The size of every page in the tree's file, chosen when the table is created and stored in the file header
+	 */
+	private int pageSize;
+	
 	/**
 	 * The branching factor or the number of pointers that can be stored within an Interior B+Tree page which is
 	 * (numOfInteriorDataCells + 1) as we have the extra pointer for the right subtree within an Interior Page.<br><br>
@@ -76,15 +81,31 @@ public class TableConfig {
 		this.treeOrder = -1;
 		this.leafPageDegree = -1;
 		this.numOfColumns = -1;
+		this.pageSize = PAGE_SIZE;
 		this.hasTextColumns = false;
 		this.colTypes = new ArrayList<>();
 	}
 	
 	/**
-	 * Constructor that initializes a TableTree when passed an array of DataType enum values
+	 * Constructor that initializes a TableTree when passed an array of DataType enum values, the default page size
+	 * Config.PAGE_SIZE is used
 	 * @param columnTypes an array of DataType enums representing column data types
 	 */
 	public TableConfig(ArrayList<DataType> columnTypes) {
+		this(columnTypes, PAGE_SIZE);
+	}
+	
+	/**
+	 * Constructor that initializes a TableTree when passed an array of DataType enum values and the page size of the
+	 * tree's file
+	 * @param columnTypes an array of DataType enums representing column data types
+	 * @param pageSize the size of a page in bytes, a power of 2 between Config.MIN_PAGE_SIZE and Config.MAX_PAGE_SIZE
+	 */
+	public TableConfig(ArrayList<DataType> columnTypes, int pageSize) {
+		if (!isValidPageSize(pageSize)) {
+			throw new IllegalArgumentException("Invalid page size: " + pageSize);
+		}
+		this.pageSize = pageSize;
 		this.numOfColumns = columnTypes.size();
 		this.dataMaxRecordSize = calculateMaxDataRecordSize(columnTypes);
 		this.dataRecordSizeNoText = calculateMinDataRecordSize(columnTypes);
@@ -100,6 +121,7 @@ public class TableConfig {
 	 * @param columnTypeCodes an array of data type byte cods
 	 */
 	public TableConfig(DataType[] columnTypeCodes) {
+		this.pageSize = PAGE_SIZE;
 		this.numOfColumns = columnTypeCodes.length;
 		this.dataMaxRecordSize = calculateMaxDataRecordSize(columnTypeCodes);
 		this.dataRecordSizeNoText = calculateMinDataRecordSize(columnTypeCodes);
@@ -118,6 +140,15 @@ public class TableConfig {
 		return this.dataMaxRecordSize;
 	}
 	
+	/**
+	 * Getter for property 'pageSize'.
+	 *
+	 * @return Value for property 'pageSize'.
+	 */
+	public int getPageSize() {
+		return this.pageSize;
+	}
+	
 	/**
 	 * Getter for property 'treeOrder'.
 	 *
@@ -195,11 +226,15 @@ public class TableConfig {
 	 *        10n = PageSize - 8<br>
 	 * Tree Order = (PageSize - 8)/10<br>
 	 * Tree Order = (pageSize - pageHeaderSize) / (offsetSize + interiorCellSize)<br>
+	 * <br>
+	 * The number of cells is stored in a single byte of the page header so the order is capped at
+	 * MAX_CELLS_PER_PAGE + 1 for large pages
 	 * @return the Tree order or internal page degree which is the maximum number of cells that
 	 * can fit on an interior page
 	 */
 	private int calculateTreeOrder() {
-		return ONE+((PAGE_SIZE - PAGE_HEADER_SIZE) / (Short.BYTES + TABLE_INTERIOR_CELL_SIZE));
+		return ONE + Math.min(MAX_CELLS_PER_PAGE,
+				(this.pageSize - PAGE_HEADER_SIZE) / (Short.BYTES + TABLE_INTERIOR_CELL_SIZE));
 	}
 	
 	/**
@@ -219,12 +254,14 @@ public class TableConfig {
 	 *
 	 *  degree =                                            (PageSize - 8)/<br>
 	 *                                               (2 + 6 + 1 + numCol + dataSize)<br>
+	 * <br>
+	 * Like the tree order this is capped at MAX_CELLS_PER_PAGE + 1
 	 * @return the degree of a leaf node or the maximum number of cells that can be stored a leave node based on the
 	 * column configuration
 	 * 	 * can fit on an interior page
 	 */
 	private int calculateLeafPageDegree() {
-		return ONE + ((PAGE_SIZE - PAGE_HEADER_SIZE) /
+		return ONE + Math.min(MAX_CELLS_PER_PAGE, (this.pageSize - PAGE_HEADER_SIZE) /
 				(Short.BYTES + TABLE_LEAF_CELL_HEADER_SIZE + Byte.BYTES + this.numOfColumns +
 						this.dataMaxRecordSize));
 	}
@@ -359,6 +396,7 @@ public class TableConfig {
 	 * Log information about the configuration of this tree instance
 	 */
 	void logTreeConfig() {
+		LOGGER.log(Level.INFO, "Page Size: {0}", this.pageSize);
 		LOGGER.log(Level.INFO, "Tree Order: {0}", this.treeOrder);
 		LOGGER.log(Level.INFO, "Leaf Page Degree: {0}", this.leafPageDegree);
 		LOGGER.log(Level.INFO, "Data Record Size: {0}", this.dataMaxRecordSize);
@@ -374,6 +412,16 @@ public class TableConfig {
 	 * *****************************
 	 */
 	
+	/**
+	 * Checks that a page size can be used for a tree file, it must be a power of 2 so pages line up with the pages of
+	 * the OS and it must be between Config.MIN_PAGE_SIZE and Config.MAX_PAGE_SIZE
+	 * @param pageSize the requested page size in bytes
+	 * @return true if the page size can be used, false otherwise
+	 */
+	public static boolean isValidPageSize(int pageSize) {
+		return pageSize >= MIN_PAGE_SIZE && pageSize <= MAX_PAGE_SIZE && Integer.bitCount(pageSize) == ONE;
+	}
+	
 	/**
 	 * When given an array of DataTypes this static method determines if the column configuration contains text columns
 	 * @param colTypes an array of column data types
@@ -0,0 +1,135 @@
+package edu.utdallas.cs6360.davisbase.trees;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import static edu.utdallas.cs6360.davisbase.Config.*;
+
+/**
+ * A forward cursor over the rows of a TableTree with rowIds in a range, returned by `TableTree.scan`.<br>
+ *
+ * The cursor descends the tree once to the leaf holding the first rowId and then follows the linked list of leaves
+ * through their nextPagePointer. Only the leaf it is positioned on is pinned in the buffer pool and latched for
+ * reading, the next leaf is latched before the current one is released, so the cursor holds at most two pages no
+ * matter how large the table is. Rows are decoded one at a time as they are returned.<br>
+ *
+ * Other threads may change the tree while the cursor is open, each leaf is seen either before or after a change to
+ * it, but they wait for the leaf the cursor is positioned on. The thread that opened the cursor must not change the
+ * tree until it is closed. A cursor releases it's page once it runs past the end of the range, a cursor that is
+ * abandoned before that must be closed.
+ *
+ * @author Charles Krol
+ * @author Matthew Villarreal
+ * @author Michael Del Rosario
+ * @author Mithil Vijay
+ */
+public final class TableCursor implements Iterator<DataRecord>, AutoCloseable {
+	/**
+	 * The tree being scanned
+	 */
+	private final TableTree tree;
+
+	/**
+	 * The largest rowId returned by the cursor
+	 */
+	private final int toRowId;
+
+	/**
+	 * The leaf holding the next row, pinned and latched until the cursor moves past it. Null once the cursor is exhausted.
+	 */
+	private TableLeafPage leaf;
+
+	/**
+	 * The index of the next row within the leaf
+	 */
+	private int index;
+
+	/**
+	 * The rowId of the row last returned by `next`, -1 before the first row
+	 */
+	private int rowId;
+
+	/**
+	 * Constructor that positions the cursor on the first row with a rowId of at least fromRowId
+	 * @param tree the tree to scan
+	 * @param fromRowId the smallest rowId to return
+	 * @param toRowId the largest rowId to return
+	 */
+	TableCursor(TableTree tree, int fromRowId, int toRowId) {
+		this.tree = tree;
+		this.toRowId = toRowId;
+		this.rowId = -ONE;
+		if (fromRowId <= toRowId) {
+			this.leaf = tree.getLeafPage(fromRowId);
+			this.index = this.leaf.firstIndexAtLeast(fromRowId);
+		}
+	}
+
+	/**
+	 * Moves to the next leaf while the current one has no rows left, and closes the cursor once it passes the end of
+	 * the range or the last leaf
+	 */
+	private void advance() {
+		while (this.leaf != null) {
+			if (this.index < this.leaf.getNumOfCells()) {
+				if (this.leaf.getCellRowId(this.index) > this.toRowId) {
+					close();
+				}
+				return;
+			}
+			int nextPagePointer = this.leaf.getNextPagePointer();
+			if (nextPagePointer == -ONE) {
+				close();
+				return;
+			}
+			TableLeafPage nextLeaf = (TableLeafPage) this.tree.latchPage(nextPagePointer, false);
+			this.tree.unlatchPage(this.leaf);
+			this.leaf = nextLeaf;
+			this.index = ZERO;
+		}
+	}
+
+	/**
+	 * Returns true if there is another row in the range
+	 * @return true if `next` will return a row
+	 */
+	@Override
+	public boolean hasNext() {
+		advance();
+		return this.leaf != null;
+	}
+
+	/**
+	 * Returns the next row in the range, it's rowId is available from `getRowId` afterwards
+	 * @return the DataRecord of the next row
+	 */
+	@Override
+	public DataRecord next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException("No rows left in the range");
+		}
+		TableLeafCell cell = (TableLeafCell) this.leaf.readDataCell(this.index++);
+		this.rowId = cell.getRowId();
+		return cell.getPayload();
+	}
+
+	/**
+	 * Getter for property 'rowId'.
+	 *
+	 * @return the rowId of the row last returned by `next`, -1 before the first row
+	 */
+	public int getRowId() {
+		return this.rowId;
+	}
+
+	/**
+	 * Releases the leaf the cursor is positioned on, the cursor returns no more rows afterwards
+	 */
+	@Override
+	public void close() {
+		if (this.leaf != null) {
+			this.tree.unlatchPage(this.leaf);
+			this.leaf = null;
+		}
+	}
+}
@@ -1,6 +1,5 @@
 package edu.utdallas.cs6360.davisbase.trees;
 
-import edu.utdallas.cs6360.davisbase.utils.ByteHelpers;
 import java.nio.ByteBuffer;
 import java.util.*;
 
@@ -60,9 +59,17 @@ public class TableInteriorCell extends DataCell implements Comparable<DataCell>
 	 * @param data the byte representation of a TableInteriorCell stored in a file
 	 */
 	TableInteriorCell(byte[] data) {
-		super(Arrays.copyOfRange(data, START_OF_TABLE_INTERIOR_ROWID, START_OF_TABLE_INTERIOR_ROWID + Integer.BYTES));
-		ByteBuffer headerBuffer = ByteBuffer.wrap(data);
-		this.leftChildPointer = headerBuffer.getInt();
+		this(ByteBuffer.wrap(data), ZERO);
+	}
+	
+	/**
+	 * Constructor that initializes a TableInteriorCell straight from a buffer holding the data cells of a page
+	 * @param data a buffer holding the data cells in order
+	 * @param position the position in the buffer where this cell starts
+	 */
+	TableInteriorCell(ByteBuffer data, int position) {
+		super(data.getInt(position + START_OF_TABLE_INTERIOR_ROWID));
+		this.leftChildPointer = data.getInt(position);
 	}
 	
 	/**
@@ -75,21 +82,15 @@ public class TableInteriorCell extends DataCell implements Comparable<DataCell>
 	 * *****************************
 	 */
 	/**
-	 * Used to get the byte representation of a TableInteriorCell for storing later<br>
+	 * Used to write the byte representation of a TableInteriorCell for storing later<br>
 	 *
-	 * @return an ArrayList containing the byte representation of a TableInteriorCell
+	 * 4-byte leftChildPointer followed by the 4-byte rowId
+	 * @param buffer the buffer to write to
+	 * @param position the position in the buffer to start writing at
 	 */
-	public List<Byte> getBytes() {
-		ArrayList<Byte> output = new ArrayList<>();
-		
-		for(Byte b: ByteHelpers.intToBytes(this.leftChildPointer)) {
-			output.add(b);
-		}
-		
-		for(Byte b: ByteHelpers.intToBytes(this.getRowId())) {
-			output.add(b);
-		}
-		return output;
+	void writeTo(ByteBuffer buffer, int position) {
+		buffer.putInt(position, this.leftChildPointer);
+		buffer.putInt(position + START_OF_TABLE_INTERIOR_ROWID, this.getRowId());
 	}
 	
 	/**
@@ -82,14 +82,21 @@ public class TableInteriorPage extends Page{
 	 * @param pageHeader the page header in bytes on the disk
 	 */
 	public TableInteriorPage(byte[] pageHeader, int pageNumber, TableConfig tableConfig) {
+		this(ByteBuffer.wrap(pageHeader), pageNumber, tableConfig);
+	}
+	
+	/**
+	 * A constructor to recreate a TableInteriorPage object from a buffer holding it's byte representation stored in
+	 * the file.
+	 *
+	 * @param pageHeader a buffer holding the page in bytes on the disk
+	 */
+	TableInteriorPage(ByteBuffer pageHeader, int pageNumber, TableConfig tableConfig) {
 		super(pageHeader, pageNumber, tableConfig);
-		ByteBuffer headerBuffer = ByteBuffer.wrap(pageHeader);
-		
-		// Throw away page type, numOfCells, and startOfCellPointers since already assigned by call to super()
-		headerBuffer.getInt();
 		
-		// Get next 4 bytes from ByteBuffer,
-		this.nextPagePointer = headerBuffer.getInt();
+		// Skip page type, numOfCells, and startOfCellPointers since already assigned by call to super()
+		// and get the next 4 bytes
+		this.nextPagePointer = pageHeader.getInt(FOUR);
 	}
 	
 	/**
@@ -111,28 +118,19 @@ public class TableInteriorPage extends Page{
 	 * *****************************
 	 */
 	/**
-	 * Method returns  8-byte array to be stored at the beginning of each page and acts as a header containing only the
+	 * Method writes the 8-byte header stored at the beginning of each page which acts as a header containing only the
 	 * most basic information associated with reconstructing it from raw bytes.
-	 * @return an 8-byte page header formatted for a TableInteriorPage
+	 * @param buffer a page sized buffer, the header formatted for a TableInteriorPage is written starting at position 0
 	 */
 	@Override
-	public List<Byte> getHeaderBytes() {
-		ArrayList<Byte> tableInteriorPageHeader = new ArrayList<>();
-		
+	void writeHeader(ByteBuffer buffer) {
 		// Add header type code and number of data cells
-		tableInteriorPageHeader.add(PageType.TABLE_INTERIOR_PAGE.getByteCode());
-		tableInteriorPageHeader.add(getNumOfCells());
-		
-		// Convert `startOfCellPointers` to bytes and add to header
-		for(Byte b : shortToBytes(getStartOfCellPointers())) {
-			tableInteriorPageHeader.add(b);
-		}
+		buffer.put(ZERO, PageType.TABLE_INTERIOR_PAGE.getByteCode());
+		buffer.put(ONE, (byte)getNumOfCells());
 		
-		// Convert `nextPagePointer` to bytes and add to header
-		for(Byte b: intToBytes(this.nextPagePointer)) {
-			tableInteriorPageHeader.add(b);
-		}
-		return tableInteriorPageHeader;
+		// `startOfCellPointers` and `nextPagePointer`
+		buffer.putShort(TWO, getStartOfCellPointers());
+		buffer.putInt(FOUR, this.nextPagePointer);
 	}
 	
 	
@@ -155,6 +153,20 @@ public class TableInteriorPage extends Page{
 		return nextPagePointer != -ONE ? nextPagePointer : this.nextPagePointer;
 	}
 	
+	/**
+	 * Finds the child page for a rowId like `getNextPage` without changing the page, for threads reading it without
+	 * it's latch. The result only counts if the page's version is unchanged afterwards.
+	 * @param rowId the rowId being searched for
+	 * @return the page number of the child, -1 if the page must be latched and sorted first
+	 */
+	int readNextPage(int rowId) {
+		int nextPagePointer = readNextPageForRowId(rowId);
+		if (nextPagePointer == -TWO) {
+			return -ONE;
+		}
+		return nextPagePointer != -ONE ? nextPagePointer : this.nextPagePointer;
+	}
+	
 	/**
 	 * Collects and logs information about this page to the console.
 	 */
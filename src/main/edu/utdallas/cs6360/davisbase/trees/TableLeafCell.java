@@ -6,8 +6,6 @@ import java.nio.ByteBuffer;
 import java.util.*;
 
 import static edu.utdallas.cs6360.davisbase.trees.TreeConstants.*;
-import static edu.utdallas.cs6360.davisbase.utils.ByteHelpers.intToBytes;
-import static edu.utdallas.cs6360.davisbase.utils.ByteHelpers.shortToBytes;
 
 /**
  * Class to represent a TableLeafCell with a 6 byte(2 byte length, 4 byte rowId) and
@@ -64,10 +62,18 @@ public class TableLeafCell extends DataCell {
 	 * @param data the byte representation of a TableLeafCell
 	 */
 	TableLeafCell(byte[] data) {
-		super(Arrays.copyOfRange(data, START_OF_LEAF_CELL_ROW_ID, START_OF_LEAF_CELL_ROW_ID + Integer.BYTES));
-		int payLoadSize = ByteBuffer.wrap(data).getShort(Config.ZERO);
-		this.payload = new DataRecord(Arrays.copyOfRange(data, START_OF_LEAF_CELL_PAYLOAD, START_OF_LEAF_CELL_PAYLOAD
-				+ payLoadSize));
+		this(ByteBuffer.wrap(data), Config.ZERO);
+	}
+	
+	/**
+	 * Constructor to reinitialize an existing TableLeafCell straight from a buffer holding the data cells of a page
+	 * @param data a buffer holding the data cells in order
+	 * @param position the position in the buffer where this cell starts
+	 */
+	TableLeafCell(ByteBuffer data, int position) {
+		super(data.getInt(position + START_OF_LEAF_CELL_ROW_ID));
+		int payLoadSize = data.getShort(position);
+		this.payload = new DataRecord(data, position + START_OF_LEAF_CELL_PAYLOAD, payLoadSize);
 	}
 	
 	/**
@@ -80,29 +86,26 @@ public class TableLeafCell extends DataCell {
 	 * *****************************
 	 */
 	/**
-	 * Returns the byte representation of a TableLeafCell to write to the file
-	 * @return an ArrayList containing the  byte representation of the TableLeafCell
+	 * Getter for property 'payload'.
+	 *
+	 * @return the DataRecord stored in this TableLeafCell
 	 */
-	public List<Byte> getBytes() {
-		ArrayList<Byte> output = new ArrayList<>();
-		
-		// Get payload byte representation
-		ArrayList<Byte> payloadBytes= this.payload.getBytes();
-		
-		// Get payload size for cells 0-1 at the beginning of the header
-		for(Byte b : shortToBytes((short)payloadBytes.size())) {
-			output.add(b);
-		}
-		
-		// It rowId for bytes 2-5 of the header
-		for(Byte b : intToBytes(this.getRowId())) {
-			output.add(b);
-		}
-		
-		// Add payload to ArrayList
-		output.addAll(payloadBytes);
+	DataRecord getPayload() {
+		return this.payload;
+	}
+	
+	/**
+	 * Writes the byte representation of a TableLeafCell to write to the file
+	 * @param buffer the buffer to write to
+	 * @param position the position in the buffer to start writing at
+	 */
+	void writeTo(ByteBuffer buffer, int position) {
+		// Payload size for bytes 0-1 and the rowId for bytes 2-5 of the header
+		buffer.putShort(position, this.payload.size());
+		buffer.putInt(position + START_OF_LEAF_CELL_ROW_ID, this.getRowId());
 		
-		return output;
+		// Payload after the header
+		this.payload.writeTo(buffer, position + START_OF_LEAF_CELL_PAYLOAD);
 	}
 	
 	/**
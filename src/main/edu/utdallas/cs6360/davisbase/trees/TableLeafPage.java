@@ -1,13 +1,12 @@
 package edu.utdallas.cs6360.davisbase.trees;
 
+import java.nio.ByteBuffer;
 import java.util.*;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import static edu.utdallas.cs6360.davisbase.Config.*;
 import static edu.utdallas.cs6360.davisbase.trees.TreeConstants.*;
-import static edu.utdallas.cs6360.davisbase.utils.ByteHelpers.intToBytes;
-import static edu.utdallas.cs6360.davisbase.utils.ByteHelpers.shortToBytes;
 
 /**
  * Class to represent a leaf page in a file and it's cells
@@ -71,9 +70,22 @@ public class TableLeafPage extends Page{
 	 * @param pageNumber the pageNumber as it appears in the file
 	 */
 	TableLeafPage(byte[] data, int pageNumber, TableConfig tableConfig) {
+		this(ByteBuffer.wrap(data), pageNumber, tableConfig);
+	}
+	
+	/**
+	 * A constructor to recreate a TableLeafPage object from a buffer holding it's byte representation stored in the
+	 * file.
+	 *
+	 * @param data a buffer holding an entire page from a file
+	 * @param pageNumber the pageNumber as it appears in the file
+	 */
+	TableLeafPage(ByteBuffer data, int pageNumber, TableConfig tableConfig) {
 		super(data, pageNumber, tableConfig);
 		this.textColumns = tableConfig.hasTextColumns();
 		this.recordSizeNoText = tableConfig.getDataRecordSizeNoText();
+		// The next leaf in the linked list of leaves follows page type, numOfCells, and startOfCellPointers
+		this.nextPagePointer = data.getInt(FOUR);
 	}
 	
 	/**
@@ -92,10 +104,9 @@ public class TableLeafPage extends Page{
 	 * @return the requested TableLeafCell
 	 */
 	TableLeafCell getDataCell(int rowId) {
-		for(DataCell c : getDataCells()) {
-			if (c.getRowId() == rowId) {
-				return (TableLeafCell)c;
-			}
+		DataCell cell = getDataCellFromRowId(rowId);
+		if (cell != null) {
+			return (TableLeafCell)cell;
 		}
 		throw new IllegalArgumentException("DataCell not found");
 	}
@@ -128,28 +139,19 @@ public class TableLeafPage extends Page{
 	 * *****************************
 	 */
 	/**
-	 * Method returns  8-byte array to be stored at the beginning of each page and acts as a header containing only the
+	 * Method writes the 8-byte header stored at the beginning of each page which acts as a header containing only the
 	 * most basic information associated with reconstructing it from raw bytes.
-	 * @return an 8-byte page header formatted for a TableCellPage
+	 * @param buffer a page sized buffer, the header formatted for a TableLeafPage is written starting at position 0
 	 */
 	@Override
-	public List<Byte> getHeaderBytes() {
-		ArrayList<Byte> tableLeafCellHeader = new ArrayList<>();
-		
+	void writeHeader(ByteBuffer buffer) {
 		// Add header type code and number of data cells
-		tableLeafCellHeader.add(PageType.TABLE_LEAF_PAGE.getByteCode());
-		tableLeafCellHeader.add(getNumOfCells());
+		buffer.put(ZERO, PageType.TABLE_LEAF_PAGE.getByteCode());
+		buffer.put(ONE, (byte)getNumOfCells());
 		
-		// Convert `startOfCellPointers` to bytes and add to header
-		for(Byte b : shortToBytes(getStartOfCellPointers())) {
-			tableLeafCellHeader.add(b);
-		}
-		
-		// Convert `nextPagePointer` to bytes and add to header
-		for(Byte b: intToBytes(this.nextPagePointer)) {
-			tableLeafCellHeader.add(b);
-		}
-		return tableLeafCellHeader;
+		// `startOfCellPointers` and `nextPagePointer`
+		buffer.putShort(TWO, getStartOfCellPointers());
+		buffer.putInt(FOUR, this.nextPagePointer);
 	}
 	
 	/**
@@ -174,8 +176,8 @@ public class TableLeafPage extends Page{
 	short getSizeOfDataCells() {
 		if(this.textColumns) {
 			short num = ZERO;
-			for (DataCell leafCell : getDataCells()) {
-				num += leafCell.size();
+			for (int i = ZERO; i < getNumOfCells(); i++) {
+				num += getCellSize(i);
 			}
 			return num;
 		}
@@ -2,11 +2,15 @@ package edu.utdallas.cs6360.davisbase.trees;
 
 import edu.utdallas.cs6360.davisbase.Config;
 import edu.utdallas.cs6360.davisbase.DatabaseType;
+import edu.utdallas.cs6360.davisbase.StorageMode;
 import edu.utdallas.cs6360.davisbase.utils.FileHandler;
 
 import java.io.IOException;
-import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Optional;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -41,16 +45,29 @@ import static edu.utdallas.cs6360.davisbase.Config.*;
  *	    -Maybe function to get height from number of nodes?
  *	   	h <= logt((n+1)/2) => n >= 2t^(h) - 1
  *
+ * Concurrency: any number of threads may insert, delete, look up and scan rows of a tree at the same time. Every page
+ * has a latch, a read/write lock held only while the page is pinned, and threads couple latches on the way down: a
+ * reader latches the child before it releases the parent, and a writer keeps the pages above the child only while a
+ * split or merge of the child could change them. Pages a writer changed stay latched until it commits. A thread only
+ * waits for latches below or to the right of the ones it holds, a latch upwards or on a left sibling is only taken if
+ * it is free, so threads never wait on each other in a cycle. Page objects are never renumbered, a root that splits or
+ * collapses is replaced by a new object and the old one is marked obsolete. bulkLoad, flush and close need the tree
+ * to themselves.<br>
+ *
+ * With Config.OPTIMISTIC_LOCK_COUPLING lookups and scans do not latch the interior pages at all. Every page has a
+ * version that a writer makes odd while it holds the page's latch for changing it, a reader reads the version before
+ * and after it reads a page and starts over if it moved, so readers no longer contend on the latch of the root.<br>
+ *
+ * The file, the buffer pool, the latches and committing to the write-ahead log are handled by BPlusTree, which the
+ * tree shares with IndexTree. A TableTree is keyed by rowId, it's pages are searched with the raw rowIds stored in
+ * their cells.<br>
+ *
  * @author Charles Krol
  * @author Matthew Villarreal
  * @author Michael Del Rosario
  * @author Mithil Vijay
  */
-public class TableTree {
-	/**
-	 * The operation mode for the RandomAccessFile
-	 */
-	private static final String READ_WRITE_MODE = "rw";
+public class TableTree extends BPlusTree {
 	private static final int ZERO = 0;
 	
 	
@@ -59,63 +76,42 @@ public class TableTree {
 	 */
 	private static final Logger LOGGER = Logger.getLogger(TableTree.class.getName());
 	
-	/**
-	 * The name of the database this tree supports
-	 */
-	private String databaseName;
-	/**
-	 * The fully qualified filename for the file.
-	 * TODO: Might not need to store
-	 */
-	private String fileName;
-	
-	/**
-	 * The RandomAccessFile for the database. Saved so we do not have the make writes immediately to file, they can wait
-	 * until they are absolutely necessary
-	 */
-	private RandomAccessFile tableFile;
-	
-	/**
-	 * An enumarator that can take on the values of USER to represent a database created by the user or CATALOG to
-	 * represent a database created by the software to help manage the database
-	 */
-	private DatabaseType databaseType;
 	
 	/**
-	 * 	Holds metadata about the tree's configuration that all must be easily transferred between pages as we traverse
-	 * 	into the tree(#columns/types/etc) and calculates information about B-Trees such as as tree's degree degree.
+	 * The page numbers on the path from the root down to the rightmost leaf, where every new row goes since rowIds
+	 * only ever increase. Kept so appends do not have to descend the tree, null until the next append looks it up.
+	 * The list is replaced instead of changed so a thread can keep using the one it read, the pages on it are checked
+	 * once they are latched.
 	 */
-	private TableConfig treeConfig;
+	private volatile List<Integer> rightmostPath;
 	
-	/**
-	 * The logical root page of the tree which is also the first physical page in the file
-	 */
-	private Page root;
+	//private Page lastPage;
 	
 	/**
-	 * A placeholder used for splitting a node
+	 * To keep track of the largest rowId until IndexTables are implemented
+	 * TODO: Replace with call to index tables maybe?
+	 * Only changed while the rightmost leaf is latched for changing it.
 	 */
-	private Page newLeftChild;
+	private volatile int rowIdCounter;
 	
 	/**
-	 * Can used in conjunction with `largestPageNumber` to determine if a new page should be inserted at the end or if a
-	 * better location should be searched within the file.<br>
-	 *
-	 * This can also be used to determine if the file can be shrunk to reclaim empty pages
+	 * True if lookups and scans descend the tree with optimistic lock coupling, see Config.OPTIMISTIC_LOCK_COUPLING
 	 */
-	private int numOfPages;
-	
-	//private Page lastPage;
+	private volatile boolean optimisticReads = OPTIMISTIC_LOCK_COUPLING;
 	
 	/**
-	 * To keep track of the largest rowId until IndexTables are implemented
-	 * TODO: Replace with call to index tables maybe?
+	 * Functional interface used to check a row once it has it's rowId and before it is added to or deleted from the
+	 * table, see `insertBatch(List, RowCheck)` and `delete(int, int, RowCheck)`
 	 */
-	private int rowIdCounter;
-	
-	// TODO implement
-	private int numLeafPages;
-	private int numInteriorPages;
+	public interface RowCheck {
+		/**
+		 * Checks a row that is about to be added to or deleted from the table
+		 * @param rowId the rowId of the row
+		 * @param dataRecord the row
+		 * @return true to add or delete the row, false to leave the table as it is
+		 */
+		boolean accept(int rowId, DataRecord dataRecord);
+	}
 	
 	/**
 	 * Default constructor that sets fileName and databaseName to null and the DB type to USER
@@ -135,11 +131,44 @@ public class TableTree {
 	 * @param databaseName the name of the user table to access
 	 */
 	public TableTree(String databaseName, ArrayList<DataType> colTypes) {
+		this(databaseName, colTypes, PAGE_SIZE, STORAGE_MODE);
+	}
+	
+	/**
+	 * Constructor that accepts the table name and the page size for a new file as arguments. This constructor
+	 * assumes the table is a USER table and not a system catalog. If the table already exists the page size stored in
+	 * it's file header is used instead.
+	 * @param databaseName the name of the user table to access
+	 * @param pageSize the size of a page in bytes, see TableConfig.isValidPageSize
+	 */
+	public TableTree(String databaseName, ArrayList<DataType> colTypes, int pageSize) {
+		this(databaseName, colTypes, pageSize, STORAGE_MODE);
+	}
+	
+	/**
+	 * Constructor that accepts the table name and the storage mode for it's file as arguments. This constructor
+	 * assumes the table is a USER table and not a system catalog
+	 * @param databaseName the name of the user table to access
+	 * @param storageMode RANDOM_ACCESS or MEMORY_MAPPED
+	 */
+	public TableTree(String databaseName, ArrayList<DataType> colTypes, StorageMode storageMode) {
+		this(databaseName, colTypes, PAGE_SIZE, storageMode);
+	}
+	
+	/**
+	 * Constructor that accepts the table name, the page size for a new file, and the storage mode for it's file as
+	 * arguments. This constructor assumes the table is a USER table and not a system catalog
+	 * @param databaseName the name of the user table to access
+	 * @param pageSize the size of a page in bytes, see TableConfig.isValidPageSize
+	 * @param storageMode RANDOM_ACCESS or MEMORY_MAPPED
+	 */
+	public TableTree(String databaseName, ArrayList<DataType> colTypes, int pageSize, StorageMode storageMode) {
 		this.databaseName = databaseName;
 		this.databaseType = DatabaseType.USER;
+		this.storageMode = storageMode;
 		this.fileName = FileHandler.getTableFileName(this.databaseName, this.databaseType);
-		this.treeConfig = new TableConfig(colTypes);
-		openTreeFile();
+		this.treeConfig = new TableConfig(colTypes, pageSize);
+		open();
 		
 	}
 
@@ -157,8 +186,20 @@ public class TableTree {
 	 * @throws IOException
 	 */
 	public TableTree(String databaseName, DatabaseType type) throws IOException {
+		this(databaseName, type, STORAGE_MODE);
+	}
+	
+	/**
+	 * Constructor that accepts the table name, the database type, and the storage mode for it's file as arguments.
+	 * @param databaseName the name of the table to access
+	 * @param type DatabaseType.CATALOG or DatabaseType.USER
+	 * @param storageMode RANDOM_ACCESS or MEMORY_MAPPED
+	 * @throws IOException
+	 */
+	public TableTree(String databaseName, DatabaseType type, StorageMode storageMode) throws IOException {
 		this.databaseName = databaseName;
 		this.databaseType = type;
+		this.storageMode = storageMode;
 		if(databaseName.equals(Config.CATALOG_TABLE))
 		{
 			ArrayList<DataType> tableType = new ArrayList<DataType>();
@@ -175,10 +216,22 @@ public class TableTree {
 			dt.add(DataType.TEXT_TYPE_CODE);
 			this.treeConfig = new TableConfig(dt);
 		}
+		else if(databaseName.equals(Config.CATALOG_INDEX))
+		{
+			// index name, table name, ordinal positions of the indexed columns separated by commas, is unique, ordinal
+			// positions of the included columns separated by commas
+			ArrayList <DataType> dt = new ArrayList<DataType>();
+			dt.add(DataType.TEXT_TYPE_CODE);
+			dt.add(DataType.TEXT_TYPE_CODE);
+			dt.add(DataType.TEXT_TYPE_CODE);
+			dt.add(DataType.TEXT_TYPE_CODE);
+			dt.add(DataType.TEXT_TYPE_CODE);
+			this.treeConfig = new TableConfig(dt);
+		}
 
 		this.fileName = FileHandler.getTableFileName(this.databaseName, this.databaseType);
 //		System.out.println(fileName);
-		openTreeFile();
+		open();
 	}
 	
 	/**
@@ -192,661 +245,1234 @@ public class TableTree {
 	 */
 	
 	/**
-	 * 1-of-3 methods that make up the recursive B+Tree traversal insert algorithm.
 	 * This is insert method that other classes will call when the users or a system table need to make an insertion
-	 * into the file. This one implicitly calls the root page as our starting page.<br>
+	 * into the file. The row is given the next rowId and appended to the rightmost leaf, see `append`.<br>
 	 *
 	 * The datatypes and values are accepted to abstract away the the creation of the underlying DataCell classes that
 	 * hold the DataRecords
 	 * @param colTypes A List of byte type codes to represent the various data types that will be stored in this file
 	 * @param colValues the actual values of each column for this new row.
-	 *                  TODO:
-	 * @return the 4-byte of the newly inserted record, -1 if the insert failed
 	 */
 	public void insert(ArrayList<DataType> colTypes, ArrayList<String> colValues){
 		LOGGER.log(Level.INFO, "Entering insert(colTypes, colValues)");
-		if (!Optional.ofNullable(this.root).isPresent()) {
-			throw new IllegalStateException("Tree can't have null root");
-		}
+		checkOpen();
 		
 		// Check if valid insert
 		if (validInsert(colTypes, colValues)) {
 			LOGGER.log(Level.INFO, "Valid insert");
-			// Create new LeafCell so less to pass around
-			int newRowId = getRowIdCounter();
-			insert(new TableLeafCell(newRowId, new DataRecord(colTypes, colValues)));
-			
+			append(new DataRecord(colTypes, colValues));
+			commit();
 		}
 		// TODO: Count insertions, add in Config class
 		LOGGER.log(Level.INFO, "Exiting insert(colTypes, colValues)");
 	}
 	
 	/**
-	 * 1-of-3 methods that make up the recursive B+Tree traversal insert algorithm.
 	 * This is insert method that other classes will call when the users or a system table need to make an insertion
-	 * into the file. This one implicitly calls the root page as our starting page.<br>
+	 * into the file. The row is given the next rowId and appended to the rightmost leaf, see `append`.<br>
 	 *
 	 * The DataRecord is accepted with already initialized column types and values
 	 * @param dataRecord the DataRecord to insert into the Table
-	 *                  TODO:
-	 * @return the 4-byte of the newly inserted record, -1 if the insert failed
 	 */
 	public void insert(DataRecord dataRecord) {
 		LOGGER.log(Level.INFO, "Entering insert(DataRecord)");
-		if (!Optional.ofNullable(this.root).isPresent()) {
-			throw new IllegalStateException("Tree can't have null root");
-		}
+		checkOpen();
 		
 		if (validInsert(dataRecord)) {
 			LOGGER.log(Level.INFO, "Valid insert");
-			int newRowId = getRowIdCounter();
-			insert(new TableLeafCell(newRowId, dataRecord));
+			append(dataRecord);
+			commit();
 		}
 		LOGGER.log(Level.INFO, "Exiting insert(DataRecord)");
 	}
 	
 	/**
-	 * 2-of-3 methods that make up the recursive B+Tree traversal insert algorithm.
-	 * This method accepts a TableLeafCell created by either insert(DataRecord) or insert(DataType[], String[]). This
-	 * method first checks if the root is full and if it is then it is split. Before splitting though a new root must
-	 * first be created and a pointer to the old root inserted before moving on to split it.<br>
-	 *
-	 * Afterwards we call insertNonFull on the new root and continue trying to insert, else we call insertNonFull on the
-	 * old root.
-	 * @param newRecord a TableLeafCell with it's rowId that was created by one of the first insert methods.
-	 */
-	private void insert(TableLeafCell newRecord) {
-		LOGGER.log(Level.INFO, "Entering insert(TableLeafCell)");
-		// Check if root is is full and needs splitting
-		if (this.root.isFull(this.treeConfig)) {
-			// Save old root for the split function
-			this.newLeftChild = this.root;
-			
-			// Get the next free page number for its new position in the file
-			this.newLeftChild.setPageNumber(getNewPageNumber());
-			
-			// Create new root and save it since there will be no way to save it later
-			TableInteriorPage tmpNewPage = new TableInteriorPage(PageType.TABLE_INTERIOR_ROOT, ZERO, this.treeConfig);
-			
-			// Create a new data cell to store in the new root page that points to the left child
-			TableInteriorCell newRootCell = new TableInteriorCell(this.newLeftChild.getMaxRowId(), this.newLeftChild.getPageNumber());
-			
-			tmpNewPage.addDataCell(newRootCell);
-			
-			this.root = tmpNewPage;
-			
-			// Run split root
-			splitChildPage(tmpNewPage);
-			insertNonFull(tmpNewPage, newRecord);
-		} else {
-			insertNonFull(this.root, newRecord);
+	 * Inserts a batch of rows given as column values as a single operation
+	 * @param colTypes the data types of the columns of every row
+	 * @param rows the column values of each row, in the order they are given rowIds
+	 * @return the number of rows inserted
+	 * @see #insertBatch(List)
+	 */
+	public int insertBatch(ArrayList<DataType> colTypes, List<ArrayList<String>> rows) {
+		return insertBatch(colTypes, rows, null);
+	}
+	
+	/**
+	 * Inserts a batch of rows given as column values as a single operation, every row is checked by rowCheck first
+	 * @param colTypes the data types of the columns of every row
+	 * @param rows the column values of each row, in the order they are given rowIds
+	 * @param rowCheck checks each row before it is added, null to add every row
+	 * @return the number of rows inserted
+	 * @see #insertBatch(List, RowCheck)
+	 */
+	public int insertBatch(ArrayList<DataType> colTypes, List<ArrayList<String>> rows, RowCheck rowCheck) {
+		ArrayList<DataRecord> records = new ArrayList<>(rows.size());
+		for (ArrayList<String> colValues : rows) {
+			validInsert(colTypes, colValues);
+			records.add(new DataRecord(colTypes, colValues));
 		}
-		LOGGER.log(Level.INFO, "Exiting insert(TableLeafCell)");
+		return insertBatch(records, rowCheck);
 	}
 	
 	/**
-	 * 3-of-3 methods for inserting a new record into a table. This is called from method 2-of-3 and assumes that the
-	 * the current page is non-full, but one of the children we may recurse into might be full.<br>
+	 * Inserts a batch of rows. Every row is checked before any is inserted, then the rows are given consecutive rowIds
+	 * and added to the rightmost leaf one after the other.<br>
 	 *
-	 * If this is a leaf page then assuming this is not a duplicate entry we simply insert it, increase the
-	 * rowIdCounter, and write the new page to file.<br>
+	 * The rightmost leaf stays latched for the whole batch and the batch is logged and committed once. Other threads
+	 * wait for every page the batch changed until it commits, so a batch that changed Config.MAX_LATCHED_PAGES pages
+	 * commits the rows inserted so far and carries on. It also commits them when a page above the leaf that has to
+	 * split is busy, before it waits for the path from the root.
+	 * @param records the rows to insert, in the order they are given rowIds
+	 * @return the number of rows inserted
+	 */
+	public int insertBatch(List<DataRecord> records) {
+		return insertBatch(records, null);
+	}
+	
+	/**
+	 * Inserts a batch of rows like `insertBatch(List)`, every row is checked by rowCheck before it is added.<br>
 	 *
-	 * Else this is not a leaf cell and we must continue traversing down the tree. After finding the correct child to
-	 * traverse into it checks if the child is full and starts a split operation. All the work is handled by the split
-	 * method this time as it was only for splitting the root was there extra work. After splitting the method decides
-	 * which of the pages is the correct one after the split and then is traverses into it accordingly.
-	 * @param currentPage the page following the page that called this method
-	 * @param tableLeafCell the new DataRecord to insert wrapped in a tableLeafCell with it's rowId
-	 */
-	private void insertNonFull(Page currentPage, TableLeafCell tableLeafCell) {
-		LOGGER.log(Level.INFO, "Entering insertNonFull()");
-		int rowId = tableLeafCell.getRowId();
-		if(currentPage.isLeaf()) {
-			// In Leaf, double check there isn't a duplicate and if there throw an exception, otherwise insert
-			TableLeafPage leaf = (TableLeafPage)currentPage;
-			
-			if(leaf.contains(tableLeafCell)) {
-				throw new IllegalStateException("Error, there is a duplicate entry");
+	 * The check is made once the row has it's rowId, with the rightmost leaf latched, so a row it turns down is never
+	 * written to the table and does not use up it's rowId. This is where the entries of a row are added to the indexes
+	 * of the table, a unique index turns the row down if another row has the same values. The check must not use this
+	 * tree. An index commits on it's own, so after a crash it may hold entries of rows the table never committed, an
+	 * index is only as current as the table's write-ahead log.
+	 * @param records the rows to insert, in the order they are given rowIds
+	 * @param rowCheck checks each row before it is added, null to add every row
+	 * @return the number of rows inserted
+	 */
+	public int insertBatch(List<DataRecord> records, RowCheck rowCheck) {
+		LOGGER.log(Level.INFO, "Entering insertBatch()");
+		checkOpen();
+		for (DataRecord dataRecord : records) {
+			validInsert(dataRecord);
+		}
+	
+		Operation current = this.operation.get();
+		ArrayList<Integer> path = new ArrayList<>();
+		ArrayList<Page> latched = new ArrayList<>();
+		int inserted = ZERO;
+		for (DataRecord dataRecord : records) {
+			if (latched.isEmpty()) {
+				latchRightmostPath(path, latched);
+			} else if (!tryLatchAncestors(path, latched)) {
+				releaseRightmostPath(path, latched);
+				commit();
+				latchRightmostPath(path, latched);
 			}
-			currentPage.addDataCell(tableLeafCell);
-			incrementRowIdCounter();
-			currentPage.writePage(tableFile);
-		}
-		if(currentPage.isInterior()) {
-			TableInteriorPage currentInteriorPage = (TableInteriorPage)currentPage;
-			// Get the next page number to traverse to and load it from the file
-			int nextPageNum = currentInteriorPage.getNextPage(rowId);
-			Page nextPage = getPage(nextPageNum);
-			int nextPagePtr;
-			if (nextPage.isFull(treeConfig)) {
-				this.newLeftChild = nextPage;
-				splitChildPage((TableInteriorPage) currentPage);
-				
-				if (rowId >= nextPage.getMaxRowId()) {
-					nextPagePtr = ((TableInteriorPage) currentPage).getNextPagePointer();
-				} else {
-					nextPagePtr = ((TableInteriorCell)currentPage.getFirst()).getLeftChildPointer();
-				}
-				this.newLeftChild = null;
-				nextPage = getPage(nextPagePtr);
+			if (appendToLatchedLeaf(path, latched, dataRecord, rowCheck)) {
+				inserted++;
+			}
+			if (current.heldPages.size() >= MAX_LATCHED_PAGES) {
+				releaseRightmostPath(path, latched);
+				commit();
 			}
-			insertNonFull(nextPage, tableLeafCell);
 		}
-		LOGGER.log(Level.INFO, "Exiting insertNonFull()");
+		releaseRightmostPath(path, latched);
+		commit();
+		LOGGER.log(Level.INFO, "Exiting insertBatch()");
+		return inserted;
 	}
 	
 	/**
-	 * Checks to see if the given insert of colTypes and colValues are valid. Input validation should be done at the
-	 * front end
-	 * @param colTypes array of bytes that represent each column's data types
-	 * @param colValues the actual values that will be stored in each column.
-	 * @return true if this is a valid insert false otherwise
+	 * *****************************
+	 * *****************************
+	 * *****************************
+	 *    Append Methods & helpers
+	 * *****************************
+	 * *****************************
+	 * *****************************
 	 */
-	boolean validInsert(ArrayList<DataType> colTypes, ArrayList<String> colValues) {
-		if(!DataType.sameColTypes(colTypes, treeConfig.getColTypes())) {
-			throw new IllegalArgumentException("Given column data types do not match this tree's column data types");
+	
+	/**
+	 * Inserts a row into the rightmost leaf, where every new row goes since rowIds only ever increase. The row is given
+	 * the next rowId while the leaf is latched, so rows inserted by several threads at once get their rowIds in the
+	 * order they reach the leaf.
+	 * @param dataRecord the row to insert
+	 */
+	private void append(DataRecord dataRecord) {
+		ArrayList<Integer> path = new ArrayList<>();
+		ArrayList<Page> latched = new ArrayList<>();
+		latchRightmostPath(path, latched);
+		appendToLatchedLeaf(path, latched, dataRecord, null);
+		releaseRightmostPath(path, latched);
+	}
+	
+	/**
+	 * Latches the rightmost leaf for changing it, along with every page above it a split of the leaf would change.<br>
+	 *
+	 * The remembered path is tried first, from the leaf up, so an append does not have to descend the tree. If it is
+	 * out of date or a page above the leaf is busy the rightmost edge is latched from the root down instead, and the
+	 * pages above a child that is not full are released as soon as the child is latched.
+	 * @param path filled with the page numbers from the root down to the rightmost leaf
+	 * @param latched filled with the latched pages, from the highest one a split changes down to the leaf
+	 */
+	private void latchRightmostPath(ArrayList<Integer> path, ArrayList<Page> latched) {
+		path.clear();
+		List<Integer> remembered = this.rightmostPath;
+		if (remembered != null && getFreeSpaceMap().isAllocated(remembered.get(remembered.size() - ONE))) {
+			Page leaf = latchPage(remembered.get(remembered.size() - ONE), true);
+			latched.add(leaf);
+			if (!leaf.isObsolete() && leaf.isLeaf() && ((TableLeafPage) leaf).getNextPagePointer() == -ONE &&
+					tryLatchAncestors(remembered, latched)) {
+				path.addAll(remembered);
+				return;
+			}
+			unlatchAll(latched);
 		}
 		
-		if(colTypes.size() != colValues.size()) {
-			throw new IllegalArgumentException("The column type arrays and the column values array have different " +
-					"sizes");
+		Page page = latchRoot(true, true);
+		path.add((int) ROOT_PAGE_NUMBER);
+		latched.add(page);
+		while (page.isInterior()) {
+			int next = ((TableInteriorPage) page).getNextPagePointer();
+			page = latchPage(next, true);
+			if (!page.isFull(this.treeConfig)) {
+				// The child will not split, nothing above it changes
+				unlatchAll(latched);
+			}
+			path.add(next);
+			latched.add(page);
+		}
+	}
+	
+	/**
+	 * Latches the pages above the highest latched page of the rightmost path for as long as they are full, so every
+	 * page a split of the rightmost leaf changes is latched. Going up is against the order every other thread latches
+	 * pages in, so a page is only latched if it's latch is free, and it must still have the page below it as it's
+	 * rightmost child.
+	 * @param path the page numbers from the root down to the rightmost leaf
+	 * @param latched the latched pages of the path, from the highest one down to the leaf. The pages latched here are
+	 *                added to the front.
+	 * @return true if every page the split changes is latched, false if a page was busy or the path is out of date
+	 */
+	private boolean tryLatchAncestors(List<Integer> path, ArrayList<Page> latched) {
+		int level = path.size() - latched.size();
+		Page child = latched.get(ZERO);
+		while (child.isFull(this.treeConfig) && level > ZERO) {
+			Page parent = tryLatchPage(path.get(level - ONE), true);
+			if (parent == null) {
+				return false;
+			}
+			latched.add(ZERO, parent);
+			if (parent.isObsolete() || !parent.isInterior() ||
+					((TableInteriorPage) parent).getNextPagePointer() != child.getPageNumber()) {
+				return false;
+			}
+			child = parent;
+			level--;
 		}
 		return true;
 	}
 	
 	/**
-	 * Checks to see if the given insert of this DataRecord is valid for this table. Input validation should be done at
-	 * the front end
-	 * @param dataRecord a DataRecord to insert ito the table
-	 * @return true if this is a valid insert false otherwise
+	 * Adds a row to the rightmost leaf latched by latchRightmostPath and gives it the next rowId, if the row passes
+	 * the check. A full leaf is split first, afterwards only the new rightmost leaf is left on the latched path, the
+	 * pages changed by the split stay latched until the commit.
+	 * @param path the page numbers from the root down to the rightmost leaf
+	 * @param latched the latched pages of the path, from the highest one a split changes down to the leaf
+	 * @param dataRecord the row to add
+	 * @param rowCheck checks the row before it is added, null to add it
+	 * @return true if the row was added, false if the check turned it down
 	 */
-	boolean validInsert(DataRecord dataRecord) {
-		if(!DataType.sameColTypes(dataRecord.getColumnDataTypes(), treeConfig.getColTypes())) {
-			throw new IllegalArgumentException("Given column data types do not match this tree's column data types");
+	private boolean appendToLatchedLeaf(ArrayList<Integer> path, ArrayList<Page> latched, DataRecord dataRecord,
+										RowCheck rowCheck) {
+		Page leaf = latched.get(latched.size() - ONE);
+		if (!leaf.isEmpty() && this.rowIdCounter <= leaf.getMaxRowId()) {
+			// RowIds are never handed out twice, the counter moves past a row it did not give out itself
+			this.rowIdCounter = leaf.getMaxRowId() + ONE;
+		}
+		if (rowCheck != null && !rowCheck.accept(this.rowIdCounter, dataRecord)) {
+			LOGGER.log(Level.INFO, "Row {0} was turned down by the row check", this.rowIdCounter);
+			return false;
+		}
+		if (leaf.isFull(this.treeConfig)) {
+			splitRightmostPage(path, path.size() - ONE, this.rowIdCounter);
+			unlatchAll(latched);
+			leaf = latchPage(path.get(path.size() - ONE), true);
+			latched.add(leaf);
 		}
+		leaf.addDataCell(new TableLeafCell(this.rowIdCounter, dataRecord));
+		incrementRowIdCounter();
+		this.operation.get().rowIdCounter = this.rowIdCounter;
+		// The leaf takes the rest of the batch, it is encoded once when the rows are committed or it splits
+		writePageAtCommit(leaf);
 		return true;
 	}
 	
 	/**
-	 * *****************************
-	 * *****************************
-	 * *****************************
-	 * Split/Merge Methods & helpers
-	 * *****************************
-	 * *****************************
-	 * *****************************
+	 * Releases the pages latched by latchRightmostPath and remembers the path for the next append
+	 * @param path the page numbers from the root down to the rightmost leaf, cleared afterwards
+	 * @param latched the latched pages of the path, cleared afterwards
 	 */
+	private void releaseRightmostPath(ArrayList<Integer> path, ArrayList<Page> latched) {
+		unlatchAll(latched);
+		if (!path.isEmpty()) {
+			this.rightmostPath = Collections.unmodifiableList(new ArrayList<>(path));
+			path.clear();
+		}
+	}
 	
 	/**
-	 * This method when given a parent page will split one of it's children. The child to be split is assumed to have
-	 * already been saved in newLeftChild.<br>
-	 *
-	 * The page is split on the middle/median entry when the cells are sorted by rowId. The median entry will go to the
-	 * newRightChild, but it's rowId will be used to update the rowId of the pointer to newLeftChild. <br>
-	 *     Before the split the pointer to the newLeftChild was the minRowId of the page immediately to the left, that
-	 *     pointer will be updated to the median rowId as that will be the minRowId of the newRightChild. <br>
+	 * Splits the full page at the given level of the rightmost path for an append. The parent is split first if it is
+	 * full too, and a full root gets a new root above it, so the split works from the bottom of the path up without
+	 * descending the tree. Every page the split changes must be latched by this thread.<br>
 	 *
-	 * If the newRightChild is not the far right child then a new pointer to the newRightChild will be placed in the
-	 * parent with the minRowId of the page immediately to the right. If it is the far right child then the rightPointer
-	 * of the parent page will be updated to point to the newRightChild and the medianRowId(now the minRowId of
-	 * newRightChild) will be used to insert a new pointer in the parent to the newLeftChild. <br>
-	 *
-	 * After the new pages and their pointers are created the all values >= to the medianRowId will be moved over to the
-	 * newRightChild. Afterwards the pages will be written to disk and the pointer to the newLeftChild is cleared to be
-	 * safe.
-	 * @param parentPage the parent page of the page to be split
-	 */
-	private void splitChildPage(TableInteriorPage parentPage) {
-		LOGGER.log(Level.INFO, "Entering splitChildPage()");
-		// Assuming a parent Interior Page
-		DataCell dataCell;
-		Page rightChild = null;
-//		int medianRowId = this.newLeftChild.getMedianRowId();
-		
-		// If leaf Page, create a new leaf page
-		if (this.newLeftChild.isLeaf()) {
-			rightChild = newRightLeafPage(parentPage);
-			TableLeafPage leftChild = (TableLeafPage)this.newLeftChild;
-			moveCellsToRight(leftChild, rightChild);
-		}
-		if (this.newLeftChild.isInterior()) {
-			rightChild = newRightInteriorPage(parentPage);
-			TableInteriorPage leftChild = (TableInteriorPage) this.newLeftChild;
-			moveCellsToRight(leftChild, rightChild);
+	 * Every later row goes to the right of the split, so instead of splitting at the median the left page keeps
+	 * Config.APPEND_SPLIT_FILL_FACTOR of it's cells and is never written to again. The new right page takes the
+	 * rest and replaces the old page on the rightmost path.
+	 * @param path the page numbers from the root down to the rightmost leaf, updated to the path after the split
+	 * @param level the level of the full page, 0 is the root
+	 * @param newRowId the rowId of the row being appended
+	 */
+	private void splitRightmostPage(ArrayList<Integer> path, int level, int newRowId) {
+		LOGGER.log(Level.INFO, "Entering splitRightmostPage()");
+		if (level == ZERO) {
+			// The old root's cells move to a new page and the new root starts with it as it's only child. The root is a
+			// new page object, threads waiting for the latch of the old one find it obsolete and look the root up again
+			Page oldRoot = getPage(ROOT_PAGE_NUMBER);
+			int childPageNumber = getNewPageNumber();
+			Page child = oldRoot.isLeaf() ?
+					new TableLeafPage(PageType.TABLE_LEAF_PAGE, childPageNumber, -ONE, this.treeConfig) :
+					new TableInteriorPage(PageType.TABLE_INTERIOR_PAGE, childPageNumber,
+							((TableInteriorPage) oldRoot).getNextPagePointer(), this.treeConfig);
+			moveCellsFrom(oldRoot, ZERO, child);
+			Page newRoot = new TableInteriorPage(PageType.TABLE_INTERIOR_ROOT, ZERO, childPageNumber, this.treeConfig);
+			writePage(child);
+			writePage(newRoot);
+			oldRoot.setObsolete();
+			releasePage(oldRoot);
+			Operation current = this.operation.get();
+			current.countPage(child, ONE);
+			current.countPage(oldRoot, -ONE);
+			current.countPage(newRoot, ONE);
+			current.heightChange++;
+			path.set(ZERO, childPageNumber);
+			path.add(ZERO, (int) ROOT_PAGE_NUMBER);
+			level = ONE;
+		} else {
+			Page parent = getPage(path.get(level - ONE));
+			boolean parentFull = parent.isFull(this.treeConfig);
+			releasePage(parent);
+			if (parentFull) {
+				int height = path.size();
+				splitRightmostPage(path, level - ONE, newRowId);
+				// Splitting the root adds a level above this page
+				level += path.size() - height;
+			}
 		}
 		
-		this.newLeftChild.writePage(tableFile);
-		this.newLeftChild = null;
-		rightChild.writePage(tableFile);
-		parentPage.writePage(tableFile);
+		TableInteriorPage parent = (TableInteriorPage) getPage(path.get(level - ONE));
+		Page leftChild = getPage(path.get(level));
+		int numOfCells = leftChild.getNumOfCells();
+		int separatorRowId;
+		Page rightChild;
+		if (leftChild.isLeaf()) {
+			int keep = Math.max(ONE, Math.min(numOfCells, (int) (numOfCells * APPEND_SPLIT_FILL_FACTOR)));
+			TableLeafPage leftLeaf = (TableLeafPage) leftChild;
+			TableLeafPage rightLeaf = new TableLeafPage(PageType.TABLE_LEAF_PAGE,
+					getNewPageNumber(leftLeaf.getPageNumber()), leftLeaf.getNextPagePointer(), this.treeConfig);
+			leftLeaf.setNextPagePointer(rightLeaf.getPageNumber());
+			moveCellsFrom(leftLeaf, keep, rightLeaf);
+			// An empty right leaf starts with the row being appended
+			separatorRowId = rightLeaf.isEmpty() ? newRowId : rightLeaf.getMinRowId();
+			rightChild = rightLeaf;
+		} else {
+			// The cell after the ones kept moves up, it's left child becomes the left page's rightmost child
+			int keep = Math.max(ZERO, Math.min(numOfCells - ONE, (int) (numOfCells * APPEND_SPLIT_FILL_FACTOR)));
+			TableInteriorPage leftInterior = (TableInteriorPage) leftChild;
+			TableInteriorPage rightInterior = new TableInteriorPage(PageType.TABLE_INTERIOR_PAGE,
+					getNewPageNumber(leftInterior.getPageNumber()), leftInterior.getNextPagePointer(),
+					this.treeConfig);
+			moveCellsFrom(leftInterior, keep, rightInterior);
+			TableInteriorCell separator = (TableInteriorCell) rightInterior.getFirst();
+			rightInterior.removeCell(separator.getRowId());
+			leftInterior.setNextPagePointer(separator.getLeftChildPointer());
+			separatorRowId = separator.getRowId();
+			rightChild = rightInterior;
+		}
+		parent.addDataCell(new TableInteriorCell(separatorRowId, leftChild.getPageNumber()));
+		parent.setNextPagePointer(rightChild.getPageNumber());
+		path.set(level, rightChild.getPageNumber());
+		this.operation.get().countPage(rightChild, ONE);
 		
-		LOGGER.log(Level.INFO, "Exiting splitChildPage()");
+		writePage(leftChild);
+		writePage(rightChild);
+		writePage(parent);
+		releasePage(leftChild);
+		releasePage(parent);
+		LOGGER.log(Level.INFO, "Exiting splitRightmostPage()");
 	}
 	
 	/**
-	 * Moved all DataCells with rowId >= medianRowId over to the newRightChild of a split.
-	 * @param leftChild the original page that is being split
-	 * @param rightChild the new page we need to move around half of the leftChild's entries to
+	 * Moves the DataCells of a page from the given position on over to another page
+	 * @param from the page to move DataCells out of, sorted by rowId
+	 * @param keep the number of DataCells to leave behind
+	 * @param to the page to move the DataCells into
 	 */
-	private void moveCellsToRight(Page leftChild, Page rightChild) {
-		int medianRowId = leftChild.getMedianRowId();
+	private void moveCellsFrom(Page from, int keep, Page to) {
+		from.sort();
 		ArrayList<DataCell> moveList = new ArrayList<>();
-		for(DataCell cell : leftChild.getDataCells()) {
-			if (cell.getRowId() >= medianRowId) {
-				// Move to right child,  Remove from left
-				moveList.add(leftChild.getDataCellFromRowId(cell.getRowId()));
-				// If == media row ID then remove as it is now a key in the new parent
-			}
+		for (int i = keep; i < from.getNumOfCells(); i++) {
+			moveList.add(from.getDataCells().get(i));
 		}
-		// Check if it was the root and adjust the PageType
-		if (leftChild.isRoot()) {
-			if (leftChild.isLeaf()) {
-				leftChild.setPageType(PageType.TABLE_LEAF_PAGE);
-			} else {
-				leftChild.setPageType(PageType.TABLE_INTERIOR_PAGE);
-			}
-		}
-		// Move the cells over
-		leftChild.removeList(moveList);
-		rightChild.addList(moveList);
+		from.removeList(moveList);
+		to.addList(moveList);
 	}
 	
 	/**
-	 * When splitting a page this method is called when creating a new leaf page.
-	 *
-	 * The nextPagePointer of the original leaf is moved over to the rightChild so as to continue the linked list of
-	 * leaves. The newRightChild's pageNumber is added as the leftChilds nextPagePointer.<br>
-	 *
-	 *
-	 * Before the split the pointer to the newLeftChild was the minRowId of the page immediately to the left, that
-	 * pointer will be updated to the median rowId as that will be the minRowId of the newRightChild. <br>
+	 * *****************************
+	 * *****************************
+	 * *****************************
+	 *  Bulk Load Methods & helpers
+	 * *****************************
+	 * *****************************
+	 * *****************************
+	 */
+	
+	/**
+	 * Loads rows into the table, packing pages to Config.BULK_LOAD_FILL_FACTOR
+	 * @param records the rows to load, they are given rowIds in the order they are returned
+	 * @see #bulkLoad(Iterator, double)
+	 */
+	public void bulkLoad(Iterator<DataRecord> records) {
+		bulkLoad(records, BULK_LOAD_FILL_FACTOR);
+	}
+	
+	/**
+	 * Loads rows into an empty table bottom-up instead of inserting them one at a time.<br>
 	 *
-	 * If the newRightChild is not the far right child then a new pointer to the newRightChild will be placed in the
-	 * parent with the minRowId of the page immediately to the right. If it is the far right child then the rightPointer
-	 * of the parent page will be updated to point to the newRightChild and the medianRowId(now the minRowId of
-	 * newRightChild) will be used to insert a new pointer in the parent to the newLeftChild. <br>
+	 * RowIds only ever increase so the rows arrive sorted. Leaves are filled left to right up to the fill factor and
+	 * linked through their nextPagePointer, every leaf after the first is allocated next to the one before it. When a
+	 * leaf is finished a pointer to it is pushed into the level above, which is filled the same way and pushes it's
+	 * own finished pages further up, so the whole tree is built in one pass and every page is written exactly once.
+	 * The last page of each level becomes the rightmost child of the level above and the top page becomes the root.<br>
 	 *
+	 * The new pages are not logged. They go straight to the page flusher and are forced to the file before the root
+	 * and the free space map are committed through the write-ahead log, so after a crash the table is either empty
+	 * or fully loaded. A table whose rows were all deleted hands the loader page numbers whose older images may still
+	 * be in the log, so a checkpoint is taken first and recovery never redoes those images over the new pages.<br>
 	 *
-	 * @param splitParent the page parenting the split
-	 * @return new TableLeafPage with all pointers correctly set, just absent of DataCells
-	 */
-	private TableLeafPage newRightLeafPage(TableInteriorPage splitParent) {
-		LOGGER.log(Level.INFO, "Entering newRightLeafPage()");
-		// Cast to TableLeafPage so we can access the subclass' getters/setters
-		TableLeafPage tmpLeafPage = (TableLeafPage) this.newLeftChild;
-		// Create new right child leaf page and store leftChild's rightPointer as the rightChild's new right pointer
-		TableLeafPage rightChild = new TableLeafPage(PageType.TABLE_LEAF_PAGE, getNewPageNumber(), tmpLeafPage.getNextPagePointer(), treeConfig);
+	 * A table that already has rows, or one the checkpoint fails for, is loaded with the normal insert, one row at a
+	 * time.
+	 * @param records the rows to load, they are given rowIds in the order they are returned
+	 * @param fillFactor how full to pack each page, as a fraction of the most cells a page may hold
+	 */
+	public void bulkLoad(Iterator<DataRecord> records, double fillFactor) {
+		LOGGER.log(Level.INFO, "Entering bulkLoad()");
+		if (fillFactor <= ZERO || fillFactor > ONE) {
+			throw new IllegalArgumentException("Fill factor must be greater than 0 and at most 1: " + fillFactor);
+		}
+		checkOpen();
+		Page currentRoot = latchRoot(false, true);
+		boolean empty = currentRoot.isLeaf() && currentRoot.getNumOfCells() == ZERO;
+		unlatchPage(currentRoot);
+		if (!empty) {
+			LOGGER.log(Level.INFO, "Table is not empty, inserting rows one at a time");
+			records.forEachRemaining(this::insert);
+			return;
+		}
+		if (!checkpointBeforeBulkLoad()) {
+			LOGGER.log(Level.WARNING, "Checkpoint failed, inserting rows one at a time");
+			records.forEachRemaining(this::insert);
+			return;
+		}
 		
-		// Switch the left child's rightPointer to the right child's new page number
-		tmpLeafPage.setNextPagePointer(rightChild.getPageNumber());
+		int maxInteriorCells = this.treeConfig.getMaxInteriorPageCells();
+		int leafCapacity = Math.max(ONE, (int) (this.treeConfig.getMaxLeafPageRecords() * fillFactor));
+		// An interior page is left one cell short so it can still take the pointer it is finished with
+		int interiorCapacity = Math.max(ONE, Math.min((int) (maxInteriorCells * fillFactor), maxInteriorCells - ONE));
 		
-		// Add pointer of new tree to old parent
-		int medianRowId = this.newLeftChild.getMedianRowId();
-		int maxIdInLeft = this.newLeftChild.getMaxRowId();
-		int minIdInLeft = this.newLeftChild.getMinRowId();
-		int maxIdInParent = splitParent.getMaxRowId();
+		ArrayList<BulkLoadLevel> levels = new ArrayList<>();
+		TableLeafPage leaf = new TableLeafPage(PageType.TABLE_LEAF_PAGE, -ONE, -ONE, this.treeConfig);
+		while (records.hasNext()) {
+			DataRecord record = records.next();
+			validInsert(record);
+			if (leaf.getNumOfCells() == leafCapacity) {
+				if (leaf.getPageNumber() == -ONE) {
+					leaf.setPageNumber(getNewPageNumber());
+				}
+				TableLeafPage nextLeaf = new TableLeafPage(PageType.TABLE_LEAF_PAGE,
+						getNewPageNumber(leaf.getPageNumber()), -ONE, this.treeConfig);
+				leaf.setNextPagePointer(nextLeaf.getPageNumber());
+				writeBulkPage(leaf);
+				pushToLevel(levels, ZERO, leaf.getPageNumber(), this.rowIdCounter, interiorCapacity);
+				leaf = nextLeaf;
+			}
+			leaf.addDataCell(new TableLeafCell(this.rowIdCounter, record));
+			this.rowIdCounter++;
+		}
 		
-		if(splitParent.isRoot() && splitParent.getNumOfCells() == ONE && splitParent.getMaxRowId() ==
-				newLeftChild.getMaxRowId()) {
-			// This is the first split set the rightChild as the nextPagePointer and update the leftChildPointer to
-			// the median rowId
-			splitParent.getDataCells().get(ZERO).setRowId(medianRowId);
-			splitParent.setNextPagePointer(rightChild.getPageNumber());
-		} else if (maxIdInParent == minIdInLeft) {
-			// Far Right Page
-			// Insert new Data Cell to point to left child as there is no pointer to this cell in the parent
-			TableInteriorCell newLeftPointer = new TableInteriorCell(medianRowId, newLeftChild.getPageNumber());
-			splitParent.addDataCell(newLeftPointer);
-			// Update rightPagePointer of Parent
-			splitParent.setNextPagePointer(rightChild.getPageNumber());
+		Page newRoot;
+		if (levels.isEmpty()) {
+			// Every row fit in one leaf, it stays the root
+			leaf.setPageNumber(ROOT_PAGE_NUMBER);
+			leaf.setPageType(PageType.TABLE_LEAF_ROOT);
+			newRoot = leaf;
 		} else {
-			// Update leftChild's pointer in parent to median value
-			TableInteriorCell parentLeftPointer =
-					(TableInteriorCell) splitParent.getDataCellFromRowId(maxIdInLeft);
-			parentLeftPointer.setRowId(medianRowId);
-			
-			// Go to next leaf page in LinkedList chain on bottom row of the page
-			TableLeafPage nextLeafPage = (TableLeafPage)getPage(rightChild.getNextPagePointer());
-			// Get smallest value from it, this is the rowId for the new TableInteriorCell to put in the parent
-			TableInteriorCell newRightPointer = new TableInteriorCell(nextLeafPage.getMinRowId(), rightChild.getPageNumber());
-			splitParent.addDataCell(newRightPointer);
+			writeBulkPage(leaf);
+			int rightmostChild = leaf.getPageNumber();
+			for (int level = ZERO; level < levels.size(); level++) {
+				BulkLoadLevel current = levels.get(level);
+				if (current.pendingChild != -ONE) {
+					current.page.addDataCell(new TableInteriorCell(current.pendingKey, current.pendingChild));
+				}
+				current.page.setNextPagePointer(rightmostChild);
+				if (level < levels.size() - ONE) {
+					current.page.setPageNumber(getNewPageNumber(rightmostChild));
+					writeBulkPage(current.page);
+					rightmostChild = current.page.getPageNumber();
+				}
+			}
+			newRoot = levels.get(levels.size() - ONE).page;
+			newRoot.setPageNumber(ROOT_PAGE_NUMBER);
+			newRoot.setPageType(PageType.TABLE_INTERIOR_ROOT);
+			// The root leaf is replaced by the interior root above the levels
+			Operation current = this.operation.get();
+			current.countPage(currentRoot, -ONE);
+			current.countPage(newRoot, ONE);
+			current.heightChange += levels.size();
 		}
-		LOGGER.log(Level.INFO, "Exiting newRightLeafPage()");
-		return rightChild;
+		this.operation.get().rowIdCounter = this.rowIdCounter;
+		
+		// Every other page must be on the storage device before the root that makes them reachable is committed
+		this.pageFlusher.flush();
+		try {
+			this.tableFile.force();
+		} catch (IOException e) {
+			LOGGER.log(Level.SEVERE, e.toString());
+		}
+		// The buffer pool marks the old root object obsolete when the new one replaces it
+		writePage(newRoot);
+		this.rightmostPath = null;
+		commit();
+		LOGGER.log(Level.INFO, "Exiting bulkLoad(), rows: {0}, pages: {1}",
+				new Object[]{this.rowIdCounter, getNumOfPages()});
 	}
 	
 	/**
-	 * When splitting a page this method is called when creating a new leaf page.
-	 *
-	 * The nextPagePointer of the original leaf is moved over to the rightChild<br>
-	 *
-	 
-	 * Before the split the pointer to the newLeftChild was the minRowId of the page immediately to the left, that
-	 * pointer will be updated to the median rowId as that will be the minRowId of the newRightChild. <br>
-	 *
-	 * If the newRightChild is not the far right child then a new pointer to the newRightChild will be placed in the
-	 * parent with the minRowId of the page immediately to the right. If it is the far right child then the rightPointer
-	 * of the parent page will be updated to point to the newRightChild and the medianRowId(now the minRowId of
-	 * newRightChild) will be used to insert a new pointer in the parent to the newLeftChild. <br>
-	 *
-	 *
-	 * @param splitParent the page parenting the split
-	 * @return new TableInteriorPage with all pointers correctly set, just absent of DataCells
+	 * Adds a finished child page to a level of the bulk load. The child becomes a cell of the level's page until the
+	 * page is full, the next child is held back as the page's rightmost child, and the one after that finishes the
+	 * page: it is written, pushed into the level above, and a new page is started with the child.
+	 * @param levels the interior levels being built, the first one is just above the leaves
+	 * @param level the index of the level the child belongs to
+	 * @param childPage the page number of the finished child
+	 * @param nextRowId the smallest rowId of the page that follows the child
+	 * @param capacity the number of cells to fill an interior page with
 	 */
-	private TableInteriorPage newRightInteriorPage(TableInteriorPage splitParent) {
-		LOGGER.log(Level.INFO, "Entering newRightInteriorPage()");
-		
-		// Cast to TableInteriorPage so we can access the subclass' getters/setters
-		TableInteriorPage newInteriorLeftChild = (TableInteriorPage) this.newLeftChild;
-		
-		// Create new right child interior page and store leftChild's rightPointer as the rightChild's new right pointer
-		TableInteriorPage newInteriorRightChild = new TableInteriorPage(PageType.TABLE_INTERIOR_PAGE, getNewPageNumber(),
-				newInteriorLeftChild.getNextPagePointer(), treeConfig);
-		
-		
-		int medianRowId = newInteriorLeftChild.getMedianRowId();
-		int maxIdInLeft = newInteriorLeftChild.getMaxRowId();
-		int minIdinLeft = newInteriorLeftChild.getMinRowId();
-		int maxIdInParent = splitParent.getMaxRowId();
+	private void pushToLevel(ArrayList<BulkLoadLevel> levels, int level, int childPage, int nextRowId, int capacity) {
+		if (level == levels.size()) {
+			levels.add(new BulkLoadLevel(new TableInteriorPage(PageType.TABLE_INTERIOR_PAGE, -ONE, -ONE,
+					this.treeConfig)));
+		}
+		BulkLoadLevel current = levels.get(level);
+		if (current.page.getNumOfCells() < capacity) {
+			current.page.addDataCell(new TableInteriorCell(nextRowId, childPage));
+			return;
+		}
+		if (current.pendingChild == -ONE) {
+			current.pendingChild = childPage;
+			current.pendingKey = nextRowId;
+			return;
+		}
+		TableInteriorPage finished = current.page;
+		finished.setNextPagePointer(current.pendingChild);
+		finished.setPageNumber(getNewPageNumber(current.pendingChild));
+		writeBulkPage(finished);
+		pushToLevel(levels, level + ONE, finished.getPageNumber(), current.pendingKey, capacity);
 		
-		// if leftChild.pageNum = parent.pageNum, then before the split
-		// this was a far-right page.
-		if(splitParent.isRoot() && splitParent.getNumOfCells() == ONE && splitParent.getMaxRowId() == newLeftChild.getMaxRowId()) {
-			// This is the first split set the rightChild as the nextPagePointer and update the leftChildPointer to
-			// the median rowId
-			splitParent.getDataCells().get(ZERO).setRowId(medianRowId);
-			splitParent.setNextPagePointer(newInteriorRightChild.getPageNumber());
-		} else if(minIdinLeft >= maxIdInParent) {
-			// Page is part of the alt-right
-			splitParent.setNextPagePointer(newInteriorRightChild.getPageNumber());
-			
-			// Add new pointer to left child in parent and store it's median rowId as the key
-			TableInteriorCell newLeftPointerInParent = new TableInteriorCell(medianRowId,
-					newInteriorLeftChild.getPageNumber());
-			
-			splitParent.addDataCell(newLeftPointerInParent);
-		} else {
-			
-			// Get smallest pointer from next bucket over(to the right) which will be the rowId value for the pointer of
-			// the new right child. Must get this before updating the leftPointer to the Median ID
-			int rightChildPointerKey = splitParent.getCellRightNeighbor(maxIdInLeft).getRowId();
-			
-			// Update leftChild's pinter in the partent to median value
-			TableInteriorCell pointerToLeft = splitParent.getDataCellFromPagePointer(newInteriorLeftChild.getPageNumber());
-			pointerToLeft.setRowId(medianRowId);
-			
-			// Create a new cell to stuff into the parent for the right child
-			TableInteriorCell newRightPointer = new TableInteriorCell(rightChildPointerKey,
-					newInteriorRightChild.getPageNumber());
-			splitParent.addDataCell(newRightPointer);
+		current.page = new TableInteriorPage(PageType.TABLE_INTERIOR_PAGE, -ONE, -ONE, this.treeConfig);
+		current.pendingChild = -ONE;
+		current.page.addDataCell(new TableInteriorCell(nextRowId, childPage));
+	}
+	
+	/**
+	 * Writes and forces every page of the table that is still waiting in the page flusher, then takes a checkpoint.
+	 * None of the table's pages are in it's dirty page table, so recovery skips every image of them logged before
+	 * the bulk load.
+	 * @return true if the checkpoint was taken or there is no write-ahead log, false if the pages must be logged
+	 */
+	private boolean checkpointBeforeBulkLoad() {
+		this.pageFlusher.flush();
+		try {
+			this.tableFile.force();
+			if (Optional.ofNullable(this.writeAheadLog).isPresent()) {
+				this.writeAheadLog.checkpoint(true);
+			}
+			return true;
+		} catch (IOException e) {
+			LOGGER.log(Level.SEVERE, e.toString());
+			return false;
 		}
-		return newInteriorRightChild;
+	}
+	
+	/**
+	 * Hands a page built by the bulk loader straight to the page flusher without logging it and caches it in the
+	 * buffer pool
+	 * @param page the finished page
+	 */
+	private void writeBulkPage(Page page) {
+		// Nothing in the log redoes the page, so it never holds back a checkpoint's redo LSN
+		this.pageFlusher.add(page.getPageNumber(), page.getBytes(), Long.MAX_VALUE);
+		this.bufferPool.putPage(this.fileName, this.tableFile, page);
+		this.operation.get().countPage(page, ONE);
 	}
 	
 	/**
 	 * *****************************
 	 * *****************************
 	 * *****************************
-	 *           File I/O
+	 *     Scan Methods & helpers
 	 * *****************************
 	 * *****************************
 	 * *****************************
 	 */
 	
 	/**
-	 * Checks to see if the Tree file exits if it does it sets the root page field of this tree instance if it does
-	 * not exist it calls `createTreeFile` to create a new tree file.
+	 * Looks up a single row by it's rowId. The lookup reads one page per level of the tree, each found by a binary
+	 * search of the raw rowIds on the page above it, and only the returned row is decoded. Nothing is logged and no
+	 * page is changed, so it is cheap enough to call once per row.
+	 * @param rowId the rowId of the row to get
+	 * @return the DataRecord of the row, empty if there is no row with that rowId
 	 */
-	private void openTreeFile() {
-		LOGGER.log(Level.INFO, "Entering openTreeFile()");
-		if (!FileHandler.doesTableExist(this.fileName)) {
-			LOGGER.log(Level.INFO, "File DNE, must create new table file");
-			// Need to create new file
-			LOGGER.log(Level.INFO, "Creating new table file for: {0}", this.databaseName);
-			createTreeFile();
-		} else {
-			try {
-				LOGGER.log(Level.INFO, "Entering table exists, need to read from file");
-				this.tableFile = new RandomAccessFile(this.fileName, READ_WRITE_MODE);
-				LOGGER.log(Level.INFO, "Table {0} exists", this.databaseName);
-				getRootPage();
-			} catch (IOException e) {
-				LOGGER.log(Level.SEVERE, e.toString());
+	public Optional<DataRecord> get(int rowId) {
+		checkOpen();
+		for (int attempt = ZERO; this.optimisticReads && attempt < OPTIMISTIC_RESTARTS; attempt++) {
+			Optional<DataRecord> row = getOptimistic(rowId);
+			if (row != null) {
+				return row;
+			}
+		}
+		TableLeafPage leaf = latchLeafPage(rowId);
+		try {
+			int index = leaf.firstIndexAtLeast(rowId);
+			if (index == leaf.getNumOfCells() || leaf.getCellRowId(index) != rowId) {
+				return Optional.empty();
 			}
+			return Optional.of(((TableLeafCell) leaf.readDataCell(index)).getPayload());
+		} finally {
+			unlatchPage(leaf);
 		}
-		LOGGER.log(Level.INFO, "Exiting openTreeFile()");
 	}
 	
 	/**
-	 * Method to create a tree file and insert a new root leaf page if the tree does not exist
+	 * Opens a cursor over every row of the table in rowId order
+	 * @return a cursor positioned before the first row
+	 * @see #scan(int, int)
 	 */
-	private void createTreeFile() {
-		LOGGER.log(Level.INFO, "Entering createTreeFile()");
-		// Create file and set length equal to PAGE_SIZE
-		FileHandler.createTableFile(this.fileName);
-		LOGGER.log(Level.INFO, "New table file for {0} created", this.databaseName);
-		try {
-			this.tableFile = new RandomAccessFile(this.fileName, READ_WRITE_MODE);
-			this.root = createNewRootLeaf();
-			LOGGER.log(Level.INFO, "Exiting createTreeFile()");
-		} catch (IOException e) {
-			LOGGER.log(Level.SEVERE, e.toString());
-		}
+	public TableCursor scan() {
+		return scan(ZERO, Integer.MAX_VALUE);
 	}
 	
 	/**
-	 * Used whenever the file is first created to insert a new root page that also happens to be a leaf because it's a
-	 * new file.
-	 * TODO: Move to Abstract Tree class
-	 * @return the new root leaf page just created so it can be saved with for later use
+	 * Opens a forward cursor over every row with a rowId from fromRowId to toRowId, inclusive. The cursor descends to
+	 * the first leaf once and then walks the linked list of leaves, reading each leaf only when it gets to it.
+	 * @param fromRowId the smallest rowId to return
+	 * @param toRowId the largest rowId to return
+	 * @return a cursor positioned before the first row in the range
 	 */
-	private TableLeafPage createNewRootLeaf() {
-		LOGGER.log(Level.INFO, "Entering createNewRootLeaf()");
-		TableLeafPage tableLeafPage = new TableLeafPage(PageType.TABLE_LEAF_ROOT, ZERO, -ONE, treeConfig);
-		tableLeafPage.writePage(this.tableFile);
-		LOGGER.log(Level.INFO, "New Root Leaf for: {0}: ", this.databaseName);
-		numOfPages++;
-		LOGGER.log(Level.INFO, "Exiting createNewRootLeaf()");
-		return tableLeafPage;
+	public TableCursor scan(int fromRowId, int toRowId) {
+		LOGGER.log(Level.INFO, "Entering scan()");
+		checkOpen();
+		return new TableCursor(this, fromRowId, toRowId);
 	}
 	
 	/**
-	 * Method that retrieves a specific page from the file depending on the page number and the PAGE_SIZE value set
-	 * in the Config class.
-	 *
-	 * TODO: add in Index pages
-	 * @see edu.utdallas.cs6360.davisbase.Config
-	 * @param pageNumber a 4-byte integer representing the physical position of the desired page within the file
-	 *                   relative to the beginning of the file
-	 * @return depending on the type code stored in file a
-	 * TableInteriorPage/TableLeafPage/IndexInteriorPage/IndexLeafPage
-	 */
-	private Page getPage(int pageNumber) {
+	 * Looks up a row like `get` without pinning or latching any page, the leaf is read like the pages above it and it's
+	 * version is validated before the row is returned
+	 * @param rowId the rowId of the row to get
+	 * @return the DataRecord of the row, empty if there is no row with that rowId, null if a page changed while it was
+	 * read or can't be read optimistically
+	 */
+	private Optional<DataRecord> getOptimistic(int rowId) {
+		long[] leafVersion = new long[ONE];
+		TableLeafPage leaf = peekLeafPage(rowId, leafVersion);
+		if (leaf == null) {
+			return null;
+		}
 		try {
-			byte[] pageBytes = new byte[PAGE_SIZE];
-			this.tableFile.seek(PAGE_SIZE * pageNumber);
-			this.tableFile.read(pageBytes);
-			
-			// Return a different subclass depending on the PageType value
-			return PageType.getEnum(pageBytes[ZERO]) == PageType.TABLE_LEAF_PAGE ?
-					new TableLeafPage(pageBytes, pageNumber, treeConfig) :
-					new TableInteriorPage(pageBytes, pageNumber, treeConfig);
-		} catch (IOException e) {
-			LOGGER.log(Level.SEVERE, e.toString());
+			int index = leaf.firstIndexAtLeast(rowId);
+			DataRecord row = index < leaf.getNumOfCells() && leaf.getCellRowId(index) == rowId ?
+					((TableLeafCell) leaf.readDataCell(index)).getPayload() : null;
+			return leaf.validateVersion(leafVersion[ZERO]) ? Optional.ofNullable(row) : null;
+		} catch (RuntimeException e) {
+			// The leaf changed while it was read, the validation would have failed
+			return null;
 		}
-		return null;
 	}
 	
 	/**
-	 * Expand the file if it is not enough room to insert a new page
+	 * Descends from the root to the leaf that holds, or would hold, the given rowId and latches the leaf for reading.
+	 * The interior pages are read optimistically when that is enabled, the leaf is then latched and checked to be
+	 * unchanged since the page above it pointed to it.
+	 * @param rowId the rowId to look for
+	 * @return the leaf, pinned and latched for reading until it is released with `unlatchPage`
 	 */
-	private void expandFile() {
-		try {
-			this.tableFile.setLength(this.tableFile.length() + PAGE_SIZE);
-		} catch (IOException e) {
-			LOGGER.log(Level.SEVERE, e.toString());
+	TableLeafPage getLeafPage(int rowId) {
+		long[] leafVersion = new long[ONE];
+		for (int attempt = ZERO; this.optimisticReads && attempt < OPTIMISTIC_RESTARTS; attempt++) {
+			TableLeafPage leaf = peekLeafPage(rowId, leafVersion);
+			if (leaf == null) {
+				continue;
+			}
+			Page page = latchPage(leaf.getPageNumber(), false);
+			if (page == leaf && leaf.validateVersion(leafVersion[ZERO])) {
+				return leaf;
+			}
+			unlatchPage(page);
 		}
+		return latchLeafPage(rowId);
 	}
 	
 	/**
-	 * Shrink the file if a page was removed at the end and reclaim space.
+	 * Descends from the root to the leaf for a rowId without pinning or latching any page. The version of a child is
+	 * read before the page above it is validated, so every pointer followed was current when the next page was
+	 * reached. A page that is not cached is read into the buffer pool once the pointer to it is validated.
+	 * @param rowId the rowId to look for
+	 * @param leafVersion filled with the version of the leaf, whatever is read from the leaf counts only if it is still
+	 *                    the same afterwards
+	 * @return the leaf, null if a page changed while it was read or can't be read optimistically
 	 */
-	private void shrinkFile() {
+	private TableLeafPage peekLeafPage(int rowId, long[] leafVersion) {
+		Page page = peekPage(ROOT_PAGE_NUMBER);
+		if (page == null) {
+			return null;
+		}
+		long version = page.readVersion();
 		try {
-			this.tableFile.setLength(this.tableFile.length() - PAGE_SIZE);
-		} catch (IOException e) {
-			LOGGER.log(Level.SEVERE, e.toString());
+			while (version != -ONE && page instanceof TableInteriorPage) {
+				int next = ((TableInteriorPage) page).readNextPage(rowId);
+				Page child = next == -ONE ? null : this.bufferPool.peekPage(this.fileName, next);
+				if (child == null && next != -ONE && page.validateVersion(version)) {
+					child = peekPage(next);
+				}
+				if (child == null) {
+					return null;
+				}
+				long childVersion = child.readVersion();
+				if (!page.validateVersion(version)) {
+					return null;
+				}
+				page = child;
+				version = childVersion;
+			}
+		} catch (RuntimeException e) {
+			// The page changed while it was read, the validation would have failed
+			return null;
 		}
+		leafVersion[ZERO] = version;
+		return version != -ONE && page instanceof TableLeafPage ? (TableLeafPage) page : null;
 	}
 	
-	
+	/**
+	 * Descends from the root to the leaf that holds, or would hold, the given rowId. Every page is latched for reading
+	 * before the one above it is released.
+	 * @param rowId the rowId to look for
+	 * @return the leaf, pinned and latched for reading until it is released with `unlatchPage`
+	 */
+	private TableLeafPage latchLeafPage(int rowId) {
+		Page page = latchRoot(false, true);
+		while (page.isInterior()) {
+			Page child = latchPage(((TableInteriorPage) page).getNextPage(rowId), false);
+			unlatchPage(page);
+			page = child;
+		}
+		return (TableLeafPage) page;
+	}
 	
 	/**
 	 * *****************************
 	 * *****************************
 	 * *****************************
-	 *      Getters and Setters
+	 *    Delete Methods & helpers
 	 * *****************************
 	 * *****************************
 	 * *****************************
 	 */
 	
 	/**
-	 * Retrieves the root page from the beginning of the file and stores it for later use by the tree. It does this
-	 * by passing the root page number of 0 to `getPage()`
+	 * Deletes a row from the table. Pages left underfull borrow from or are merged with a sibling on the way back up,
+	 * the root is collapsed when it is left with a single child, and freed pages at the end of the file are truncated.
+	 * @param rowId the rowId of the row to delete
+	 * @return true if the row was deleted, false if there is no row with that rowId
 	 */
-	private void getRootPage() {
-		// Prepare array and file to read in the root page data
-		this.root = getPage(ROOT_PAGE_NUMBER);
+	public boolean delete(int rowId) {
+		LOGGER.log(Level.INFO, "Entering delete(rowId)");
+		checkOpen();
+		boolean deleted = deleteRow(rowId);
+		if (deleted) {
+			commit();
+			shrinkFile();
+		}
+		LOGGER.log(Level.INFO, "Exiting delete(rowId)");
+		return deleted;
 	}
 	
 	/**
-	 * TODO: Link to Metadata tables
+	 * Deletes every row with a rowId from startRowId to endRowId, inclusive, as one operation. Like insertBatch the
+	 * rows deleted so far are committed once Config.MAX_LATCHED_PAGES pages are waiting for the commit.
+	 * @param startRowId the smallest rowId to delete
+	 * @param endRowId the largest rowId to delete
+	 * @return the number of rows deleted
 	 */
-	public int getRowIdCounter() {
-		LOGGER.log(Level.INFO, "Returning rowIdCounter value: {0}", rowIdCounter);
-		return rowIdCounter;
+	public int delete(int startRowId, int endRowId) {
+		return delete(startRowId, endRowId, null);
 	}
 	
 	/**
-	 * Used to increment the rowIdCounter when a new entry is added
+	 * Deletes every row with a rowId from startRowId to endRowId like `delete(int, int)`, every row is checked by
+	 * rowCheck before it is deleted. This is where the entries of a row are removed from the indexes of the table, so
+	 * an index never keeps the values of a deleted row. The check must not use this tree.
+	 * @param startRowId the smallest rowId to delete
+	 * @param endRowId the largest rowId to delete
+	 * @param rowCheck checks each row before it is deleted, null to delete every row
+	 * @return the number of rows deleted
 	 */
-	private void incrementRowIdCounter() {
-		this.rowIdCounter++;
-		LOGGER.log(Level.INFO, "Incremented rowIdCounter new value: {0}", rowIdCounter);
+	public int delete(int startRowId, int endRowId, RowCheck rowCheck) {
+		LOGGER.log(Level.INFO, "Entering delete(startRowId, endRowId)");
+		checkOpen();
+		Operation current = this.operation.get();
+		int numOfRowsDeleted = ZERO;
+		ArrayList<DataRecord> rows = rowCheck == null ? null : new ArrayList<>();
+		ArrayList<Integer> rowIds = getRowIdsInRange(startRowId, endRowId, rows);
+		for (int i = ZERO; i < rowIds.size(); i++) {
+			int rowId = rowIds.get(i);
+			if (rowCheck != null && !rowCheck.accept(rowId, rows.get(i))) {
+				LOGGER.log(Level.INFO, "Row {0} was turned down by the row check", rowId);
+				continue;
+			}
+			if (deleteRow(rowId)) {
+				numOfRowsDeleted++;
+			}
+			if (current.heldPages.size() >= MAX_LATCHED_PAGES) {
+				commit();
+			}
+		}
+		if (numOfRowsDeleted > ZERO) {
+			commit();
+			shrinkFile();
+		}
+		LOGGER.log(Level.INFO, "Exiting delete(startRowId, endRowId), deleted: {0}", numOfRowsDeleted);
+		return numOfRowsDeleted;
 	}
 	
 	/**
-	 * This can probably be removed because rowIds should always be unique and never reassigned.
-	 * TODO: Take out
+	 * Deletes a row without committing. The path to the leaf is latched for changing from the root down and a page is
+	 * released as soon as the child below it has enough cells to lose one without becoming underfull, so only the
+	 * pages a merge could change stay latched. Underfull pages are rebalanced from the leaf up and the root is
+	 * collapsed if it was left with a single child.<br>
+	 *
+	 * A thread still holding pages changed by earlier rows of the operation only takes latches that are free. If one
+	 * is busy the rows deleted so far are committed and the path is latched again.
+	 * @param rowId the rowId of the row to delete
+	 * @return true if the row was deleted
 	 */
-	private void decrementRowIdCounter() {
-		this.rowIdCounter--;
-		LOGGER.log(Level.INFO, "Decremented rowIdCounter new value: {0}", rowIdCounter);
+	private boolean deleteRow(int rowId) {
+		ArrayList<Page> latched = latchPathForDelete(rowId);
+		while (latched == null) {
+			commit();
+			latched = latchPathForDelete(rowId);
+		}
+		Page leaf = latched.get(latched.size() - ONE);
+		if (leaf.removeCell(rowId) == null) {
+			unlatchAll(latched);
+			return false;
+		}
+		writePage(leaf);
+		for (int i = latched.size() - ONE; i > ZERO && latched.get(i).needMerge(this.treeConfig); i--) {
+			rebalanceChildPage((TableInteriorPage) latched.get(i - ONE), latched.get(i));
+		}
+		if (latched.get(ZERO).isRoot()) {
+			collapseRoot(latched.get(ZERO));
+		}
+		unlatchAll(latched);
+		return true;
 	}
 	
 	/**
-	 * Getter for property 'fileName'.
-	 *
-	 * @return Value for property 'fileName'.
+	 * Latches the path from the root down to the leaf that holds a row for deleteRow
+	 * @param rowId the rowId of the row
+	 * @return the latched pages from the highest one a delete could change down to the leaf, null if this thread holds
+	 * changed pages and a latch was busy
 	 */
-	String getFileName() {
-		return fileName;
+	private ArrayList<Page> latchPathForDelete(int rowId) {
+		// Waiting while holding changed pages could wait on a thread that is waiting for one of them
+		boolean wait = this.operation.get().heldPages.isEmpty();
+		ArrayList<Page> latched = new ArrayList<>();
+		Page page = latchRoot(true, wait);
+		while (page != null) {
+			latched.add(page);
+			if (page.isLeaf()) {
+				return latched;
+			}
+			int next = ((TableInteriorPage) page).getNextPage(rowId);
+			page = wait ? latchPage(next, true) : tryLatchPage(next, true);
+			if (page != null && canLoseCell(page)) {
+				unlatchAll(latched);
+			}
+		}
+		unlatchAll(latched);
+		return null;
 	}
 	
 	/**
-	 * Retrieve the number of used pages
-	 * @return the number of used pages in the file
+	 * Check if a page has enough DataCells that a delete below it can remove one without it needing a merge
+	 * @param page a page below the root
+	 * @return true if the page stays at least half full after losing a DataCell
 	 */
-	private int getNumOfPages() {
-		return this.numOfPages;
+	private boolean canLoseCell(Page page) {
+		int minCells = page.isLeaf() ? this.treeConfig.getMinLeafPageRecords() :
+				this.treeConfig.getMinInteriorPageCell();
+		return page.getNumOfCells() - ONE > minCells;
 	}
 	
 	/**
-	 * Increase the number of used pages
+	 * While the root is an interior page without any DataCells it's only child, the page it's nextPagePointer points
+	 * to, takes it's place as page 0 and the child's old page is freed. The child was changed by the merge that emptied
+	 * the root so it is still latched by this thread, and the new root is a new page object.
+	 * @param root the root, latched for changing it
 	 */
-	private void incrementPages() {
-		this.numOfPages++;
+	private void collapseRoot(Page root) {
+		Page current = root;
+		while (current.isInterior() && current.isEmpty()) {
+			Page child = latchPage(((TableInteriorPage) current).getNextPagePointer(), true);
+			int childPageNumber = child.getPageNumber();
+			ByteBuffer childBytes = ByteBuffer.wrap(child.getBytes());
+			
+			Page newRoot;
+			if (child.isLeaf()) {
+				newRoot = new TableLeafPage(childBytes, ROOT_PAGE_NUMBER, this.treeConfig);
+				newRoot.setPageType(PageType.TABLE_LEAF_ROOT);
+			} else {
+				newRoot = new TableInteriorPage(childBytes, ROOT_PAGE_NUMBER, this.treeConfig);
+				newRoot.setPageType(PageType.TABLE_INTERIOR_ROOT);
+			}
+			freePage(child);
+			unlatchPage(child);
+			writePage(newRoot);
+			current.setObsolete();
+			Operation changes = this.operation.get();
+			changes.countPage(current, -ONE);
+			changes.countPage(newRoot, ONE);
+			changes.heightChange--;
+			current = newRoot;
+			LOGGER.log(Level.INFO, "Collapsed root into page {0}", childPageNumber);
+		}
 	}
 	
 	/**
-	 * Decrease the number of used pages
+	 * Collects the rowIds of every row from startRowId to endRowId, inclusive, with a scan so the leaves do not change
+	 * under the cursor while rows are deleted
+	 * @param startRowId the smallest rowId to collect
+	 * @param endRowId the largest rowId to collect
+	 * @param rows filled with the rows in the same order as the rowIds, null if they are not needed
+	 * @return the rowIds in order
 	 */
-	private void decrementPages() {
-		this.numOfPages--;
+	private ArrayList<Integer> getRowIdsInRange(int startRowId, int endRowId, ArrayList<DataRecord> rows) {
+		ArrayList<Integer> rowIds = new ArrayList<>();
+		try (TableCursor cursor = scan(startRowId, endRowId)) {
+			while (cursor.hasNext()) {
+				DataRecord dataRecord = cursor.next();
+				if (rows != null) {
+					rows.add(dataRecord);
+				}
+				rowIds.add(cursor.getRowId());
+			}
+		}
+		return rowIds;
 	}
 	
+	/**
+	 * Checks to see if the given insert of colTypes and colValues are valid. Input validation should be done at the
+	 * front end
+	 * @param colTypes array of bytes that represent each column's data types
+	 * @param colValues the actual values that will be stored in each column.
+	 * @return true if this is a valid insert false otherwise
+
+	 * @throws IllegalArgumentException if the column types are not the table's or a value can't be stored as the type
+	 * of it's column, nothing has been changed yet
+	 */
+	boolean validInsert(ArrayList<DataType> colTypes, ArrayList<String> colValues) {
+		if(!DataType.sameColTypes(colTypes, treeConfig.getColTypes())) {
+			throw new IllegalArgumentException("Given column data types do not match this tree's column data types");
+		}
+		
+		if(colTypes.size() != colValues.size()) {
+			throw new IllegalArgumentException("The column type arrays and the column values array have different " +
+					"sizes");
+		}
+		new DataRecord(colTypes, colValues).checkValues();
+		return true;
+	}
+	
+	/**
+	 * Checks to see if the given insert of this DataRecord is valid for this table. Input validation should be done at
+	 * the front end
+	 * @param dataRecord a DataRecord to insert ito the table
+	 * @return true if this is a valid insert false otherwise
+
+	 * @throws IllegalArgumentException if the column types are not the table's or a value can't be stored as the type
+	 * of it's column, nothing has been changed yet
+	 */
+	boolean validInsert(DataRecord dataRecord) {
+		if(!DataType.sameColTypes(dataRecord.getColumnDataTypes(), treeConfig.getColTypes())) {
+			throw new IllegalArgumentException("Given column data types do not match this tree's column data types");
+		}
+		dataRecord.checkValues();
+		return true;
+	}
 	
 	/**
 	 * *****************************
 	 * *****************************
 	 * *****************************
-	 * Methods that Calculate Things
+	 * Split/Merge Methods & helpers
 	 * *****************************
 	 * *****************************
 	 * *****************************
 	 */
 	
 	/**
-	 * This method searches pages sequentially until it finds a page header of all null values
-	 * meaning we have found a free page. If a page is not found a new one is added at the end of the file
+	 * Fixes a child left underfull by a delete. The child is paired with it's right sibling, or it's left sibling if it
+	 * is the rightmost child, and the two are merged into the left page if their DataCells fit in one page. Otherwise
+	 * the child borrows one DataCell from it's sibling. Either way the separator key in the parent is updated.<br>
 	 *
-	 * TODO: Implement some search algorithm to find an empty space of 000s/NULLs to insert a new page
-	 * 		 Something like binary search?
+	 * The sibling is only latched if it's latch is free, waiting for it could wait on a thread that is waiting for
+	 * this one. If it is busy the child is left underfull.
+	 * @param parent the parent of the underfull child, latched for changing it
+	 * @param child the underfull child, latched for changing it
 	 */
-	private int getNewPageNumber() {
-		try {
-			int maxPagesInFile = (int)(tableFile.length() / PAGE_SIZE);
-			if (maxPagesInFile == numOfPages || maxPagesInFile < this.numOfPages) {
-				int newPageNum = this.numOfPages;
-				incrementPages();
-				return newPageNum;
+	private void rebalanceChildPage(TableInteriorPage parent, Page child) {
+		LOGGER.log(Level.INFO, "Entering rebalanceChildPage()");
+		parent.sort();
+		// The separator's key divides the pair and it's left child pointer is the left page of the pair
+		int separatorIndex;
+		int siblingPageNumber;
+		if (child.getPageNumber() == parent.getNextPagePointer()) {
+			if (parent.isEmpty()) {
+				return;
 			}
-			// Must find empty page in file
-			for(int i = ZERO; i < this.numOfPages; i++) {
-				this.tableFile.seek(i * PAGE_SIZE);
-				byte[] pageTypeCode = new byte[ONE];
-				this.tableFile.read(pageTypeCode);
-				if (pageTypeCode[ZERO] == ZERO) {
-					incrementPages();
-					return i;
-				}
-			}
-		} catch (IOException e) {
-			LOGGER.log(Level.SEVERE, e.toString());
+			separatorIndex = parent.getNumOfCells() - ONE;
+			siblingPageNumber = ((TableInteriorCell) parent.getDataCells().get(separatorIndex)).getLeftChildPointer();
+		} else {
+			separatorIndex = parent.getDataCells().indexOf(parent.getDataCellFromPagePointer(child.getPageNumber()));
+			siblingPageNumber = separatorIndex + ONE < parent.getNumOfCells() ?
+					((TableInteriorCell) parent.getDataCells().get(separatorIndex + ONE)).getLeftChildPointer() :
+					parent.getNextPagePointer();
 		}
-		return -ONE;
+		Page sibling = tryLatchPage(siblingPageNumber, true);
+		if (sibling == null) {
+			LOGGER.log(Level.INFO, "Sibling page {0} is busy, leaving page underfull", siblingPageNumber);
+			return;
+		}
+		Page leftPage = child.getPageNumber() == parent.getNextPagePointer() ? sibling : child;
+		Page rightPage = leftPage == child ? sibling : child;
+		TableInteriorCell separator = (TableInteriorCell) parent.getDataCells().get(separatorIndex);
+		
+		// Merging interior pages brings the separator down as a DataCell of it's own
+		int mergedCells = leftPage.getNumOfCells() + rightPage.getNumOfCells() + (leftPage.isLeaf() ? ZERO : ONE);
+		int maxCells = leftPage.isLeaf() ? this.treeConfig.getMaxLeafPageRecords() :
+				this.treeConfig.getMaxInteriorPageCells();
+		if (mergedCells <= maxCells) {
+			mergePages(parent, separator, leftPage, rightPage);
+		} else if (leftPage == child) {
+			borrowFromRight(separator, leftPage, rightPage);
+			writePage(rightPage);
+		} else {
+			borrowFromLeft(separator, leftPage, rightPage);
+			writePage(rightPage);
+		}
+		writePage(leftPage);
+		writePage(parent);
+		unlatchPage(sibling);
+		LOGGER.log(Level.INFO, "Exiting rebalanceChildPage()");
 	}
 	
 	/**
-	 * This recursive method simply traverses down the far right branch of this tree and it's children and counts the
-	 * number of along levels on the way. This public one is starts at the root, if it is a leaf it returns 0. If it is
-	 * not then the private version of this method is called on the nextPagePointer for the root.
-	 * @return an integer representing the number of levels of the tree with 0 being the root level.
+	 * Moves every DataCell of the right page into the left page and frees the right page. The separator is removed
+	 * from the parent and the pointer to the right page now points to the left page, which covers both ranges.
+	 * @param parent the parent of both pages
+	 * @param separator the DataCell in the parent pointing to the left page
+	 * @param leftPage the page that is kept
+	 * @param rightPage the page that is freed
 	 */
-	int getCurrentHeight() {
-		if (this.root.isLeaf()) {
-			return ZERO;
+	private void mergePages(TableInteriorPage parent, TableInteriorCell separator, Page leftPage, Page rightPage) {
+		rightPage.sort();
+		ArrayList<DataCell> moveList = new ArrayList<>(rightPage.getDataCells());
+		if (leftPage.isLeaf()) {
+			((TableLeafPage) leftPage).setNextPagePointer(((TableLeafPage) rightPage).getNextPagePointer());
+		} else {
+			TableInteriorPage leftInterior = (TableInteriorPage) leftPage;
+			moveList.add(new TableInteriorCell(separator.getRowId(), leftInterior.getNextPagePointer()));
+			leftInterior.setNextPagePointer(((TableInteriorPage) rightPage).getNextPagePointer());
 		}
-		TableInteriorPage interiorRoot = (TableInteriorPage)this.root;
-		return getCurrentHeight(getPage(interiorRoot.getNextPagePointer()));
+		rightPage.removeList(moveList);
+		leftPage.addList(moveList);
+		
+		int separatorRowId = separator.getRowId();
+		if (parent.getNextPagePointer() == rightPage.getPageNumber()) {
+			parent.setNextPagePointer(leftPage.getPageNumber());
+		} else {
+			parent.getDataCellFromPagePointer(rightPage.getPageNumber()).setLeftChildPointer(leftPage.getPageNumber());
+		}
+		parent.removeCell(separatorRowId);
+		freePage(rightPage);
 	}
 	
 	/**
-	 * This private method continues the traversal down the right side of the tree. If it is a leaf (the base case) then
-	 * it returns 1, otherwise it recurses down the right tree again and returns that tree's level + 1
-	 * @param page a page from the far right branch of the tree.
-	 * @return if a leaf 1, else getCurrentHeight(rightChild) + 1
+	 * Moves the first DataCell of the right page to the end of the left page and updates the separator
+	 * @param separator the DataCell in the parent pointing to the left page
+	 * @param leftPage the underfull page
+	 * @param rightPage it's right sibling
 	 */
-	private int getCurrentHeight(Page page) {
-		if (page.isLeaf()) {
-			return ONE;
+	private void borrowFromRight(TableInteriorCell separator, Page leftPage, Page rightPage) {
+		DataCell first = rightPage.getFirst();
+		rightPage.removeCell(first.getRowId());
+		if (leftPage.isLeaf()) {
+			leftPage.addDataCell(first);
+			separator.setRowId(rightPage.getMinRowId());
+		} else {
+			// The separator comes down over the left page's rightmost child and the first key of the right page goes up
+			TableInteriorPage leftInterior = (TableInteriorPage) leftPage;
+			TableInteriorCell firstInterior = (TableInteriorCell) first;
+			leftPage.addDataCell(new TableInteriorCell(separator.getRowId(), leftInterior.getNextPagePointer()));
+			leftInterior.setNextPagePointer(firstInterior.getLeftChildPointer());
+			separator.setRowId(firstInterior.getRowId());
 		}
-		TableInteriorPage interiorPage = (TableInteriorPage)page;
-		return getCurrentHeight(getPage(interiorPage.getNextPagePointer())) + ONE;
 	}
-
-	public ArrayList<DataType> getColTypes(){
-		return treeConfig.getColTypes();
+	
+	/**
+	 * Moves the last DataCell of the left page to the start of the right page and updates the separator
+	 * @param separator the DataCell in the parent pointing to the left page
+	 * @param leftPage the left sibling
+	 * @param rightPage the underfull page
+	 */
+	private void borrowFromLeft(TableInteriorCell separator, Page leftPage, Page rightPage) {
+		leftPage.sort();
+		DataCell last = leftPage.getDataCells().get(leftPage.getNumOfCells() - ONE);
+		leftPage.removeCell(last.getRowId());
+		if (leftPage.isLeaf()) {
+			rightPage.addDataCell(last);
+			separator.setRowId(last.getRowId());
+		} else {
+			// The separator comes down in front of the right page and the left page's last key goes up
+			TableInteriorPage leftInterior = (TableInteriorPage) leftPage;
+			TableInteriorCell lastInterior = (TableInteriorCell) last;
+			rightPage.addDataCell(new TableInteriorCell(separator.getRowId(), leftInterior.getNextPagePointer()));
+			leftInterior.setNextPagePointer(lastInterior.getLeftChildPointer());
+			separator.setRowId(lastInterior.getRowId());
+		}
+	}
+	
+	/**
+	 * *****************************
+	 * *****************************
+	 * *****************************
+	 *           File I/O
+	 * *****************************
+	 * *****************************
+	 * *****************************
+	 */
+	
+	/**
+	 * Opens the tree's file or creates it, new rows are given rowIds after the rowId counter kept in the file header
+	 */
+	private void open() {
+		openTreeFile();
+		if (isOpen()) {
+			this.rowIdCounter = getMetadata().getRowIdCounter();
+		}
+	}
+	
+	/**
+	 * Returns the empty root leaf a new table starts out with
+	 * @return a new TableLeafPage with page number 0
+	 */
+	@Override
+	Page newRootLeaf() {
+		return new TableLeafPage(PageType.TABLE_LEAF_ROOT, ZERO, -ONE, this.treeConfig);
+	}
+	
+	/**
+	 * Rebuilds a TableLeafPage or TableInteriorPage from it's byte representation depending on the PageType value
+	 * @param pageBytes a buffer holding the entire page
+	 * @param pageNumber the page number of the page
+	 * @return the TableLeafPage or TableInteriorPage
+	 */
+	@Override
+	Page decodePage(ByteBuffer pageBytes, int pageNumber) {
+		return PageType.getEnum(pageBytes.get(ZERO)) == PageType.TABLE_LEAF_PAGE ?
+				new TableLeafPage(pageBytes, pageNumber, this.treeConfig) :
+				new TableInteriorPage(pageBytes, pageNumber, this.treeConfig);
+	}
+	
+	/**
+	 * Frees a page once the operation commits, see BPlusTree.freePage
+	 * @param page the page to free, latched for changing it
+	 */
+	@Override
+	void freePage(Page page) {
+		super.freePage(page);
+		// The page may be on the remembered path to the rightmost leaf
+		this.rightmostPath = null;
+	}
+	
+	/**
+	 * *****************************
+	 * *****************************
+	 * *****************************
+	 *      Getters and Setters
+	 * *****************************
+	 * *****************************
+	 * *****************************
+	 */
+	/**
+	 * TODO: Link to Metadata tables
+	 */
+	public int getRowIdCounter() {
+		LOGGER.log(Level.INFO, "Returning rowIdCounter value: {0}", rowIdCounter);
+		return rowIdCounter;
+	}
+	
+	/**
+	 * Used to increment the rowIdCounter when a new entry is added
+	 */
+	private void incrementRowIdCounter() {
+		this.rowIdCounter++;
+		LOGGER.log(Level.INFO, "Incremented rowIdCounter new value: {0}", rowIdCounter);
+	}
+	
+	/**
+	 * This can probably be removed because rowIds should always be unique and never reassigned.
+	 * TODO: Take out
+	 */
+	private void decrementRowIdCounter() {
+		this.rowIdCounter--;
+		LOGGER.log(Level.INFO, "Decremented rowIdCounter new value: {0}", rowIdCounter);
+	}
+	
+	/**
+	 * Setter for property 'optimisticReads', lookups and scans started afterwards descend the tree optimistically
+	 * when it is true and latch their way down when it is false
+	 *
+	 * @param optimisticReads Value to set for property 'optimisticReads'.
+	 */
+	void setOptimisticReads(boolean optimisticReads) {
+		this.optimisticReads = optimisticReads;
+	}
+	
+	/**
+	 * The page being filled on one interior level of a bulk load, and the child held back to be it's rightmost child
+	 */
+	private static final class BulkLoadLevel {
+		private TableInteriorPage page;
+		private int pendingChild;
+		private int pendingKey;
+		
+		BulkLoadLevel(TableInteriorPage page) {
+			this.page = page;
+			this.pendingChild = -ONE;
+			this.pendingKey = ZERO;
+		}
 	}
-}
\ No newline at end of file
+}
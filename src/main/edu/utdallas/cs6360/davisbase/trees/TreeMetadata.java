@@ -0,0 +1,161 @@
+package edu.utdallas.cs6360.davisbase.trees;
+
+import java.util.Objects;
+
+import static edu.utdallas.cs6360.davisbase.Config.*;
+
+/**
+ * The counters describing a tree that are kept in it's file header, so opening a table does not have to read the
+ * tree to find them.<br>
+ *
+ * A TreeMetadata never changes, a committed operation replaces it with a copy that has the operation's changes
+ * applied. The copy is logged with the pages the operation changed so the header always describes the pages that
+ * were committed with it.
+ *
+ * @author Charles Krol
+ * @author Matthew Villarreal
+ * @author Michael Del Rosario
+ * @author Mithil Vijay
+ */
+final class TreeMetadata {
+	/**
+	 * The page number of the root page
+	 */
+	private final int rootPageNumber;
+
+	/**
+	 * The number of levels below the root, 0 when the root is a leaf
+	 */
+	private final int height;
+
+	/**
+	 * The rowId the next row will be given
+	 */
+	private final int rowIdCounter;
+
+	/**
+	 * The number of pages in the tree, the free space map pages are not counted
+	 */
+	private final int numOfPages;
+
+	/**
+	 * The number of leaf pages in the tree, the root included if it is a leaf
+	 */
+	private final int numOfLeafPages;
+
+	/**
+	 * The number of interior pages in the tree, the root included if it is an interior page
+	 */
+	private final int numOfInteriorPages;
+
+	/**
+	 * Constructor for the metadata of a tree
+	 * @param rootPageNumber the page number of the root page
+	 * @param height the number of levels below the root
+	 * @param rowIdCounter the rowId the next row will be given
+	 * @param numOfPages the number of pages in the tree
+	 * @param numOfLeafPages the number of leaf pages
+	 * @param numOfInteriorPages the number of interior pages
+	 */
+	TreeMetadata(int rootPageNumber, int height, int rowIdCounter, int numOfPages, int numOfLeafPages,
+				 int numOfInteriorPages) {
+		this.rootPageNumber = rootPageNumber;
+		this.height = height;
+		this.rowIdCounter = rowIdCounter;
+		this.numOfPages = numOfPages;
+		this.numOfLeafPages = numOfLeafPages;
+		this.numOfInteriorPages = numOfInteriorPages;
+	}
+
+	/**
+	 * Returns the metadata of a new tree, a single empty root leaf
+	 * @return the metadata of an empty tree
+	 */
+	static TreeMetadata emptyTree() {
+		return new TreeMetadata((int) ROOT_PAGE_NUMBER, ZERO, ZERO, ONE, ONE, ZERO);
+	}
+
+	/**
+	 * Returns a copy with the changes of a committed operation applied
+	 * @param newRowIdCounter the rowId counter after the operation, it is only ever moved forward
+	 * @param pagesChange the number of pages the operation allocated minus the number it freed
+	 * @param leafPagesChange the change to the number of leaf pages
+	 * @param interiorPagesChange the change to the number of interior pages
+	 * @param heightChange the change to the height
+	 * @return the metadata after the operation
+	 */
+	TreeMetadata apply(int newRowIdCounter, int pagesChange, int leafPagesChange, int interiorPagesChange,
+					   int heightChange) {
+		return new TreeMetadata(this.rootPageNumber, this.height + heightChange,
+				Math.max(this.rowIdCounter, newRowIdCounter), this.numOfPages + pagesChange,
+				this.numOfLeafPages + leafPagesChange, this.numOfInteriorPages + interiorPagesChange);
+	}
+
+	/**
+	 * Getter for property 'rootPageNumber'.
+	 *
+	 * @return Value for property 'rootPageNumber'.
+	 */
+	int getRootPageNumber() { return this.rootPageNumber; }
+
+	/**
+	 * Getter for property 'height'.
+	 *
+	 * @return Value for property 'height'.
+	 */
+	int getHeight() { return this.height; }
+
+	/**
+	 * Getter for property 'rowIdCounter'.
+	 *
+	 * @return Value for property 'rowIdCounter'.
+	 */
+	int getRowIdCounter() { return this.rowIdCounter; }
+
+	/**
+	 * Getter for property 'numOfPages'.
+	 *
+	 * @return Value for property 'numOfPages'.
+	 */
+	int getNumOfPages() { return this.numOfPages; }
+
+	/**
+	 * Getter for property 'numOfLeafPages'.
+	 *
+	 * @return Value for property 'numOfLeafPages'.
+	 */
+	int getNumOfLeafPages() { return this.numOfLeafPages; }
+
+	/**
+	 * Getter for property 'numOfInteriorPages'.
+	 *
+	 * @return Value for property 'numOfInteriorPages'.
+	 */
+	int getNumOfInteriorPages() { return this.numOfInteriorPages; }
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (!(o instanceof TreeMetadata)) { return false; }
+		TreeMetadata that = (TreeMetadata) o;
+		return this.rootPageNumber == that.rootPageNumber && this.height == that.height &&
+				this.rowIdCounter == that.rowIdCounter && this.numOfPages == that.numOfPages &&
+				this.numOfLeafPages == that.numOfLeafPages && this.numOfInteriorPages == that.numOfInteriorPages;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(rootPageNumber, height, rowIdCounter, numOfPages, numOfLeafPages, numOfInteriorPages);
+	}
+
+	/**
+	 * Method to return the metadata for logging purposes
+	 * @return String representation of the metadata
+	 */
+	@Override
+	public String toString() {
+		return "TreeMetadata[root=" + this.rootPageNumber + ", height=" + this.height + ", rowIdCounter=" +
+				this.rowIdCounter + ", pages=" + this.numOfPages + ", leafPages=" + this.numOfLeafPages +
+				", interiorPages=" + this.numOfInteriorPages + "]";
+	}
+}
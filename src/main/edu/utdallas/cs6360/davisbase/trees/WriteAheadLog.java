@@ -0,0 +1,989 @@
+package edu.utdallas.cs6360.davisbase.trees;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+import static edu.utdallas.cs6360.davisbase.Config.*;
+
+/**
+ * A redo only write-ahead log shared by every TableTree and IndexTree in the process.<br>
+ *
+ * A tree operation is a transaction. When it commits the tree logs the new image of every page the operation
+ * changed, including free space map pages, followed by a commit record, and only once the commit returns are the
+ * pages handed to the page flusher. The table files therefore only ever hold pages of committed operations and
+ * recovery only has to redo them. A split that was cut short by a crash leaves no commit record so none of it's
+ * pages are redone.<br>
+ *
+ * Record format:<br>
+ *     [bodyLength(4), crc32OfBody(4), body]<br>
+ *     body of a page record: [type(1), transactionId(8), fileNameLength(2), fileName(n), pageNumber(4), page(pageSize)]<br>
+ *     body of a commit record: [type(1), transactionId(8)]<br>
+ *     body of a checkpoint record: [type(1), 0(8), redoLsn(8), checkpointStartLsn(8), numOfDirtyPages(4),
+ *     numOfDirtyPages * [fileNameLength(2), fileName(n), pageNumber(4), recoveryLsn(8)]]<br>
+ * The log sequence number (LSN) of a record is it's byte position in the log since the log was first created. The
+ * log is kept in segment files named after the LSN they start at, a checkpoint starts a new segment once the current
+ * one holds Config.WAL_SEGMENT_SIZE bytes.<br>
+ *
+ * Group commit: records are appended to an in memory buffer and the committing thread waits until the log has been
+ * written past it's commit record. The first waiting thread becomes the leader, optionally waits the group commit
+ * window for other commits to join, then writes everything appended so far and forces the log once for all of them.<br>
+ *
+ * Fuzzy checkpoints: every Config.CHECKPOINT_INTERVAL_MS, or sooner once Config.CHECKPOINT_LOG_BYTES have been logged,
+ * a background thread records the dirty page table, every page the page flushers have not written yet with the LSN
+ * of the oldest transaction that changed it, and forces the pages they have written. Writers are never stopped. The
+ * redo LSN of the checkpoint is the oldest of those LSNs and of the transactions still committing, nothing before it
+ * is needed again so the segments before it are deleted and the log stays bounded however long the engine runs. The
+ * LSN of the newest checkpoint is kept in a small checkpoint file next to the log.<br>
+ *
+ * Recovery reads the log from the redo LSN of the last checkpoint. A committed page image is redone if it was logged
+ * after the checkpoint started or if the page was in the dirty page table at or before that record. The page images
+ * of different files are independent so every file is redone by it's own task on up to Config.RECOVERY_THREADS
+ * threads, then the files are forced and the log starts over with an empty segment.
+ *
+ * @author Charles Krol
+ * @author Matthew Villarreal
+ * @author Michael Del Rosario
+ * @author Mithil Vijay
+ */
+public final class WriteAheadLog {
+	/**
+	 * A logger that logs things for logging purposes
+	 */
+	private static final Logger LOGGER = Logger.getLogger(WriteAheadLog.class.getName());
+
+	/**
+	 * Record types
+	 */
+	private static final byte PAGE_RECORD = 1;
+	private static final byte COMMIT_RECORD = 2;
+	private static final byte CHECKPOINT_RECORD = 3;
+
+	/**
+	 * Sizes of the record fields
+	 */
+	private static final int RECORD_HEADER_SIZE = Integer.BYTES + Integer.BYTES;
+	private static final int COMMIT_BODY_SIZE = Byte.BYTES + Long.BYTES;
+	private static final int PAGE_BODY_FIXED_SIZE = COMMIT_BODY_SIZE + Short.BYTES + Integer.BYTES;
+	private static final int CHECKPOINT_BODY_FIXED_SIZE = COMMIT_BODY_SIZE + Long.BYTES + Long.BYTES + Integer.BYTES;
+	private static final int DIRTY_PAGE_FIXED_SIZE = Short.BYTES + Integer.BYTES + Long.BYTES;
+
+	/**
+	 * Suffix of the file holding the LSN of the newest checkpoint, and the format of segment file suffixes
+	 */
+	private static final String CHECKPOINT_FILE_SUFFIX = ".checkpoint";
+	private static final String SEGMENT_SUFFIX_FORMAT = ".%020d";
+
+	/**
+	 * The one log of the process
+	 */
+	private static WriteAheadLog instance;
+
+	/**
+	 * The path of the log, segment files and the checkpoint file are named after it
+	 */
+	private final String fileName;
+
+	/**
+	 * The segment files of the log by the LSN they start at, the last one is being written
+	 */
+	private final TreeMap<Long, File> segments;
+
+	/**
+	 * The segment being written
+	 */
+	private RandomAccessFile segmentFile;
+	private FileChannel channel;
+
+	/**
+	 * Records appended since the last write of the log
+	 */
+	private final ByteArrayOutputStream appendBuffer;
+
+	/**
+	 * The LSN the next record appended will have, the log has been written up to flushedLsn
+	 */
+	private long appendedLsn;
+	private long flushedLsn;
+
+	/**
+	 * True while a thread is writing, forcing, or switching segments of the log
+	 */
+	private boolean flushing;
+
+	/**
+	 * The id given to the next transaction
+	 */
+	private long nextTransactionId;
+
+	/**
+	 * The LSN every transaction that has begun but not ended began at, a checkpoint cannot move it's redo LSN past them
+	 */
+	private final HashMap<Long, Long> activeTransactions;
+
+	/**
+	 * The page flushers of every open tree, their pending pages make up the dirty page table
+	 */
+	private final LinkedHashSet<PageFlusher> flushers;
+
+	/**
+	 * Only one checkpoint runs at a time, it also guards the segment map
+	 */
+	private final Object checkpointLock;
+
+	/**
+	 * Monitor the checkpointer waits on between checkpoints
+	 */
+	private final Object checkpointWakeUp;
+
+	/**
+	 * The LSN the log had reached when the last checkpoint finished
+	 */
+	private long lastCheckpointEndLsn;
+
+	/**
+	 * How long a leader waits for other commits before writing the log, and whether the log is forced
+	 */
+	private long groupCommitWindowMicros;
+	private boolean forceOnCommit;
+
+	/**
+	 * Statistics
+	 */
+	private long commits;
+	private long forces;
+	private long checkpoints;
+	private long recoveryMillis;
+	private long recoveryLogBytes;
+	private long pagesRedone;
+
+	/**
+	 * Constructor for a log, recovery has to run before anything is appended
+	 * @param fileName the path of the log
+	 * @throws IOException if the directory of the log cannot be created
+	 */
+	WriteAheadLog(String fileName) throws IOException {
+		File parent = new File(fileName).getAbsoluteFile().getParentFile();
+		if (parent != null && !parent.exists() && !parent.mkdirs()) {
+			throw new IOException("Cannot create the directory of the log file: " + parent);
+		}
+		this.fileName = fileName;
+		this.segments = new TreeMap<>();
+		this.appendBuffer = new ByteArrayOutputStream();
+		this.appendedLsn = ZERO;
+		this.flushedLsn = ZERO;
+		this.flushing = false;
+		this.nextTransactionId = ONE;
+		this.activeTransactions = new HashMap<>();
+		this.flushers = new LinkedHashSet<>();
+		this.checkpointLock = new Object();
+		this.checkpointWakeUp = new Object();
+		this.lastCheckpointEndLsn = ZERO;
+		this.groupCommitWindowMicros = GROUP_COMMIT_WINDOW_MICROS;
+		this.forceOnCommit = WAL_FORCE_ON_COMMIT;
+	}
+
+	/**
+	 * Returns the log of the process, opening it, recovering the table files from it, and starting the checkpointer
+	 * the first time it is called
+	 * @return the write-ahead log
+	 * @throws IOException if the log cannot be opened or recovery fails
+	 */
+	public static synchronized WriteAheadLog getInstance() throws IOException {
+		if (!Optional.ofNullable(instance).isPresent()) {
+			WriteAheadLog log = new WriteAheadLog(WAL_FILE_NAME);
+			log.recover();
+			instance = log;
+			Thread checkpointer = new Thread(log::runCheckpointer, "davisbase-checkpointer");
+			checkpointer.setDaemon(true);
+			checkpointer.start();
+		}
+		return instance;
+	}
+
+	/**
+	 * *****************************
+	 * *****************************
+	 * *****************************
+	 *         Transactions
+	 * *****************************
+	 * *****************************
+	 * *****************************
+	 */
+
+	/**
+	 * Starts a new transaction
+	 * @return the id of the transaction
+	 */
+	synchronized long beginTransaction() {
+		long transactionId = this.nextTransactionId++;
+		this.activeTransactions.put(transactionId, this.appendedLsn);
+		return transactionId;
+	}
+
+	/**
+	 * Returns the LSN a transaction began at, every record of the transaction is at or after it. The tree hands it to
+	 * the page flusher with the transaction's pages as their recovery LSN.
+	 * @param transactionId the id of a transaction that has not ended
+	 * @return the LSN the transaction began at
+	 */
+	synchronized long getStartLsn(long transactionId) {
+		return this.activeTransactions.getOrDefault(transactionId, this.appendedLsn);
+	}
+
+	/**
+	 * Appends the new image of a page changed by a transaction
+	 * @param transactionId the id of the transaction
+	 * @param pageFileName the fully qualified file name of the tree the page belongs to
+	 * @param pageNumber the page number within the file
+	 * @param page the encoded page
+	 * @return the LSN of the record
+	 */
+	long logPage(long transactionId, String pageFileName, int pageNumber, byte[] page) {
+		byte[] name = pageFileName.getBytes(StandardCharsets.UTF_8);
+		ByteBuffer body = ByteBuffer.allocate(PAGE_BODY_FIXED_SIZE + name.length + page.length);
+		body.put(PAGE_RECORD).putLong(transactionId).putShort((short) name.length).put(name).putInt(pageNumber)
+				.put(page);
+		return append(body);
+	}
+
+	/**
+	 * Appends the commit record of a transaction and waits until the log has been written past it
+	 * @param transactionId the id of the transaction
+	 * @throws IOException if the log cannot be written
+	 */
+	void commit(long transactionId) throws IOException {
+		waitForCommit(logCommit(transactionId));
+	}
+
+	/**
+	 * Appends the commit record of a transaction without waiting for it to be written, for callers that must order
+	 * their commit records with other work before they wait in `waitForCommit`
+	 * @param transactionId the id of the transaction
+	 * @return the LSN just past the commit record
+	 */
+	long logCommit(long transactionId) {
+		ByteBuffer body = ByteBuffer.allocate(COMMIT_BODY_SIZE);
+		body.put(COMMIT_RECORD).putLong(transactionId);
+		long lsn = append(body);
+		synchronized (this) {
+			this.commits++;
+		}
+		return lsn + RECORD_HEADER_SIZE + COMMIT_BODY_SIZE;
+	}
+
+	/**
+	 * Waits until the log has been written past a commit record appended by `logCommit`
+	 * @param commitLsn the LSN returned by `logCommit`
+	 * @throws IOException if the log cannot be written
+	 */
+	void waitForCommit(long commitLsn) throws IOException {
+		flushUpTo(commitLsn);
+	}
+
+	/**
+	 * Ends a transaction once it's pages have been handed to the page flusher, from then on they are covered by the
+	 * dirty page table
+	 * @param transactionId the id of the transaction
+	 */
+	synchronized void endTransaction(long transactionId) {
+		this.activeTransactions.remove(transactionId);
+	}
+
+	/**
+	 * Adds the page flusher of an open tree to the dirty page table
+	 * @param flusher the page flusher
+	 */
+	synchronized void register(PageFlusher flusher) {
+		this.flushers.add(flusher);
+	}
+
+	/**
+	 * Removes the page flusher of a tree that was closed, the tree has written and forced it's pages
+	 * @param flusher the page flusher
+	 */
+	synchronized void unregister(PageFlusher flusher) {
+		this.flushers.remove(flusher);
+	}
+
+	/**
+	 * *****************************
+	 * *****************************
+	 * *****************************
+	 *        Group Commit
+	 * *****************************
+	 * *****************************
+	 * *****************************
+	 */
+
+	/**
+	 * Adds a record to the append buffer
+	 * @param body the record body, positioned at it's end
+	 * @return the LSN of the record
+	 */
+	private synchronized long append(ByteBuffer body) {
+		CRC32 crc = new CRC32();
+		crc.update(body.array(), ZERO, body.position());
+		ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+		header.putInt(body.position()).putInt((int) crc.getValue());
+		this.appendBuffer.write(header.array(), ZERO, RECORD_HEADER_SIZE);
+		this.appendBuffer.write(body.array(), ZERO, body.position());
+		long lsn = this.appendedLsn;
+		this.appendedLsn += RECORD_HEADER_SIZE + body.position();
+		if (lsn - this.lastCheckpointEndLsn < CHECKPOINT_LOG_BYTES
+				&& this.appendedLsn - this.lastCheckpointEndLsn >= CHECKPOINT_LOG_BYTES) {
+			// Wake the checkpointer early so the log stays bounded under a heavy write load
+			synchronized (this.checkpointWakeUp) {
+				this.checkpointWakeUp.notifyAll();
+			}
+		}
+		return lsn;
+	}
+
+	/**
+	 * Waits until the log has been written up to an LSN. If no other thread is writing the log this one becomes the
+	 * leader and writes every record appended so far, forcing the log once for every commit waiting.
+	 * @param lsn the LSN the log must be written up to
+	 * @throws IOException if the log cannot be written
+	 */
+	private void flushUpTo(long lsn) throws IOException {
+		while (true) {
+			synchronized (this) {
+				while (this.flushing && this.flushedLsn < lsn) {
+					waitForLog();
+				}
+				if (this.flushedLsn >= lsn) {
+					return;
+				}
+				this.flushing = true;
+			}
+
+			long writtenLsn = this.flushedLsn;
+			try {
+				if (this.groupCommitWindowMicros > ZERO) {
+					// Give other commits a chance to append their records before the log is forced
+					LockSupport.parkNanos(this.groupCommitWindowMicros * 1000L);
+				}
+				byte[] batch;
+				synchronized (this) {
+					batch = this.appendBuffer.toByteArray();
+					this.appendBuffer.reset();
+					writtenLsn = this.appendedLsn;
+				}
+				ByteBuffer block = ByteBuffer.wrap(batch);
+				while (block.hasRemaining()) {
+					this.channel.write(block);
+				}
+				if (this.forceOnCommit) {
+					this.channel.force(false);
+				}
+			} finally {
+				synchronized (this) {
+					this.flushedLsn = writtenLsn;
+					this.forces++;
+					this.flushing = false;
+					notifyAll();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Waits on the log's monitor, the caller must hold it
+	 * @throws IOException if the thread is interrupted
+	 */
+	private void waitForLog() throws IOException {
+		try {
+			wait();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted waiting for the log to be written", e);
+		}
+	}
+
+	/**
+	 * *****************************
+	 * *****************************
+	 * *****************************
+	 *         Checkpoints
+	 * *****************************
+	 * *****************************
+	 * *****************************
+	 */
+
+	/**
+	 * Takes a fuzzy checkpoint unless nothing has been logged since the last one
+	 * @throws IOException if the checkpoint cannot be logged, the previous checkpoint stays in effect
+	 * @see #checkpoint(boolean)
+	 */
+	void checkpoint() throws IOException {
+		checkpoint(false);
+	}
+
+	/**
+	 * Takes a fuzzy checkpoint. Writers keep going while it runs: the dirty page table is collected from the page
+	 * flushers one at a time, the pages they have already written are forced, and the checkpoint record is logged
+	 * like any other record. Once it is forced the checkpoint file is pointed at it and the segments that end before
+	 * the redo LSN are deleted.
+	 * @param always true to take it even if nothing has been logged since the last one, pages written since then
+	 * are left out of the new dirty page table so recovery stops redoing their older images
+	 * @throws IOException if the checkpoint cannot be logged, the previous checkpoint stays in effect
+	 */
+	void checkpoint(boolean always) throws IOException {
+		synchronized (this.checkpointLock) {
+			long checkpointStartLsn;
+			long redoLsn;
+			ArrayList<PageFlusher> openFlushers;
+			synchronized (this) {
+				if (!always && this.appendedLsn == this.lastCheckpointEndLsn) {
+					return;
+				}
+				checkpointStartLsn = this.appendedLsn;
+				redoLsn = checkpointStartLsn;
+				for (long startLsn : this.activeTransactions.values()) {
+					redoLsn = Math.min(redoLsn, startLsn);
+				}
+				openFlushers = new ArrayList<>(this.flushers);
+			}
+
+			// A page written before the dirty page table is collected is not in it, so each file is forced after it's
+			// pending pages are collected and before the log that would redo them can be deleted
+			ByteArrayOutputStream dirtyPageTable = new ByteArrayOutputStream();
+			int numOfDirtyPages = ZERO;
+			for (PageFlusher flusher : openFlushers) {
+				byte[] name = flusher.getFileName().getBytes(StandardCharsets.UTF_8);
+				for (Map.Entry<Integer, Long> entry : flusher.getDirtyPageTable().entrySet()) {
+					ByteBuffer dirtyPage = ByteBuffer.allocate(DIRTY_PAGE_FIXED_SIZE + name.length);
+					dirtyPage.putShort((short) name.length).put(name).putInt(entry.getKey()).putLong(entry.getValue());
+					dirtyPageTable.write(dirtyPage.array(), ZERO, dirtyPage.capacity());
+					redoLsn = Math.min(redoLsn, entry.getValue());
+					numOfDirtyPages++;
+				}
+				try {
+					flusher.force();
+				} catch (ClosedChannelException e) {
+					// The tree was closed in the meantime and forced it's file itself
+					LOGGER.log(Level.FINE, "File closed during checkpoint: {0}", flusher.getFileName());
+				}
+			}
+
+			ByteBuffer body = ByteBuffer.allocate(CHECKPOINT_BODY_FIXED_SIZE + dirtyPageTable.size());
+			body.put(CHECKPOINT_RECORD).putLong(ZERO).putLong(redoLsn).putLong(checkpointStartLsn)
+					.putInt(numOfDirtyPages).put(dirtyPageTable.toByteArray());
+			long checkpointLsn = append(body);
+			flushUpTo(checkpointLsn + RECORD_HEADER_SIZE + body.capacity());
+			forceAndSwitchSegment();
+			writeCheckpointFile(checkpointLsn);
+			deleteSegmentsBefore(redoLsn);
+
+			synchronized (this) {
+				this.lastCheckpointEndLsn = this.appendedLsn;
+				this.checkpoints++;
+			}
+			LOGGER.log(Level.INFO, "Checkpoint at {0}, redo from {1}, dirty pages: {2}",
+					new Object[]{checkpointLsn, redoLsn, numOfDirtyPages});
+		}
+	}
+
+	/**
+	 * Forces the segment being written and starts a new one if it is full. No commit can write the log meanwhile.
+	 * @throws IOException if the segment cannot be forced or the new one cannot be created
+	 */
+	private void forceAndSwitchSegment() throws IOException {
+		synchronized (this) {
+			while (this.flushing) {
+				waitForLog();
+			}
+			this.flushing = true;
+		}
+		try {
+			this.channel.force(false);
+			if (this.flushedLsn - this.segments.lastKey() >= WAL_SEGMENT_SIZE) {
+				this.channel.close();
+				this.segmentFile.close();
+				openSegment(this.flushedLsn);
+			}
+		} finally {
+			synchronized (this) {
+				this.flushing = false;
+				notifyAll();
+			}
+		}
+	}
+
+	/**
+	 * Points the checkpoint file at a checkpoint record, the file is replaced in one step so it is never torn
+	 * @param checkpointLsn the LSN of the checkpoint record
+	 * @throws IOException if the file cannot be written
+	 */
+	private void writeCheckpointFile(long checkpointLsn) throws IOException {
+		File checkpointFile = new File(this.fileName + CHECKPOINT_FILE_SUFFIX);
+		File temporary = new File(checkpointFile.getPath() + ".tmp");
+		try (RandomAccessFile file = new RandomAccessFile(temporary, "rw")) {
+			file.setLength(ZERO);
+			file.writeLong(checkpointLsn);
+			file.getChannel().force(true);
+		}
+		Files.move(temporary.toPath(), checkpointFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+				StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Deletes every segment that ends at or before an LSN, the segment being written is always kept
+	 * @param lsn the redo LSN of the newest checkpoint
+	 */
+	private void deleteSegmentsBefore(long lsn) {
+		while (this.segments.size() > ONE) {
+			Map.Entry<Long, File> oldest = this.segments.firstEntry();
+			if (this.segments.higherKey(oldest.getKey()) > lsn) {
+				return;
+			}
+			if (!oldest.getValue().delete()) {
+				LOGGER.log(Level.WARNING, "Could not delete log segment {0}", oldest.getValue());
+				return;
+			}
+			this.segments.remove(oldest.getKey());
+		}
+	}
+
+	/**
+	 * The body of the checkpointer thread, takes a checkpoint every Config.CHECKPOINT_INTERVAL_MS or when woken early
+	 * because the log has grown by Config.CHECKPOINT_LOG_BYTES
+	 */
+	private void runCheckpointer() {
+		while (!Thread.currentThread().isInterrupted()) {
+			synchronized (this.checkpointWakeUp) {
+				try {
+					this.checkpointWakeUp.wait(CHECKPOINT_INTERVAL_MS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+			}
+			try {
+				checkpoint();
+			} catch (IOException e) {
+				LOGGER.log(Level.SEVERE, e.toString());
+			}
+		}
+	}
+
+	/**
+	 * *****************************
+	 * *****************************
+	 * *****************************
+	 *           Recovery
+	 * *****************************
+	 * *****************************
+	 * *****************************
+	 */
+
+	/**
+	 * Redoes every committed change since the last checkpoint that may not be in the files, forces them, and starts
+	 * the log over with an empty segment at the LSN the log ended at
+	 * @throws IOException if the log cannot be read or a page cannot be written
+	 */
+	void recover() throws IOException {
+		long start = System.nanoTime();
+		TreeMap<Long, File> existing = listSegments();
+		long firstLsn = existing.isEmpty() ? ZERO : existing.firstKey();
+		ByteBuffer log = readSegments(existing);
+		long endLsn = firstLsn;
+
+		if (log.hasRemaining()) {
+			LOGGER.log(Level.INFO, "Recovering from write-ahead log, bytes: {0}", log.remaining());
+			// Without a checkpoint every committed page image is redone
+			long checkpointStartLsn = Long.MIN_VALUE;
+			HashMap<String, Long> dirtyPageTable = new HashMap<>();
+			long checkpointLsn = readCheckpointFile();
+			if (checkpointLsn >= firstLsn && checkpointLsn < firstLsn + log.limit()) {
+				ByteBuffer body = readRecord(log, (int) (checkpointLsn - firstLsn));
+				if (body != null && body.get() == CHECKPOINT_RECORD) {
+					body.getLong();
+					long redoLsn = body.getLong();
+					checkpointStartLsn = body.getLong();
+					int numOfDirtyPages = body.getInt();
+					for (int i = ZERO; i < numOfDirtyPages; i++) {
+						String pageFileName = readFileName(body);
+						int pageNumber = body.getInt();
+						dirtyPageTable.put(pageKey(pageFileName, pageNumber), body.getLong());
+					}
+					log.position((int) (Math.max(redoLsn, firstLsn) - firstLsn));
+				}
+			}
+			this.recoveryLogBytes = log.remaining();
+
+			// Page records are held back until their transaction's commit record is seen
+			HashMap<Long, ArrayList<PageImage>> openTransactions = new HashMap<>();
+			LinkedHashMap<String, ArrayList<PageImage>> committed = new LinkedHashMap<>();
+			int numOfCommitted = ZERO;
+			while (true) {
+				int position = log.position();
+				ByteBuffer body = readRecord(log, position);
+				if (body == null) {
+					break;
+				}
+				log.position(position + RECORD_HEADER_SIZE + body.remaining());
+				long lsn = firstLsn + position;
+				byte type = body.get();
+				long transactionId = body.getLong();
+				if (type == COMMIT_RECORD) {
+					ArrayList<PageImage> pages = openTransactions.remove(transactionId);
+					for (PageImage image : Optional.ofNullable(pages).orElseGet(ArrayList::new)) {
+						committed.computeIfAbsent(image.fileName, name -> new ArrayList<>()).add(image);
+					}
+					numOfCommitted++;
+				} else if (type == PAGE_RECORD) {
+					String pageFileName = readFileName(body);
+					int pageNumber = body.getInt();
+					Long recoveryLsn = dirtyPageTable.get(pageKey(pageFileName, pageNumber));
+					if (lsn < checkpointStartLsn && (recoveryLsn == null || lsn < recoveryLsn)) {
+						// Written and forced before the checkpoint
+						continue;
+					}
+					byte[] page = new byte[body.remaining()];
+					body.get(page);
+					openTransactions.computeIfAbsent(transactionId, id -> new ArrayList<>())
+							.add(new PageImage(pageFileName, pageNumber, page));
+				}
+			}
+			endLsn = firstLsn + log.position();
+			LOGGER.log(Level.INFO, "Redoing {0} transactions, {1} were not committed",
+					new Object[]{numOfCommitted, openTransactions.size()});
+			this.pagesRedone = redo(committed);
+		}
+
+		// Everything committed is in the files now, the log starts over where it ended
+		for (File segment : existing.values()) {
+			Files.deleteIfExists(segment.toPath());
+		}
+		Files.deleteIfExists(new File(this.fileName + CHECKPOINT_FILE_SUFFIX).toPath());
+		this.segments.clear();
+		openSegment(endLsn);
+		this.appendedLsn = endLsn;
+		this.flushedLsn = endLsn;
+		this.lastCheckpointEndLsn = endLsn;
+		this.recoveryMillis = (System.nanoTime() - start) / 1_000_000L;
+		LOGGER.log(Level.INFO, "Recovery finished in {0} ms, pages redone: {1}",
+				new Object[]{this.recoveryMillis, this.pagesRedone});
+	}
+
+	/**
+	 * Writes page images back to their files. Every file is redone by it's own task, within a file the images are
+	 * written in log order so the newest image of a page is written last.
+	 * @param pagesByFile the page images of committed transactions by file name
+	 * @return the number of pages written
+	 * @throws IOException if a page cannot be written
+	 */
+	private static long redo(LinkedHashMap<String, ArrayList<PageImage>> pagesByFile) throws IOException {
+		if (pagesByFile.isEmpty()) {
+			return ZERO;
+		}
+		ExecutorService pool = Executors.newFixedThreadPool(Math.min(RECOVERY_THREADS, pagesByFile.size()));
+		try {
+			ArrayList<Future<Integer>> tasks = new ArrayList<>();
+			for (Map.Entry<String, ArrayList<PageImage>> entry : pagesByFile.entrySet()) {
+				tasks.add(pool.submit(() -> redoFile(entry.getKey(), entry.getValue())));
+			}
+			long pagesWritten = ZERO;
+			for (Future<Integer> task : tasks) {
+				pagesWritten += task.get();
+			}
+			return pagesWritten;
+		} catch (ExecutionException e) {
+			throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted during recovery", e);
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Writes the page images of one file in log order and forces the file
+	 * @param pageFileName the fully qualified file name
+	 * @param pages the page images of the file
+	 * @return the number of pages written
+	 * @throws IOException if a page cannot be written
+	 */
+	private static int redoFile(String pageFileName, ArrayList<PageImage> pages) throws IOException {
+		if (!new File(pageFileName).exists()) {
+			// The table was dropped after the change was logged
+			return ZERO;
+		}
+		// Every image is a whole page, the header may be one of the pages being redone so it is not read for the size
+		int pageSize = pages.get(ZERO).page.length;
+		PageFile file = new ChannelPageFile(pageFileName, pageSize);
+		try {
+			for (PageImage image : pages) {
+				file.writePage(image.pageNumber, ByteBuffer.wrap(image.page));
+			}
+			file.force();
+		} finally {
+			file.close();
+		}
+		return pages.size();
+	}
+
+	/**
+	 * Closes the segment being written, records that were appended but never committed are lost
+	 * @throws IOException if the log cannot be closed
+	 */
+	void close() throws IOException {
+		this.channel.close();
+		this.segmentFile.close();
+	}
+
+	/**
+	 * *****************************
+	 * *****************************
+	 * *****************************
+	 *           Helpers
+	 * *****************************
+	 * *****************************
+	 * *****************************
+	 */
+
+	/**
+	 * Finds the segment files of the log, a log written as a single file before segments is read as a segment
+	 * starting at LSN 0
+	 * @return the segment files by the LSN they start at
+	 */
+	private TreeMap<Long, File> listSegments() {
+		TreeMap<Long, File> found = new TreeMap<>();
+		File log = new File(this.fileName).getAbsoluteFile();
+		String prefix = log.getName() + ".";
+		File[] files = Optional.ofNullable(log.getParentFile().listFiles()).orElse(new File[ZERO]);
+		for (File file : files) {
+			String suffix = file.getName().startsWith(prefix) ? file.getName().substring(prefix.length()) : "";
+			if (!suffix.isEmpty() && suffix.chars().allMatch(Character::isDigit)) {
+				found.put(Long.parseLong(suffix), file);
+			}
+		}
+		if (log.exists()) {
+			found.putIfAbsent((long) ZERO, log);
+		}
+		return found;
+	}
+
+	/**
+	 * Reads the segments into one buffer, stopping at the first segment that does not start where the one before it
+	 * ended
+	 * @param existing the segment files by the LSN they start at
+	 * @return a buffer holding the log from the start of the first segment
+	 * @throws IOException if a segment cannot be read
+	 */
+	private static ByteBuffer readSegments(TreeMap<Long, File> existing) throws IOException {
+		ByteArrayOutputStream log = new ByteArrayOutputStream();
+		long expectedLsn = existing.isEmpty() ? ZERO : existing.firstKey();
+		for (Map.Entry<Long, File> segment : existing.entrySet()) {
+			if (segment.getKey() != expectedLsn) {
+				break;
+			}
+			byte[] bytes = Files.readAllBytes(segment.getValue().toPath());
+			log.write(bytes, ZERO, bytes.length);
+			expectedLsn += bytes.length;
+		}
+		return ByteBuffer.wrap(log.toByteArray());
+	}
+
+	/**
+	 * Reads the LSN of the newest checkpoint
+	 * @return the LSN, or -1 if there is no checkpoint file
+	 * @throws IOException if the file cannot be read
+	 */
+	private long readCheckpointFile() throws IOException {
+		File checkpointFile = new File(this.fileName + CHECKPOINT_FILE_SUFFIX);
+		if (checkpointFile.length() < Long.BYTES) {
+			return -ONE;
+		}
+		try (RandomAccessFile file = new RandomAccessFile(checkpointFile, "r")) {
+			return file.readLong();
+		}
+	}
+
+	/**
+	 * Reads the record at a position of the log, checking it's checksum
+	 * @param log the log
+	 * @param position the position of the record
+	 * @return a buffer holding the body of the record, null if the record is cut short or fails it's checksum, which
+	 * is where the log was when the crash happened
+	 */
+	private static ByteBuffer readRecord(ByteBuffer log, int position) {
+		if (log.limit() - position < RECORD_HEADER_SIZE) {
+			return null;
+		}
+		int bodyLength = log.getInt(position);
+		int checksum = log.getInt(position + Integer.BYTES);
+		int bodyStart = position + RECORD_HEADER_SIZE;
+		if (bodyLength < COMMIT_BODY_SIZE || bodyLength > log.limit() - bodyStart) {
+			return null;
+		}
+		CRC32 crc = new CRC32();
+		crc.update(log.array(), bodyStart, bodyLength);
+		if ((int) crc.getValue() != checksum) {
+			return null;
+		}
+		return ByteBuffer.wrap(log.array(), bodyStart, bodyLength).slice();
+	}
+
+	/**
+	 * Reads a length prefixed file name from a record body
+	 * @param body the record body positioned at the file name
+	 * @return the file name
+	 */
+	private static String readFileName(ByteBuffer body) {
+		byte[] name = new byte[body.getShort()];
+		body.get(name);
+		return new String(name, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Returns the key of a page in the dirty page table
+	 * @param pageFileName the fully qualified file name
+	 * @param pageNumber the page number
+	 * @return a key unique to the page
+	 */
+	private static String pageKey(String pageFileName, int pageNumber) {
+		return pageFileName + ":" + pageNumber;
+	}
+
+	/**
+	 * Creates a new segment and makes it the one being written
+	 * @param startLsn the LSN of the first byte of the segment
+	 * @throws IOException if the segment cannot be created
+	 */
+	private void openSegment(long startLsn) throws IOException {
+		File segment = new File(this.fileName + String.format(SEGMENT_SUFFIX_FORMAT, startLsn));
+		this.segmentFile = new RandomAccessFile(segment, "rw");
+		this.segmentFile.setLength(ZERO);
+		this.channel = this.segmentFile.getChannel();
+		this.segments.put(startLsn, segment);
+	}
+
+	/**
+	 * *****************************
+	 * *****************************
+	 * *****************************
+	 *     Settings and Statistics
+	 * *****************************
+	 * *****************************
+	 * *****************************
+	 */
+
+	/**
+	 * Setter for property 'groupCommitWindowMicros'.
+	 *
+	 * @param groupCommitWindowMicros how long a leader waits for other commits before writing the log
+	 */
+	public synchronized void setGroupCommitWindowMicros(long groupCommitWindowMicros) {
+		this.groupCommitWindowMicros = groupCommitWindowMicros;
+	}
+
+	/**
+	 * Setter for property 'forceOnCommit'.
+	 *
+	 * @param forceOnCommit true if the log is forced to the storage device before a commit returns
+	 */
+	public synchronized void setForceOnCommit(boolean forceOnCommit) {
+		this.forceOnCommit = forceOnCommit;
+	}
+
+	/**
+	 * Getter for property 'commits'.
+	 *
+	 * @return the number of transactions committed
+	 */
+	public synchronized long getCommits() { return this.commits; }
+
+	/**
+	 * Getter for property 'forces'.
+	 *
+	 * @return the number of times the log was written, one per group of commits
+	 */
+	public synchronized long getForces() { return this.forces; }
+
+	/**
+	 * Getter for property 'checkpoints'.
+	 *
+	 * @return the number of checkpoints taken
+	 */
+	public synchronized long getCheckpoints() { return this.checkpoints; }
+
+	/**
+	 * Getter for property 'recoveryMillis'.
+	 *
+	 * @return how long recovery took when the log was opened, in milliseconds
+	 */
+	public long getRecoveryMillis() { return this.recoveryMillis; }
+
+	/**
+	 * Getter for property 'recoveryLogBytes'.
+	 *
+	 * @return the number of log bytes recovery read, from the redo LSN of the last checkpoint to the end of the log
+	 */
+	public long getRecoveryLogBytes() { return this.recoveryLogBytes; }
+
+	/**
+	 * Getter for property 'pagesRedone'.
+	 *
+	 * @return the number of pages recovery wrote back to the files
+	 */
+	public long getPagesRedone() { return this.pagesRedone; }
+
+	/**
+	 * Returns the number of bytes in the segments of the log
+	 * @return the size of the log on disk
+	 */
+	public long getLogSize() {
+		synchronized (this.checkpointLock) {
+			return this.segments.values().stream().mapToLong(File::length).sum();
+		}
+	}
+
+	/**
+	 * Resets the commit and force counters
+	 */
+	public synchronized void resetStatistics() {
+		this.commits = ZERO;
+		this.forces = ZERO;
+	}
+
+	/**
+	 * A page image read from the log
+	 */
+	private static final class PageImage {
+		private final String fileName;
+		private final int pageNumber;
+		private final byte[] page;
+
+		PageImage(String fileName, int pageNumber, byte[] page) {
+			this.fileName = fileName;
+			this.pageNumber = pageNumber;
+			this.page = page;
+		}
+	}
+}
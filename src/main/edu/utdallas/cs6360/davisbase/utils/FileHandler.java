@@ -55,6 +55,13 @@ public class FileHandler {
             e.printStackTrace();
         }
 
+        /** Create davisbase_indexes system catalog */
+        try {
+            TableTree tableTreeIndexes = new TableTree(CATALOG_INDEX, DatabaseType.CATALOG);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+
     }
 
 
@@ -91,6 +98,21 @@ public class FileHandler {
 		}
 	}
 
+	/**
+	 * A static method to return an index file name given the index's name, index files are kept next to the table
+	 * files
+	 * @param indexName the name of the index
+	 * @param type DatabaseType.CATALOG or DatabaseType.USER
+	 * @return the path of the index file
+	 */
+	public static String getIndexFileName(String indexName, DatabaseType type) {
+		if(type == DatabaseType.USER) {
+			return USER_DATA_DIRECTORY + "/" + indexName + ".ndx";
+		} else {
+			return CATALOG_DIRECTORY + "/" + indexName + ".ndx";
+		}
+	}
+
     /**
      * A static method that creates a file from a table name and checks
      * if it exists and is not a directory
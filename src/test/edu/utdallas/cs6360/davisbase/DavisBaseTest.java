@@ -4,6 +4,9 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -34,4 +37,45 @@ class DavisBaseTest {
 	@Test
 	void printDef() {
 	}
-}
\ No newline at end of file
+	
+	@Test
+	void getRowIdRange() {
+		assertArrayEquals(new int[]{6, Integer.MAX_VALUE}, DavisBase.getRowIdRange(condition(">", "5")));
+		assertArrayEquals(new int[]{0, 4}, DavisBase.getRowIdRange(condition("<", "5")));
+		assertArrayEquals(new int[]{5, 5}, DavisBase.getRowIdRange(condition("=", "5")));
+		assertNull(DavisBase.getRowIdRange(condition("<", "abc")));
+		assertNull(DavisBase.getRowIdRange(condition("!=", "5")));
+	}
+	
+	@Test
+	void getRowIdRangeAtTheLimits() {
+		// Nothing is past either end of an int, the bounds must not wrap around to match every row
+		assertEmpty(DavisBase.getRowIdRange(condition(">", Integer.toString(Integer.MAX_VALUE))));
+		assertEmpty(DavisBase.getRowIdRange(condition("<", Integer.toString(Integer.MIN_VALUE))));
+		assertEmpty(DavisBase.getRowIdRange(condition("<", "0")));
+		assertEmpty(DavisBase.getRowIdRange(condition("<=", "-1")));
+		assertArrayEquals(new int[]{Integer.MAX_VALUE, Integer.MAX_VALUE},
+				DavisBase.getRowIdRange(condition(">=", Integer.toString(Integer.MAX_VALUE))));
+		assertArrayEquals(new int[]{0, Integer.MAX_VALUE},
+				DavisBase.getRowIdRange(condition(">", Integer.toString(Integer.MIN_VALUE))));
+	}
+	
+	/**
+	 * Builds the tokens of a condition on the rowid column
+	 * @param operator the comparison operator
+	 * @param value the value compared to
+	 * @return the column name, operator, and value
+	 */
+	private static ArrayList<String> condition(String operator, String value) {
+		return new ArrayList<>(Arrays.asList("rowid", operator, value));
+	}
+	
+	/**
+	 * Checks that a rowId range matches no rowId
+	 * @param range the first and last rowId of the range
+	 */
+	private static void assertEmpty(int[] range) {
+		assertNotNull(range);
+		assertTrue(range[0] > range[1]);
+	}
+}
@@ -0,0 +1,141 @@
+package edu.utdallas.cs6360.davisbase.trees;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static edu.utdallas.cs6360.davisbase.Config.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit class for BufferPool
+ * @author Charles Krol
+ * @author Matthew Villarreal
+ * @author Michael Del Rosario
+ * @author Mithil Vijay
+ */
+class BufferPoolTest {
+	static final String FILE_NAME = "pool.tbl";
+	static final int CAPACITY = 3;
+	static ArrayList<DataType> columnTypes = new ArrayList<>(Arrays.asList(DataType.INT_TYPE_CODE));
+
+	BufferPool pool;
+	TableConfig config;
+	int reads;
+
+	@BeforeEach
+	void setUp() {
+		pool = new BufferPool(CAPACITY);
+		config = new TableConfig(columnTypes);
+		reads = ZERO;
+	}
+
+	/**
+	 * Stands in for the tree reading a page from its file
+	 */
+	Page load(int pageNumber) {
+		reads++;
+		return new TableLeafPage(PageType.TABLE_LEAF_PAGE, pageNumber, -ONE, config);
+	}
+
+	@Test
+	@DisplayName("A cached page is returned without reading it again")
+	void fetchHit() {
+		Page first = pool.fetchPage(FILE_NAME, null, ONE, this::load);
+		pool.unpinPage(FILE_NAME, ONE, false);
+		Page second = pool.fetchPage(FILE_NAME, null, ONE, this::load);
+		pool.unpinPage(FILE_NAME, ONE, false);
+
+		assertSame(first, second);
+		assertEquals(ONE, reads);
+		assertEquals(ONE, pool.getHits());
+		assertEquals(ONE, pool.getMisses());
+	}
+
+	@Test
+	@DisplayName("Pages are keyed by file name as well as page number")
+	void separateFiles() {
+		Page first = pool.fetchPage(FILE_NAME, null, ONE, this::load);
+		Page second = pool.fetchPage("other.tbl", null, ONE, this::load);
+
+		assertNotSame(first, second);
+		assertEquals(TWO, pool.getMisses());
+	}
+
+	@Test
+	@DisplayName("The clock evicts an unreferenced page once the pool is full")
+	void clockEviction() {
+		for (int i = ZERO; i < CAPACITY + ONE; i++) {
+			pool.fetchPage(FILE_NAME, null, i, this::load);
+			pool.unpinPage(FILE_NAME, i, false);
+		}
+		assertEquals(CAPACITY, pool.getSize());
+		assertEquals(ONE, pool.getEvictions());
+
+		// Page 0 was the victim so asking for it again is a miss
+		pool.fetchPage(FILE_NAME, null, ZERO, this::load);
+		assertEquals(CAPACITY + TWO, reads);
+	}
+
+	@Test
+	@DisplayName("Pinned pages are never evicted")
+	void pinnedPagesStay() {
+		Page pinned = pool.fetchPage(FILE_NAME, null, ZERO, this::load);
+		for (int i = ONE; i < CAPACITY * TWO; i++) {
+			pool.fetchPage(FILE_NAME, null, i, this::load);
+			pool.unpinPage(FILE_NAME, i, false);
+		}
+		assertSame(pinned, pool.fetchPage(FILE_NAME, null, ZERO, this::load));
+	}
+
+	@Test
+	@DisplayName("Fetching when every page is pinned fails")
+	void allPinned() {
+		for (int i = ZERO; i < CAPACITY; i++) {
+			pool.fetchPage(FILE_NAME, null, i, this::load);
+		}
+		assertThrows(IllegalStateException.class, () -> pool.fetchPage(FILE_NAME, null, CAPACITY, this::load));
+	}
+
+	@Test
+	@DisplayName("A page renumbered after it was cached is not returned for its old number")
+	void renumberedPage() {
+		Page page = pool.fetchPage(FILE_NAME, null, ZERO, this::load);
+		pool.unpinPage(FILE_NAME, ZERO, false);
+		page.setPageNumber(TWO);
+		pool.putPage(FILE_NAME, null, page);
+
+		assertNotSame(page, pool.fetchPage(FILE_NAME, null, ZERO, this::load));
+		assertSame(page, pool.fetchPage(FILE_NAME, null, TWO, this::load));
+	}
+
+	@Test
+	@DisplayName("A peek returns a cached page without pinning it and an evicted page is marked obsolete")
+	void peekPage() {
+		assertNull(pool.peekPage(FILE_NAME, ZERO));
+		Page page = pool.fetchPage(FILE_NAME, null, ZERO, this::load);
+		pool.unpinPage(FILE_NAME, ZERO, false);
+		assertSame(page, pool.peekPage(FILE_NAME, ZERO));
+		assertEquals(ONE, pool.getHits() + pool.getMisses());
+
+		for (int i = ONE; i < CAPACITY * TWO; i++) {
+			pool.fetchPage(FILE_NAME, null, i, this::load);
+			pool.unpinPage(FILE_NAME, i, false);
+		}
+		assertNull(pool.peekPage(FILE_NAME, ZERO));
+		assertTrue(page.isObsolete());
+	}
+
+	@Test
+	@DisplayName("Discarding a file drops every page cached for it")
+	void discardFile() {
+		pool.fetchPage(FILE_NAME, null, ZERO, this::load);
+		pool.fetchPage("other.tbl", null, ZERO, this::load);
+		pool.discardFile(FILE_NAME);
+
+		assertEquals(ONE, pool.getSize());
+	}
+}
@@ -0,0 +1,91 @@
+package edu.utdallas.cs6360.davisbase.trees;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+
+import static edu.utdallas.cs6360.davisbase.Config.*;
+
+/**
+ * Compares loading an empty table with TableTree.bulkLoad against inserting the same rows one at a time and in
+ * batches with TableTree.insertBatch. The bulk loader writes every page once, so it should load a million rows in
+ * seconds. A batch is committed once, so batches should be far faster than single row inserts.<br>
+ *
+ * Run with: java edu.utdallas.cs6360.davisbase.trees.BulkLoadBenchmark [rows] [insertRows] [batchSize]
+ *
+ * @author Charles Krol
+ * @author Matthew Villarreal
+ * @author Michael Del Rosario
+ * @author Mithil Vijay
+ */
+class BulkLoadBenchmark {
+	static final String TABLE_NAME = "bulk_load_benchmark";
+	static final int DEFAULT_ROWS = 1000000;
+	static final int DEFAULT_INSERT_ROWS = 100000;
+	static final int DEFAULT_BATCH_SIZE = 1000;
+	static ArrayList<DataType> columnTypes = new ArrayList<>(Arrays.asList(DataType.INT_TYPE_CODE,
+			DataType.LONG_TYPE_CODE, DataType.LONG_TYPE_CODE));
+	
+	public static void main(String[] args) throws IOException {
+		int rows = args.length > ZERO ? Integer.parseInt(args[ZERO]) : DEFAULT_ROWS;
+		int insertRows = args.length > ONE ? Integer.parseInt(args[ONE]) : DEFAULT_INSERT_ROWS;
+		int batchSize = args.length > TWO ? Integer.parseInt(args[TWO]) : DEFAULT_BATCH_SIZE;
+		new File(USER_DATA_DIRECTORY).mkdirs();
+		
+		TableTree tree = new TableTree(TABLE_NAME, columnTypes);
+		long start = System.nanoTime();
+		tree.bulkLoad(records(rows));
+		tree.close();
+		long bulkMillis = (System.nanoTime() - start) / 1000000;
+		System.out.printf("bulkLoad  %9d rows  %7d ms  height %d%n", rows, bulkMillis, tree.getCurrentHeight());
+		new File(tree.getFileName()).delete();
+		
+		tree = new TableTree(TABLE_NAME, columnTypes);
+		start = System.nanoTime();
+		for (Iterator<DataRecord> it = records(insertRows); it.hasNext(); ) {
+			tree.insert(it.next());
+		}
+		tree.close();
+		long insertMillis = (System.nanoTime() - start) / 1000000;
+		System.out.printf("insert    %9d rows  %7d ms%n", insertRows, insertMillis);
+		new File(tree.getFileName()).delete();
+		
+		tree = new TableTree(TABLE_NAME, columnTypes);
+		start = System.nanoTime();
+		ArrayList<DataRecord> batch = new ArrayList<>(batchSize);
+		for (Iterator<DataRecord> it = records(insertRows); it.hasNext(); ) {
+			batch.add(it.next());
+			if (batch.size() == batchSize || !it.hasNext()) {
+				tree.insertBatch(batch);
+				batch.clear();
+			}
+		}
+		tree.close();
+		long batchMillis = (System.nanoTime() - start) / 1000000;
+		System.out.printf("batch     %9d rows  %7d ms  %d rows per batch%n", insertRows, batchMillis, batchSize);
+		new File(tree.getFileName()).delete();
+	}
+	
+	/**
+	 * Generates rows without holding them all in memory
+	 * @param rows the number of rows to generate
+	 * @return an iterator over the rows
+	 */
+	static Iterator<DataRecord> records(int rows) {
+		return new Iterator<DataRecord>() {
+			private int next = ZERO;
+			
+			@Override
+			public boolean hasNext() { return next < rows; }
+			
+			@Override
+			public DataRecord next() {
+				int i = next++;
+				return new DataRecord(columnTypes, new ArrayList<>(Arrays.asList(Integer.toString(i),
+						Long.toString(i), Long.toString(i * 31L))));
+			}
+		};
+	}
+}
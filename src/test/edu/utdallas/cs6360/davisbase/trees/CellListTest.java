@@ -0,0 +1,100 @@
+package edu.utdallas.cs6360.davisbase.trees;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static edu.utdallas.cs6360.davisbase.Config.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit class for CellList, the lazily decoded data cells of a page
+ * @author Charles Krol
+ * @author Matthew Villarreal
+ * @author Michael Del Rosario
+ * @author Mithil Vijay
+ */
+class CellListTest {
+	static ArrayList<DataType> columnTypes = new ArrayList<>(Arrays.asList(DataType.INT_TYPE_CODE));
+	static final int NUM_OF_CELLS = 10;
+
+	TableConfig config;
+	byte[] pageBytes;
+
+	@BeforeEach
+	void setUp() {
+		config = new TableConfig(columnTypes);
+		TableLeafPage page = new TableLeafPage(PageType.TABLE_LEAF_PAGE, ONE, -ONE, config);
+		// Every other rowId so there are gaps to insert into
+		for (int i = ONE; i <= NUM_OF_CELLS; i++) {
+			page.addDataCell(new TableLeafCell(i * TWO, new DataRecord(columnTypes,
+					new ArrayList<>(Arrays.asList(Integer.toString(i))))));
+		}
+		pageBytes = page.getBytes();
+	}
+
+	@Test
+	@DisplayName("Reading a page decodes none of it's cells and a lookup decodes only the cell it returns")
+	void lookupIsLazy() {
+		TableLeafPage page = new TableLeafPage(pageBytes, ONE, config);
+		assertEquals(NUM_OF_CELLS, page.getNumOfCells());
+		assertEquals(ZERO, page.getNumOfDecodedCells());
+
+		assertEquals(TWO * NUM_OF_CELLS, page.getMaxRowId());
+		assertTrue(page.contains(new TableLeafCell(FOUR)));
+		assertEquals(ZERO, page.getNumOfDecodedCells());
+
+		assertEquals(FOUR * TWO, page.getDataCell(FOUR * TWO).getRowId());
+		assertEquals(ONE, page.getNumOfDecodedCells());
+	}
+
+	@Test
+	@DisplayName("Cells of different sizes are found through the slot array")
+	void slotArrayLookup() {
+		ArrayList<DataType> textTypes = new ArrayList<>(Arrays.asList(DataType.TEXT_TYPE_CODE));
+		TableConfig textConfig = new TableConfig(textTypes);
+		TableLeafPage page = new TableLeafPage(PageType.TABLE_LEAF_PAGE, ONE, -ONE, textConfig);
+		StringBuilder text = new StringBuilder();
+		for (int i = ONE; i <= NUM_OF_CELLS; i++) {
+			text.append(i);
+			page.addDataCell(new TableLeafCell(i, new DataRecord(textTypes,
+					new ArrayList<>(Arrays.asList(text.toString())))));
+		}
+
+		TableLeafPage read = new TableLeafPage(page.getBytes(), ONE, textConfig);
+		for (int i = NUM_OF_CELLS; i >= ONE; i--) {
+			assertEquals(page.getDataCell(i), read.getDataCell(i));
+		}
+		assertNull(read.getDataCellFromRowId(NUM_OF_CELLS + ONE));
+		assertEquals(NUM_OF_CELLS, read.getNumOfDecodedCells());
+	}
+
+	@Test
+	@DisplayName("An unchanged page is written back byte for byte without decoding it's cells")
+	void rewriteUnchanged() {
+		TableLeafPage page = new TableLeafPage(pageBytes, ONE, config);
+		// Only the cell offsets and cells are compared, the header is covered by the page tests
+		assertArrayEquals(Arrays.copyOfRange(pageBytes, PAGE_HEADER_SIZE, pageBytes.length),
+				Arrays.copyOfRange(page.getBytes(), PAGE_HEADER_SIZE, pageBytes.length));
+		assertEquals(ZERO, page.getNumOfDecodedCells());
+	}
+
+	@Test
+	@DisplayName("Added cells are placed in rowId order among the cells read from the file")
+	void addKeepsOrder() {
+		TableLeafPage page = new TableLeafPage(pageBytes, ONE, config);
+		page.addDataCell(new TableLeafCell(FIVE, new DataRecord(columnTypes,
+				new ArrayList<>(Arrays.asList("42")))));
+		assertEquals(ONE, page.getNumOfDecodedCells());
+
+		TableLeafPage read = new TableLeafPage(page.getBytes(), ONE, config);
+		assertEquals(NUM_OF_CELLS + ONE, read.getNumOfCells());
+		for (int i = ONE; i < read.getNumOfCells(); i++) {
+			assertTrue(read.getDataCells().get(i - ONE).getRowId() < read.getDataCells().get(i).getRowId());
+		}
+		assertEquals(FIVE, read.getDataCells().get(TWO).getRowId());
+	}
+}
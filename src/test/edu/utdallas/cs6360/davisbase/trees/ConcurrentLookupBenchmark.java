@@ -0,0 +1,103 @@
+package edu.utdallas.cs6360.davisbase.trees;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static edu.utdallas.cs6360.davisbase.Config.*;
+
+/**
+ * Measures the throughput of TableTree.get on random rowIds with 1, 2, 4, ... threads looking up rows at the same
+ * time, first on their own and then while one more thread keeps appending rows. Every run is done once with the
+ * readers latching their way down the tree and once with optimistic lock coupling, where the interior pages are read
+ * without latches and validated afterwards. Readers only share latches for reading, so lookups should scale with the
+ * number of threads until they run out of cores, and further without the contention on the root's latch.<br>
+ *
+ * Run with: java edu.utdallas.cs6360.davisbase.trees.ConcurrentLookupBenchmark [rows] [lookups per thread] [threads]
+ *
+ * @author Charles Krol
+ * @author Matthew Villarreal
+ * @author Michael Del Rosario
+ * @author Mithil Vijay
+ */
+class ConcurrentLookupBenchmark {
+	static final String TABLE_NAME = "concurrent_lookup_benchmark";
+	static final int DEFAULT_ROWS = 100000;
+	static final int DEFAULT_LOOKUPS = 500000;
+	static final int APPEND_BATCH_SIZE = 100;
+
+	public static void main(String[] args) throws Exception {
+		int rows = args.length > ZERO ? Integer.parseInt(args[ZERO]) : DEFAULT_ROWS;
+		int lookups = args.length > ONE ? Integer.parseInt(args[ONE]) : DEFAULT_LOOKUPS;
+		int maxThreads = args.length > TWO ? Integer.parseInt(args[TWO]) : Runtime.getRuntime().availableProcessors();
+		new File(USER_DATA_DIRECTORY).mkdirs();
+
+		TableTree tree = new TableTree(TABLE_NAME, BulkLoadBenchmark.columnTypes);
+		tree.bulkLoad(BulkLoadBenchmark.records(rows));
+		ArrayList<DataRecord> appends = new ArrayList<>();
+		BulkLoadBenchmark.records(APPEND_BATCH_SIZE).forEachRemaining(appends::add);
+
+		// Warm up the buffer pool and the JIT before timing
+		run(tree, rows, lookups, ONE, null);
+		for (boolean optimisticReads : new boolean[] {false, true}) {
+			tree.setOptimisticReads(optimisticReads);
+			String mode = optimisticReads ? "optimistic" : "latched";
+			for (int threads = ONE; threads <= maxThreads; threads *= TWO) {
+				report("get", mode, threads, lookups, run(tree, rows, lookups, threads, null));
+				report("get+append", mode, threads, lookups, run(tree, rows, lookups, threads, appends));
+			}
+		}
+		tree.close();
+		new File(tree.getFileName()).delete();
+	}
+
+	/**
+	 * Looks up random rows from several threads at once
+	 * @param tree the tree
+	 * @param rows the number of rows the lookups choose from
+	 * @param lookups the number of lookups per thread
+	 * @param threads the number of threads looking up rows
+	 * @param appends rows appended in batches by one more thread for as long as the lookups run, null for none
+	 * @return the nanoseconds until every lookup was done
+	 */
+	private static long run(TableTree tree, int rows, int lookups, int threads, ArrayList<DataRecord> appends)
+			throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(threads + ONE);
+		ArrayList<Future<Integer>> readers = new ArrayList<>();
+		long start = System.nanoTime();
+		for (int thread = ZERO; thread < threads; thread++) {
+			Random random = new Random(thread);
+			readers.add(executor.submit(() -> {
+				int found = ZERO;
+				for (int i = ZERO; i < lookups; i++) {
+					found += tree.get(random.nextInt(rows)).isPresent() ? ONE : ZERO;
+				}
+				return found;
+			}));
+		}
+		Future<?> writer = appends == null ? null : executor.submit(() -> {
+			while (!readers.stream().allMatch(Future::isDone)) {
+				tree.insertBatch(appends);
+			}
+		});
+		for (Future<Integer> reader : readers) {
+			if (reader.get() != lookups) {
+				throw new IllegalStateException("Lookups missed rows");
+			}
+		}
+		long nanos = System.nanoTime() - start;
+		if (writer != null) {
+			writer.get();
+		}
+		executor.shutdown();
+		return nanos;
+	}
+
+	private static void report(String name, String mode, int threads, int lookups, long nanos) {
+		System.out.printf("%-10s  %-10s  %2d threads  %9d lookups/thread  %10.0f lookups/s%n", name, mode, threads,
+				lookups, (double) threads * lookups / nanos * 1e9);
+	}
+}
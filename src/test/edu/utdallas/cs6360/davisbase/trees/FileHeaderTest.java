@@ -0,0 +1,82 @@
+package edu.utdallas.cs6360.davisbase.trees;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static edu.utdallas.cs6360.davisbase.Config.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit class for FileHeader
+ * @author Charles Krol
+ * @author Matthew Villarreal
+ * @author Michael Del Rosario
+ * @author Mithil Vijay
+ */
+class FileHeaderTest {
+	static final int LARGE_PAGE_SIZE = 8192;
+	static ArrayList<DataType> columnTypes = new ArrayList<>(Arrays.asList(DataType.INT_TYPE_CODE,
+			DataType.TEXT_TYPE_CODE, DataType.DOUBLE_TYPE_CODE));
+
+	@Test
+	@DisplayName("The page size and column types are read back from an encoded header")
+	void roundTrip() throws IOException {
+		FileHeader header = new FileHeader(LARGE_PAGE_SIZE, columnTypes);
+		ByteBuffer encoded = header.encode(ByteBuffer.allocate(LARGE_PAGE_SIZE));
+		assertEquals(LARGE_PAGE_SIZE, encoded.remaining());
+
+		FileHeader decoded = FileHeader.decode(encoded);
+		assertEquals(LARGE_PAGE_SIZE, decoded.getPageSize());
+		assertEquals(columnTypes, decoded.getColTypes());
+		assertEquals(TreeMetadata.emptyTree(), decoded.getMetadata());
+	}
+
+	@Test
+	@DisplayName("The tree's root, height and counters are read back from an encoded header")
+	void metadataRoundTrip() throws IOException {
+		TreeMetadata metadata = TreeMetadata.emptyTree().apply(1000, 40, 36, 3, 2);
+		FileHeader header = new FileHeader(PAGE_SIZE, columnTypes).withMetadata(metadata);
+		FileHeader decoded = FileHeader.decode(header.encode(ByteBuffer.allocate(PAGE_SIZE)));
+		assertEquals(metadata, decoded.getMetadata());
+		assertEquals(new TreeMetadata((int) ROOT_PAGE_NUMBER, TWO, 1000, 41, 37, THREE), decoded.getMetadata());
+	}
+
+	@Test
+	@DisplayName("The flags and included columns of a file are read back and kept when the metadata changes")
+	void flagsRoundTrip() throws IOException {
+		FileHeader plain = FileHeader.decode(new FileHeader(PAGE_SIZE, columnTypes)
+				.encode(ByteBuffer.allocate(PAGE_SIZE)));
+		assertFalse(plain.hasFlag(FileHeader.UNIQUE_FLAG));
+		assertEquals(ZERO, plain.getNumOfIncludedColumns());
+
+		FileHeader header = new FileHeader(PAGE_SIZE, columnTypes, FileHeader.UNIQUE_FLAG, ONE)
+				.withMetadata(TreeMetadata.emptyTree().apply(10, 1, 1, 0, 0));
+		FileHeader decoded = FileHeader.decode(header.encode(ByteBuffer.allocate(PAGE_SIZE)));
+		assertTrue(decoded.hasFlag(FileHeader.UNIQUE_FLAG));
+		assertEquals(ONE, decoded.getNumOfIncludedColumns());
+		assertEquals(columnTypes, decoded.getColTypes());
+	}
+
+	@Test
+	@DisplayName("A file without the header magic number is rejected")
+	void badMagic() {
+		assertThrows(IOException.class, () -> FileHeader.decode(ByteBuffer.allocate(MIN_PAGE_SIZE)));
+	}
+
+	@Test
+	@DisplayName("Larger pages give the tree a larger fanout, capped by the 1 byte cell count")
+	void pageSizeFanout() {
+		TableConfig small = new TableConfig(columnTypes, PAGE_SIZE);
+		TableConfig large = new TableConfig(columnTypes, LARGE_PAGE_SIZE);
+
+		assertTrue(large.getLeafPageDegree() > small.getLeafPageDegree());
+		assertTrue(large.getTreeOrder() > small.getTreeOrder());
+		assertEquals(MAX_CELLS_PER_PAGE + ONE, large.getTreeOrder());
+		assertThrows(IllegalArgumentException.class, () -> new TableConfig(columnTypes, 3000));
+	}
+}
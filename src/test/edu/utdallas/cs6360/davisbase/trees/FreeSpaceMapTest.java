@@ -0,0 +1,110 @@
+package edu.utdallas.cs6360.davisbase.trees;
+
+import edu.utdallas.cs6360.davisbase.StorageMode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static edu.utdallas.cs6360.davisbase.Config.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit class for FreeSpaceMap
+ * @author Charles Krol
+ * @author Matthew Villarreal
+ * @author Michael Del Rosario
+ * @author Mithil Vijay
+ */
+class FreeSpaceMapTest {
+	static final String FILE_NAME = "fsm.tbl";
+	static final int PAGES_PER_MAP = PAGE_SIZE * Byte.SIZE;
+
+	PageFile file;
+	FreeSpaceMap map;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		file = PageFile.open(FILE_NAME, PAGE_SIZE, StorageMode.RANDOM_ACCESS);
+		map = FreeSpaceMap.create(file);
+	}
+
+	@AfterEach
+	void tearDown() throws IOException {
+		file.close();
+		new File(FILE_NAME).delete();
+	}
+
+	@Test
+	@DisplayName("The root and the bitmap page are never handed out")
+	void skipsReservedPages() {
+		assertEquals(TWO, map.allocate());
+		assertEquals(THREE, map.allocate());
+		assertTrue(map.isMapPage(ONE));
+		assertThrows(IllegalArgumentException.class, () -> map.free(ONE));
+		assertThrows(IllegalArgumentException.class, () -> map.free(ROOT_PAGE_NUMBER));
+	}
+
+	@Test
+	@DisplayName("The lowest freed page is reused first")
+	void reuseFreedPage() {
+		for (int i = ZERO; i < FIVE; i++) {
+			map.allocate();
+		}
+		map.free(FIVE);
+		map.free(THREE);
+
+		assertEquals(THREE, map.allocate());
+		assertEquals(FIVE, map.allocate());
+		assertEquals(FIVE + TWO, map.allocate());
+	}
+
+	@Test
+	@DisplayName("A new bitmap page is started once the first group is full")
+	void newGroup() {
+		int last = ZERO;
+		for (int i = ZERO; i < PAGES_PER_MAP; i++) {
+			last = map.allocate();
+		}
+		// Pages 0 and 1 of the first group and page 1 of the second group are reserved
+		assertEquals(PAGES_PER_MAP + TWO, last);
+		assertTrue(map.isAllocated(PAGES_PER_MAP + ONE));
+	}
+
+	@Test
+	@DisplayName("A page allocated near another one stays in the same extent")
+	void allocateNear() {
+		for (int i = ZERO; i < EXTENT_SIZE; i++) {
+			map.allocate();
+		}
+		map.free(FIVE);
+		map.free(EXTENT_SIZE - ONE);
+		int nearPage = FIVE + TWO;
+
+		// The free page after the hint is preferred over the lowest free page
+		assertEquals(EXTENT_SIZE - ONE, map.allocateNear(nearPage));
+		assertEquals(FIVE, map.allocateNear(nearPage));
+		// The extent is full so the lowest free page is used
+		assertEquals(EXTENT_SIZE + TWO, map.allocateNear(nearPage));
+	}
+
+	@Test
+	@DisplayName("The map is read back from the file after it is flushed")
+	void persisted() throws IOException {
+		for (int i = ZERO; i < PAGES_PER_MAP + FIVE; i++) {
+			map.allocate();
+		}
+		map.free(FOUR);
+		map.flush();
+		// Pages are only added to the file when they are written
+		file.setLength(file.getPageAddress(PAGES_PER_MAP + FIVE));
+
+		FreeSpaceMap loaded = FreeSpaceMap.load(file);
+		assertEquals(map.getNumOfAllocatedPages(), loaded.getNumOfAllocatedPages());
+		assertFalse(loaded.isAllocated(FOUR));
+		assertEquals(FOUR, loaded.allocate());
+	}
+}
@@ -0,0 +1,351 @@
+package edu.utdallas.cs6360.davisbase.trees;
+import edu.utdallas.cs6360.davisbase.DatabaseType;
+
+import static edu.utdallas.cs6360.davisbase.Config.*;
+import static edu.utdallas.cs6360.davisbase.utils.FileHandler.*;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndexTreeTest {
+	final static int NUM_OF_ENTRIES = 5000;
+	final static String INDEX_NAME = "IndexTree-Test";
+	static IndexTree tree;
+
+	@BeforeEach
+	void setUp() {
+		createDatabaseDirectory(DATA_DIRECTORY);
+		createDatabaseDirectory(CATALOG_DIRECTORY);
+		createDatabaseDirectory(USER_DATA_DIRECTORY);
+		deleteFile(getIndexFileName(INDEX_NAME, DatabaseType.USER));
+	}
+
+	@AfterEach
+	void tearDown() {
+		tree.close();
+		deleteFile(tree.getFileName());
+	}
+
+	@Test
+	void numericKeysSortByValue() {
+		tree = new IndexTree(INDEX_NAME, DataType.INT_TYPE_CODE);
+		tree.insert("10", ONE);
+		tree.insert("9", TWO);
+		tree.insert("-1", 3);
+		tree.insert("100", 4);
+		// Compared as Strings "10" < "9" and "-1" would not be the smallest
+		assertEquals(Arrays.asList(3, TWO, ONE), tree.search("-5", "10"));
+		assertEquals(Collections.singletonList(TWO), tree.search("9"));
+		assertTrue(tree.search("11", "99").isEmpty());
+	}
+
+	@Test
+	void duplicateKeysAndDelete() {
+		tree = new IndexTree(INDEX_NAME, DataType.SHORT_TYPE_CODE);
+		for (int rowId = NUM_OF_ENTRIES - ONE; rowId >= ZERO; rowId--) {
+			tree.insert(Integer.toString(rowId % 7), rowId);
+		}
+		// Inserting an entry that is already there changes nothing
+		tree.insert("3", 3);
+		List<Integer> threes = tree.search("3");
+		ArrayList<Integer> expected = new ArrayList<>();
+		for (int rowId = 3; rowId < NUM_OF_ENTRIES; rowId += 7) {
+			expected.add(rowId);
+		}
+		assertEquals(expected, threes);
+
+		assertTrue(tree.delete("3", 3));
+		assertFalse(tree.delete("3", 3));
+		assertFalse(tree.delete("4", 3));
+		assertEquals(threes.subList(ONE, threes.size()), tree.search("3"));
+		assertEquals(NUM_OF_ENTRIES - ONE, tree.search("0", "6").size());
+	}
+
+	@Test
+	void textKeysAndNulls() {
+		tree = new IndexTree(INDEX_NAME, DataType.TEXT_TYPE_CODE);
+		tree.insert("banana", ONE);
+		tree.insert("apple", TWO);
+		tree.insert((String) null, 3);
+		tree.insert("apples", 4);
+		tree.insert("", 5);
+		assertEquals(Arrays.asList(3, 5, TWO, 4, ONE), tree.search(null, "zzz"));
+		assertEquals(Arrays.asList(TWO, 4), tree.search("apple", "apples"));
+		assertEquals(Collections.singletonList(3), tree.search((String) null));
+	}
+
+	@Test
+	void splitsAndReopen() throws IOException {
+		tree = new IndexTree(INDEX_NAME, DataType.DOUBLE_TYPE_CODE, 512);
+		ArrayList<Integer> rowIds = new ArrayList<>();
+		for (int rowId = ZERO; rowId < NUM_OF_ENTRIES; rowId++) {
+			rowIds.add(rowId);
+		}
+		Collections.shuffle(rowIds, new Random(NUM_OF_ENTRIES));
+		for (int rowId : rowIds) {
+			tree.insert(Double.toString(rowId / 2.0), rowId);
+		}
+		assertTrue(tree.getCurrentHeight() > ONE);
+		tree.close();
+		discardCachedPages(tree.getFileName());
+
+		// A reopened index reads the key type and counters from it's file header
+		tree = new IndexTree(INDEX_NAME, DatabaseType.USER);
+		assertEquals(DataType.DOUBLE_TYPE_CODE, tree.getKeyType());
+		List<Integer> all = tree.search("-1", Double.toString(NUM_OF_ENTRIES));
+		assertEquals(NUM_OF_ENTRIES, all.size());
+		for (int rowId = ZERO; rowId < NUM_OF_ENTRIES; rowId++) {
+			assertEquals(rowId, all.get(rowId));
+		}
+		assertEquals(Arrays.asList(200, 201, 202), tree.search("100.0", "101"));
+		TreeMetadata metadata = tree.getMetadata();
+		assertEquals(metadata.getNumOfPages(), metadata.getNumOfLeafPages() + metadata.getNumOfInteriorPages());
+	}
+
+	@Test
+	void signedFloatingPointOrder() {
+		tree = new IndexTree(INDEX_NAME, DataType.REAL_TYPE_CODE);
+		String[] keys = {"2.5", "-100", "0", "-1.5", "1e30", "-0.25"};
+		for (int rowId = ZERO; rowId < keys.length; rowId++) {
+			tree.insert(keys[rowId], rowId);
+		}
+		assertEquals(Arrays.asList(ONE, 3, 5, TWO, ZERO, 4), tree.search("-1000", "1e31"));
+		assertEquals(Arrays.asList(3, 5), tree.search("-1.5", "-0.25"));
+	}
+
+	@Test
+	void compositeKeysAndPrefixes() throws IOException {
+		tree = new IndexTree(INDEX_NAME, Arrays.asList(DataType.TEXT_TYPE_CODE, DataType.TINY_INT_TYPE_CODE,
+				DataType.DOUBLE_TYPE_CODE), 512);
+		for (int rowId = ZERO; rowId < NUM_OF_ENTRIES; rowId++) {
+			tree.insert(Arrays.asList("city" + rowId % 5, Integer.toString(rowId % 10 - 5), Double.toString(-rowId / 4.0)),
+					rowId);
+		}
+		tree.insert(Arrays.asList("city2", null, "0"), NUM_OF_ENTRIES);
+		tree.close();
+		tree = new IndexTree(INDEX_NAME, DatabaseType.USER);
+		assertEquals(Arrays.asList(DataType.TEXT_TYPE_CODE, DataType.TINY_INT_TYPE_CODE, DataType.DOUBLE_TYPE_CODE),
+				tree.getKeyTypes());
+
+		// Every row of a value of the first column, the NULL second value first and the rest by their second value
+		List<Integer> city2 = tree.search(Collections.singletonList("city2"));
+		assertEquals(NUM_OF_ENTRIES / 5 + ONE, city2.size());
+		assertEquals(NUM_OF_ENTRIES, city2.get(ZERO));
+		assertEquals(NUM_OF_ENTRIES - 8, city2.get(ONE));
+
+		// Both values of the first two columns, the rows come in the order of the third column
+		List<Integer> expected = new ArrayList<>();
+		for (int rowId = NUM_OF_ENTRIES - 8; rowId >= ZERO; rowId -= 10) {
+			expected.add(rowId);
+		}
+		assertEquals(expected, tree.search(Arrays.asList("city2", "-3")));
+		assertEquals(expected.subList(ZERO, 3), tree.search(Arrays.asList("city2", "-3", Double.toString(-1e9)),
+				Arrays.asList("city2", "-3", Double.toString(-(NUM_OF_ENTRIES - 28) / 4.0))));
+
+		// Ranges given by different numbers of columns
+		assertEquals(NUM_OF_ENTRIES / 10 + NUM_OF_ENTRIES / 5 + ONE, tree.search(Arrays.asList("city1", "0"),
+				Collections.singletonList("city2")).size());
+		assertTrue(tree.search(Collections.singletonList("city"), Collections.singletonList("city")).isEmpty());
+	}
+
+	@Test
+	void longSharedPrefixes() throws IOException {
+		tree = new IndexTree(INDEX_NAME, DataType.TEXT_TYPE_CODE, 512);
+		String prefix = "https://example.com/customers/region-north-america/accounts/premium/";
+		ArrayList<Integer> rowIds = new ArrayList<>();
+		for (int rowId = ZERO; rowId < NUM_OF_ENTRIES; rowId++) {
+			rowIds.add(rowId);
+		}
+		Collections.shuffle(rowIds, new Random(NUM_OF_ENTRIES));
+		for (int rowId : rowIds) {
+			tree.insert(prefix + String.format("%06d", rowId), rowId);
+		}
+		// Whole 80 byte entries would leave room for only 4 separators on a page and need more levels
+		assertTrue(tree.getCurrentHeight() <= 3);
+		tree.close();
+
+		tree = new IndexTree(INDEX_NAME, DatabaseType.USER);
+		List<Integer> all = tree.search(prefix, prefix + "~");
+		assertEquals(rowIds.size(), all.size());
+		for (int rowId = ZERO; rowId < NUM_OF_ENTRIES; rowId++) {
+			assertEquals(rowId, all.get(rowId));
+		}
+		assertTrue(tree.delete(prefix + "001234", 1234));
+		assertEquals(Arrays.asList(1233, 1235), tree.search(prefix + "001233", prefix + "001235"));
+	}
+
+	@Test
+	void concurrentInserts() throws Exception {
+		tree = new IndexTree(INDEX_NAME, DataType.LONG_TYPE_CODE, 512);
+		int threads = 4;
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		ArrayList<Future<?>> writers = new ArrayList<>();
+		for (int thread = ZERO; thread < threads; thread++) {
+			int first = thread;
+			writers.add(executor.submit(() -> {
+				for (int rowId = first; rowId < NUM_OF_ENTRIES; rowId += threads) {
+					tree.insert(Long.toString(NUM_OF_ENTRIES - rowId), rowId);
+					tree.search(Long.toString(NUM_OF_ENTRIES - rowId));
+				}
+			}));
+		}
+		for (Future<?> writer : writers) {
+			writer.get();
+		}
+		executor.shutdown();
+		List<Integer> all = tree.search(Long.toString(Long.MIN_VALUE), Long.toString(Long.MAX_VALUE));
+		assertEquals(NUM_OF_ENTRIES, all.size());
+		for (int i = ZERO; i < NUM_OF_ENTRIES; i++) {
+			assertEquals(NUM_OF_ENTRIES - ONE - i, all.get(i));
+		}
+	}
+
+	@Test
+	void uniqueValuesAcrossSplitsAndDeletes() throws IOException {
+		tree = new IndexTree(INDEX_NAME, Arrays.asList(DataType.TEXT_TYPE_CODE, DataType.INT_TYPE_CODE), true, 512,
+				STORAGE_MODE);
+		ArrayList<Integer> rowIds = new ArrayList<>();
+		for (int rowId = ZERO; rowId < NUM_OF_ENTRIES; rowId++) {
+			rowIds.add(rowId);
+		}
+		Collections.shuffle(rowIds, new Random(NUM_OF_ENTRIES));
+		for (int rowId : rowIds) {
+			assertTrue(tree.insert(Arrays.asList("key" + rowId % 100, Integer.toString(rowId / 100)), rowId));
+		}
+		assertTrue(tree.getCurrentHeight() > ONE);
+		// Deleting entries leaves their separators behind, the values can then be used by another row once
+		for (int rowId = ZERO; rowId < NUM_OF_ENTRIES; rowId += 3) {
+			assertTrue(tree.delete(Arrays.asList("key" + rowId % 100, Integer.toString(rowId / 100)), rowId));
+			assertTrue(tree.insert(Arrays.asList("key" + rowId % 100, Integer.toString(rowId / 100)),
+					NUM_OF_ENTRIES + rowId));
+		}
+		tree.close();
+
+		tree = new IndexTree(INDEX_NAME, DatabaseType.USER);
+		assertTrue(tree.isUnique());
+		for (int rowId = ZERO; rowId < NUM_OF_ENTRIES; rowId++) {
+			List<String> keys = Arrays.asList("key" + rowId % 100, Integer.toString(rowId / 100));
+			int owner = rowId % 3 == ZERO ? NUM_OF_ENTRIES + rowId : rowId;
+			// The row that has the values may add them again, any other row is turned down
+			assertTrue(tree.insert(keys, owner));
+			assertFalse(tree.insert(keys, owner + ONE));
+			assertEquals(Collections.singletonList(owner), tree.search(keys));
+		}
+		assertEquals(NUM_OF_ENTRIES, tree.search(Collections.singletonList("key"),
+				Collections.singletonList("key~")).size());
+
+		// Values with a NULL in them are never the same as other values
+		assertTrue(tree.insert(Arrays.asList("key1", null), -ONE));
+		assertTrue(tree.insert(Arrays.asList("key1", null), -TWO));
+		assertEquals(Arrays.asList(-TWO, -ONE), tree.search(Arrays.asList("key1", null)));
+	}
+
+	@Test
+	void concurrentUniqueInserts() throws Exception {
+		tree = new IndexTree(INDEX_NAME, Collections.singletonList(DataType.INT_TYPE_CODE), true, 512, STORAGE_MODE);
+		int threads = 4;
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		ArrayList<Future<Integer>> writers = new ArrayList<>();
+		for (int thread = ZERO; thread < threads; thread++) {
+			int first = thread;
+			writers.add(executor.submit(() -> {
+				int inserted = ZERO;
+				// Every thread tries every value with a rowId of it's own
+				for (int value = ZERO; value < NUM_OF_ENTRIES; value++) {
+					if (tree.insert(Integer.toString(value), value * threads + first)) {
+						inserted++;
+					}
+				}
+				return inserted;
+			}));
+		}
+		int inserted = ZERO;
+		for (Future<Integer> writer : writers) {
+			inserted += writer.get();
+		}
+		executor.shutdown();
+		assertEquals(NUM_OF_ENTRIES, inserted);
+		List<Integer> all = tree.search(Integer.toString(Integer.MIN_VALUE), Integer.toString(Integer.MAX_VALUE));
+		assertEquals(NUM_OF_ENTRIES, all.size());
+		for (int value = ZERO; value < NUM_OF_ENTRIES; value++) {
+			assertEquals(value, all.get(value) / threads);
+		}
+	}
+
+	@Test
+	void coveringIndexEntries() throws IOException {
+		tree = new IndexTree(INDEX_NAME, Collections.singletonList(DataType.INT_TYPE_CODE),
+				Arrays.asList(DataType.TEXT_TYPE_CODE, DataType.LONG_TYPE_CODE), false, 512, STORAGE_MODE);
+		ArrayList<Integer> rowIds = new ArrayList<>();
+		for (int rowId = ZERO; rowId < NUM_OF_ENTRIES; rowId++) {
+			rowIds.add(rowId);
+		}
+		Collections.shuffle(rowIds, new Random(NUM_OF_ENTRIES));
+		for (int rowId : rowIds) {
+			String name = rowId % 10 == ZERO ? null : "name-" + rowId;
+			assertTrue(tree.insert(Collections.singletonList(Integer.toString(rowId / 2)),
+					Arrays.asList(name, Long.toString(rowId * 1000L)), rowId));
+		}
+		assertTrue(tree.getCurrentHeight() > ONE);
+		assertThrows(IllegalArgumentException.class, () -> tree.insert("1", 3));
+		tree.close();
+		discardCachedPages(tree.getFileName());
+
+		// A reopened index reads which columns are included from it's file header
+		tree = new IndexTree(INDEX_NAME, DatabaseType.USER);
+		assertEquals(Collections.singletonList(DataType.INT_TYPE_CODE), tree.getKeyTypes());
+		assertEquals(Arrays.asList(DataType.TEXT_TYPE_CODE, DataType.LONG_TYPE_CODE), tree.getIncludedTypes());
+		assertEquals(Arrays.asList(20, 21), tree.search("10"));
+
+		// The indexed value, the included values and the rowId of every entry in the range
+		List<DataRecord> entries = tree.searchEntries(Collections.singletonList("10"), true,
+				Collections.singletonList("11"), true);
+		assertEquals(4, entries.size());
+		assertEquals(Arrays.asList("10", null, "20000", "20"), getValues(entries.get(ZERO)));
+		assertEquals(Arrays.asList("11", "name-23", "23000", "23"), getValues(entries.get(3)));
+
+		// Bounds that leave out their own values, and ranges open on one side
+		assertEquals(TWO, tree.searchEntries(Collections.singletonList("10"), false,
+				Collections.singletonList("12"), false).size());
+		assertEquals(NUM_OF_ENTRIES - 20, tree.searchEntries(Collections.singletonList("9"), false,
+				Collections.emptyList(), true).size());
+		assertEquals(20, tree.searchEntries(Collections.singletonList(null), false,
+				Collections.singletonList("10"), false).size());
+	}
+
+	/**
+	 * Drops the pages of a closed index that are still held by the buffer pool or a page flusher, so an index
+	 * reopened on the file decodes every page from what is on disk
+	 * @param fileName the fully qualified file name of the index
+	 */
+	private static void discardCachedPages(String fileName) {
+		BufferPool.getInstance().discardFile(fileName);
+		PageFlusher.discardFile(fileName);
+	}
+
+	/**
+	 * Returns the values of an entry returned by searchEntries
+	 * @param entry the entry
+	 * @return the values of it's columns, null for a NULL value
+	 */
+	private static List<String> getValues(DataRecord entry) {
+		ArrayList<String> values = new ArrayList<>();
+		for (int i = ZERO; i < entry.getColumnValues().size(); i++) {
+			values.add(entry.getColumnValue(i));
+		}
+		return values;
+	}
+}
@@ -0,0 +1,75 @@
+package edu.utdallas.cs6360.davisbase.trees;
+
+import edu.utdallas.cs6360.davisbase.StorageMode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static edu.utdallas.cs6360.davisbase.Config.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit class for PageFile, every test runs against both storage modes
+ * @author Charles Krol
+ * @author Matthew Villarreal
+ * @author Michael Del Rosario
+ * @author Mithil Vijay
+ */
+class PageFileTest {
+	static final String FILE_NAME = "pagefile.tbl";
+	static ArrayList<DataType> columnTypes = new ArrayList<>(Arrays.asList(DataType.INT_TYPE_CODE));
+
+	@AfterEach
+	void tearDown() {
+		new File(FILE_NAME).delete();
+	}
+
+	@Test
+	@DisplayName("A page written to the file is read back unchanged")
+	void roundTrip() throws IOException {
+		for (StorageMode mode : StorageMode.values()) {
+			roundTrip(mode);
+			tearDown();
+		}
+	}
+
+	@Test
+	@DisplayName("Closing the file keeps only the pages that were written")
+	void closeKeepsLength() throws IOException {
+		for (StorageMode mode : StorageMode.values()) {
+			closeKeepsLength(mode);
+			tearDown();
+		}
+	}
+
+	void roundTrip(StorageMode mode) throws IOException {
+		TableConfig config = new TableConfig(columnTypes);
+		TableLeafPage page = new TableLeafPage(PageType.TABLE_LEAF_PAGE, TWO, -ONE, config);
+		page.getDataCells().add(new TableLeafCell(FIVE, new DataRecord(columnTypes,
+				new ArrayList<>(Arrays.asList("42")))));
+
+		PageFile file = PageFile.open(FILE_NAME, PAGE_SIZE, mode);
+		page.writePage(file);
+		// The file header comes before page 0
+		assertEquals(FOUR * PAGE_SIZE, file.length());
+		assertEquals(THREE, file.getNumOfPages());
+
+		Page read = new TableLeafPage(file.readPage(TWO, PageCodec.get(PAGE_SIZE).readBuffer()), TWO, config);
+		assertEquals(ONE, read.getDataCells().size());
+		assertEquals(FIVE, read.getDataCells().get(ZERO).getRowId());
+		file.close();
+	}
+
+	void closeKeepsLength(StorageMode mode) throws IOException {
+		PageFile file = PageFile.open(FILE_NAME, PAGE_SIZE, mode);
+		file.setLength(TWO * PAGE_SIZE);
+		file.close();
+
+		assertEquals(TWO * PAGE_SIZE, new File(FILE_NAME).length());
+	}
+}
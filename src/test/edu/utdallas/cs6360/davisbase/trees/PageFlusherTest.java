@@ -0,0 +1,81 @@
+package edu.utdallas.cs6360.davisbase.trees;
+
+import edu.utdallas.cs6360.davisbase.StorageMode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static edu.utdallas.cs6360.davisbase.Config.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit class for PageFlusher
+ * @author Charles Krol
+ * @author Matthew Villarreal
+ * @author Michael Del Rosario
+ * @author Mithil Vijay
+ */
+class PageFlusherTest {
+	static final String FILE_NAME = "flusher.tbl";
+	static ArrayList<DataType> columnTypes = new ArrayList<>(Arrays.asList(DataType.INT_TYPE_CODE));
+
+	TableConfig config;
+	PageFile file;
+	PageFlusher flusher;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		config = new TableConfig(columnTypes);
+		file = PageFile.open(FILE_NAME, PAGE_SIZE, StorageMode.RANDOM_ACCESS);
+		flusher = new PageFlusher(FILE_NAME, file);
+	}
+
+	@AfterEach
+	void tearDown() throws IOException {
+		flusher.close();
+		file.close();
+		new File(FILE_NAME).delete();
+	}
+
+	@Test
+	@DisplayName("Pending pages are served from memory and consecutive pages are written together")
+	void coalescedWrites() throws IOException {
+		// Pages 2-4 are one run and page 7 another, page 3 is changed twice before it is written
+		for (int pageNumber : new int[]{FOUR, TWO, THREE, FIVE + TWO, THREE}) {
+			flusher.add(pageNumber, newPage(pageNumber).getBytes(), ZERO);
+		}
+		if (WRITE_BEHIND) {
+			assertNotNull(flusher.getPendingPage(THREE));
+		}
+
+		flusher.flush();
+		assertEquals(ZERO, flusher.getNumOfDirtyPages());
+		assertNull(flusher.getPendingPage(THREE));
+		if (WRITE_BEHIND) {
+			assertEquals(FOUR, flusher.getPagesWritten());
+			assertEquals(TWO, flusher.getWrites());
+		}
+
+		Page read = new TableLeafPage(file.readPage(FIVE + TWO, PageCodec.get(PAGE_SIZE).readBuffer()),
+				FIVE + TWO, config);
+		assertEquals(FIVE + TWO, read.getDataCells().get(ZERO).getRowId());
+	}
+
+	/**
+	 * Creates a leaf page holding one cell whose rowId is the page number
+	 * @param pageNumber the page number
+	 * @return the new page
+	 */
+	TableLeafPage newPage(int pageNumber) {
+		TableLeafPage page = new TableLeafPage(PageType.TABLE_LEAF_PAGE, pageNumber, -ONE, config);
+		page.addDataCell(new TableLeafCell(pageNumber, new DataRecord(columnTypes,
+				new ArrayList<>(Arrays.asList(Integer.toString(pageNumber))))));
+		return page;
+	}
+}
@@ -0,0 +1,50 @@
+package edu.utdallas.cs6360.davisbase.trees;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+import static edu.utdallas.cs6360.davisbase.Config.*;
+
+/**
+ * Measures the latency of TableTree.get on random rowIds once the pages of the tree are cached, every lookup is one
+ * binary search per level so it should take a few microseconds.<br>
+ *
+ * Run with: java edu.utdallas.cs6360.davisbase.trees.PointLookupBenchmark [rows] [lookups]
+ *
+ * @author Charles Krol
+ * @author Matthew Villarreal
+ * @author Michael Del Rosario
+ * @author Mithil Vijay
+ */
+class PointLookupBenchmark {
+	static final String TABLE_NAME = "point_lookup_benchmark";
+	static final int DEFAULT_ROWS = 100000;
+	static final int DEFAULT_LOOKUPS = 1000000;
+
+	public static void main(String[] args) throws IOException {
+		int rows = args.length > ZERO ? Integer.parseInt(args[ZERO]) : DEFAULT_ROWS;
+		int lookups = args.length > ONE ? Integer.parseInt(args[ONE]) : DEFAULT_LOOKUPS;
+		new File(USER_DATA_DIRECTORY).mkdirs();
+
+		TableTree tree = new TableTree(TABLE_NAME, BulkLoadBenchmark.columnTypes);
+		tree.bulkLoad(BulkLoadBenchmark.records(rows));
+
+		// Warm up the buffer pool and the JIT before timing
+		Random random = new Random(rows);
+		int found = ZERO;
+		for (int i = ZERO; i < lookups; i++) {
+			found += tree.get(random.nextInt(rows)).isPresent() ? ONE : ZERO;
+		}
+
+		long start = System.nanoTime();
+		for (int i = ZERO; i < lookups; i++) {
+			found += tree.get(random.nextInt(rows)).isPresent() ? ONE : ZERO;
+		}
+		long nanos = System.nanoTime() - start;
+		System.out.printf("get  %9d rows  %9d lookups  %6.2f us/lookup  height %d  found %d%n", rows, lookups,
+				nanos / 1000.0 / lookups, tree.getCurrentHeight(), found);
+		tree.close();
+		new File(tree.getFileName()).delete();
+	}
+}
@@ -0,0 +1,99 @@
+package edu.utdallas.cs6360.davisbase.trees;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static edu.utdallas.cs6360.davisbase.Config.*;
+
+/**
+ * Measures restart time after a crash in the middle of a bulk load. A child JVM inserts rows into a table and halts
+ * without closing it, so pages still waiting in the page flusher are lost and only the write-ahead log has them. The
+ * benchmark then recovers from the log and reports how much log was read and how long it took. Restart time should
+ * stay flat as the number of rows loaded before the crash grows, because checkpoints keep the log bounded.<br>
+ *
+ * Run with: java edu.utdallas.cs6360.davisbase.trees.RecoveryBenchmark [rows...]
+ *
+ * @author Charles Krol
+ * @author Matthew Villarreal
+ * @author Michael Del Rosario
+ * @author Mithil Vijay
+ */
+class RecoveryBenchmark {
+	static final String CRASH = "crash";
+	static final String TABLE_NAME = "recovery_benchmark";
+	static final int[] DEFAULT_ROWS = {10000, 40000, 160000};
+	static ArrayList<DataType> columnTypes = new ArrayList<>(Arrays.asList(DataType.INT_TYPE_CODE,
+			DataType.LONG_TYPE_CODE, DataType.LONG_TYPE_CODE));
+
+	public static void main(String[] args) throws IOException, InterruptedException {
+		if (args.length == TWO && CRASH.equals(args[ZERO])) {
+			loadAndCrash(Integer.parseInt(args[ONE]));
+			return;
+		}
+		int[] rows = args.length > ZERO ? Arrays.stream(args).mapToInt(Integer::parseInt).toArray() : DEFAULT_ROWS;
+		System.out.println("rowsBeforeCrash  logBytesRead  pagesRedone  restartMillis");
+		for (int rowsBeforeCrash : rows) {
+			String tableFile = runCrashingChild(rowsBeforeCrash);
+
+			WriteAheadLog log = new WriteAheadLog(WAL_FILE_NAME);
+			log.recover();
+			log.close();
+			System.out.printf("%15d  %12d  %11d  %13d%n", rowsBeforeCrash, log.getRecoveryLogBytes(),
+					log.getPagesRedone(), log.getRecoveryMillis());
+			new File(tableFile).delete();
+		}
+	}
+
+	/**
+	 * Starts a child JVM that loads rows and crashes, then waits for it
+	 * @param rowsBeforeCrash the number of rows the child inserts before it halts
+	 * @return the file name of the table the child loaded
+	 * @throws IOException if the child cannot be started
+	 * @throws InterruptedException if interrupted waiting for the child
+	 */
+	static String runCrashingChild(int rowsBeforeCrash) throws IOException, InterruptedException {
+		ArrayList<String> command = new ArrayList<>();
+		command.add(new File(System.getProperty("java.home"), "bin/java").getPath());
+		// The child logs with the same configuration as the benchmark
+		String loggingConfig = System.getProperty("java.util.logging.config.file");
+		if (loggingConfig != null) {
+			command.add("-Djava.util.logging.config.file=" + loggingConfig);
+		}
+		command.addAll(Arrays.asList("-cp", System.getProperty("java.class.path"), RecoveryBenchmark.class.getName(),
+				CRASH, Integer.toString(rowsBeforeCrash)));
+		ProcessBuilder builder = new ProcessBuilder(command);
+		builder.redirectError(ProcessBuilder.Redirect.INHERIT);
+		Process child = builder.start();
+		String tableFile;
+		try (BufferedReader output = new BufferedReader(new InputStreamReader(child.getInputStream(),
+				StandardCharsets.UTF_8))) {
+			tableFile = output.readLine();
+		}
+		child.waitFor();
+		return tableFile;
+	}
+
+	/**
+	 * The body of the child JVM: loads rows into a fresh table and halts without closing it or running shutdown hooks
+	 * @param rowsBeforeCrash the number of rows to insert
+	 * @throws IOException if the log cannot be opened
+	 */
+	static void loadAndCrash(int rowsBeforeCrash) throws IOException {
+		// A process crash keeps what reached the OS, forcing the log would only slow the load down
+		WriteAheadLog.getInstance().setForceOnCommit(false);
+		new File(USER_DATA_DIRECTORY).mkdirs();
+		TableTree tree = new TableTree(TABLE_NAME, columnTypes);
+		for (int i = ZERO; i < rowsBeforeCrash; i++) {
+			tree.insert(columnTypes, new ArrayList<>(Arrays.asList(Integer.toString(i), Long.toString(i),
+					Long.toString(System.nanoTime()))));
+		}
+		System.out.println(tree.getFileName());
+		System.out.flush();
+		Runtime.getRuntime().halt(ONE);
+	}
+}
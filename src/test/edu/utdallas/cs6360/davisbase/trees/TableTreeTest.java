@@ -1,4 +1,6 @@
 package edu.utdallas.cs6360.davisbase.trees;
+import edu.utdallas.cs6360.davisbase.DatabaseType;
+import edu.utdallas.cs6360.davisbase.StorageMode;
 import edu.utdallas.cs6360.davisbase.utils.FileHandler;
 
 import static edu.utdallas.cs6360.davisbase.Config.*;
@@ -10,8 +12,17 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -62,4 +73,497 @@ class TableTreeTest {
 		assertEquals(5000, tree.getRowIdCounter());
 		System.out.println(tree.getCurrentHeight());
 	}
-}
\ No newline at end of file
+	
+	@Test
+	void insertBatch() throws IOException {
+		// Batches that split the rightmost leaf several times, mixed with single row inserts
+		int half = NUM_OF_CELLS / TWO;
+		assertEquals(half, tree.insertBatch(testData.subList(ZERO, half)));
+		tree.insert(testData.get(half));
+		assertEquals(NUM_OF_CELLS - half - ONE, tree.insertBatch(testData.subList(half + ONE, NUM_OF_CELLS)));
+		assertEquals(NUM_OF_CELLS, tree.getRowIdCounter());
+		tree.close();
+		assertTreeHoldsRows(allRowIds());
+		
+		// A reopened table carries on after it's last rowId
+		tree = new TableTree("TableTree-Test", DatabaseType.USER);
+		assertEquals(NUM_OF_CELLS, tree.getRowIdCounter());
+		tree.insertBatch(testData.subList(ZERO, TWO));
+		assertEquals(testData.get(ONE), tree.get(NUM_OF_CELLS + ONE).orElse(null));
+		tree.close();
+	}
+	
+	@Test
+	void insertBatchWithUniqueIndex() throws IOException {
+		String indexName = "TableTree-Test-Unique";
+		deleteFile(getIndexFileName(indexName, DatabaseType.USER));
+		IndexTree index = new IndexTree(indexName, Collections.singletonList(DataType.LONG_TYPE_CODE), true);
+		// The rows at the end repeat the values of the first ones, the index turns them down before they are written
+		ArrayList<DataRecord> rows = new ArrayList<>(testData);
+		rows.addAll(testData.subList(ZERO, 10));
+		rows.add(testData.get(ZERO));
+		assertEquals(NUM_OF_CELLS, tree.insertBatch(rows,
+				(rowId, dataRecord) -> index.insert(dataRecord.getColumnValue(TWO), rowId)));
+		// Rows that were turned down do not use up a rowId
+		assertEquals(NUM_OF_CELLS, tree.getRowIdCounter());
+		assertEquals(Collections.singletonList(7), index.search("7"));
+		tree.close();
+		assertTreeHoldsRows(allRowIds());
+		index.close();
+		deleteFile(index.getFileName());
+	}
+	
+	@Test
+	void deleteRemovesUniqueIndexEntries() throws IOException {
+		String indexName = "TableTree-Test-Unique";
+		deleteFile(getIndexFileName(indexName, DatabaseType.USER));
+		IndexTree index = new IndexTree(indexName, Collections.singletonList(DataType.LONG_TYPE_CODE), true);
+		TableTree.RowCheck addEntry = (rowId, dataRecord) -> index.insert(dataRecord.getColumnValue(TWO), rowId);
+		TableTree.RowCheck removeEntry = (rowId, dataRecord) -> index.delete(dataRecord.getColumnValue(TWO), rowId);
+		assertEquals(NUM_OF_CELLS, tree.insertBatch(testData, addEntry));
+		
+		assertEquals(ONE, tree.delete(7, 7, removeEntry));
+		assertEquals(10, tree.delete(100, 109, removeEntry));
+		assertTrue(index.search("7").isEmpty());
+		assertTrue(index.search("100", "109").isEmpty());
+		assertEquals(Collections.singletonList(110), index.search("110"));
+		
+		// The values of the deleted rows can be inserted again, the values of the rows that are left still can't
+		ArrayList<DataRecord> rows = new ArrayList<>();
+		rows.add(testData.get(7));
+		rows.addAll(testData.subList(100, 110));
+		rows.add(testData.get(110));
+		assertEquals(11, tree.insertBatch(rows, addEntry));
+		assertEquals(Collections.singletonList(NUM_OF_CELLS), index.search("7"));
+		assertEquals(Collections.singletonList(110), index.search("110"));
+		tree.close();
+		index.close();
+		deleteFile(index.getFileName());
+	}
+	
+	@Test
+	void deleteRemovesCoveringIndexEntries() throws IOException {
+		String indexName = "TableTree-Test-Covering";
+		deleteFile(getIndexFileName(indexName, DatabaseType.USER));
+		// Indexed on the third column, including the fourth, so a range of it is answered from the index alone
+		IndexTree index = new IndexTree(indexName, Collections.singletonList(DataType.LONG_TYPE_CODE),
+				Collections.singletonList(DataType.LONG_TYPE_CODE), false);
+		assertEquals(NUM_OF_CELLS, tree.insertBatch(testData, (rowId, dataRecord) ->
+				index.insert(Collections.singletonList(dataRecord.getColumnValue(TWO)),
+						Collections.singletonList(dataRecord.getColumnValue(3)), rowId)));
+		assertEquals(TWO, tree.delete(20, 21, (rowId, dataRecord) ->
+				index.delete(Collections.singletonList(dataRecord.getColumnValue(TWO)), rowId)));
+		
+		List<DataRecord> entries = index.searchEntries(Collections.singletonList("19"), true,
+				Collections.singletonList("22"), true);
+		assertEquals(TWO, entries.size());
+		assertEquals(Arrays.asList("19", "19", "19"), entries.get(ZERO).getColumnValues());
+		assertEquals(Arrays.asList("22", "22", "22"), entries.get(ONE).getColumnValues());
+		assertFalse(tree.get(20).isPresent());
+		tree.close();
+		index.close();
+		deleteFile(index.getFileName());
+	}
+	
+	@Test
+	void badValuesAreTurnedDownBeforeAnythingChanges() throws IOException {
+		assertEquals(10, tree.insertBatch(testData.subList(ZERO, 10)));
+		ArrayList<String> badValues = new ArrayList<>(testData.get(ZERO).getColumnValues());
+		badValues.set(TWO, "abc");
+		ArrayList<ArrayList<String>> rows = new ArrayList<>();
+		rows.add(new ArrayList<>(testData.get(10).getColumnValues()));
+		rows.add(badValues);
+		// The whole batch is turned down, the good row before the bad one too
+		assertThrows(IllegalArgumentException.class, () -> tree.insertBatch(testDataTypes, rows));
+		assertThrows(IllegalArgumentException.class, () -> tree.insert(new DataRecord(testDataTypes, badValues)));
+		assertThrows(IllegalArgumentException.class, () -> tree.insert(testDataTypes, badValues));
+		assertEquals(10, tree.getRowIdCounter());
+		
+		// The table can still be read and written, and is written to the file on close
+		assertEquals(testData.get(9), tree.get(9).orElse(null));
+		assertEquals(NUM_OF_CELLS - 10, tree.insertBatch(testData.subList(10, NUM_OF_CELLS)));
+		tree.close();
+		assertTreeHoldsRows(allRowIds());
+	}
+	
+	@Test
+	void bulkLoad() throws IOException {
+		tree.bulkLoad(testData.iterator());
+		assertEquals(NUM_OF_CELLS, tree.getRowIdCounter());
+		assertTrue(tree.getCurrentHeight() > ONE);
+		tree.close();
+		assertTreeHoldsRows(allRowIds());
+	}
+	
+	@Test
+	void appendSplitsLeaveLeftPagesFull() throws IOException {
+		for(DataRecord record: testData) {
+			tree.insert(record);
+		}
+		tree.close();
+		// Median splits would leave every leaf about half full
+		int maxLeafRecords = new TableConfig(testDataTypes).getMaxLeafPageRecords();
+		int minRecordsPerLeaf = (int) (maxLeafRecords * APPEND_SPLIT_FILL_FACTOR);
+		assertTrue(assertTreeHoldsRows(allRowIds()) <= NUM_OF_CELLS / minRecordsPerLeaf + ONE);
+	}
+	
+	@Test
+	void deleteRebalancesPages() throws IOException {
+		for(DataRecord record: testData) {
+			tree.insert(record);
+		}
+		assertFalse(tree.delete(NUM_OF_CELLS));
+		ArrayList<Integer> remaining = new ArrayList<>();
+		for (int rowId = ZERO; rowId < NUM_OF_CELLS; rowId++) {
+			if (rowId % THREE == ZERO) {
+				remaining.add(rowId);
+			} else {
+				assertTrue(tree.delete(rowId));
+			}
+		}
+		int start = NUM_OF_CELLS / FOUR;
+		int end = NUM_OF_CELLS / FOUR * THREE;
+		int numInRange = (int) remaining.stream().filter(rowId -> rowId >= start && rowId <= end).count();
+		assertEquals(numInRange, tree.delete(start, end));
+		remaining.removeIf(rowId -> rowId >= start && rowId <= end);
+		tree.close();
+		
+		// Every leaf but the rightmost is merged or refilled once it drops to the minimum
+		int minLeafRecords = Math.max(ONE, new TableConfig(testDataTypes).getMinLeafPageRecords());
+		assertTrue(assertTreeHoldsRows(remaining) <= remaining.size() / minLeafRecords + ONE);
+	}
+	
+	@Test
+	void deleteAllShrinksFile() throws IOException {
+		for(DataRecord record: testData) {
+			tree.insert(record);
+		}
+		long fullLength = new File(tree.getFileName()).length();
+		assertEquals(NUM_OF_CELLS, tree.delete(ZERO, Integer.MAX_VALUE));
+		assertEquals(ZERO, tree.getCurrentHeight());
+		
+		// Rows can still be added after the tree collapsed back to a single leaf
+		tree.insert(testData.get(ZERO));
+		tree.close();
+		assertTrue(new File(tree.getFileName()).length() < fullLength);
+		assertEquals(ONE, assertTreeHoldsRows(new ArrayList<>(Arrays.asList(NUM_OF_CELLS))));
+	}
+	
+	@Test
+	void scanRange() {
+		for(DataRecord record: testData) {
+			tree.insert(record);
+		}
+		int rowId = NUM_OF_CELLS / FOUR;
+		try (TableCursor cursor = tree.scan(NUM_OF_CELLS / FOUR, NUM_OF_CELLS / TWO)) {
+			while (cursor.hasNext()) {
+				assertEquals(testData.get(rowId), cursor.next());
+				assertEquals(rowId++, cursor.getRowId());
+			}
+		}
+		assertEquals(NUM_OF_CELLS / TWO + ONE, rowId);
+		
+		// Every row is returned once across leaf boundaries and an empty range returns nothing
+		int numOfRows = ZERO;
+		for (TableCursor cursor = tree.scan(); cursor.hasNext(); cursor.next()) {
+			numOfRows++;
+		}
+		assertEquals(NUM_OF_CELLS, numOfRows);
+		assertFalse(tree.scan(NUM_OF_CELLS, Integer.MAX_VALUE).hasNext());
+	}
+	
+	@Test
+	void get() {
+		for(DataRecord record: testData) {
+			tree.insert(record);
+		}
+		for (int rowId = ZERO; rowId < NUM_OF_CELLS; rowId++) {
+			assertEquals(testData.get(rowId), tree.get(rowId).orElse(null));
+		}
+		assertFalse(tree.get(NUM_OF_CELLS).isPresent());
+		assertFalse(tree.get(-ONE).isPresent());
+		
+		// A deleted row is no longer found and it's neighbours still are
+		tree.delete(NUM_OF_CELLS / TWO);
+		assertFalse(tree.get(NUM_OF_CELLS / TWO).isPresent());
+		assertEquals(testData.get(NUM_OF_CELLS / TWO + ONE), tree.get(NUM_OF_CELLS / TWO + ONE).orElse(null));
+	}
+	
+	@Test
+	void concurrentInsertsAndReads() throws Exception {
+		// Writers append single rows and batches while readers look up and scan the rows already there
+		int numOfWriters = FOUR;
+		int rowsPerWriter = NUM_OF_CELLS / numOfWriters;
+		ExecutorService executor = Executors.newFixedThreadPool(numOfWriters + TWO);
+		ArrayList<Future<?>> results = new ArrayList<>();
+		for (int writer = ZERO; writer < numOfWriters; writer++) {
+			int first = writer * rowsPerWriter;
+			boolean batches = writer % TWO == ZERO;
+			results.add(executor.submit(() -> {
+				for (int i = first; i < first + rowsPerWriter; i += FIVE) {
+					if (batches) {
+						tree.insertBatch(testData.subList(i, i + FIVE));
+					} else {
+						testData.subList(i, i + FIVE).forEach(tree::insert);
+					}
+				}
+			}));
+		}
+		for (int reader = ZERO; reader < TWO; reader++) {
+			results.add(executor.submit(() -> {
+				while (tree.getRowIdCounter() < NUM_OF_CELLS) {
+					int lastRowId = -ONE;
+					try (TableCursor cursor = tree.scan()) {
+						while (cursor.hasNext()) {
+							assertNotNull(cursor.next());
+							assertTrue(cursor.getRowId() > lastRowId);
+							lastRowId = cursor.getRowId();
+						}
+					}
+					if (lastRowId >= ZERO) {
+						assertTrue(tree.get(lastRowId).isPresent());
+					}
+				}
+			}));
+		}
+		for (Future<?> result : results) {
+			result.get();
+		}
+		executor.shutdown();
+		assertEquals(NUM_OF_CELLS, tree.getRowIdCounter());
+		tree.close();
+		assertTreeHoldsRows(allRowIds());
+	}
+	
+	@Test
+	void lookupsDuringSplits() throws Exception {
+		// Readers look up rows already appended while the appends split pages, with and without optimistic reads
+		for (boolean optimisticReads : new boolean[] {true, false}) {
+			tree.setOptimisticReads(optimisticReads);
+			int first = tree.getRowIdCounter();
+			ExecutorService executor = Executors.newFixedThreadPool(FOUR);
+			Future<?> writer = executor.submit(() ->
+					tree.insertBatch(testData.subList(first, first + NUM_OF_CELLS / TWO)));
+			ArrayList<Future<?>> readers = new ArrayList<>();
+			for (int reader = ZERO; reader < THREE; reader++) {
+				readers.add(executor.submit(() -> {
+					while (!writer.isDone()) {
+						for (int rowId = ZERO; rowId < tree.getRowIdCounter(); rowId += FIVE) {
+							assertEquals(testData.get(rowId), tree.get(rowId).orElse(null));
+						}
+					}
+				}));
+			}
+			writer.get();
+			for (Future<?> reader : readers) {
+				reader.get();
+			}
+			executor.shutdown();
+		}
+		tree.close();
+		assertTreeHoldsRows(allRowIds());
+	}
+	
+	@Test
+	void concurrentDeletes() throws Exception {
+		tree.insertBatch(testData);
+		// Every thread deletes the rowIds with it's own remainder, the rows with remainder 0 are kept
+		int numOfThreads = FOUR;
+		ExecutorService executor = Executors.newFixedThreadPool(numOfThreads);
+		ArrayList<Future<?>> results = new ArrayList<>();
+		for (int thread = ONE; thread < numOfThreads; thread++) {
+			int remainder = thread;
+			results.add(executor.submit(() -> {
+				for (int rowId = remainder; rowId < NUM_OF_CELLS; rowId += numOfThreads) {
+					assertTrue(tree.delete(rowId));
+				}
+			}));
+		}
+		results.add(executor.submit(() -> {
+			for (int rowId = ZERO; rowId < NUM_OF_CELLS; rowId += numOfThreads) {
+				assertTrue(tree.get(rowId).isPresent());
+			}
+		}));
+		for (Future<?> result : results) {
+			result.get();
+		}
+		executor.shutdown();
+		tree.close();
+		ArrayList<Integer> remaining = new ArrayList<>();
+		for (int rowId = ZERO; rowId < NUM_OF_CELLS; rowId += numOfThreads) {
+			remaining.add(rowId);
+		}
+		assertTreeHoldsRows(remaining);
+	}
+	
+	private ArrayList<Integer> allRowIds() {
+		ArrayList<Integer> rowIds = new ArrayList<>();
+		for (int rowId = ZERO; rowId < NUM_OF_CELLS; rowId++) {
+			rowIds.add(rowId);
+		}
+		return rowIds;
+	}
+	
+	/**
+	 * Walks down the leftmost path then along the leaves checking every row is there in order, and descends from the
+	 * root to every row
+	 * @param rowIds the rowIds the closed tree should hold, in order
+	 * @return the number of leaves
+	 */
+	private int assertTreeHoldsRows(ArrayList<Integer> rowIds) throws IOException {
+		TableConfig tableConfig = new TableConfig(testDataTypes);
+		PageFile file = PageFile.open(tree.getFileName(), PAGE_SIZE, StorageMode.RANDOM_ACCESS);
+		Page page = readPage(file, ROOT_PAGE_NUMBER, tableConfig);
+		while (page.isInterior()) {
+			page = readPage(file, ((TableInteriorCell) page.getFirst()).getLeftChildPointer(), tableConfig);
+		}
+		int numOfRows = ZERO;
+		int numOfLeaves = ONE;
+		TableLeafPage leaf = (TableLeafPage) page;
+		while (true) {
+			for (DataCell cell : leaf.getDataCells()) {
+				assertEquals(rowIds.get(numOfRows++).intValue(), cell.getRowId());
+			}
+			if (leaf.getNextPagePointer() == -ONE) {
+				break;
+			}
+			leaf = (TableLeafPage) readPage(file, leaf.getNextPagePointer(), tableConfig);
+			numOfLeaves++;
+		}
+		assertEquals(rowIds.size(), numOfRows);
+		
+		for (int rowId : rowIds) {
+			page = readPage(file, ROOT_PAGE_NUMBER, tableConfig);
+			while (page.isInterior()) {
+				page = readPage(file, ((TableInteriorPage) page).getNextPage(rowId), tableConfig);
+			}
+			assertNotNull(page.getDataCellFromRowId(rowId));
+		}
+		file.close();
+		assertMetadataMatchesTree();
+		return numOfLeaves;
+	}
+	
+	/**
+	 * Walks the closed tree one level at a time checking the height and page counts kept in the file header are the
+	 * ones of the pages reachable from the root
+	 * @return the metadata read from the file header
+	 */
+	private TreeMetadata assertMetadataMatchesTree() throws IOException {
+		TableConfig tableConfig = new TableConfig(testDataTypes);
+		TreeMetadata metadata = FileHeader.read(tree.getFileName()).getMetadata();
+		PageFile file = PageFile.open(tree.getFileName(), PAGE_SIZE, StorageMode.RANDOM_ACCESS);
+		ArrayList<Page> level = new ArrayList<>();
+		level.add(readPage(file, metadata.getRootPageNumber(), tableConfig));
+		int height = ZERO;
+		int numOfInteriorPages = ZERO;
+		while (level.get(ZERO).isInterior()) {
+			ArrayList<Page> children = new ArrayList<>();
+			for (Page page : level) {
+				for (DataCell cell : page.getDataCells()) {
+					children.add(readPage(file, ((TableInteriorCell) cell).getLeftChildPointer(), tableConfig));
+				}
+				children.add(readPage(file, ((TableInteriorPage) page).getNextPagePointer(), tableConfig));
+			}
+			numOfInteriorPages += level.size();
+			level = children;
+			height++;
+		}
+		file.close();
+		assertEquals(height, metadata.getHeight());
+		assertEquals(level.size(), metadata.getNumOfLeafPages());
+		assertEquals(numOfInteriorPages, metadata.getNumOfInteriorPages());
+		assertEquals(level.size() + numOfInteriorPages, metadata.getNumOfPages());
+		return metadata;
+	}
+	
+	private Page readPage(PageFile file, int pageNumber, TableConfig tableConfig) throws IOException {
+		ByteBuffer page = file.readPage(pageNumber, ByteBuffer.allocate(PAGE_SIZE));
+		return PageType.getEnum(page.get(ZERO)) == PageType.TABLE_LEAF_PAGE ?
+				new TableLeafPage(page, pageNumber, tableConfig) : new TableInteriorPage(page, pageNumber, tableConfig);
+	}
+	
+	@Test
+	void reopenReadsOnlyTheHeader() throws IOException {
+		tree.insertBatch(testData);
+		for (int rowId = NUM_OF_CELLS - ONE; rowId >= NUM_OF_CELLS / TWO; rowId--) {
+			assertTrue(tree.delete(rowId));
+		}
+		int height = tree.getCurrentHeight();
+		tree.close();
+		// The rowId counter is kept past rows deleted from the end of the table
+		assertEquals(NUM_OF_CELLS, assertMetadataMatchesTree().getRowIdCounter());
+		// Nothing cached for the file is left, so the reopened table reads what is on disk
+		BufferPool bufferPool = BufferPool.getInstance();
+		bufferPool.discardFile(tree.getFileName());
+		PageFlusher.discardFile(tree.getFileName());
+		
+		long misses = bufferPool.getMisses();
+		tree = new TableTree("TableTree-Test", DatabaseType.USER);
+		assertEquals(misses, bufferPool.getMisses());
+		assertEquals(NUM_OF_CELLS, tree.getRowIdCounter());
+		assertEquals(height, tree.getCurrentHeight());
+		assertEquals(testData.get(NUM_OF_CELLS / TWO - ONE), tree.get(NUM_OF_CELLS / TWO - ONE).orElse(null));
+		assertFalse(tree.get(NUM_OF_CELLS / TWO).isPresent());
+		assertTrue(bufferPool.getMisses() > misses);
+		tree.insert(testData.get(ZERO));
+		assertEquals(testData.get(ZERO), tree.get(NUM_OF_CELLS).orElse(null));
+		tree.close();
+	}
+	
+	@Test
+	void bulkLoadIntoNonEmptyTable() {
+		tree.insert(testData.get(ZERO));
+		tree.bulkLoad(testData.subList(ONE, NUM_OF_CELLS).iterator());
+		assertEquals(NUM_OF_CELLS, tree.getRowIdCounter());
+		assertThrows(IllegalArgumentException.class, () -> tree.bulkLoad(testData.iterator(), 1.5));
+	}
+	
+	@Test
+	void bulkLoadAfterDeleteSurvivesRecovery() throws IOException {
+		tree.insertBatch(testData);
+		assertEquals(NUM_OF_CELLS, tree.delete(ZERO, Integer.MAX_VALUE));
+		// The emptied table is bulk loaded into page numbers whose older images are still in the log
+		tree.bulkLoad(testData.iterator());
+		tree.close();
+		recoverFromLog();
+		BufferPool.getInstance().discardFile(tree.getFileName());
+		PageFlusher.discardFile(tree.getFileName());
+		
+		tree = new TableTree("TableTree-Test", DatabaseType.USER);
+		int numOfRows = ZERO;
+		try (TableCursor cursor = tree.scan()) {
+			while (cursor.hasNext()) {
+				assertEquals(testData.get(numOfRows), cursor.next());
+				numOfRows++;
+			}
+		}
+		assertEquals(NUM_OF_CELLS, numOfRows);
+		assertFalse(tree.get(ZERO).isPresent());
+		for (int rowId = ZERO; rowId < NUM_OF_CELLS; rowId++) {
+			assertEquals(testData.get(rowId), tree.get(NUM_OF_CELLS + rowId).orElse(null));
+		}
+		tree.close();
+	}
+	
+	/**
+	 * Runs recovery as a restart would, on a copy of the write-ahead log so the log of this process is left alone.
+	 * The page images are redone into the table files the log names.
+	 * @throws IOException if the log cannot be copied or recovery fails
+	 */
+	private static void recoverFromLog() throws IOException {
+		File log = new File(WAL_FILE_NAME).getAbsoluteFile();
+		String copyName = log.getPath() + "-restart";
+		File[] files = log.getParentFile().listFiles((dir, name) -> name.startsWith(log.getName() + "."));
+		for (File file : files) {
+			Files.copy(file.toPath(), new File(copyName + file.getName().substring(log.getName().length())).toPath(),
+					StandardCopyOption.REPLACE_EXISTING);
+		}
+		WriteAheadLog restart = new WriteAheadLog(copyName);
+		restart.recover();
+		restart.close();
+		for (File file : log.getParentFile().listFiles((dir, name) -> name.startsWith(new File(copyName).getName()))) {
+			file.delete();
+		}
+	}
+}
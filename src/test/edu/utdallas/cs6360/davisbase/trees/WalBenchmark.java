@@ -0,0 +1,83 @@
+package edu.utdallas.cs6360.davisbase.trees;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static edu.utdallas.cs6360.davisbase.Config.*;
+
+/**
+ * Measures commit latency and throughput of many small inserts against the write-ahead log for a range of group
+ * commit windows. Every thread inserts into it's own table so the only thing the threads share is the log.<br>
+ *
+ * Run with: java edu.utdallas.cs6360.davisbase.trees.WalBenchmark [threads] [insertsPerThread] [windowMicros...]
+ *
+ * @author Charles Krol
+ * @author Matthew Villarreal
+ * @author Michael Del Rosario
+ * @author Mithil Vijay
+ */
+class WalBenchmark {
+	static final int DEFAULT_THREADS = 8;
+	static final int DEFAULT_INSERTS_PER_THREAD = 500;
+	static final long[] DEFAULT_WINDOWS_MICROS = {0L, 100L, 1000L};
+	static ArrayList<DataType> columnTypes = new ArrayList<>(Arrays.asList(DataType.INT_TYPE_CODE,
+			DataType.LONG_TYPE_CODE));
+
+	public static void main(String[] args) throws IOException, InterruptedException {
+		int threads = args.length > ZERO ? Integer.parseInt(args[ZERO]) : DEFAULT_THREADS;
+		int insertsPerThread = args.length > ONE ? Integer.parseInt(args[ONE]) : DEFAULT_INSERTS_PER_THREAD;
+		long[] windows = DEFAULT_WINDOWS_MICROS;
+		if (args.length > TWO) {
+			windows = Arrays.stream(args, TWO, args.length).mapToLong(Long::parseLong).toArray();
+		}
+
+		WriteAheadLog log = WriteAheadLog.getInstance();
+		System.out.println("threads=" + threads + " insertsPerThread=" + insertsPerThread);
+		System.out.println("windowMicros  commits/sec  avgLatencyMicros  commitsPerForce");
+		for (long window : windows) {
+			log.setGroupCommitWindowMicros(window);
+			log.resetStatistics();
+			run(log, window, threads, insertsPerThread);
+		}
+	}
+
+	/**
+	 * Runs one round of inserts and prints it's results
+	 * @param log the write-ahead log
+	 * @param window the group commit window of the round
+	 * @param threads the number of inserting threads
+	 * @param insertsPerThread the number of inserts made by each thread
+	 * @throws InterruptedException if interrupted waiting for the threads
+	 */
+	static void run(WriteAheadLog log, long window, int threads, int insertsPerThread) throws InterruptedException {
+		AtomicLong totalLatencyNanos = new AtomicLong();
+		ArrayList<Thread> workers = new ArrayList<>();
+		for (int t = ZERO; t < threads; t++) {
+			String tableName = "wal_benchmark_" + window + "_" + t;
+			workers.add(new Thread(() -> {
+				TableTree tree = new TableTree(tableName, columnTypes);
+				for (int i = ZERO; i < insertsPerThread; i++) {
+					long start = System.nanoTime();
+					tree.insert(columnTypes, new ArrayList<>(Arrays.asList(Integer.toString(i), Long.toString(start))));
+					totalLatencyNanos.addAndGet(System.nanoTime() - start);
+				}
+				tree.close();
+				new File(tree.getFileName()).delete();
+			}));
+		}
+
+		long start = System.nanoTime();
+		workers.forEach(Thread::start);
+		for (Thread worker : workers) {
+			worker.join();
+		}
+		double seconds = (System.nanoTime() - start) / 1e9;
+
+		long inserts = (long) threads * insertsPerThread;
+		System.out.printf("%12d  %11.0f  %16.1f  %15.2f%n", window, inserts / seconds,
+				totalLatencyNanos.get() / 1e3 / inserts, (double) log.getCommits() / Math.max(ONE, log.getForces()));
+	}
+}
@@ -0,0 +1,120 @@
+package edu.utdallas.cs6360.davisbase.trees;
+
+import edu.utdallas.cs6360.davisbase.StorageMode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static edu.utdallas.cs6360.davisbase.Config.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit class for WriteAheadLog
+ * @author Charles Krol
+ * @author Matthew Villarreal
+ * @author Michael Del Rosario
+ * @author Mithil Vijay
+ */
+class WriteAheadLogTest {
+	static final String FILE_NAME = "wal.tbl";
+	static final String LOG_NAME = "wal_test.wal";
+	static ArrayList<DataType> columnTypes = new ArrayList<>(Arrays.asList(DataType.INT_TYPE_CODE));
+
+	TableConfig config;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		config = new TableConfig(columnTypes);
+		PageFile file = PageFile.open(FILE_NAME, PAGE_SIZE, StorageMode.RANDOM_ACCESS);
+		file.writeHeader(new FileHeader(PAGE_SIZE, columnTypes).encode(PageCodec.get(PAGE_SIZE).readBuffer()));
+		file.close();
+	}
+
+	@AfterEach
+	void tearDown() {
+		new File(FILE_NAME).delete();
+		// The segments and the checkpoint file are named after the log
+		for (File file : new File(".").listFiles((dir, name) -> name.startsWith(LOG_NAME))) {
+			file.delete();
+		}
+	}
+
+	@Test
+	@DisplayName("Recovery redoes committed pages only and empties the log")
+	void recoverCommitted() throws IOException {
+		WriteAheadLog log = new WriteAheadLog(LOG_NAME);
+		log.recover();
+		long committed = log.beginTransaction();
+		log.logPage(committed, FILE_NAME, TWO, newPage(TWO).getBytes());
+		log.commit(committed);
+		// Cut short by a crash before it's commit record
+		long uncommitted = log.beginTransaction();
+		log.logPage(uncommitted, FILE_NAME, THREE, newPage(THREE).getBytes());
+		log.commit(log.beginTransaction());
+		assertEquals(TWO, log.getCommits());
+		assertTrue(log.getLogSize() > ZERO);
+		log.close();
+
+		WriteAheadLog reopened = new WriteAheadLog(LOG_NAME);
+		reopened.recover();
+		assertEquals(ONE, reopened.getPagesRedone());
+		assertEquals(ZERO, reopened.getLogSize());
+		reopened.close();
+
+		PageFile file = PageFile.open(FILE_NAME, PAGE_SIZE, StorageMode.RANDOM_ACCESS);
+		Page redone = new TableLeafPage(file.readPage(TWO, PageCodec.get(PAGE_SIZE).readBuffer()), TWO, config);
+		assertEquals(TWO, redone.getDataCells().get(ZERO).getRowId());
+		// Page 3 was never written so the file ends after page 2
+		assertEquals(THREE, file.getNumOfPages());
+		file.close();
+	}
+
+	@Test
+	@DisplayName("Recovery starts at the redo LSN of the last checkpoint")
+	void recoverFromCheckpoint() throws IOException {
+		WriteAheadLog log = new WriteAheadLog(LOG_NAME);
+		log.recover();
+		// No page flusher is registered so the page is treated as written once it's transaction ends
+		long beforeCheckpoint = log.beginTransaction();
+		log.logPage(beforeCheckpoint, FILE_NAME, TWO, newPage(TWO).getBytes());
+		log.commit(beforeCheckpoint);
+		log.endTransaction(beforeCheckpoint);
+		log.checkpoint();
+		assertEquals(ONE, log.getCheckpoints());
+
+		long afterCheckpoint = log.beginTransaction();
+		log.logPage(afterCheckpoint, FILE_NAME, THREE, newPage(THREE).getBytes());
+		log.commit(afterCheckpoint);
+		long logSize = log.getLogSize();
+		log.close();
+
+		WriteAheadLog reopened = new WriteAheadLog(LOG_NAME);
+		reopened.recover();
+		reopened.close();
+		assertEquals(ONE, reopened.getPagesRedone());
+		assertTrue(reopened.getRecoveryLogBytes() < logSize);
+
+		PageFile file = PageFile.open(FILE_NAME, PAGE_SIZE, StorageMode.RANDOM_ACCESS);
+		Page redone = new TableLeafPage(file.readPage(THREE, PageCodec.get(PAGE_SIZE).readBuffer()), THREE, config);
+		assertEquals(THREE, redone.getDataCells().get(ZERO).getRowId());
+		file.close();
+	}
+
+	/**
+	 * Creates a leaf page holding one cell whose rowId is the page number
+	 * @param pageNumber the page number
+	 * @return the new page
+	 */
+	TableLeafPage newPage(int pageNumber) {
+		TableLeafPage page = new TableLeafPage(PageType.TABLE_LEAF_PAGE, pageNumber, -ONE, config);
+		page.addDataCell(new TableLeafCell(pageNumber, new DataRecord(columnTypes,
+				new ArrayList<>(Arrays.asList(Integer.toString(pageNumber))))));
+		return page;
+	}
+}